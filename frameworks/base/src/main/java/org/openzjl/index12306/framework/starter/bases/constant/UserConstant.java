@@ -30,4 +30,10 @@ public class UserConstant {
      * 用户 Token Key
      */
     public static final String USER_TOKEN_KEY = "token";
+
+    /**
+     * 请求剩余时间预算 Key，值为毫秒数，由网关设置并随调用链向下游传递。
+     * 传递剩余时长而不是截止时间戳，各服务按本机时钟换算截止时间，不受跨主机时钟偏差影响
+     */
+    public static final String REQUEST_TIMEOUT_KEY = "request-timeout";
 }
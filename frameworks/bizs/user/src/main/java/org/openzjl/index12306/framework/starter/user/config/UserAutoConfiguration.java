@@ -4,12 +4,20 @@
  */
 package org.openzjl.index12306.framework.starter.user.config;
 
+import feign.Capability;
 import jakarta.servlet.Filter;
 import org.apache.catalina.User;
 import org.openzjl.index12306.framework.starter.user.core.UserTransmitFilter;
+import org.openzjl.index12306.framework.starter.user.deadline.RequestDeadlineFeignCapability;
+import org.openzjl.index12306.framework.starter.user.deadline.RequestDeadlineFeignInterceptor;
+import org.openzjl.index12306.framework.starter.user.deadline.RequestDeadlineInterceptor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 import static org.openzjl.index12306.framework.starter.bases.constant.FilterOrderConstant.USER_TRANSMIT_FILTER_ORDER;
 
@@ -30,4 +38,36 @@ public class UserAutoConfiguration {
         registration.setOrder(USER_TRANSMIT_FILTER_ORDER);
         return registration;
     }
+
+    /**
+     * 已超过截止时间的请求在进入 Controller 前直接失败
+     */
+    @Bean
+    public WebMvcConfigurer requestDeadlineWebMvcConfigurer() {
+        return new WebMvcConfigurer() {
+
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(new RequestDeadlineInterceptor());
+            }
+        };
+    }
+
+    /**
+     * 使用 OpenFeign 的服务：远程调用传递截止时间，并按剩余时间收紧超时
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(Capability.class)
+    static class RequestDeadlineFeignConfiguration {
+
+        @Bean
+        public RequestDeadlineFeignInterceptor requestDeadlineFeignInterceptor() {
+            return new RequestDeadlineFeignInterceptor();
+        }
+
+        @Bean
+        public RequestDeadlineFeignCapability requestDeadlineFeignCapability() {
+            return new RequestDeadlineFeignCapability();
+        }
+    }
 }
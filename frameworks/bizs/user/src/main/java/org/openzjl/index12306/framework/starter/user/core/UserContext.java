@@ -5,8 +5,11 @@
 package org.openzjl.index12306.framework.starter.user.core;
 
 import com.alibaba.ttl.TransmittableThreadLocal;
+import org.openzjl.index12306.framework.starter.convention.errorcode.BaseErrorCode;
+import org.openzjl.index12306.framework.starter.convention.exception.ServiceException;
 
 import java.util.Optional;
+import java.util.function.Supplier;
 
 /**
  * 用户上下文
@@ -22,6 +25,20 @@ public final class UserContext {
      */
     private static final ThreadLocal<UserInfoDTO> USER_THREAD_LOCAL = new TransmittableThreadLocal<>();
 
+    /**
+     * 请求截止时间（毫秒时间戳），通过 TTL 包装的线程池随任务传递
+     * <p>
+     * 不继承给新建的线程：线程池懒创建线程时父线程是某个请求线程，继承下来的截止时间会永久留在池线程上，
+     * 之后在该线程执行的定时任务、后台任务都会被早已过期的截止时间拒绝
+     */
+    private static final ThreadLocal<Long> DEADLINE_THREAD_LOCAL = new TransmittableThreadLocal<>() {
+
+        @Override
+        protected Long childValue(Long parentValue) {
+            return null;
+        }
+    };
+
     /**
      * 设置用户到上下文
      * @param user 用户详细信息
@@ -72,4 +89,95 @@ public final class UserContext {
     public static void removeUser() {
         USER_THREAD_LOCAL.remove();
     }
+
+    /**
+     * 设置请求截止时间
+     * @param deadline 截止时间（毫秒时间戳）
+     */
+    public static void setDeadline(Long deadline) {
+        DEADLINE_THREAD_LOCAL.set(deadline);
+    }
+
+    /**
+     * 获取请求截止时间
+     * @return 截止时间（毫秒时间戳），未设置时返回 null
+     */
+    public static Long getDeadline() {
+        return DEADLINE_THREAD_LOCAL.get();
+    }
+
+    /**
+     * 获取距离请求截止时间的剩余毫秒数
+     * @return 剩余毫秒数，未设置截止时间时返回 {@link Long#MAX_VALUE}，已超时返回 0 或负数
+     */
+    public static long getRemainingMillis() {
+        Long deadline = DEADLINE_THREAD_LOCAL.get();
+        return deadline == null ? Long.MAX_VALUE : deadline - System.currentTimeMillis();
+    }
+
+    /**
+     * 请求是否已超过截止时间，调用方已不再等待结果
+     */
+    public static boolean isDeadlineExceeded() {
+        return getRemainingMillis() <= 0;
+    }
+
+    /**
+     * 校验请求截止时间，已超时的请求不再继续执行
+     * @throws ServiceException 请求已超过截止时间时抛出
+     */
+    public static void checkDeadline() {
+        if (isDeadlineExceeded()) {
+            throw new ServiceException("请求已超时，请稍后再试", BaseErrorCode.SERVICE_TIMOUT_ERROR);
+        }
+    }
+
+    /**
+     * 清理请求截止时间
+     */
+    public static void removeDeadline() {
+        DEADLINE_THREAD_LOCAL.remove();
+    }
+
+    /**
+     * 以指定截止时间执行，执行完成后恢复原有截止时间
+     * <p>
+     * 用于不在请求线程上执行、但仍需受截止时间约束的步骤，例如合并提交时以组内请求的最晚截止时间选座。
+     * </p>
+     * @param deadline 截止时间（毫秒时间戳），为 null 时不限制
+     * @param supplier 执行逻辑
+     * @return 执行结果
+     */
+    public static <T> T callWithDeadline(Long deadline, Supplier<T> supplier) {
+        Long previous = DEADLINE_THREAD_LOCAL.get();
+        if (deadline == null) {
+            DEADLINE_THREAD_LOCAL.remove();
+        } else {
+            DEADLINE_THREAD_LOCAL.set(deadline);
+        }
+        try {
+            return supplier.get();
+        } finally {
+            if (previous == null) {
+                DEADLINE_THREAD_LOCAL.remove();
+            } else {
+                DEADLINE_THREAD_LOCAL.set(previous);
+            }
+        }
+    }
+
+    /**
+     * 暂时移除请求截止时间执行补偿逻辑，执行完成后恢复
+     * <p>
+     * 远程调用或数据库已提交后（越过不可回退点），释放座位、归还令牌等补偿步骤必须执行完成，
+     * 不能因为调用方已放弃等待而在中途被截止时间校验中断。
+     * </p>
+     * @param runnable 补偿逻辑
+     */
+    public static void runWithoutDeadline(Runnable runnable) {
+        callWithDeadline(null, () -> {
+            runnable.run();
+            return null;
+        });
+    }
 }
@@ -16,6 +16,7 @@ import java.net.URLDecoder;
  * 用户信息传输过滤器
  *
  * 添加用户上下文过滤器，如果 HTTP 请求 Header 中包含用户信息，则进行解析并放入 `UserContext`。
+ * 网关设置的请求截止时间同样放入 `UserContext`，供远程调用、分布式锁和数据库查询计算剩余时间。
  *
  * @author zhangjlk
  * @date 2025/9/16 20:43
@@ -47,10 +48,20 @@ public class UserTransmitFilter implements Filter {
                     .build();
             UserContext.setUser(userInfoDTO);
         }
+        // 网关设置的请求剩余时间，与是否登录无关，按本机时钟换算为截止时间
+        String timeout = httpServletRequest.getHeader(UserConstant.REQUEST_TIMEOUT_KEY);
+        if (StringUtils.hasText(timeout)) {
+            try {
+                UserContext.setDeadline(System.currentTimeMillis() + Long.parseLong(timeout.trim()));
+            } catch (NumberFormatException ignored) {
+                // 格式错误的剩余时间按未设置处理
+            }
+        }
         try {
             filterChain.doFilter(servletRequest, servletResponse); // 放行
         } finally {
             UserContext.removeUser(); // 请求级上下文（Request-scoped Context）要移除用户
+            UserContext.removeDeadline();
         }
     }
 }
@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.framework.starter.user.deadline;
+
+import feign.Capability;
+import feign.Client;
+import feign.Request;
+import org.openzjl.index12306.framework.starter.user.core.UserContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 请求截止时间 Feign 扩展
+ * <p>
+ * 包装 Feign 客户端（负载均衡客户端及其下的 OkHttp 客户端），按请求的剩余时间收紧本次调用的连接和读取超时，
+ * 调用方已经放弃等待时远程调用随之结束，而不是按配置的固定超时继续占用连接。
+ * </p>
+ *
+ * @author zhangjlk
+ * @date 2026/10/18 下午8:10
+ */
+public class RequestDeadlineFeignCapability implements Capability {
+
+    @Override
+    public Client enrich(Client client) {
+        return (request, options) -> {
+            long remainingMillis = UserContext.getRemainingMillis();
+            if (remainingMillis == Long.MAX_VALUE) {
+                return client.execute(request, options);
+            }
+            UserContext.checkDeadline();
+            Request.Options deadlineOptions = new Request.Options(
+                    Math.min(options.connectTimeoutMillis(), remainingMillis),
+                    TimeUnit.MILLISECONDS,
+                    Math.min(options.readTimeoutMillis(), remainingMillis),
+                    TimeUnit.MILLISECONDS,
+                    options.isFollowRedirects()
+            );
+            return client.execute(request, deadlineOptions);
+        };
+    }
+}
@@ -0,0 +1,31 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.framework.starter.user.deadline;
+
+import feign.RequestInterceptor;
+import feign.RequestTemplate;
+import org.openzjl.index12306.framework.starter.bases.constant.UserConstant;
+import org.openzjl.index12306.framework.starter.user.core.UserContext;
+
+/**
+ * 请求截止时间 Feign 传递拦截器
+ * <p>
+ * 远程调用前校验截止时间，并把剩余时间写入请求头，下游服务由 {@code UserTransmitFilter} 按本机时钟换算为截止时间放入上下文，继续向后传递。
+ * </p>
+ *
+ * @author zhangjlk
+ * @date 2026/10/18 下午8:10
+ */
+public class RequestDeadlineFeignInterceptor implements RequestInterceptor {
+
+    @Override
+    public void apply(RequestTemplate template) {
+        if (UserContext.getDeadline() == null) {
+            return;
+        }
+        UserContext.checkDeadline();
+        template.header(UserConstant.REQUEST_TIMEOUT_KEY, String.valueOf(UserContext.getRemainingMillis()));
+    }
+}
@@ -0,0 +1,29 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.framework.starter.user.deadline;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.openzjl.index12306.framework.starter.user.core.UserContext;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * 请求截止时间拦截器
+ * <p>
+ * 请求在网关或上游服务排队期间已经超时的，进入 Controller 前直接失败，不再占用业务线程。
+ * 抛出的业务异常由全局异常处理器转换为统一响应。
+ * </p>
+ *
+ * @author zhangjlk
+ * @date 2026/10/18 下午8:10
+ */
+public class RequestDeadlineInterceptor implements HandlerInterceptor {
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        UserContext.checkDeadline();
+        return true;
+    }
+}
@@ -0,0 +1,27 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.framework.starter.database.config;
+
+import org.openzjl.index12306.framework.starter.database.handler.RequestDeadlineStatementInterceptor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * 请求截止时间 SQL 超时自动配置
+ * <p>
+ * 仅在引入用户组件（请求截止时间随 {@code UserContext} 传递）时生效，MyBatis 会自动装配容器中的拦截器。
+ * </p>
+ *
+ * @author zhangjlk
+ * @date 2026/10/18 下午8:10
+ */
+@ConditionalOnClass(name = "org.openzjl.index12306.framework.starter.user.core.UserContext")
+public class RequestDeadlineAutoConfiguration {
+
+    @Bean
+    public RequestDeadlineStatementInterceptor requestDeadlineStatementInterceptor() {
+        return new RequestDeadlineStatementInterceptor();
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.framework.starter.database.handler;
+
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.openzjl.index12306.framework.starter.user.core.UserContext;
+
+import java.sql.Connection;
+import java.sql.Statement;
+
+/**
+ * 请求截止时间 SQL 拦截器
+ * <p>
+ * 在 Statement 创建后按请求的剩余时间设置查询超时（向上取整到秒，JDBC 超时的最小粒度），
+ * 请求已超过截止时间时不再执行 SQL。没有截止时间的场景（定时任务、消息消费等）保持原有超时配置。
+ * </p>
+ * <p>
+ * 越过不可回退点后的补偿步骤（取消订单后释放座位、归还令牌等）需通过 {@link UserContext#runWithoutDeadline(Runnable)}
+ * 移除截止时间后执行，否则补偿会在中途被拒绝，座位一直处于锁定状态。
+ * </p>
+ *
+ * @author zhangjlk
+ * @date 2026/10/18 下午8:10
+ */
+@Intercepts(@Signature(type = StatementHandler.class, method = "prepare", args = {Connection.class, Integer.class}))
+public class RequestDeadlineStatementInterceptor implements Interceptor {
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        long remainingMillis = UserContext.getRemainingMillis();
+        if (remainingMillis == Long.MAX_VALUE) {
+            return invocation.proceed();
+        }
+        UserContext.checkDeadline();
+        Statement statement = (Statement) invocation.proceed();
+        int remainingSeconds = (int) Math.min(Integer.MAX_VALUE, (remainingMillis + 999) / 1000);
+        int queryTimeout = statement.getQueryTimeout();
+        if (queryTimeout == 0 || queryTimeout > remainingSeconds) {
+            statement.setQueryTimeout(remainingSeconds);
+        }
+        return statement;
+    }
+}
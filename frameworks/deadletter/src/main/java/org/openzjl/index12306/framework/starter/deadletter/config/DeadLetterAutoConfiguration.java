@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.framework.starter.deadletter.config;
+
+import cn.hutool.core.util.StrUtil;
+import org.openzjl.index12306.framework.starter.deadletter.controller.DeadLetterAdminTokenInterceptor;
+import org.openzjl.index12306.framework.starter.deadletter.controller.DeadLetterController;
+import org.openzjl.index12306.framework.starter.deadletter.core.DeadLetterService;
+import org.openzjl.index12306.framework.starter.deadletter.core.DeadLetterServiceImpl;
+import org.openzjl.index12306.framework.starter.idempotent.core.spel.IdempotentSpELByMQExecuteHandler;
+import org.redisson.api.RedissonClient;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * 死信消息查看与重放自动装配
+ * <p>
+ * 引入后即可查看、重放当前服务内 RocketMQ 消费者的死信消息，未配置查看死信队列的消费者组时按服务名生成。
+ * </p>
+ *
+ * @author zhangjlk
+ * @date 2026/10/19 下午9:40
+ */
+@EnableConfigurationProperties(DeadLetterReplayProperties.class)
+public class DeadLetterAutoConfiguration {
+
+    /**
+     * 死信消息查看与重放
+     */
+    @Bean
+    public DeadLetterService deadLetterService(ApplicationContext applicationContext,
+                                               Environment environment,
+                                               RedissonClient redissonClient,
+                                               IdempotentSpELByMQExecuteHandler idempotentSpELByMQExecuteHandler,
+                                               DeadLetterReplayProperties deadLetterReplayProperties) {
+        if (StrUtil.isBlank(deadLetterReplayProperties.getConsoleGroup())) {
+            deadLetterReplayProperties.setConsoleGroup(environment.getRequiredProperty("spring.application.name") + "_dead-letter-console_cg");
+        }
+        return new DeadLetterServiceImpl(applicationContext, environment, redissonClient, idempotentSpELByMQExecuteHandler, deadLetterReplayProperties);
+    }
+
+    /**
+     * 死信消息查看与重放运维接口
+     */
+    @Bean
+    public DeadLetterController deadLetterController(DeadLetterService deadLetterService) {
+        return new DeadLetterController(deadLetterService);
+    }
+
+    /**
+     * 运维接口校验运维令牌
+     */
+    @Bean
+    public WebMvcConfigurer deadLetterAdminWebMvcConfigurer(DeadLetterReplayProperties deadLetterReplayProperties) {
+        return new WebMvcConfigurer() {
+
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(new DeadLetterAdminTokenInterceptor(deadLetterReplayProperties))
+                        .addPathPatterns("/admin/mq/dead-letter/**");
+            }
+        };
+    }
+}
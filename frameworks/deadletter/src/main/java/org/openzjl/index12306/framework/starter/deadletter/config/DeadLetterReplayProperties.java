@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.framework.starter.deadletter.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 死信消息查看与重放配置
+ * <p>
+ * 各服务需配置查看死信队列使用的消费者组与运维令牌，其余参数使用默认值即可。
+ * </p>
+ *
+ * @author zhangjlk
+ * @date 2026/10/19 下午2:30
+ */
+@Data
+@ConfigurationProperties(prefix = DeadLetterReplayProperties.PREFIX)
+public class DeadLetterReplayProperties {
+
+    public static final String PREFIX = "framework.mq.dead-letter";
+
+    /**
+     * 查看死信队列使用的拉取消费者组，只按位点拉取、不提交消费进度，各服务需配置不同的消费者组
+     * <p>
+     * 同时作为重放限流器 Key 的后缀，同一服务的实例共享重放速率
+     * </p>
+     */
+    private String consoleGroup;
+
+    /**
+     * 运维令牌，访问 /admin/mq/dead-letter/** 时通过请求头 X-Admin-Token 携带，未配置时运维接口全部拒绝
+     */
+    private String adminToken;
+
+    /**
+     * 单次查看的最大消息数量
+     */
+    private Integer browseMaxSize = 32;
+
+    /**
+     * 单次重放的最大消息数量
+     */
+    private Integer replayMaxSize = 100;
+
+    /**
+     * 每秒重放的消息数量，集群内所有实例共享
+     */
+    private Integer replayPermitsPerSecond = 20;
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.framework.starter.deadletter.controller;
+
+import cn.hutool.core.util.StrUtil;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.openzjl.index12306.framework.starter.convention.exception.ClientException;
+import org.openzjl.index12306.framework.starter.deadletter.config.DeadLetterReplayProperties;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * 死信运维接口鉴权拦截器
+ * <p>
+ * 运维接口与业务接口共用端口，请求头须携带与配置一致的运维令牌；未配置令牌时拒绝全部请求。
+ * 抛出的客户端异常由全局异常处理器转换为统一响应。
+ * </p>
+ *
+ * @author zhangjlk
+ * @date 2026/10/21 下午2:10
+ */
+@RequiredArgsConstructor
+public class DeadLetterAdminTokenInterceptor implements HandlerInterceptor {
+
+    /**
+     * 运维令牌请求头
+     */
+    public static final String ADMIN_TOKEN_HEADER = "X-Admin-Token";
+
+    private final DeadLetterReplayProperties deadLetterReplayProperties;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        String adminToken = deadLetterReplayProperties.getAdminToken();
+        if (StrUtil.isBlank(adminToken)) {
+            throw new ClientException("死信运维接口未配置运维令牌，已禁用");
+        }
+        String requestToken = request.getHeader(ADMIN_TOKEN_HEADER);
+        // 定长比较，避免按响应时间逐位猜测令牌
+        if (requestToken == null || !MessageDigest.isEqual(
+                adminToken.getBytes(StandardCharsets.UTF_8), requestToken.getBytes(StandardCharsets.UTF_8))) {
+            throw new ClientException("运维令牌校验失败");
+        }
+        return true;
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.framework.starter.deadletter.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.openzjl.index12306.framework.starter.deadletter.dto.req.DeadLetterPageQueryReqDTO;
+import org.openzjl.index12306.framework.starter.deadletter.dto.req.DeadLetterReplayReqDTO;
+import org.openzjl.index12306.framework.starter.deadletter.dto.resp.DeadLetterConsumerRespDTO;
+import org.openzjl.index12306.framework.starter.deadletter.dto.resp.DeadLetterPageRespDTO;
+import org.openzjl.index12306.framework.starter.deadletter.dto.resp.DeadLetterReplayRespDTO;
+import org.openzjl.index12306.framework.starter.deadletter.core.DeadLetterService;
+import org.openzjl.index12306.framework.starter.convention.result.Result;
+import org.openzjl.index12306.framework.starter.web.Results;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * 死信消息查看与重放控制层
+ * <p>
+ * 运维接口不以 /api 开头，网关不会转发，只能在内网直接访问服务实例，因此路径中不再区分服务。
+ * 接口与业务共用端口，请求须携带运维令牌，由 {@link DeadLetterAdminTokenInterceptor} 校验。
+ * </p>
+ *
+ * @author zhangjlk
+ * @date 2026/10/19 下午2:30
+ */
+@RestController
+@RequiredArgsConstructor
+public class DeadLetterController {
+
+    private final DeadLetterService deadLetterService;
+
+    /**
+     * 查询可重放死信消息的消费者
+     */
+    @GetMapping("/admin/mq/dead-letter/consumers")
+    public Result<List<DeadLetterConsumerRespDTO>> listConsumers() {
+        return Results.success(deadLetterService.listConsumers());
+    }
+
+    /**
+     * 分页查看死信消息
+     */
+    @GetMapping("/admin/mq/dead-letter/messages")
+    public Result<DeadLetterPageRespDTO> pageQueryMessages(DeadLetterPageQueryReqDTO requestParam) {
+        return Results.success(deadLetterService.pageQueryMessages(requestParam));
+    }
+
+    /**
+     * 重放死信消息
+     */
+    @PostMapping("/admin/mq/dead-letter/replay")
+    public Result<List<DeadLetterReplayRespDTO>> replay(@RequestBody DeadLetterReplayReqDTO requestParam) {
+        return Results.success(deadLetterService.replay(requestParam));
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.framework.starter.deadletter.core;
+
+import org.openzjl.index12306.framework.starter.deadletter.dto.req.DeadLetterPageQueryReqDTO;
+import org.openzjl.index12306.framework.starter.deadletter.dto.req.DeadLetterReplayReqDTO;
+import org.openzjl.index12306.framework.starter.deadletter.dto.resp.DeadLetterConsumerRespDTO;
+import org.openzjl.index12306.framework.starter.deadletter.dto.resp.DeadLetterPageRespDTO;
+import org.openzjl.index12306.framework.starter.deadletter.dto.resp.DeadLetterReplayRespDTO;
+
+import java.util.List;
+
+/**
+ * 死信消息查看与重放接口层
+ *
+ * @author zhangjlk
+ * @date 2026/10/19 下午2:30
+ */
+public interface DeadLetterService {
+
+    /**
+     * 查询本服务内可重放死信消息的消费者
+     *
+     * @return 消费者组、订阅 Topic 与死信 Topic
+     */
+    List<DeadLetterConsumerRespDTO> listConsumers();
+
+    /**
+     * 按位点分页查看消费者组的死信消息，消息体按消费者入参类型反序列化
+     *
+     * @param requestParam 查看请求参数
+     * @return 死信消息
+     */
+    DeadLetterPageRespDTO pageQueryMessages(DeadLetterPageQueryReqDTO requestParam);
+
+    /**
+     * 按位点重放死信消息，重放前清理失败的幂等令牌，集群内限速执行
+     *
+     * @param requestParam 重放请求参数
+     * @return 每条消息的重放结果
+     */
+    List<DeadLetterReplayRespDTO> replay(DeadLetterReplayReqDTO requestParam);
+}
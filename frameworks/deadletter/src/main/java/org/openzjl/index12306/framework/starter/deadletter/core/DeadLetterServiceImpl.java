@@ -0,0 +1,401 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.framework.starter.deadletter.core;
+
+import cn.hutool.core.collection.CollUtil;
+import com.alibaba.fastjson2.JSON;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.rocketmq.client.consumer.DefaultLitePullConsumer;
+import org.apache.rocketmq.client.exception.MQClientException;
+import org.apache.rocketmq.common.MixAll;
+import org.apache.rocketmq.common.message.MessageConst;
+import org.apache.rocketmq.common.message.MessageExt;
+import org.apache.rocketmq.common.message.MessageQueue;
+import org.apache.rocketmq.spring.annotation.RocketMQMessageListener;
+import org.apache.rocketmq.spring.core.RocketMQListener;
+import org.openzjl.index12306.framework.starter.deadletter.enums.DeadLetterReplayStatusEnum;
+import org.openzjl.index12306.framework.starter.deadletter.config.DeadLetterReplayProperties;
+import org.openzjl.index12306.framework.starter.deadletter.dto.req.DeadLetterPageQueryReqDTO;
+import org.openzjl.index12306.framework.starter.deadletter.dto.req.DeadLetterReplayReqDTO;
+import org.openzjl.index12306.framework.starter.deadletter.dto.resp.DeadLetterConsumerRespDTO;
+import org.openzjl.index12306.framework.starter.deadletter.dto.resp.DeadLetterMessageRespDTO;
+import org.openzjl.index12306.framework.starter.deadletter.dto.resp.DeadLetterPageRespDTO;
+import org.openzjl.index12306.framework.starter.deadletter.dto.resp.DeadLetterReplayRespDTO;
+import org.openzjl.index12306.framework.starter.convention.exception.ClientException;
+import org.openzjl.index12306.framework.starter.convention.exception.ServiceException;
+import org.openzjl.index12306.framework.starter.idempotent.core.spel.IdempotentSpELByMQExecuteHandler;
+import org.openzjl.index12306.framework.starter.idempotent.enums.IdempotentMQConsumeStatusEnum;
+import org.redisson.api.RLock;
+import org.redisson.api.RRateLimiter;
+import org.redisson.api.RateIntervalUnit;
+import org.redisson.api.RateType;
+import org.redisson.api.RedissonClient;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.core.env.Environment;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * 死信消息查看与重放接口实现层
+ * <p>
+ * 消费者重试耗尽后消息进入 %DLQ%消费者组 Topic，此前只能手写脚本排查与补偿：
+ * <ul>
+ *   <li>查看：轻量拉取消费者指定死信队列并定位到位点拉取消息（不提交消费进度），按消费者 onMessage 入参类型反序列化消息体</li>
+ *   <li>重放：在本实例内直接调用消费者 Bean，只投递给失败的消费者组；支付 Topic 同时被多个服务订阅，重新投递到原 Topic 会让其他消费者组重复消费</li>
+ *   <li>幂等协同：重放前按消费者的 @Idempotent 注解计算幂等 Key，只清理"消费中"的失败令牌；"已消费"说明业务已成功，跳过重放</li>
+ *   <li>限速：集群共享的令牌桶限制重放速率，单条消息重放加分布式锁，避免多个实例同时重放</li>
+ * </ul>
+ * </p>
+ *
+ * @author zhangjlk
+ * @date 2026/10/19 下午2:30
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class DeadLetterServiceImpl implements DeadLetterService, DisposableBean {
+
+    /**
+     * 死信消息重放限流器，Key Prefix + 查看死信队列的消费者组，同一服务的实例共享重放速率
+     */
+    private static final String DEAD_LETTER_REPLAY_RATE_LIMITER = "index12306-dead-letter:replay_rate_limiter:%s";
+
+    /**
+     * 死信消息重放分布式锁，Key Prefix + 消费者组 + 队列ID + 位点，防止多个实例同时重放同一条消息
+     */
+    private static final String LOCK_DEAD_LETTER_REPLAY = "index12306-dead-letter:lock_replay:%s_%d_%d";
+
+    /**
+     * 定位位点后等待拉取结果的最长时间
+     */
+    private static final long POLL_TIMEOUT_MILLIS = 3000L;
+
+    private final ApplicationContext applicationContext;
+    private final Environment environment;
+    private final RedissonClient redissonClient;
+    private final IdempotentSpELByMQExecuteHandler idempotentSpELByMQExecuteHandler;
+    private final DeadLetterReplayProperties deadLetterReplayProperties;
+
+    private volatile Map<String, DeadLetterConsumer> deadLetterConsumers;
+    private volatile DefaultLitePullConsumer pullConsumer;
+
+    @Override
+    public List<DeadLetterConsumerRespDTO> listConsumers() {
+        return getDeadLetterConsumers().values().stream()
+                .map(each -> DeadLetterConsumerRespDTO.builder()
+                        .consumerGroup(each.getConsumerGroup())
+                        .topic(each.getTopic())
+                        .deadLetterTopic(MixAll.getDLQTopic(each.getConsumerGroup()))
+                        .payloadType(each.getPayloadType().getTypeName())
+                        .build())
+                .toList();
+    }
+
+    @Override
+    public DeadLetterPageRespDTO pageQueryMessages(DeadLetterPageQueryReqDTO requestParam) {
+        DeadLetterConsumer deadLetterConsumer = getDeadLetterConsumer(requestParam.getConsumerGroup());
+        int queueId = Optional.ofNullable(requestParam.getQueueId()).orElse(0);
+        int browseMaxSize = deadLetterReplayProperties.getBrowseMaxSize();
+        int size = Math.min(Optional.ofNullable(requestParam.getSize()).orElse(browseMaxSize), browseMaxSize);
+        try {
+            MessageQueue messageQueue = getDeadLetterQueue(deadLetterConsumer, queueId);
+            if (messageQueue == null) {
+                return DeadLetterPageRespDTO.builder().queueId(queueId).records(List.of()).build();
+            }
+            long minOffset = minOffset(messageQueue);
+            long maxOffset = maxOffset(messageQueue);
+            long offset = Math.max(Optional.ofNullable(requestParam.getOffset()).orElse(minOffset), minOffset);
+            long nextOffset = offset;
+            List<DeadLetterMessageRespDTO> records = new ArrayList<>();
+            if (offset < maxOffset && size > 0) {
+                List<MessageExt> messages = pullMessages(messageQueue, offset, (int) Math.min(size, maxOffset - offset));
+                if (!messages.isEmpty()) {
+                    nextOffset = messages.get(messages.size() - 1).getQueueOffset() + 1;
+                }
+                messages.forEach(each -> records.add(buildDeadLetterMessage(deadLetterConsumer, each)));
+            }
+            return DeadLetterPageRespDTO.builder()
+                    .queueId(queueId)
+                    .minOffset(minOffset)
+                    .maxOffset(maxOffset)
+                    .nextOffset(nextOffset)
+                    .records(records)
+                    .build();
+        } catch (MQClientException ex) {
+            log.error("[死信重放] 消费者组：{} 查看死信消息失败", deadLetterConsumer.getConsumerGroup(), ex);
+            throw new ServiceException("查看死信消息失败");
+        }
+    }
+
+    @Override
+    public List<DeadLetterReplayRespDTO> replay(DeadLetterReplayReqDTO requestParam) {
+        DeadLetterConsumer deadLetterConsumer = getDeadLetterConsumer(requestParam.getConsumerGroup());
+        if (CollUtil.isEmpty(requestParam.getOffsets())) {
+            throw new ClientException("重放的死信消息位点不能为空");
+        }
+        List<Long> offsets = requestParam.getOffsets().stream().distinct().toList();
+        if (offsets.size() > deadLetterReplayProperties.getReplayMaxSize()) {
+            throw new ClientException("单次重放的死信消息数量不能超过 " + deadLetterReplayProperties.getReplayMaxSize());
+        }
+        MessageQueue messageQueue;
+        try {
+            messageQueue = getDeadLetterQueue(deadLetterConsumer, Optional.ofNullable(requestParam.getQueueId()).orElse(0));
+        } catch (MQClientException ex) {
+            log.error("[死信重放] 消费者组：{} 查询死信队列失败", deadLetterConsumer.getConsumerGroup(), ex);
+            throw new ServiceException("查询死信队列失败");
+        }
+        if (messageQueue == null) {
+            throw new ClientException("消费者组不存在死信消息");
+        }
+        RRateLimiter rateLimiter = redissonClient.getRateLimiter(String.format(DEAD_LETTER_REPLAY_RATE_LIMITER, deadLetterReplayProperties.getConsoleGroup()));
+        rateLimiter.trySetRate(RateType.OVERALL, deadLetterReplayProperties.getReplayPermitsPerSecond(), 1, RateIntervalUnit.SECONDS);
+        List<DeadLetterReplayRespDTO> results = new ArrayList<>(offsets.size());
+        for (Long offset : offsets) {
+            rateLimiter.acquire();
+            results.add(replayMessage(deadLetterConsumer, messageQueue, offset));
+        }
+        return results;
+    }
+
+    private DeadLetterReplayRespDTO replayMessage(DeadLetterConsumer deadLetterConsumer, MessageQueue messageQueue, Long offset) {
+        RLock lock = redissonClient.getLock(String.format(LOCK_DEAD_LETTER_REPLAY, deadLetterConsumer.getConsumerGroup(), messageQueue.getQueueId(), offset));
+        if (!lock.tryLock()) {
+            return DeadLetterReplayRespDTO.builder().queueOffset(offset).status(DeadLetterReplayStatusEnum.REPLAYING).build();
+        }
+        String keys = null;
+        try {
+            MessageExt messageExt = pullMessage(messageQueue, offset);
+            if (messageExt == null) {
+                return DeadLetterReplayRespDTO.builder().queueOffset(offset).status(DeadLetterReplayStatusEnum.NOT_FOUND).build();
+            }
+            keys = messageExt.getKeys();
+            Object payload = JSON.parseObject(new String(messageExt.getBody(), StandardCharsets.UTF_8), deadLetterConsumer.getPayloadType());
+            // 只清理消费中的失败令牌，已消费说明业务已执行成功，重放会被幂等切面静默跳过
+            IdempotentMQConsumeStatusEnum consumeStatus = idempotentSpELByMQExecuteHandler.clearFailedConsumeStatus(
+                    deadLetterConsumer.getConsumeMethod(),
+                    new Object[]{payload}
+            );
+            if (consumeStatus == IdempotentMQConsumeStatusEnum.CONSUMED) {
+                return DeadLetterReplayRespDTO.builder().queueOffset(offset).keys(keys).status(DeadLetterReplayStatusEnum.CONSUMED).build();
+            }
+            deadLetterConsumer.getListener().onMessage(payload);
+            log.info("[死信重放] 消费者组：{} 位点：{} Keys：{} 重放成功", deadLetterConsumer.getConsumerGroup(), offset, keys);
+            return DeadLetterReplayRespDTO.builder().queueOffset(offset).keys(keys).status(DeadLetterReplayStatusEnum.REPLAYED).build();
+        } catch (Throwable ex) {
+            log.error("[死信重放] 消费者组：{} 位点：{} Keys：{} 重放失败", deadLetterConsumer.getConsumerGroup(), offset, keys, ex);
+            return DeadLetterReplayRespDTO.builder()
+                    .queueOffset(offset)
+                    .keys(keys)
+                    .status(DeadLetterReplayStatusEnum.FAILED)
+                    .message(ex.getMessage())
+                    .build();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private MessageExt pullMessage(MessageQueue messageQueue, long offset) throws MQClientException {
+        if (offset < minOffset(messageQueue) || offset >= maxOffset(messageQueue)) {
+            return null;
+        }
+        return pullMessages(messageQueue, offset, 1).stream()
+                .filter(each -> each.getQueueOffset() == offset)
+                .findFirst()
+                .orElse(null);
+    }
+
+    /**
+     * 从指定位点起拉取至多 size 条消息，调用方保证位点在队列的最小、最大位点之间
+     * <p>
+     * 轻量拉取消费者的指定队列与拉取位点是消费者级别的状态，查看与重放请求在同一个消费者上串行拉取；
+     * 拉取结束后暂停该队列，避免后台线程持续预拉取死信消息
+     * </p>
+     */
+    private List<MessageExt> pullMessages(MessageQueue messageQueue, long offset, int size) throws MQClientException {
+        DefaultLitePullConsumer consumer = getPullConsumer();
+        List<MessageExt> result = new ArrayList<>(size);
+        synchronized (consumer) {
+            List<MessageQueue> messageQueues = List.of(messageQueue);
+            consumer.assign(messageQueues);
+            consumer.seek(messageQueue, offset);
+            consumer.resume(messageQueues);
+            try {
+                long deadline = System.currentTimeMillis() + POLL_TIMEOUT_MILLIS;
+                while (result.size() < size) {
+                    long remaining = deadline - System.currentTimeMillis();
+                    List<MessageExt> polled = remaining > 0 ? consumer.poll(remaining) : List.of();
+                    if (polled.isEmpty()) {
+                        break;
+                    }
+                    polled.stream()
+                            .filter(each -> each.getQueueOffset() >= offset)
+                            .limit(size - result.size())
+                            .forEach(result::add);
+                }
+            } finally {
+                consumer.pause(messageQueues);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 轻量拉取消费者未暴露队列最小、最大位点，按存储时间查询：时间戳 0 对应最小位点，最大时间戳对应最大位点
+     */
+    private long minOffset(MessageQueue messageQueue) throws MQClientException {
+        return getPullConsumer().offsetForTimestamp(messageQueue, 0L);
+    }
+
+    private long maxOffset(MessageQueue messageQueue) throws MQClientException {
+        return getPullConsumer().offsetForTimestamp(messageQueue, Long.MAX_VALUE);
+    }
+
+    private DeadLetterMessageRespDTO buildDeadLetterMessage(DeadLetterConsumer deadLetterConsumer, MessageExt messageExt) {
+        DeadLetterMessageRespDTO deadLetterMessage = DeadLetterMessageRespDTO.builder()
+                .queueOffset(messageExt.getQueueOffset())
+                .msgId(messageExt.getMsgId())
+                .originMsgId(messageExt.getProperty(MessageConst.PROPERTY_ORIGIN_MESSAGE_ID))
+                .keys(messageExt.getKeys())
+                .tags(messageExt.getTags())
+                .reconsumeTimes(messageExt.getReconsumeTimes())
+                .bornTimestamp(messageExt.getBornTimestamp())
+                .storeTimestamp(messageExt.getStoreTimestamp())
+                .build();
+        String body = new String(messageExt.getBody(), StandardCharsets.UTF_8);
+        try {
+            deadLetterMessage.setPayload(JSON.parseObject(body, deadLetterConsumer.getPayloadType()));
+        } catch (Throwable ex) {
+            deadLetterMessage.setRawBody(body);
+        }
+        return deadLetterMessage;
+    }
+
+    /**
+     * 死信 Topic 在第一条消息进入死信队列时才会创建，Topic 路由不存在时返回 null
+     */
+    private MessageQueue getDeadLetterQueue(DeadLetterConsumer deadLetterConsumer, int queueId) throws MQClientException {
+        String deadLetterTopic = MixAll.getDLQTopic(deadLetterConsumer.getConsumerGroup());
+        DefaultLitePullConsumer consumer = getPullConsumer();
+        try {
+            return consumer.fetchMessageQueues(deadLetterTopic).stream()
+                    .filter(each -> each.getQueueId() == queueId)
+                    .findFirst()
+                    .orElse(null);
+        } catch (MQClientException ex) {
+            log.warn("[死信重放] 死信 Topic：{} 路由不存在，{}", deadLetterTopic, ex.getErrorMessage());
+            return null;
+        }
+    }
+
+    private DeadLetterConsumer getDeadLetterConsumer(String consumerGroup) {
+        DeadLetterConsumer deadLetterConsumer = getDeadLetterConsumers().get(consumerGroup);
+        if (deadLetterConsumer == null) {
+            throw new ClientException("消费者组不存在：" + consumerGroup);
+        }
+        return deadLetterConsumer;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, DeadLetterConsumer> getDeadLetterConsumers() {
+        if (deadLetterConsumers == null) {
+            synchronized (this) {
+                if (deadLetterConsumers == null) {
+                    Map<String, DeadLetterConsumer> result = new LinkedHashMap<>();
+                    applicationContext.getBeansWithAnnotation(RocketMQMessageListener.class).forEach((beanName, bean) -> {
+                        Class<?> targetClass = AopUtils.getTargetClass(bean);
+                        RocketMQMessageListener annotation = AnnotationUtils.findAnnotation(targetClass, RocketMQMessageListener.class);
+                        Method consumeMethod = Arrays.stream(targetClass.getDeclaredMethods())
+                                .filter(each -> "onMessage".equals(each.getName()) && !each.isBridge() && each.getParameterCount() == 1)
+                                .findFirst()
+                                .orElse(null);
+                        if (!(bean instanceof RocketMQListener<?>) || annotation == null || consumeMethod == null) {
+                            return;
+                        }
+                        String consumerGroup = environment.resolvePlaceholders(annotation.consumerGroup());
+                        result.put(consumerGroup, new DeadLetterConsumer(
+                                consumerGroup,
+                                environment.resolvePlaceholders(annotation.topic()),
+                                consumeMethod.getGenericParameterTypes()[0],
+                                (RocketMQListener<Object>) bean,
+                                consumeMethod
+                        ));
+                    });
+                    deadLetterConsumers = result;
+                }
+            }
+        }
+        return deadLetterConsumers;
+    }
+
+    private DefaultLitePullConsumer getPullConsumer() throws MQClientException {
+        if (pullConsumer == null) {
+            synchronized (this) {
+                if (pullConsumer == null) {
+                    DefaultLitePullConsumer consumer = new DefaultLitePullConsumer(deadLetterReplayProperties.getConsoleGroup());
+                    consumer.setNamesrvAddr(environment.getRequiredProperty("rocketmq.name-server"));
+                    // 只按位点查看，不提交消费进度
+                    consumer.setAutoCommit(false);
+                    consumer.setPullBatchSize(deadLetterReplayProperties.getBrowseMaxSize());
+                    consumer.start();
+                    pullConsumer = consumer;
+                }
+            }
+        }
+        return pullConsumer;
+    }
+
+    @Override
+    public void destroy() {
+        if (pullConsumer != null) {
+            pullConsumer.shutdown();
+        }
+    }
+
+    /**
+     * 当前服务内的 RocketMQ 消费者
+     */
+    @Getter
+    @AllArgsConstructor
+    private static class DeadLetterConsumer {
+
+        /**
+         * 消费者组，占位符已解析
+         */
+        private final String consumerGroup;
+
+        /**
+         * 订阅的 Topic，占位符已解析
+         */
+        private final String topic;
+
+        /**
+         * onMessage 入参类型，带泛型参数，用于反序列化消息体
+         */
+        private final Type payloadType;
+
+        /**
+         * 消费者 Bean，经过代理，重放时幂等、事务切面同样生效
+         */
+        private final RocketMQListener<Object> listener;
+
+        /**
+         * 声明 @Idempotent 注解的 onMessage 方法
+         */
+        private final Method consumeMethod;
+    }
+}
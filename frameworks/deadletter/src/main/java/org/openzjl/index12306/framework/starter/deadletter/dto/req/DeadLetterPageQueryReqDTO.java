@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.framework.starter.deadletter.dto.req;
+
+import lombok.Data;
+
+/**
+ * 死信消息分页查看请求参数
+ *
+ * @author zhangjlk
+ * @date 2026/10/19 下午2:30
+ */
+@Data
+public class DeadLetterPageQueryReqDTO {
+
+    /**
+     * 消费者组
+     */
+    private String consumerGroup;
+
+    /**
+     * 死信队列ID，死信 Topic 默认只有一个队列
+     */
+    private Integer queueId;
+
+    /**
+     * 起始位点，为空时从最小位点开始
+     */
+    private Long offset;
+
+    /**
+     * 查看数量
+     */
+    private Integer size;
+}
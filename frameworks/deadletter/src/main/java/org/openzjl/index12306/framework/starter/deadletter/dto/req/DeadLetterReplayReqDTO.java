@@ -0,0 +1,34 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.framework.starter.deadletter.dto.req;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 死信消息重放请求参数
+ *
+ * @author zhangjlk
+ * @date 2026/10/19 下午2:30
+ */
+@Data
+public class DeadLetterReplayReqDTO {
+
+    /**
+     * 消费者组
+     */
+    private String consumerGroup;
+
+    /**
+     * 死信队列ID，死信 Topic 默认只有一个队列
+     */
+    private Integer queueId;
+
+    /**
+     * 需要重放的消息位点
+     */
+    private List<Long> offsets;
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.framework.starter.deadletter.dto.resp;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 可重放死信消息的消费者返回参数
+ *
+ * @author zhangjlk
+ * @date 2026/10/19 下午2:30
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeadLetterConsumerRespDTO {
+
+    /**
+     * 消费者组
+     */
+    private String consumerGroup;
+
+    /**
+     * 订阅的 Topic
+     */
+    private String topic;
+
+    /**
+     * 死信 Topic
+     */
+    private String deadLetterTopic;
+
+    /**
+     * 消息体类型
+     */
+    private String payloadType;
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.framework.starter.deadletter.dto.resp;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 死信消息返回参数
+ *
+ * @author zhangjlk
+ * @date 2026/10/19 下午2:30
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeadLetterMessageRespDTO {
+
+    /**
+     * 死信队列中的位点，重放时使用
+     */
+    private Long queueOffset;
+
+    /**
+     * 消息ID
+     */
+    private String msgId;
+
+    /**
+     * 进入死信队列前的原始消息ID
+     */
+    private String originMsgId;
+
+    /**
+     * 消息 Keys
+     */
+    private String keys;
+
+    /**
+     * 消息 Tags
+     */
+    private String tags;
+
+    /**
+     * 进入死信队列前的重试次数
+     */
+    private Integer reconsumeTimes;
+
+    /**
+     * 消息生产时间戳
+     */
+    private Long bornTimestamp;
+
+    /**
+     * 进入死信队列的时间戳
+     */
+    private Long storeTimestamp;
+
+    /**
+     * 按消费者入参类型反序列化后的消息体
+     */
+    private Object payload;
+
+    /**
+     * 消息体无法反序列化时的原始内容
+     */
+    private String rawBody;
+}
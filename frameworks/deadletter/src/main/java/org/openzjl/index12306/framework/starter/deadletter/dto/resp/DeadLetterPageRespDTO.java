@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.framework.starter.deadletter.dto.resp;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 死信消息分页查看返回参数
+ *
+ * @author zhangjlk
+ * @date 2026/10/19 下午2:30
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeadLetterPageRespDTO {
+
+    /**
+     * 死信队列ID
+     */
+    private Integer queueId;
+
+    /**
+     * 死信队列最小位点
+     */
+    private Long minOffset;
+
+    /**
+     * 死信队列最大位点
+     */
+    private Long maxOffset;
+
+    /**
+     * 下一页起始位点
+     */
+    private Long nextOffset;
+
+    /**
+     * 死信消息
+     */
+    private List<DeadLetterMessageRespDTO> records;
+}
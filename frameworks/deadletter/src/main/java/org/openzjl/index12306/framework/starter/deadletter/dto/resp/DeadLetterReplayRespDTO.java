@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.framework.starter.deadletter.dto.resp;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.openzjl.index12306.framework.starter.deadletter.enums.DeadLetterReplayStatusEnum;
+
+/**
+ * 死信消息重放结果返回参数
+ *
+ * @author zhangjlk
+ * @date 2026/10/19 下午2:30
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeadLetterReplayRespDTO {
+
+    /**
+     * 死信队列中的位点
+     */
+    private Long queueOffset;
+
+    /**
+     * 消息 Keys
+     */
+    private String keys;
+
+    /**
+     * 重放结果
+     */
+    private DeadLetterReplayStatusEnum status;
+
+    /**
+     * 重放失败原因
+     */
+    private String message;
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.framework.starter.deadletter.enums;
+
+/**
+ * 死信消息重放结果枚举
+ *
+ * @author zhangjlk
+ * @date 2026/10/19 下午2:30
+ */
+public enum DeadLetterReplayStatusEnum {
+
+    /**
+     * 重放成功
+     */
+    REPLAYED,
+
+    /**
+     * 幂等令牌为已消费，业务已执行成功，跳过重放
+     */
+    CONSUMED,
+
+    /**
+     * 其他实例正在重放同一条消息，跳过重放
+     */
+    REPLAYING,
+
+    /**
+     * 死信队列中不存在该位点的消息
+     */
+    NOT_FOUND,
+
+    /**
+     * 重放时消费者再次抛出异常
+     */
+    FAILED
+}
@@ -5,20 +5,93 @@
 package org.openzjl.index12306.framework.starter.idempotent.config;
 
 import org.openzjl.index12306.framework.starter.cache.DistributedCache;
+import org.openzjl.index12306.framework.starter.idempotent.core.IdempotentAspect;
+import org.openzjl.index12306.framework.starter.idempotent.core.param.IdempotentParamExecuteHandler;
+import org.openzjl.index12306.framework.starter.idempotent.core.param.IdempotentParamService;
+import org.openzjl.index12306.framework.starter.idempotent.core.spel.IdempotentMQConsumeStatusStore;
+import org.openzjl.index12306.framework.starter.idempotent.core.spel.IdempotentSpELByMQExecuteHandler;
+import org.openzjl.index12306.framework.starter.idempotent.core.spel.IdempotentSpELByRestAPIExecuteHandler;
+import org.openzjl.index12306.framework.starter.idempotent.core.spel.RedisKeyMQConsumeStatusStore;
+import org.openzjl.index12306.framework.starter.idempotent.core.spel.TimeSlicedHashMQConsumeStatusStore;
 import org.openzjl.index12306.framework.starter.idempotent.core.token.IdempotentTokenExecuteHandler;
 import org.openzjl.index12306.framework.starter.idempotent.core.token.IdempotentTokenService;
+import org.openzjl.index12306.framework.starter.idempotent.enums.IdempotentMQStoreTypeEnum;
+import org.redisson.api.RedissonClient;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
 
 /**
+ * 幂等组件自动装配
+ * <p>
+ * 注册幂等切面后，引入该组件的服务中所有 {@link org.openzjl.index12306.framework.starter.idempotent.annotation.Idempotent}
+ * 注解都会生效：RestAPI 场景按 SpEL 结果加非阻塞分布式锁，锁被占用时直接拒绝请求（购票接口按用户、乘车人增删改按用户）；
+ * MQ 场景按消息记录消费状态，重复投递的消息跳过消费。
+ * </p>
  *
  * @author zhangjlk
  * @date 2025/10/6 10:53
  */
-@EnableConfigurationProperties(IdempotentProperties.class)
+@EnableConfigurationProperties({IdempotentProperties.class, IdempotentMQProperties.class})
 public class IdempotentAutoConfiguration {
 
+    /**
+     * 幂等切面，拦截声明 {@link org.openzjl.index12306.framework.starter.idempotent.annotation.Idempotent} 的方法
+     */
+    @Bean
+    public IdempotentAspect idempotentAspect() {
+        return new IdempotentAspect();
+    }
+
+    /**
+     * 基于请求参数验证请求幂等性
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public IdempotentParamService idempotentParamExecuteHandler(RedissonClient redissonClient) {
+        return new IdempotentParamExecuteHandler(redissonClient);
+    }
+
+    /**
+     * 基于 Token 验证请求幂等性
+     */
+    @Bean
+    @ConditionalOnMissingBean
     public IdempotentTokenService idempotentTokenExecuteHandler(DistributedCache distributedCache,
                                                                 IdempotentProperties idempotentProperties) {
         return new IdempotentTokenExecuteHandler(distributedCache, idempotentProperties);
     }
+
+    /**
+     * 基于 SpEL 方法验证请求幂等性，适用于 RestAPI 场景
+     * <p>
+     * MQ 场景的处理器同样实现 IdempotentSpELService，这里按实现类注册，由处理器工厂按实现类获取
+     * </p>
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public IdempotentSpELByRestAPIExecuteHandler idempotentSpELByRestAPIExecuteHandler(RedissonClient redissonClient) {
+        return new IdempotentSpELByRestAPIExecuteHandler(redissonClient);
+    }
+
+    /**
+     * MQ 幂等消费状态存储，默认每条消息一个 Key，消息量大时可切换为时间分片 Hash
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public IdempotentMQConsumeStatusStore idempotentMQConsumeStatusStore(DistributedCache distributedCache,
+                                                                         IdempotentMQProperties idempotentMQProperties) {
+        if (idempotentMQProperties.getStore() == IdempotentMQStoreTypeEnum.TIME_SLICED_HASH) {
+            return new TimeSlicedHashMQConsumeStatusStore(distributedCache, idempotentMQProperties);
+        }
+        return new RedisKeyMQConsumeStatusStore(distributedCache);
+    }
+
+    /**
+     * 基于 SpEL 方法验证请求幂等性，适用于 MQ 场景
+     */
+    @Bean
+    public IdempotentSpELByMQExecuteHandler idempotentSpELByMQExecuteHandler(IdempotentMQConsumeStatusStore idempotentMQConsumeStatusStore) {
+        return new IdempotentSpELByMQExecuteHandler(idempotentMQConsumeStatusStore);
+    }
 }
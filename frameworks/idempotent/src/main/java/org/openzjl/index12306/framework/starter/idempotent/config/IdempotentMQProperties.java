@@ -0,0 +1,43 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.framework.starter.idempotent.config;
+
+import lombok.Data;
+import org.openzjl.index12306.framework.starter.idempotent.enums.IdempotentMQStoreTypeEnum;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 幂等属性配置 - MQ
+ *
+ * @author zhangjlk
+ * @date 2026/10/19 下午3:20
+ */
+@Data
+@ConfigurationProperties(prefix = IdempotentMQProperties.PREFIX)
+public class IdempotentMQProperties {
+
+    public static final String PREFIX = "framework.idempotent.mq";
+
+    /**
+     * 消费状态存储类型；切换存储后，切换前写入的消费状态不再可见，需在消息低峰期切换
+     * <p>
+     * 默认每条消息一个 Key：内嵌 Redis 基准测试中两种存储的消费耗时没有可区分的差异，每条已消费状态约占 125 字节，
+     * 时间分片 Hash 约 74 字节。消费状态保留量达到百万级、内存成为瓶颈时再切换为时间分片 Hash
+     * </p>
+     */
+    private IdempotentMQStoreTypeEnum store = IdempotentMQStoreTypeEnum.KEY;
+
+    /**
+     * 时间分片宽度，查询时需要检查的分片数量为 保留时间 / 分片宽度 + 2
+     */
+    private Duration sliceWidth = Duration.ofMinutes(30);
+
+    /**
+     * 每个时间分片按消息 Key 哈希拆分的 Hash 数量，避免单个 Hash 过大以及 Redis Cluster 下的热点槽位
+     */
+    private Integer shardCount = 64;
+}
@@ -11,6 +11,7 @@ import org.aspectj.lang.reflect.MethodSignature;
 import org.openzjl.index12306.framework.starter.idempotent.annotation.Idempotent;
 
 import java.lang.reflect.Method;
+import java.util.Map;
 
 /**
  * 幂等注解AOP拦截器
@@ -31,6 +32,9 @@ public final class IdempotentAspect {
         // 通过幂等注解拿到幂等处理器
         IdempotentExecuteHandler instance = IdempotentExecuteHandlerFactory.getInstance(idempotent.scene(), idempotent.type());
         Object resultObj;
+        // 嵌套调用（例如 Controller 与 Service 声明同一把幂等锁）时暂存外层上下文，内层结束后恢复，避免外层的锁无法释放
+        Map<String, Object> outerContext = IdempotentContext.get();
+        IdempotentContext.clean();
         try {
             /**
              * instance.execute(...): 执行前置处理。这是幂等性检查的核心。
@@ -66,6 +70,9 @@ public final class IdempotentAspect {
         } finally {
             // 清理 ThreadLocal 上下文。这是为了防止内存泄漏，确保线程被归还到线程池时是干净的。
             IdempotentContext.clean();
+            if (outerContext != null) {
+                IdempotentContext.putContext(outerContext);
+            }
         }
         return resultObj;
     }
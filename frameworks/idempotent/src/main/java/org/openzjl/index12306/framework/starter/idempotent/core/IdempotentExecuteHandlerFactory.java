@@ -7,7 +7,7 @@ package org.openzjl.index12306.framework.starter.idempotent.core;
 import org.openzjl.index12306.framework.starter.bases.ApplicationContextHolder;
 import org.openzjl.index12306.framework.starter.idempotent.core.param.IdempotentParamService;
 import org.openzjl.index12306.framework.starter.idempotent.core.spel.IdempotentSpELByMQExecuteHandler;
-import org.openzjl.index12306.framework.starter.idempotent.core.spel.IdempotentSpELService;
+import org.openzjl.index12306.framework.starter.idempotent.core.spel.IdempotentSpELByRestAPIExecuteHandler;
 import org.openzjl.index12306.framework.starter.idempotent.core.token.IdempotentTokenService;
 import org.openzjl.index12306.framework.starter.idempotent.enums.IdempotentSceneEnum;
 import org.openzjl.index12306.framework.starter.idempotent.enums.IdempotentTypeEnum;
@@ -44,7 +44,7 @@ public final class IdempotentExecuteHandlerFactory {
                     // 类型2：基于 Token 进行幂等验证
                     case TOKEN -> result = ApplicationContextHolder.getBean(IdempotentTokenService.class);
                     // 类型3：基于 SpEL 表达式进行幂等验证
-                    case SPEL -> result = ApplicationContextHolder.getBean(IdempotentSpELService.class);
+                    case SPEL -> result = ApplicationContextHolder.getBean(IdempotentSpELByRestAPIExecuteHandler.class);
                     // 如果是其它不支持的类型，则什么都不做，result 保持为 null
                     default -> {
                     }
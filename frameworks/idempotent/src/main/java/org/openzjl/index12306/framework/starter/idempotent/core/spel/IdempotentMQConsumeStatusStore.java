@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.framework.starter.idempotent.core.spel;
+
+/**
+ * MQ 幂等消费状态存储
+ * <p>
+ * 消费状态只有"消费中"与"已消费"两种，每个状态带有各自的过期时间。
+ * 保留时间为同一消息各状态中最长的过期时间，按时间分片的存储据此确定需要检查的分片范围。
+ * </p>
+ * <p>
+ * 消费状态只在 {@link org.openzjl.index12306.framework.starter.idempotent.core.IdempotentAspect} 拦截 MQ 场景的消费者时，
+ * 经 {@link IdempotentSpELByMQExecuteHandler} 读写，二者与本存储由同一个自动装配注册。
+ * </p>
+ *
+ * @author zhangjlk
+ * @date 2026/10/19 下午3:20
+ */
+public interface IdempotentMQConsumeStatusStore {
+
+    /**
+     * 消费状态不存在时写入并返回 null，存在时不做修改并返回当前状态
+     *
+     * @param keyPrefix        幂等 Key 前缀
+     * @param key              SpEL 计算出的幂等 Key
+     * @param status           写入的消费状态
+     * @param timeoutSeconds   写入状态的过期时间，单位秒
+     * @param retentionSeconds 保留时间，单位秒
+     * @return 写入前的消费状态，不存在时返回 null
+     */
+    String setIfAbsentAndGet(String keyPrefix, String key, String status, long timeoutSeconds, long retentionSeconds);
+
+    /**
+     * 覆盖写入消费状态
+     *
+     * @param keyPrefix        幂等 Key 前缀
+     * @param key              SpEL 计算出的幂等 Key
+     * @param status           写入的消费状态
+     * @param timeoutSeconds   写入状态的过期时间，单位秒
+     * @param retentionSeconds 保留时间，单位秒
+     */
+    void put(String keyPrefix, String key, String status, long timeoutSeconds, long retentionSeconds);
+
+    /**
+     * 删除消费状态
+     *
+     * @param keyPrefix        幂等 Key 前缀
+     * @param key              SpEL 计算出的幂等 Key
+     * @param retentionSeconds 保留时间，单位秒
+     */
+    void delete(String keyPrefix, String key, long retentionSeconds);
+
+    /**
+     * 当前消费状态等于期望状态时删除
+     *
+     * @param keyPrefix        幂等 Key 前缀
+     * @param key              SpEL 计算出的幂等 Key
+     * @param expectedStatus   期望的消费状态
+     * @param retentionSeconds 保留时间，单位秒
+     * @return 删除前的消费状态，不存在时返回 null
+     */
+    String deleteIfEquals(String keyPrefix, String key, String expectedStatus, long retentionSeconds);
+}
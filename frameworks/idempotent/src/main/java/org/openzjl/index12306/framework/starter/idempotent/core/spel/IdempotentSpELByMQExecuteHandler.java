@@ -8,20 +8,15 @@ import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.reflect.MethodSignature;
-import org.openzjl.index12306.framework.starter.cache.DistributedCache;
 import org.openzjl.index12306.framework.starter.idempotent.annotation.Idempotent;
 import org.openzjl.index12306.framework.starter.idempotent.core.*;
 import org.openzjl.index12306.framework.starter.idempotent.enums.IdempotentMQConsumeStatusEnum;
+import org.openzjl.index12306.framework.starter.idempotent.enums.IdempotentSceneEnum;
 import org.openzjl.index12306.framework.starter.idempotent.toolkit.LogUtil;
 import org.openzjl.index12306.framework.starter.idempotent.toolkit.SpELUtil;
-import org.springframework.core.io.ClassPathResource;
-import org.springframework.data.redis.core.StringRedisTemplate;
-import org.springframework.data.redis.core.script.DefaultRedisScript;
-import org.springframework.scripting.support.ResourceScriptSource;
 
-import java.util.List;
+import java.lang.reflect.Method;
 import java.util.Objects;
-import java.util.concurrent.TimeUnit;
 
 /**
  * 基于SpEL方法验证请求的幂等性，适用于MQ的场景
@@ -44,14 +39,9 @@ public final class IdempotentSpELByMQExecuteHandler extends AbstractIdempotentEx
     private final static String WRAPPER = "wrapper:spEL:MQ";
 
     /**
-     * 定义Lua脚本文件的路径
+     * 消费状态存储，按 Key 存储或按时间分片 Hash 存储
      */
-    private final static String LUA_SCRIPT_SET_IF_ABSENT_AND_GET_PATH = "lua/set_if_absent_and_get.lua";
-
-    /**
-     * 分布式缓存
-     */
-    private final DistributedCache distributedCache;
+    private final IdempotentMQConsumeStatusStore consumeStatusStore;
 
     @Override
     @SneakyThrows
@@ -88,10 +78,12 @@ public final class IdempotentSpELByMQExecuteHandler extends AbstractIdempotentEx
 
         // 2. 调用核心原子操作：如果 Key 不存在，则设置值为 "CONSUMING" (消费中)，并返回 null.
         //    如果 Key 已存在，则不进行任何操作，并返回该 Key 当前的值 (如 "CONSUMING" 或 "SUCCESS").
-        String absentAndGet = this.setIfAbsentAndGet(uniqueKey,
+        String absentAndGet = consumeStatusStore.setIfAbsentAndGet(
+                wrapper.getIdempotent().uniqueKeyPrefix(),
+                wrapper.getLockKey(),
                 IdempotentMQConsumeStatusEnum.CONSUMING.getCode(),
                 TIMEOUT,
-                TimeUnit.SECONDS);
+                retentionSeconds(wrapper.getIdempotent()));
 
         // 3. 判断是否为重复消费.
         //    根据我们对 setIfAbsentAndGet 的约定，只有在重复消费时，返回值才不为 null。
@@ -114,46 +106,6 @@ public final class IdempotentSpELByMQExecuteHandler extends AbstractIdempotentEx
         IdempotentContext.put(WRAPPER, wrapper);
     }
 
-    /**
-     * 通过 Lua 脚本执行原子的 "SET if Absent and GET" (如果不存在则设置，并返回当前值) 操作.
-     *
-     * <p>
-     * <b>方法契约:</b>
-     * 此方法旨在原子性地完成一个锁获取或状态标记的动作。
-     * <ul>
-     * <li>若 {@code key} 不存在，则设置 {@code value} 并设定过期时间，方法返回 {@code value}。</li>
-     * <li>若 {@code key} 已存在，则不做任何操作，方法返回该 {@code key} 已有的旧值。</li>
-     * </ul>
-     * 这种原子性保证对于实现分布式锁和幂等性至关重要，它彻底避免了 "check-then-act" 模式下的竞态条件。
-     *
-     * @param key      缓存键，业务唯一标识.
-     * @param value    当键不存在时，需要设置的值 (通常表示状态，如 "PROCESSING").
-     * @param timeout  过期时间数值.
-     * @param timeUnit 过期时间的单位 (例如, TimeUnit.SECONDS).
-     * @return           操作后 key 对应的最终值。可能是新设置的 {@code value}，也可能是已存在的旧值。
-     */
-    public String setIfAbsentAndGet(String key, String value, long timeout, TimeUnit timeUnit) {
-        // 1. 准备 Redis Lua 脚本对象
-        DefaultRedisScript<String> redisScript = new DefaultRedisScript<>();
-        redisScript.setScriptSource(new ResourceScriptSource(new ClassPathResource(LUA_SCRIPT_SET_IF_ABSENT_AND_GET_PATH)));
-        redisScript.setResultType(String.class);
-
-        // 2. 统一时间单位为毫秒，以适配 Redis 的 PX 参数
-        long timeoutMillis = timeUnit.toMillis(timeout);
-
-        // 3. 获取底层的 RedisTemplate 客户端并执行脚本
-        // 参数说明:
-        // - redisScript: 待执行的脚本
-        // - List.of(key): 传入脚本的 KEYS 数组，脚本中通过 KEYS[1] 访问
-        // - value, String.valueOf(timeoutMillis): 传入脚本的 ARGV 数组，脚本中通过 ARGV[1], ARGV[2] 访问
-        return ((StringRedisTemplate) distributedCache.getInstance()).execute(
-                redisScript,
-                List.of(key),
-                value,
-                String.valueOf(timeoutMillis)
-        );
-    }
-
     /**
      * 幂等性检查的异常处理流程
      * <p>
@@ -176,7 +128,7 @@ public final class IdempotentSpELByMQExecuteHandler extends AbstractIdempotentEx
             try {
                 // 4. 尝试从分布式缓存（如Redis）中删除该幂等键.
                 //    删除成功后，后续的重试请求将能够重新获取令牌并执行。
-                distributedCache.delete(uniqueKey);
+                consumeStatusStore.delete(idempotent.uniqueKeyPrefix(), wrapper.getLockKey(), retentionSeconds(idempotent));
             } catch (Throwable ex) {
                 // 5. 兜底异常处理：如果连删除操作本身都失败了，记录一条严重错误日志.
                 //    这种情况通常意味着缓存服务出现问题，需要运维人员关注。
@@ -204,11 +156,12 @@ public final class IdempotentSpELByMQExecuteHandler extends AbstractIdempotentEx
                 // 3. 核心步骤：将幂等键的状态更新为“已消费”，并刷新过期时间。
                 //    这是幂等流程的“收尾”动作，用一个明确的最终状态来标记业务已成功处理完毕。
                 //    即使key的过期时间很长，这个最终状态也为日后排查问题提供了确切的证据。
-                distributedCache.put(
-                        uniqueKey,
+                consumeStatusStore.put(
+                        idempotent.uniqueKeyPrefix(),
+                        idempotentParamWrapper.getLockKey(),
                         IdempotentMQConsumeStatusEnum.CONSUMED.getCode(), // 修正后的正确状态
                         idempotent.keyTimeout(),
-                        TimeUnit.SECONDS
+                        retentionSeconds(idempotent)
                 );
             } catch (Throwable ex) {
                 // 4. 兜底异常处理：如果更新最终状态失败，记录严重错误日志.
@@ -217,4 +170,38 @@ public final class IdempotentSpELByMQExecuteHandler extends AbstractIdempotentEx
             }
         }
     }
+
+    /**
+     * 死信消息重放前清理失败的消费状态
+     * <p>
+     * 按消费者方法上 {@link Idempotent} 注解的前缀与 SpEL 计算出与消费时完全一致的幂等 Key，仅当 Key 处于"消费中"时原子删除：
+     * <ul>
+     * <li><b>消费中:</b> 上一次消费异常退出且未能清理令牌（例如进程宕机、删除令牌时缓存不可用），不清理则重放会被判定为重复消费。</li>
+     * <li><b>已消费:</b> 业务已经执行成功，保留令牌，重放会被幂等切面静默跳过，避免业务重复执行。</li>
+     * </ul>
+     *
+     * @param method 消费者方法，需要声明 MQ 场景的 {@link Idempotent} 注解
+     * @param args   消费者方法参数，即反序列化后的消息体
+     * @return 清理前的消费状态；幂等 Key 不存在或方法未声明 MQ 幂等时返回 null
+     */
+    public IdempotentMQConsumeStatusEnum clearFailedConsumeStatus(Method method, Object[] args) {
+        Idempotent idempotent = method.getAnnotation(Idempotent.class);
+        if (idempotent == null || idempotent.scene() != IdempotentSceneEnum.MQ) {
+            return null;
+        }
+        String consumeStatus = consumeStatusStore.deleteIfEquals(
+                idempotent.uniqueKeyPrefix(),
+                String.valueOf(SpELUtil.parseKey(idempotent.key(), method, args)),
+                IdempotentMQConsumeStatusEnum.CONSUMING.getCode(),
+                retentionSeconds(idempotent)
+        );
+        return IdempotentMQConsumeStatusEnum.of(consumeStatus);
+    }
+
+    /**
+     * 同一消息消费状态的最长保留时间，取"消费中"超时时间与"已消费"过期时间的较大值
+     */
+    private static long retentionSeconds(Idempotent idempotent) {
+        return Math.max(TIMEOUT, idempotent.keyTimeout());
+    }
 }
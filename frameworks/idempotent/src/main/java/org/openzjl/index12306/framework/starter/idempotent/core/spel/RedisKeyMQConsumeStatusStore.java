@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.framework.starter.idempotent.core.spel;
+
+import lombok.RequiredArgsConstructor;
+import org.openzjl.index12306.framework.starter.cache.DistributedCache;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scripting.support.ResourceScriptSource;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基于 Redis String 的 MQ 幂等消费状态存储
+ * <p>
+ * 每条消息一个 Key（前缀 + SpEL Key），值为消费状态，依赖 Key 过期清理。
+ * </p>
+ *
+ * @author zhangjlk
+ * @date 2026/10/19 下午3:20
+ */
+@RequiredArgsConstructor
+public class RedisKeyMQConsumeStatusStore implements IdempotentMQConsumeStatusStore {
+
+    /**
+     * 定义Lua脚本文件的路径
+     */
+    private final static String LUA_SCRIPT_SET_IF_ABSENT_AND_GET_PATH = "lua/set_if_absent_and_get.lua";
+
+    /**
+     * 值等于期望值时删除 Key 并返回原值的 Lua 脚本路径
+     */
+    private final static String LUA_SCRIPT_GET_AND_DELETE_IF_EQUALS_PATH = "lua/get_and_delete_if_equals.lua";
+
+    private final DistributedCache distributedCache;
+
+    @Override
+    public String setIfAbsentAndGet(String keyPrefix, String key, String status, long timeoutSeconds, long retentionSeconds) {
+        DefaultRedisScript<String> redisScript = new DefaultRedisScript<>();
+        redisScript.setScriptSource(new ResourceScriptSource(new ClassPathResource(LUA_SCRIPT_SET_IF_ABSENT_AND_GET_PATH)));
+        redisScript.setResultType(String.class);
+        return ((StringRedisTemplate) distributedCache.getInstance()).execute(
+                redisScript,
+                List.of(keyPrefix + key),
+                status,
+                String.valueOf(TimeUnit.SECONDS.toMillis(timeoutSeconds))
+        );
+    }
+
+    @Override
+    public void put(String keyPrefix, String key, String status, long timeoutSeconds, long retentionSeconds) {
+        distributedCache.put(keyPrefix + key, status, timeoutSeconds, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public void delete(String keyPrefix, String key, long retentionSeconds) {
+        distributedCache.delete(keyPrefix + key);
+    }
+
+    @Override
+    public String deleteIfEquals(String keyPrefix, String key, String expectedStatus, long retentionSeconds) {
+        DefaultRedisScript<String> redisScript = new DefaultRedisScript<>();
+        redisScript.setScriptSource(new ResourceScriptSource(new ClassPathResource(LUA_SCRIPT_GET_AND_DELETE_IF_EQUALS_PATH)));
+        redisScript.setResultType(String.class);
+        return ((StringRedisTemplate) distributedCache.getInstance()).execute(
+                redisScript,
+                List.of(keyPrefix + key),
+                expectedStatus
+        );
+    }
+}
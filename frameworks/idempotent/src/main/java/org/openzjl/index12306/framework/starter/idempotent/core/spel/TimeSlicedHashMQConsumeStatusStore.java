@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.framework.starter.idempotent.core.spel;
+
+import org.openzjl.index12306.framework.starter.cache.DistributedCache;
+import org.openzjl.index12306.framework.starter.idempotent.config.IdempotentMQProperties;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scripting.support.ResourceScriptSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基于时间分片 Redis Hash 的 MQ 幂等消费状态存储
+ * <p>
+ * 大促期间 Binlog 与关单消息每条都会产生一个短生命周期的幂等 Key，每个顶层 Key 都要额外承担 Key 对象、
+ * 过期字典条目以及重复的 Key 前缀。本存储把消费状态写入按时间分片的 Hash：
+ * <ul>
+ * <li><b>Hash Key:</b> 前缀 + slice:{分片号}:时间片序号，分片号由 SpEL Key 哈希得到，作为 Hash Tag 保证同一消息的所有时间片落在同一槽位。</li>
+ * <li><b>Field:</b> SpEL Key，不再重复存储前缀。</li>
+ * <li><b>Value:</b> 消费状态:过期时间戳（秒，Redis 服务端时间），逐条状态的过期时间与按 Key 存储完全一致。</li>
+ * </ul>
+ * 写入总是落在当前时间片，时间片整体设置过期时间（不短于其中最晚过期的状态），过期状态随整个 Hash 一起回收。
+ * 查询、删除通过 Lua 脚本在一次往返内按从新到旧的顺序检查 保留时间 / 分片宽度 + 2 个时间片，
+ * 其中包括下一个时间片，容忍实例之间不超过一个分片宽度的时钟偏差。
+ * </p>
+ *
+ * @author zhangjlk
+ * @date 2026/10/19 下午3:20
+ */
+public class TimeSlicedHashMQConsumeStatusStore implements IdempotentMQConsumeStatusStore {
+
+    private final static String LUA_SCRIPT_SET_IF_ABSENT_AND_GET_PATH = "lua/time_sliced_set_if_absent_and_get.lua";
+
+    private final static String LUA_SCRIPT_PUT_PATH = "lua/time_sliced_put.lua";
+
+    private final static String LUA_SCRIPT_DELETE_IF_EQUALS_PATH = "lua/time_sliced_delete_if_equals.lua";
+
+    /**
+     * 时间分片 Hash Key，前缀 + 分片号 + 时间片序号
+     */
+    private final static String SLICE_KEY_FORMAT = "%sslice:{%d}:%d";
+
+    private final DistributedCache distributedCache;
+    private final IdempotentMQProperties idempotentMQProperties;
+
+    private final DefaultRedisScript<String> setIfAbsentAndGetScript;
+    private final DefaultRedisScript<Long> putScript;
+    private final DefaultRedisScript<String> deleteIfEqualsScript;
+
+    public TimeSlicedHashMQConsumeStatusStore(DistributedCache distributedCache, IdempotentMQProperties idempotentMQProperties) {
+        this.distributedCache = distributedCache;
+        this.idempotentMQProperties = idempotentMQProperties;
+        this.setIfAbsentAndGetScript = buildScript(LUA_SCRIPT_SET_IF_ABSENT_AND_GET_PATH, String.class);
+        this.putScript = buildScript(LUA_SCRIPT_PUT_PATH, Long.class);
+        this.deleteIfEqualsScript = buildScript(LUA_SCRIPT_DELETE_IF_EQUALS_PATH, String.class);
+    }
+
+    @Override
+    public String setIfAbsentAndGet(String keyPrefix, String key, String status, long timeoutSeconds, long retentionSeconds) {
+        return getInstance().execute(setIfAbsentAndGetScript, sliceKeys(keyPrefix, key, retentionSeconds), key, status, String.valueOf(timeoutSeconds));
+    }
+
+    @Override
+    public void put(String keyPrefix, String key, String status, long timeoutSeconds, long retentionSeconds) {
+        getInstance().execute(putScript, sliceKeys(keyPrefix, key, retentionSeconds), key, status, String.valueOf(timeoutSeconds));
+    }
+
+    @Override
+    public void delete(String keyPrefix, String key, long retentionSeconds) {
+        getInstance().execute(deleteIfEqualsScript, sliceKeys(keyPrefix, key, retentionSeconds), key, "");
+    }
+
+    @Override
+    public String deleteIfEquals(String keyPrefix, String key, String expectedStatus, long retentionSeconds) {
+        return getInstance().execute(deleteIfEqualsScript, sliceKeys(keyPrefix, key, retentionSeconds), key, expectedStatus);
+    }
+
+    /**
+     * 计算需要检查的时间片 Hash Key，按时间从新到旧排列：第一个为下一时间片，第二个为当前时间片（写入位置），其余为保留时间内的历史时间片
+     */
+    private List<String> sliceKeys(String keyPrefix, String key, long retentionSeconds) {
+        long sliceWidthMillis = idempotentMQProperties.getSliceWidth().toMillis();
+        long currentSlice = System.currentTimeMillis() / sliceWidthMillis;
+        long historySliceCount = (TimeUnit.SECONDS.toMillis(retentionSeconds) + sliceWidthMillis - 1) / sliceWidthMillis;
+        int shard = (key.hashCode() & Integer.MAX_VALUE) % idempotentMQProperties.getShardCount();
+        List<String> keys = new ArrayList<>((int) historySliceCount + 2);
+        for (long slice = currentSlice + 1; slice >= currentSlice - historySliceCount; slice--) {
+            keys.add(String.format(SLICE_KEY_FORMAT, keyPrefix, shard, slice));
+        }
+        return keys;
+    }
+
+    private StringRedisTemplate getInstance() {
+        return (StringRedisTemplate) distributedCache.getInstance();
+    }
+
+    private static <T> DefaultRedisScript<T> buildScript(String path, Class<T> resultType) {
+        DefaultRedisScript<T> redisScript = new DefaultRedisScript<>();
+        redisScript.setScriptSource(new ResourceScriptSource(new ClassPathResource(path)));
+        redisScript.setResultType(resultType);
+        return redisScript;
+    }
+}
@@ -7,6 +7,7 @@ package org.openzjl.index12306.framework.starter.idempotent.enums;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 
+import java.util.Arrays;
 import java.util.Objects;
 
 /**
@@ -40,4 +41,17 @@ public enum IdempotentMQConsumeStatusEnum {
     public static boolean isError(String consumerStatus) {
         return Objects.equals(CONSUMING.code, consumerStatus);
     }
+
+    /**
+     * 根据状态码获取消费状态
+     *
+     * @param consumerStatus 消费状态
+     * @return 消费状态枚举，状态码为空或未知时返回 null
+     */
+    public static IdempotentMQConsumeStatusEnum of(String consumerStatus) {
+        return Arrays.stream(values())
+                .filter(each -> Objects.equals(each.code, consumerStatus))
+                .findFirst()
+                .orElse(null);
+    }
 }
@@ -0,0 +1,24 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.framework.starter.idempotent.enums;
+
+/**
+ * MQ 幂等消费状态存储类型枚举
+ *
+ * @author zhangjlk
+ * @date 2026/10/19 下午3:20
+ */
+public enum IdempotentMQStoreTypeEnum {
+
+    /**
+     * 每条消息一个 Redis String，依赖 Key 过期
+     */
+    KEY,
+
+    /**
+     * 按时间分片的 Redis Hash，整个分片一起过期
+     */
+    TIME_SLICED_HASH
+}
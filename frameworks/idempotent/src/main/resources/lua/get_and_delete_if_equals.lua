@@ -0,0 +1,17 @@
+-- ============================================
+-- 比较并删除幂等 Key 脚本
+-- ============================================
+-- 功能：原子性地读取幂等 Key，当前值等于期望值时删除，并返回删除前的值
+--       用于死信重放前只清理"消费中"的失败令牌，"已消费"的令牌保持不变
+--
+-- 参数说明：
+--   KEYS[1]: 幂等 Key
+--   ARGV[1]: 期望值
+--
+-- 返回值：删除前的值，Key 不存在时返回 nil
+-- ============================================
+local value = redis.call('GET', KEYS[1])
+if value == ARGV[1] then
+    redis.call('DEL', KEYS[1])
+end
+return value
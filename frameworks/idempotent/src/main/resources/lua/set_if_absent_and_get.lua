@@ -0,0 +1,18 @@
+-- ============================================
+-- 幂等 Key SET if Absent and GET 脚本
+-- ============================================
+-- 功能：原子性地读取幂等 Key，Key 不存在时写入消费状态并设置过期时间，返回写入前的值
+--       等价于 Redis 7 的 SET NX GET，兼容更低版本的 Redis
+--
+-- 参数说明：
+--   KEYS[1]: 幂等 Key
+--   ARGV[1]: 写入的消费状态
+--   ARGV[2]: 过期时间（毫秒）
+--
+-- 返回值：写入前的值，Key 不存在时返回 nil
+-- ============================================
+local value = redis.call('GET', KEYS[1])
+if not value then
+    redis.call('SET', KEYS[1], ARGV[1], 'PX', ARGV[2])
+end
+return value
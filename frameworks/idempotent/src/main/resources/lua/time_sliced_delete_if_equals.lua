@@ -0,0 +1,30 @@
+-- ============================================
+-- 时间分片 Hash 消费状态比较并删除脚本
+-- ============================================
+-- 功能：查找最新的未过期消费状态，期望值为空或与当前状态相等时，从所有时间片中删除该消息的状态
+--
+-- 参数说明：
+--   KEYS: 时间片 Hash Key，从新到旧排列
+--   ARGV[1]: SpEL 幂等 Key（Hash Field）
+--   ARGV[2]: 期望的消费状态，空字符串表示无条件删除
+--
+-- 返回值：删除前未过期的消费状态，不存在时返回 nil
+-- ============================================
+local now = tonumber(redis.call('TIME')[1])
+local status
+for i = 1, #KEYS do
+    local value = redis.call('HGET', KEYS[i], ARGV[1])
+    if value then
+        local separator = string.find(value, ':', 1, true)
+        if tonumber(string.sub(value, separator + 1)) > now then
+            status = string.sub(value, 1, separator - 1)
+            break
+        end
+    end
+end
+if ARGV[2] == '' or status == ARGV[2] then
+    for i = 1, #KEYS do
+        redis.call('HDEL', KEYS[i], ARGV[1])
+    end
+end
+return status
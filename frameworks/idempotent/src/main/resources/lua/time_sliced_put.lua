@@ -0,0 +1,23 @@
+-- ============================================
+-- 时间分片 Hash 消费状态覆盖写入脚本
+-- ============================================
+-- 功能：删除其他时间片中的旧状态，写入当前时间片，并保证时间片的过期时间不短于本条状态
+--
+-- 参数说明：
+--   KEYS: 时间片 Hash Key，从新到旧排列，KEYS[2] 为当前时间片
+--   ARGV[1]: SpEL 幂等 Key（Hash Field）
+--   ARGV[2]: 写入的消费状态
+--   ARGV[3]: 写入状态的过期时间（秒）
+-- ============================================
+local now = tonumber(redis.call('TIME')[1])
+for i = 1, #KEYS do
+    if i ~= 2 then
+        redis.call('HDEL', KEYS[i], ARGV[1])
+    end
+end
+local timeout = tonumber(ARGV[3])
+redis.call('HSET', KEYS[2], ARGV[1], ARGV[2] .. ':' .. (now + timeout))
+if redis.call('TTL', KEYS[2]) < timeout then
+    redis.call('EXPIRE', KEYS[2], timeout)
+end
+return 1
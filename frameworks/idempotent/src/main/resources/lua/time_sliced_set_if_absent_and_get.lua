@@ -0,0 +1,30 @@
+-- ============================================
+-- 时间分片 Hash 消费状态 SET if Absent and GET 脚本
+-- ============================================
+-- 功能：按从新到旧的顺序在各时间片 Hash 中查找未过期的消费状态，找到则返回该状态；
+--       未找到则写入当前时间片，并保证时间片的过期时间不短于本条状态
+--
+-- 参数说明：
+--   KEYS: 时间片 Hash Key，从新到旧排列，KEYS[2] 为当前时间片
+--   ARGV[1]: SpEL 幂等 Key（Hash Field）
+--   ARGV[2]: 写入的消费状态
+--   ARGV[3]: 写入状态的过期时间（秒）
+--
+-- 返回值：写入前未过期的消费状态，不存在时返回 nil
+-- ============================================
+local now = tonumber(redis.call('TIME')[1])
+for i = 1, #KEYS do
+    local value = redis.call('HGET', KEYS[i], ARGV[1])
+    if value then
+        local separator = string.find(value, ':', 1, true)
+        if tonumber(string.sub(value, separator + 1)) > now then
+            return string.sub(value, 1, separator - 1)
+        end
+    end
+end
+local timeout = tonumber(ARGV[3])
+redis.call('HSET', KEYS[2], ARGV[1], ARGV[2] .. ':' .. (now + timeout))
+if redis.call('TTL', KEYS[2]) < timeout then
+    redis.call('EXPIRE', KEYS[2], timeout)
+end
+return nil
@@ -0,0 +1,34 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.framework.starter.mq.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.rocketmq.spring.core.RocketMQTemplate;
+import org.openzjl.index12306.framework.starter.mq.core.MessageSendJournal;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * MQ 消息发送自动装配
+ * <p>
+ * 注册消息发送本地重试日志，各服务的发送模板注入后即可使用异步与批量发送模式。
+ * </p>
+ *
+ * @author zhangjlk
+ * @date 2026/10/19 下午9:10
+ */
+@EnableConfigurationProperties(MessageSendJournalProperties.class)
+public class MessageSendAutoConfiguration {
+
+    /**
+     * 消息发送本地重试日志
+     */
+    @Bean
+    public MessageSendJournal messageSendJournal(RocketMQTemplate rocketMQTemplate,
+                                                 MessageSendJournalProperties messageSendJournalProperties,
+                                                 MeterRegistry meterRegistry) {
+        return new MessageSendJournal(rocketMQTemplate, messageSendJournalProperties, meterRegistry);
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.framework.starter.mq.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * MQ 消息发送本地重试日志配置
+ *
+ * @author zhangjlk
+ * @date 2026/10/19 上午10:20
+ */
+@Data
+@ConfigurationProperties(prefix = MessageSendJournalProperties.PREFIX)
+public class MessageSendJournalProperties {
+
+    public static final String PREFIX = "framework.mq.send-journal";
+
+    /**
+     * 重试日志目录，每条待确认消息一个文件，实例重启后继续补发。
+     * 多个服务在同一工作目录下启动时须按服务区分，各服务配置为 mq-send-journal/${spring.application.name}，避免互相补发对方的消息
+     */
+    private String dir = "mq-send-journal";
+
+    /**
+     * 写入重试日志后是否强制刷盘，开启后可抵御机器宕机，但每条消息增加一次磁盘同步
+     */
+    private Boolean fsync = false;
+
+    /**
+     * 补发任务执行间隔
+     */
+    private Duration retryInterval = Duration.ofSeconds(5);
+
+    /**
+     * 异步发送后超过该时长仍未确认的消息由补发任务重新发送
+     */
+    private Duration retryDelay = Duration.ofSeconds(10);
+
+    /**
+     * 最大发送次数，超过后移入 dead 子目录等待人工处理
+     */
+    private Integer maxAttempts = 10;
+
+    /**
+     * 同一 Topic 单次批量发送的最大消息数
+     */
+    private Integer batchSize = 32;
+
+    /**
+     * 补发任务单次最多处理的消息数
+     */
+    private Integer retryLimit = 512;
+}
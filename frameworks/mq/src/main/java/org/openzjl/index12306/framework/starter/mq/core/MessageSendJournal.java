@@ -0,0 +1,500 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.framework.starter.mq.core;
+
+import cn.hutool.core.collection.ListUtil;
+import cn.hutool.core.thread.ThreadFactoryBuilder;
+import cn.hutool.core.util.IdUtil;
+import cn.hutool.core.util.StrUtil;
+import com.alibaba.fastjson2.JSON;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.rocketmq.client.producer.SendCallback;
+import org.apache.rocketmq.client.producer.SendResult;
+import org.apache.rocketmq.common.message.Message;
+import org.apache.rocketmq.common.message.MessageAccessor;
+import org.apache.rocketmq.common.message.MessageConst;
+import org.apache.rocketmq.spring.core.RocketMQTemplate;
+import org.apache.rocketmq.spring.support.RocketMQUtil;
+import org.openzjl.index12306.framework.starter.mq.config.MessageSendJournalProperties;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * MQ 消息发送本地重试日志
+ * <p>
+ * 异步与批量发送模式下，消息在交给 Producer 之前先写入本地重试日志（每条消息一个文件），Broker 确认后删除。
+ * 发送失败、超时或实例在确认前宕机的消息由补发任务按 Topic 批量重新发送，超过最大次数后移入 dead 子目录。
+ * 各服务的发送模板通过 {@link #sendAsync}、{@link #enqueue} 接入，写入重试日志失败时由模板改为同步发送；
+ * 在事务内发送时由模板通过 {@link #runAfterCommit} 推迟到事务提交后，回滚的业务不会发出消息。
+ * </p>
+ * <ul>
+ *   <li>内存中维护待确认消息的补发时间索引，补发任务只读取到期消息的文件，不随积压量扫描整个目录</li>
+ *   <li>确认删除与补发失败后的改写按消息串行，迟到的确认删除文件后不会被补发失败重新写回</li>
+ *   <li>补发可能与迟到的异步确认重叠，消息投递语义为至少一次，依赖消费端的幂等处理</li>
+ *   <li>延迟消息不支持批量发送，补发时逐条发送，延迟时间从补发时刻重新计算</li>
+ * </ul>
+ *
+ * @author zhangjlk
+ * @date 2026/10/19 上午10:20
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class MessageSendJournal implements InitializingBean, DisposableBean {
+
+    private static final String JOURNAL_FILE_SUFFIX = ".json";
+    private static final String JOURNAL_TMP_SUFFIX = ".tmp";
+    private static final String DEAD_DIR = "dead";
+
+    private final RocketMQTemplate rocketMQTemplate;
+    private final MessageSendJournalProperties journalProperties;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * 尚未确认的消息，重试日志ID -> 补发索引项；确认删除与补发失败改写都在该 Map 的单 Key 原子操作内完成
+     */
+    private final Map<String, DueEntry> pending = new ConcurrentHashMap<>();
+
+    /**
+     * 按最早可补发时间排序的补发索引
+     */
+    private final ConcurrentSkipListSet<DueEntry> dueIndex = new ConcurrentSkipListSet<>(
+            Comparator.comparingLong(DueEntry::nextSendTime).thenComparing(DueEntry::id)
+    );
+
+    private Path journalDir;
+    private Path deadDir;
+    private ScheduledExecutorService retryExecutor;
+
+    @Override
+    public void afterPropertiesSet() throws IOException {
+        journalDir = Paths.get(journalProperties.getDir()).toAbsolutePath();
+        deadDir = journalDir.resolve(DEAD_DIR);
+        Files.createDirectories(deadDir);
+        loadJournalIndex();
+        if (!pending.isEmpty()) {
+            log.warn("[消息重试日志] 启动时发现 {} 条未确认消息，等待补发", pending.size());
+        }
+        Gauge.builder("mq.producer.journal.backlog", pending, Map::size)
+                .description("Messages written to the local send journal and not yet acknowledged by the broker")
+                .register(meterRegistry);
+        retryExecutor = Executors.newSingleThreadScheduledExecutor(
+                ThreadFactoryBuilder.create().setNamePrefix("mq-send-journal-").setDaemon(true).build()
+        );
+        long retryInterval = journalProperties.getRetryInterval().toMillis();
+        retryExecutor.scheduleWithFixedDelay(this::resendDue, retryInterval, retryInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 将 Spring 消息转换为 RocketMQ 原生消息
+     *
+     * @param topic      消息 Topic
+     * @param tag        消息 Tag，可为空
+     * @param message    Spring 消息
+     * @param delayLevel 延迟级别，为空或 0 表示不延迟
+     * @return RocketMQ 原生消息
+     */
+    public Message toRocketMessage(String topic, String tag, org.springframework.messaging.Message<?> message, Integer delayLevel) {
+        String destination = StrUtil.isNotBlank(tag) ? topic + ":" + tag : topic;
+        Message rocketMessage = RocketMQUtil.convertToRocketMessage(
+                rocketMQTemplate.getMessageConverter(),
+                rocketMQTemplate.getCharset(),
+                destination,
+                message
+        );
+        if (delayLevel != null && delayLevel > 0) {
+            rocketMessage.setDelayTimeLevel(delayLevel);
+        }
+        return rocketMessage;
+    }
+
+    /**
+     * 写入重试日志后异步发送，调用线程不等待 Broker 响应
+     * <p>
+     * Broker 确认后删除重试日志；发送失败、超时或确认前实例宕机的消息由补发任务重新发送，不向调用方抛出异常。
+     * </p>
+     *
+     * @param eventName   事件名称
+     * @param message     RocketMQ 原生消息
+     * @param sendTimeout 发送超时时间（毫秒）
+     * @return 重试日志写入失败返回 false，调用方应改为同步发送
+     */
+    public boolean sendAsync(String eventName, Message message, long sendTimeout) {
+        String journalId;
+        try {
+            // 首次发送的确认窗口内补发任务不会重复发送
+            journalId = append(eventName, message, sendTimeout, System.currentTimeMillis() + sendTimeout);
+        } catch (IOException ex) {
+            log.warn("[{}] 消息写入本地重试日志失败，改为同步发送", eventName, ex);
+            return false;
+        }
+        long startTime = System.nanoTime();
+        try {
+            rocketMQTemplate.getProducer().send(message, new SendCallback() {
+
+                @Override
+                public void onSuccess(SendResult sendResult) {
+                    remove(journalId);
+                    recordSend(eventName, "async", startTime, true);
+                    log.info("[{}] 消息异步发送结果：{}, 消息ID：{}, 消息Keys：{}",
+                            eventName,
+                            sendResult.getSendStatus(),
+                            sendResult.getMsgId(),
+                            message.getKeys());
+                }
+
+                @Override
+                public void onException(Throwable ex) {
+                    recordSend(eventName, "async", startTime, false);
+                    log.warn("[{}] 消息异步发送失败，等待补发，消息Keys：{}", eventName, message.getKeys(), ex);
+                }
+            }, sendTimeout);
+        } catch (Throwable ex) {
+            recordSend(eventName, "async", startTime, false);
+            log.warn("[{}] 消息异步发送失败，等待补发，消息Keys：{}", eventName, message.getKeys(), ex);
+        }
+        return true;
+    }
+
+    /**
+     * 写入重试日志，由补发线程按 Topic 合并为批量消息发送（延迟消息逐条发送）
+     * <p>
+     * 一次业务操作产生多条消息时，全部写入后调用 {@link #sendNow()} 立即触发发送。
+     * </p>
+     *
+     * @param eventName   事件名称
+     * @param message     RocketMQ 原生消息
+     * @param sendTimeout 发送超时时间（毫秒）
+     * @return 重试日志写入失败返回 false，调用方应改为同步发送
+     */
+    public boolean enqueue(String eventName, Message message, long sendTimeout) {
+        try {
+            append(eventName, message, sendTimeout, System.currentTimeMillis());
+            return true;
+        } catch (IOException ex) {
+            log.warn("[{}] 消息写入本地重试日志失败，改为同步发送", eventName, ex);
+            return false;
+        }
+    }
+
+    /**
+     * 在当前事务提交后执行，不在事务内时立即执行
+     * <p>
+     * 发送模板在事务方法中发送消息时，写入重试日志与发送都推迟到提交之后，事务回滚时不会发出消息；
+     * 提交后、写入重试日志前实例宕机的消息会丢失，需要由业务侧的超时任务兜底。
+     * </p>
+     *
+     * @param action 写入重试日志并发送的动作
+     */
+    public void runAfterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+            @Override
+            public void afterCommit() {
+                try {
+                    action.run();
+                } catch (Throwable ex) {
+                    log.error("[消息重试日志] 事务提交后发送消息失败", ex);
+                }
+            }
+        });
+    }
+
+    /**
+     * 写入重试日志
+     *
+     * @param eventName    事件名称
+     * @param message      待发送的 RocketMQ 消息
+     * @param sendTimeout  发送超时时间（毫秒）
+     * @param nextSendTime 补发任务最早可以发送该消息的时间戳（毫秒）
+     * @return 重试日志ID，Broker 确认后通过 {@link #remove(String)} 删除
+     * @throws IOException 写入失败
+     */
+    private String append(String eventName, Message message, long sendTimeout, long nextSendTime) throws IOException {
+        JournalRecord record = new JournalRecord();
+        record.setId(IdUtil.getSnowflakeNextIdStr());
+        record.setEventName(eventName);
+        record.setTopic(message.getTopic());
+        record.setBody(Base64.getEncoder().encodeToString(message.getBody()));
+        record.setProperties(message.getProperties());
+        record.setSendTimeout(sendTimeout);
+        record.setAttempts(0);
+        record.setNextSendTime(nextSendTime);
+        write(record);
+        index(record.getId(), nextSendTime);
+        return record.getId();
+    }
+
+    /**
+     * 消息已被 Broker 确认，删除重试日志
+     * <p>
+     * 先移出索引再删除文件：补发失败的改写在索引项仍存在时才执行，与移出索引互斥，之后删除文件不会再被写回
+     * </p>
+     */
+    private void remove(String journalId) {
+        DueEntry entry = pending.remove(journalId);
+        if (entry == null) {
+            return;
+        }
+        dueIndex.remove(entry);
+        try {
+            Files.deleteIfExists(journalFile(journalId));
+        } catch (IOException ex) {
+            log.error("[消息重试日志] 删除重试日志失败，消息将在重启后被重复发送，ID：{}", journalId, ex);
+        }
+    }
+
+    private void index(String journalId, long nextSendTime) {
+        DueEntry entry = new DueEntry(journalId, nextSendTime);
+        pending.put(journalId, entry);
+        dueIndex.add(entry);
+    }
+
+    /**
+     * 立即触发一次补发，批量发送模式写入重试日志后由补发线程按 Topic 合并发送
+     */
+    public void sendNow() {
+        retryExecutor.execute(this::resendDue);
+    }
+
+    /**
+     * 记录发送耗时
+     *
+     * @param eventName 事件名称
+     * @param mode      发送模式：sync、async、batch
+     * @param startTime 开始时间（{@link System#nanoTime()}）
+     * @param success   是否发送成功
+     */
+    public void recordSend(String eventName, String mode, long startTime, boolean success) {
+        Timer.builder("mq.producer.send")
+                .description("RocketMQ producer send latency")
+                .tag("event", eventName)
+                .tag("mode", mode)
+                .tag("result", success ? "success" : "failure")
+                .register(meterRegistry)
+                .record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void destroy() {
+        if (retryExecutor != null) {
+            retryExecutor.shutdown();
+        }
+    }
+
+    private void resendDue() {
+        try {
+            List<JournalRecord> dueRecords = loadDueRecords();
+            if (dueRecords.isEmpty()) {
+                return;
+            }
+            // 延迟消息不能批量发送
+            Map<Boolean, List<JournalRecord>> delayedPartition = dueRecords.stream()
+                    .collect(Collectors.partitioningBy(each -> each.getProperties().containsKey(MessageConst.PROPERTY_DELAY_TIME_LEVEL)));
+            delayedPartition.get(true).forEach(each -> resend(List.of(each)));
+            delayedPartition.get(false).stream()
+                    .collect(Collectors.groupingBy(JournalRecord::getTopic))
+                    .values()
+                    .forEach(each -> ListUtil.partition(each, journalProperties.getBatchSize()).forEach(this::resend));
+        } catch (Throwable ex) {
+            log.error("[消息重试日志] 补发任务执行失败", ex);
+        }
+    }
+
+    private void resend(List<JournalRecord> records) {
+        long startTime = System.nanoTime();
+        String eventName = records.get(0).getEventName();
+        long sendTimeout = records.stream().mapToLong(JournalRecord::getSendTimeout).max().orElse(3000L);
+        try {
+            if (records.size() == 1) {
+                rocketMQTemplate.getProducer().send(toMessage(records.get(0)), sendTimeout);
+            } else {
+                rocketMQTemplate.getProducer().send(records.stream().map(this::toMessage).toList(), sendTimeout);
+            }
+        } catch (Throwable ex) {
+            recordSend(eventName, "batch", startTime, false);
+            log.warn("[消息重试日志] [{}] 补发失败，消息数量：{}", eventName, records.size(), ex);
+            records.forEach(this::deferOrBury);
+            return;
+        }
+        recordSend(eventName, "batch", startTime, true);
+        records.forEach(each -> remove(each.getId()));
+    }
+
+    private void deferOrBury(JournalRecord record) {
+        int attempts = record.getAttempts() + 1;
+        // 迟到的异步确认已移出索引时不再改写，避免重新创建已删除的文件
+        pending.computeIfPresent(record.getId(), (journalId, entry) -> {
+            try {
+                if (attempts >= journalProperties.getMaxAttempts()) {
+                    Files.move(journalFile(journalId), deadDir.resolve(journalId + JOURNAL_FILE_SUFFIX), StandardCopyOption.REPLACE_EXISTING);
+                    dueIndex.remove(entry);
+                    meterRegistry.counter("mq.producer.journal.dead", "event", record.getEventName()).increment();
+                    log.error("[消息重试日志] [{}] 超过最大发送次数，移入 dead 目录，ID：{}", record.getEventName(), journalId);
+                    return null;
+                }
+                record.setAttempts(attempts);
+                record.setNextSendTime(System.currentTimeMillis() + journalProperties.getRetryDelay().toMillis() * attempts);
+                write(record);
+            } catch (IOException ex) {
+                log.error("[消息重试日志] 更新重试日志失败，ID：{}", journalId, ex);
+                return entry;
+            }
+            DueEntry deferred = new DueEntry(journalId, record.getNextSendTime());
+            dueIndex.remove(entry);
+            dueIndex.add(deferred);
+            return deferred;
+        });
+    }
+
+    private List<JournalRecord> loadDueRecords() {
+        long now = System.currentTimeMillis();
+        List<JournalRecord> dueRecords = new ArrayList<>();
+        for (DueEntry each : dueIndex) {
+            if (each.nextSendTime() > now || dueRecords.size() >= journalProperties.getRetryLimit()) {
+                break;
+            }
+            try {
+                dueRecords.add(JSON.parseObject(Files.readAllBytes(journalFile(each.id())), JournalRecord.class));
+            } catch (IOException ex) {
+                // 已被异步确认删除
+            }
+        }
+        return dueRecords;
+    }
+
+    /**
+     * 启动时读取一次全部重试日志建立补发索引，之后由写入、确认与补发维护
+     */
+    private void loadJournalIndex() throws IOException {
+        for (Path each : listJournalFiles()) {
+            try {
+                JournalRecord record = JSON.parseObject(Files.readAllBytes(each), JournalRecord.class);
+                index(record.getId(), record.getNextSendTime());
+            } catch (Throwable ex) {
+                log.error("[消息重试日志] 读取重试日志失败，跳过补发：{}", each, ex);
+            }
+        }
+    }
+
+    private List<Path> listJournalFiles() throws IOException {
+        List<Path> journalFiles = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(journalDir, "*" + JOURNAL_FILE_SUFFIX)) {
+            stream.forEach(journalFiles::add);
+        }
+        // 雪花ID递增，按文件名排序即按写入顺序补发
+        journalFiles.sort(null);
+        return journalFiles;
+    }
+
+    private void write(JournalRecord record) throws IOException {
+        Path tmpFile = journalDir.resolve(record.getId() + JOURNAL_TMP_SUFFIX);
+        if (journalProperties.getFsync()) {
+            Files.write(tmpFile, JSON.toJSONBytes(record), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE, StandardOpenOption.DSYNC);
+        } else {
+            Files.write(tmpFile, JSON.toJSONBytes(record));
+        }
+        // 先写临时文件再原子替换，补发任务不会读到写了一半的记录
+        Files.move(tmpFile, journalFile(record.getId()), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private Path journalFile(String journalId) {
+        return journalDir.resolve(journalId + JOURNAL_FILE_SUFFIX);
+    }
+
+    private Message toMessage(JournalRecord record) {
+        Message message = new Message(record.getTopic(), Base64.getDecoder().decode(record.getBody()));
+        MessageAccessor.setProperties(message, new HashMap<>(record.getProperties()));
+        return message;
+    }
+
+    /**
+     * 补发索引项
+     *
+     * @param id           重试日志ID
+     * @param nextSendTime 最早可补发时间戳（毫秒）
+     */
+    private record DueEntry(String id, long nextSendTime) {
+    }
+
+    /**
+     * 重试日志记录
+     */
+    @Data
+    @NoArgsConstructor
+    public static class JournalRecord {
+
+        /**
+         * 重试日志ID
+         */
+        private String id;
+
+        /**
+         * 事件名称
+         */
+        private String eventName;
+
+        /**
+         * 消息 Topic
+         */
+        private String topic;
+
+        /**
+         * Base64 编码的消息体
+         */
+        private String body;
+
+        /**
+         * 消息属性，包含 Keys、Tags 与延迟级别
+         */
+        private Map<String, String> properties;
+
+        /**
+         * 发送超时时间（毫秒）
+         */
+        private Long sendTimeout;
+
+        /**
+         * 补发任务已发送次数
+         */
+        private Integer attempts;
+
+        /**
+         * 最早可补发时间戳（毫秒）
+         */
+        private Long nextSendTime;
+    }
+}
@@ -0,0 +1,24 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.biz.gatewayservice.config;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 购票准入过滤器配置
+ *
+ * @author zhangjlk
+ * @date 2026/10/18 下午6:20
+ */
+@Data
+public class PurchaseAdmissionConfig {
+
+    /**
+     * 需要准入控制的购票路径前缀
+     */
+    private List<String> pathPre;
+}
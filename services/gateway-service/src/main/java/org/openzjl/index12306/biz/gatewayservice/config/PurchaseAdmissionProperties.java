@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.biz.gatewayservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 热门车次购票准入配置
+ * <p>
+ * 配置刷新（/actuator/refresh）后重新绑定，/actuator/purchaseAdmission 只读展示当前限额与令牌余量。
+ * 限额按网关实例计算，全局限额 = 单实例限额 × 网关实例数。
+ * </p>
+ *
+ * @author zhangjlk
+ * @date 2026/10/18 下午6:20
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = PurchaseAdmissionProperties.PREFIX)
+public class PurchaseAdmissionProperties {
+
+    public static final String PREFIX = "gateway.purchase-admission";
+
+    /**
+     * 是否开启购票准入控制
+     */
+    private Boolean enabled = true;
+
+    /**
+     * 默认单车次每秒放行的购票请求数，小于等于 0 表示不限流
+     */
+    private Double defaultRate = 200D;
+
+    /**
+     * 默认单车次令牌桶容量，允许的瞬时突发请求数
+     */
+    private Double defaultBurst = 400D;
+
+    /**
+     * 单车次限额，Key 为车次ID，未配置的车次使用默认限额
+     */
+    private Map<String, TrainLimit> trainLimits = new ConcurrentHashMap<>();
+
+    /**
+     * 最多保留的车次令牌桶数量，超出后淘汰最近最少使用的令牌桶，启动时读取
+     */
+    private Long maxTrackedTrains = 10000L;
+
+    /**
+     * 令牌桶空闲淘汰时间，启动时读取
+     */
+    private Duration idleTimeout = Duration.ofMinutes(10);
+
+    /**
+     * 单车次限额
+     */
+    @Data
+    public static class TrainLimit {
+
+        /**
+         * 每秒放行的购票请求数，小于等于 0 表示不限流
+         */
+        private Double rate;
+
+        /**
+         * 令牌桶容量
+         */
+        private Double burst;
+    }
+}
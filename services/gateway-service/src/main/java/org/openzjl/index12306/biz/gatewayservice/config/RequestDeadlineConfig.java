@@ -0,0 +1,22 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.biz.gatewayservice.config;
+
+import lombok.Data;
+
+/**
+ * 请求截止时间过滤器配置
+ *
+ * @author zhangjlk
+ * @date 2026/10/18 下午8:10
+ */
+@Data
+public class RequestDeadlineConfig {
+
+    /**
+     * 请求时间预算（毫秒），从网关收到请求开始计算
+     */
+    private Long timeout = 10000L;
+}
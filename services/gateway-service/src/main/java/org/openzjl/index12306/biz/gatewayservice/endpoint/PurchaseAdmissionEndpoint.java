@@ -0,0 +1,36 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.biz.gatewayservice.endpoint;
+
+import lombok.RequiredArgsConstructor;
+import org.openzjl.index12306.biz.gatewayservice.filter.admission.TrainAdmissionLimiter;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * 购票准入运维端点
+ * <p>
+ * GET /actuator/purchaseAdmission 查看限额与令牌余量。
+ * 端点只读：网关的 Actuator 与业务共用端口，限额调整通过配置 gateway.purchase-admission.train-limits 刷新完成。
+ * </p>
+ *
+ * @author zhangjlk
+ * @date 2026/10/18 下午6:20
+ */
+@Component
+@RequiredArgsConstructor
+@Endpoint(id = "purchaseAdmission")
+public class PurchaseAdmissionEndpoint {
+
+    private final TrainAdmissionLimiter trainAdmissionLimiter;
+
+    @ReadOperation
+    public Map<String, Object> admission() {
+        return trainAdmissionLimiter.snapshot();
+    }
+}
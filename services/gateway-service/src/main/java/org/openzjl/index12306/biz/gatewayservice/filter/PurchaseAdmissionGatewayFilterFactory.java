@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.biz.gatewayservice.filter;
+
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONObject;
+import com.alibaba.nacos.client.naming.utils.CollectionUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.openzjl.index12306.biz.gatewayservice.config.PurchaseAdmissionConfig;
+import org.openzjl.index12306.biz.gatewayservice.config.PurchaseAdmissionProperties;
+import org.openzjl.index12306.biz.gatewayservice.filter.admission.TrainAdmissionLimiter;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * SpringCloud Gateway 热门车次购票准入过滤器
+ * <p>
+ * 购票请求在网关按请求体中的车次ID做令牌桶限流，超出车次限额的请求直接返回 429 和 Retry-After，
+ * 不再占用购票服务的线程、数据库连接和分布式锁。请求体缓存后继续转发，下游可以正常读取。
+ * </p>
+ *
+ * @author zhangjlk
+ * @date 2026/10/18 下午6:20
+ */
+@Slf4j
+@Component
+public class PurchaseAdmissionGatewayFilterFactory extends AbstractGatewayFilterFactory<PurchaseAdmissionConfig> {
+
+    /**
+     * 准入拒绝错误码，遵循用户端错误 A 开头的错误码规范
+     */
+    private static final String ADMISSION_REJECTED_CODE = "A000300";
+
+    private final PurchaseAdmissionProperties admissionProperties;
+    private final TrainAdmissionLimiter trainAdmissionLimiter;
+
+    public PurchaseAdmissionGatewayFilterFactory(PurchaseAdmissionProperties admissionProperties, TrainAdmissionLimiter trainAdmissionLimiter) {
+        super(PurchaseAdmissionConfig.class);
+        this.admissionProperties = admissionProperties;
+        this.trainAdmissionLimiter = trainAdmissionLimiter;
+    }
+
+    @Override
+    public GatewayFilter apply(PurchaseAdmissionConfig config) {
+        return (exchange, chain) -> {
+            String requestPath = exchange.getRequest().getPath().toString();
+            if (!admissionProperties.getEnabled() || !isPathInPreList(requestPath, config.getPathPre())) {
+                return chain.filter(exchange);
+            }
+            // 缓存请求体：这里解析车次ID，转发时由装饰后的请求重新输出
+            return ServerWebExchangeUtils.cacheRequestBody(exchange, request -> {
+                ServerWebExchange cachedExchange = exchange.mutate().request(request).build();
+                String trainId = parseTrainId(exchange.getAttribute(ServerWebExchangeUtils.CACHED_REQUEST_BODY_ATTR));
+                if (trainId == null) {
+                    // 无法识别车次的请求交给购票服务的参数校验处理
+                    return chain.filter(cachedExchange);
+                }
+                long retryAfterMillis = trainAdmissionLimiter.tryAcquire(trainId);
+                if (retryAfterMillis <= 0) {
+                    return chain.filter(cachedExchange);
+                }
+                return reject(exchange, retryAfterMillis);
+            });
+        };
+    }
+
+    private String parseTrainId(DataBuffer body) {
+        if (body == null || body.readableByteCount() == 0) {
+            return null;
+        }
+        try {
+            // 按可读区间转换为字符串，不移动读指针，转发时仍输出完整请求体
+            JSONObject jsonObject = JSON.parseObject(body.toString(StandardCharsets.UTF_8));
+            return jsonObject == null ? null : jsonObject.getString("trainId");
+        } catch (Throwable ex) {
+            log.warn("购票准入解析请求体失败：{}", ex.getMessage());
+            return null;
+        }
+    }
+
+    private Mono<Void> reject(ServerWebExchange exchange, long retryAfterMillis) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        // Retry-After 只支持秒，向上取整；毫秒级提示放在响应体中
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf((retryAfterMillis + 999) / 1000));
+        JSONObject result = new JSONObject();
+        result.put("code", ADMISSION_REJECTED_CODE);
+        result.put("message", "当前车次购票人数过多，请稍后再试");
+        result.put("data", JSONObject.of("retryAfterMillis", retryAfterMillis));
+        DataBuffer buffer = response.bufferFactory().wrap(result.toJSONString().getBytes(StandardCharsets.UTF_8));
+        return response.writeWith(Mono.just(buffer));
+    }
+
+    private boolean isPathInPreList(String requestPath, List<String> pathPre) {
+        if (CollectionUtils.isEmpty(pathPre)) {
+            return false;
+        }
+        return pathPre.stream().anyMatch(requestPath::startsWith);
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.biz.gatewayservice.filter;
+
+import org.openzjl.index12306.biz.gatewayservice.config.RequestDeadlineConfig;
+import org.openzjl.index12306.framework.starter.bases.constant.UserConstant;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * SpringCloud Gateway 请求截止时间过滤器
+ * <p>
+ * 把路由配置的时间预算（毫秒数）写入请求头，覆盖客户端自带的同名请求头。
+ * 下游服务由 {@code UserTransmitFilter} 放入用户上下文，并在远程调用、分布式锁等待和数据库查询时按剩余时间收紧超时，
+ * 客户端已经放弃的请求不再继续消耗下游资源。
+ * </p>
+ *
+ * @author zhangjlk
+ * @date 2026/10/18 下午8:10
+ */
+@Component
+public class RequestDeadlineGatewayFilterFactory extends AbstractGatewayFilterFactory<RequestDeadlineConfig> {
+
+    public RequestDeadlineGatewayFilterFactory() {
+        super(RequestDeadlineConfig.class);
+    }
+
+    @Override
+    public GatewayFilter apply(RequestDeadlineConfig config) {
+        return (exchange, chain) -> {
+            return chain.filter(exchange.mutate()
+                    .request(exchange.getRequest()
+                            .mutate()
+                            .headers(httpHeaders -> httpHeaders.set(UserConstant.REQUEST_TIMEOUT_KEY, String.valueOf(config.getTimeout())))
+                            .build())
+                    .build());
+        };
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.biz.gatewayservice.filter.admission;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.RequiredArgsConstructor;
+import org.openzjl.index12306.biz.gatewayservice.config.PurchaseAdmissionProperties;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 车次维度购票准入限流器
+ * <p>
+ * 每个车次一个本地令牌桶，按请求到达时间惰性补充令牌。限额在每次获取时读取配置，调整后立即生效，无需重建令牌桶。
+ * 车次ID来自客户端请求，令牌桶保存在有容量上限的 Caffeine 缓存中，超过空闲时间或数量上限时淘汰，
+ * 伪造的车次ID不会让令牌桶无限增长。
+ * </p>
+ *
+ * @author zhangjlk
+ * @date 2026/10/18 下午6:20
+ */
+@Component
+@RequiredArgsConstructor
+public class TrainAdmissionLimiter implements InitializingBean {
+
+    private final PurchaseAdmissionProperties admissionProperties;
+
+    private Cache<String, TrainBucket> buckets;
+
+    @Override
+    public void afterPropertiesSet() {
+        buckets = Caffeine.newBuilder()
+                .maximumSize(admissionProperties.getMaxTrackedTrains())
+                .expireAfterAccess(admissionProperties.getIdleTimeout())
+                .build();
+    }
+
+    /**
+     * 尝试放行车次的一次购票请求
+     *
+     * @param trainId 车次ID
+     * @return 0 表示放行；大于 0 表示拒绝，值为建议的重试等待毫秒数
+     */
+    public long tryAcquire(String trainId) {
+        PurchaseAdmissionProperties.TrainLimit trainLimit = admissionProperties.getTrainLimits().get(trainId);
+        double rate = trainLimit != null && trainLimit.getRate() != null ? trainLimit.getRate() : admissionProperties.getDefaultRate();
+        if (rate <= 0) {
+            return 0L;
+        }
+        double burst = trainLimit != null && trainLimit.getBurst() != null ? trainLimit.getBurst() : admissionProperties.getDefaultBurst();
+        burst = Math.max(1D, burst);
+        double initialTokens = burst;
+        return buckets.get(trainId, key -> new TrainBucket(initialTokens)).tryAcquire(rate, burst);
+    }
+
+    /**
+     * 当前限额配置与各车次令牌桶剩余令牌
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Double> availableTokens = new LinkedHashMap<>();
+        buckets.asMap().forEach((trainId, bucket) -> availableTokens.put(trainId, bucket.availableTokens()));
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", admissionProperties.getEnabled());
+        result.put("defaultRate", admissionProperties.getDefaultRate());
+        result.put("defaultBurst", admissionProperties.getDefaultBurst());
+        result.put("trainLimits", admissionProperties.getTrainLimits());
+        result.put("availableTokens", availableTokens);
+        return result;
+    }
+
+    private static final class TrainBucket {
+
+        private double tokens;
+        private long lastRefillNanos;
+
+        private TrainBucket(double tokens) {
+            this.tokens = tokens;
+            this.lastRefillNanos = System.nanoTime();
+        }
+
+        private synchronized long tryAcquire(double rate, double burst) {
+            long now = System.nanoTime();
+            tokens = Math.min(burst, tokens + (now - lastRefillNanos) * rate / 1_000_000_000D);
+            lastRefillNanos = now;
+            if (tokens >= 1D) {
+                tokens -= 1D;
+                return 0L;
+            }
+            // 距离补满一个令牌的时间
+            return Math.max(1L, (long) Math.ceil((1D - tokens) / rate * 1000D));
+        }
+
+        private synchronized double availableTokens() {
+            return tokens;
+        }
+    }
+}
@@ -10,8 +10,10 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.rocketmq.client.producer.SendResult;
 import org.apache.rocketmq.spring.core.RocketMQTemplate;
+import org.openzjl.index12306.framework.starter.mq.core.MessageSendJournal;
 import org.springframework.messaging.Message;
 
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -44,6 +46,7 @@ import java.util.Optional;
  *   <li><strong>支持发送超时配置：</strong>可设置消息发送的超时时间，避免无限等待</li>
  *   <li><strong>完整的日志记录：</strong>记录发送结果和失败原因，便于问题排查</li>
  *   <li><strong>统一的异常处理：</strong>捕获并记录异常，然后重新抛出，确保调用方感知</li>
+ *   <li><strong>异步与批量发送：</strong>消息先写入本地重试日志 {@link MessageSendJournal} 再发送，调用线程不等待 Broker 响应，失败由补发任务重试</li>
  * </ul>
  *
  * @param <T> 消息事件类型，由子类指定具体的消息事件类型
@@ -63,6 +66,14 @@ public abstract class AbstractCommonSendProduceTemplate<T> {
      */
     private final RocketMQTemplate rocketMQTemplate;
 
+    /**
+     * 消息发送本地重试日志
+     * <p>
+     * 异步与批量发送模式下保存未确认的消息，同时记录发送耗时与积压指标。
+     * </p>
+     */
+    private final MessageSendJournal messageSendJournal;
+
     /**
      * 构建消息发送的扩展参数
      * <p>
@@ -154,6 +165,7 @@ public abstract class AbstractCommonSendProduceTemplate<T> {
         // 构建消息发送扩展参数（由子类实现）
         BaseSendExtendDTO baseSendExtendDTO = buildBaseSendExtendParam(messageSendEvent);
         SendResult sendResult;
+        long startTime = System.nanoTime();
         try {
             // 构建目标地址：如果存在Tag，格式为 "Topic:Tag"，否则为 "Topic"
             StringBuilder destinationBuilder = StrUtil.builder().append(baseSendExtendDTO.getTopic());
@@ -177,7 +189,9 @@ public abstract class AbstractCommonSendProduceTemplate<T> {
                     sendResult.getSendStatus(), 
                     sendResult.getMsgId(), 
                     baseSendExtendDTO.getKeys());
+            messageSendJournal.recordSend(baseSendExtendDTO.getEventName(), "sync", startTime, true);
         } catch (Throwable ex) {
+            messageSendJournal.recordSend(baseSendExtendDTO.getEventName(), "sync", startTime, false);
             // 记录发送失败日志：包含事件名称、消息体内容、异常信息
             // 详细的日志有助于问题定位
             log.error("[{}] 消息发送失败，消息体：{}", 
@@ -190,4 +204,53 @@ public abstract class AbstractCommonSendProduceTemplate<T> {
         }
         return sendResult;
     }
+
+    /**
+     * 异步发送消息到RocketMQ
+     * <p>
+     * 消息先写入本地重试日志，再交给 Producer 异步发送，调用线程不等待 Broker 响应，失败由补发任务重试。
+     * 重试日志写入失败时退化为同步发送 {@link #sendMessage(Object)}。
+     * 在事务内调用时推迟到事务提交后写入重试日志并发送，事务回滚时不发送。
+     * </p>
+     *
+     * @param messageSendEvent 消息发送事件对象
+     */
+    public void sendMessageAsync(T messageSendEvent) {
+        messageSendJournal.runAfterCommit(() -> {
+            BaseSendExtendDTO baseSendExtendDTO = buildBaseSendExtendParam(messageSendEvent);
+            if (!messageSendJournal.sendAsync(baseSendExtendDTO.getEventName(), buildRocketMessage(messageSendEvent, baseSendExtendDTO), baseSendExtendDTO.getSendTimeout())) {
+                sendMessage(messageSendEvent);
+            }
+        });
+    }
+
+    /**
+     * 批量发送消息到RocketMQ
+     * <p>
+     * 消息全部写入本地重试日志后立即返回，由补发线程按 Topic 合并为批量消息发送。
+     * 适用于一次业务操作产生多条消息的场景，减少与 Broker 的往返次数。在事务内调用时同样推迟到事务提交后。
+     * </p>
+     *
+     * @param messageSendEvents 消息发送事件对象列表
+     */
+    public void sendMessageBatch(List<T> messageSendEvents) {
+        messageSendJournal.runAfterCommit(() -> {
+            for (T each : messageSendEvents) {
+                BaseSendExtendDTO baseSendExtendDTO = buildBaseSendExtendParam(each);
+                if (!messageSendJournal.enqueue(baseSendExtendDTO.getEventName(), buildRocketMessage(each, baseSendExtendDTO), baseSendExtendDTO.getSendTimeout())) {
+                    sendMessage(each);
+                }
+            }
+            messageSendJournal.sendNow();
+        });
+    }
+
+    private org.apache.rocketmq.common.message.Message buildRocketMessage(T messageSendEvent, BaseSendExtendDTO baseSendExtendDTO) {
+        return messageSendJournal.toRocketMessage(
+                baseSendExtendDTO.getTopic(),
+                baseSendExtendDTO.getTag(),
+                buildMessage(messageSendEvent, baseSendExtendDTO),
+                baseSendExtendDTO.getDelayLevel()
+        );
+    }
 }
@@ -8,6 +8,7 @@ import cn.hutool.core.util.StrUtil;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.rocketmq.common.message.MessageConst;
 import org.apache.rocketmq.spring.core.RocketMQTemplate;
+import org.openzjl.index12306.framework.starter.mq.core.MessageSendJournal;
 import org.openzjl.index12306.biz.orderservice.common.constant.OrderRocketMQConstant;
 import org.openzjl.index12306.biz.orderservice.mq.domain.MessageWrapper;
 import org.openzjl.index12306.biz.orderservice.mq.event.DelayCloseOrderEvent;
@@ -52,10 +53,11 @@ public class DelayCloseOrderSendProduce extends AbstractCommonSendProduceTemplat
      * 构造函数
      *
      * @param rocketMQTemplate RocketMQ模板，用于发送消息
+     * @param messageSendJournal 消息发送本地重试日志
      * @param environment Spring环境配置
      */
-    public DelayCloseOrderSendProduce(@Autowired RocketMQTemplate rocketMQTemplate, @Autowired ConfigurableEnvironment environment) {
-        super(rocketMQTemplate);
+    public DelayCloseOrderSendProduce(@Autowired RocketMQTemplate rocketMQTemplate, @Autowired MessageSendJournal messageSendJournal, @Autowired ConfigurableEnvironment environment) {
+        super(rocketMQTemplate, messageSendJournal);
         this.environment = environment;
     }
 
@@ -14,8 +14,6 @@ import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.core.toolkit.Wrappers;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.rocketmq.client.producer.SendResult;
-import org.apache.rocketmq.client.producer.SendStatus;
 import org.openzjl.index12306.biz.orderservice.common.enums.OrderCanalErrorCodeEnum;
 import org.openzjl.index12306.biz.orderservice.common.enums.OrderItemStatusEnum;
 import org.openzjl.index12306.biz.orderservice.common.enums.OrderStatusEnum;
@@ -56,7 +54,6 @@ import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
-import java.util.Objects;
 
 /**
  * 订单服务接口实现类
@@ -430,12 +427,8 @@ public class OrderServiceImpl implements OrderService {
                     .orderSn(orderSn)                                                  // 订单号
                     .trainPurchaseTicketResults(requestParam.getTicketOrderItems())     // 订单明细列表（用于释放车票库存）
                     .build();
-            // 发送延迟消息到RocketMQ（延迟级别14，约10分钟后投递）
-            SendResult sendResult = delayCloseOrderSendProduce.sendMessage(delayCloseOrderEvent);
-            // 校验消息发送结果，如果发送失败则抛出异常
-            if (!Objects.equals(sendResult.getSendStatus(), SendStatus.SEND_OK)) {
-                log.warn("投递延迟关闭订单消息队列失败，sendStatus={}，requestParam={}", sendResult.getSendStatus(), JSON.toJSONString(requestParam));
-            }
+            // 事务提交后异步发送延迟消息到RocketMQ（延迟级别14，约10分钟后投递），发送失败由本地重试日志补发，不阻塞下单
+            delayCloseOrderSendProduce.sendMessageAsync(delayCloseOrderEvent);
         } catch (Throwable ex) {
             // 本地/开发环境可能未启动 RocketMQ 或 Topic 未创建；不应影响下单主流程
             log.warn("延迟关闭订单消息队列发送异常（不影响下单），requestParam={}", JSON.toJSONString(requestParam), ex);
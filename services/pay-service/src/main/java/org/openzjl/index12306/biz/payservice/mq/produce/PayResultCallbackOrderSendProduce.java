@@ -9,6 +9,7 @@ import com.alibaba.fastjson2.JSON;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.rocketmq.common.message.MessageConst;
 import org.apache.rocketmq.spring.core.RocketMQTemplate;
+import org.openzjl.index12306.framework.starter.mq.core.MessageSendJournal;
 import org.openzjl.index12306.biz.payservice.common.constant.PayRocketMQConstant;
 import org.openzjl.index12306.biz.payservice.mq.domain.MessageWrapper;
 import org.openzjl.index12306.biz.payservice.mq.event.PayResultCallbackOrderEvent;
@@ -46,10 +47,11 @@ public class PayResultCallbackOrderSendProduce extends AbstractCommonSendProduce
      * 构造方法
      *
      * @param rocketMQTemplate RocketMQ模板，用于发送消息
+     * @param messageSendJournal 消息发送本地重试日志
      * @param environment 配置环境，用于解析配置文件中的占位符
      */
-    public PayResultCallbackOrderSendProduce(@Autowired RocketMQTemplate rocketMQTemplate, @Autowired ConfigurableEnvironment environment) {
-        super(rocketMQTemplate);
+    public PayResultCallbackOrderSendProduce(@Autowired RocketMQTemplate rocketMQTemplate, @Autowired MessageSendJournal messageSendJournal, @Autowired ConfigurableEnvironment environment) {
+        super(rocketMQTemplate, messageSendJournal);
         this.environment = environment;
     }
 
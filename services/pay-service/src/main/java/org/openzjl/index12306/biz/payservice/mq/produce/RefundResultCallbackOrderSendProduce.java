@@ -9,6 +9,7 @@ import com.alibaba.fastjson2.JSON;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.rocketmq.common.message.MessageConst;
 import org.apache.rocketmq.spring.core.RocketMQTemplate;
+import org.openzjl.index12306.framework.starter.mq.core.MessageSendJournal;
 import org.openzjl.index12306.biz.payservice.mq.domain.MessageWrapper;
 import org.openzjl.index12306.biz.payservice.mq.event.RefundResultCallBackOrderEvent;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -69,15 +70,19 @@ public class RefundResultCallbackOrderSendProduce extends AbstractCommonSendProd
      *                           <li>用于发送消息到 RocketMQ</li>
      *                           <li>传递给父类构造函数</li>
      *                         </ul>
+     * @param messageSendJournal 消息发送本地重试日志
+     *                           <ul>
+     *                             <li>异步与批量发送时保存未确认的消息，传递给父类构造函数</li>
+     *                           </ul>
      * @param environment 配置环境
      *                    <ul>
      *                      <li>用于获取 RocketMQ 的 Topic 和 Tag 配置</li>
      *                      <li>存储为成员变量，供后续方法使用</li>
      *                    </ul>
      */
-    public RefundResultCallbackOrderSendProduce(@Autowired RocketMQTemplate rocketMQTemplate, @Autowired ConfigurableEnvironment environment) {
-        // 调用父类构造函数，传入 RocketMQTemplate
-        super(rocketMQTemplate);
+    public RefundResultCallbackOrderSendProduce(@Autowired RocketMQTemplate rocketMQTemplate, @Autowired MessageSendJournal messageSendJournal, @Autowired ConfigurableEnvironment environment) {
+        // 调用父类构造函数，传入 RocketMQTemplate 和消息发送本地重试日志
+        super(rocketMQTemplate, messageSendJournal);
         // 初始化配置环境成员变量
         this.environment = environment;
     }
@@ -122,7 +122,7 @@ public class PayServiceImpl implements PayService {
             insertPay.setPayAmount(updatePayDO.getPayAmount());
             insertPay.setTradeNo(updatePayDO.getTradeNo());
             insertPay.setGmtPayment(updatePayDO.getGmtPayment());
-            payResultCallbackOrderSendProduce.sendMessage(BeanUtil.convert(insertPay, PayResultCallbackOrderEvent.class));
+            payResultCallbackOrderSendProduce.sendMessageAsync(BeanUtil.convert(insertPay, PayResultCallbackOrderEvent.class));
         }
 
         distributedCache.put(ORDER_PAY_RESULT_INFO + requestParam.getOrderSn(), JSON.toJSONString(result), 10, TimeUnit.MINUTES);
@@ -166,7 +166,7 @@ public class PayServiceImpl implements PayService {
             log.error("濞ｅ浂鍠楅弫濂稿绩椤栨瑧甯涢柛妤佹礃閺侇喗绂掑Ο鑲╂尝闁哄绮岄妵鎴犳嫻閵夘垳绀夐柡鈧娆戝笡闁告娲戞穱濠囧箒? {}", JSON.toJSONString(payDO));
         }
         if (Objects.equals(payCallbackRequestParam.getStatus(), TradeStatusEnum.TRADE_SUCCESS.tradeCode())) {
-            payResultCallbackOrderSendProduce.sendMessage(BeanUtil.convert(payDO, PayResultCallbackOrderEvent.class));
+            payResultCallbackOrderSendProduce.sendMessageAsync(BeanUtil.convert(payDO, PayResultCallbackOrderEvent.class));
         }
     }
 }
@@ -177,7 +177,7 @@ public class RefundServiceImpl implements RefundService {
                     .refundType(requestParam.getRefundTypeEnum())
                     .partialRefundTicketDetailList(requestParam.getRefundDetailReqDTOList())
                     .build();
-            refundResultCallbackOrderSendProduce.sendMessage(refundResultCallBackOrderEvent);
+            refundResultCallbackOrderSendProduce.sendMessageAsync(refundResultCallBackOrderEvent);
         }
 
         return refundRespDTO;
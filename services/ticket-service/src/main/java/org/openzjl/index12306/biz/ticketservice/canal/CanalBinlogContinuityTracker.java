@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.biz.ticketservice.canal;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.openzjl.index12306.biz.ticketservice.common.enums.CanalExecuteStrategyMarkEnum;
+import org.openzjl.index12306.biz.ticketservice.config.CanalBinlogContinuityProperties;
+import org.openzjl.index12306.biz.ticketservice.dao.mapper.SeatMapper;
+import org.openzjl.index12306.biz.ticketservice.mq.event.CanalBinlogEvent;
+import org.openzjl.index12306.biz.ticketservice.service.cache.SeatMarginCacheLoader;
+import org.openzjl.index12306.framework.starter.bases.Singleton;
+import org.openzjl.index12306.framework.starter.cache.DistributedCache;
+import org.openzjl.index12306.framework.starter.log.threadpool.build.ThreadFactoryBuilder;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scripting.support.ResourceScriptSource;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.openzjl.index12306.biz.ticketservice.common.constant.RedisKeyConstant.CANAL_BINLOG_CHECKPOINT;
+import static org.openzjl.index12306.biz.ticketservice.common.constant.RedisKeyConstant.CANAL_BINLOG_PENDING;
+
+/**
+ * Canal Binlog 消费连续性跟踪
+ * <p>
+ * Canal 扁平消息不携带 Binlog 文件名与偏移量，以 Canal 批次号（消息ID，同一实例内逐批次递增）和 Binlog 时间戳作为消费位点。
+ * 消息处理成功后按库记录位点，消费失败或进入死信的消息不会被记录，最终都表现为断档：
+ * <ul>
+ *   <li>乱序：同一张表的 Binlog 时间戳回退，只上报指标</li>
+ *   <li>断档：消息ID跳跃且缺失的消息在等待超时后仍未到达，按断档前后的 Binlog 时间戳查询期间座位变更过的列车，
+ *   通过 {@link SeatMarginCacheLoader#rebuild} 异步重建这些列车的余票缓存，重建数量有上限，超出部分留给余票对账任务</li>
+ *   <li>ID重置：Canal 实例重建后消息ID重新计数，以新的消息ID重新建立水位</li>
+ * </ul>
+ * 订单库的断档不重建缓存，未关闭订单占用的座位由座位保留清理任务释放。断档检查在每条消息记录位点时进行，没有新消息时不会触发。
+ * </p>
+ *
+ * @author zhangjlk
+ * @date 2026/10/19 下午5:20
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CanalBinlogContinuityTracker implements InitializingBean, DisposableBean {
+
+    private static final String LUA_CANAL_BINLOG_CHECKPOINT_PATH = "lua/canal_binlog_checkpoint.lua";
+
+    private static final long STATUS_GAP = 2L;
+    private static final long STATUS_RESET = 3L;
+
+    private final SeatMapper seatMapper;
+    private final SeatMarginCacheLoader seatMarginCacheLoader;
+    private final DistributedCache distributedCache;
+    private final CanalBinlogContinuityProperties continuityProperties;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * 已提交、尚未执行重建的列车，避免连续断档重复重建同一趟列车
+     */
+    private final Set<String> rebuildingTrainIds = ConcurrentHashMap.newKeySet();
+
+    private ExecutorService rebuildExecutor;
+    private Counter reorderedCounter;
+    private Counter gapCounter;
+    private Counter resetCounter;
+    private Counter rebuiltCounter;
+
+    @Override
+    public void afterPropertiesSet() {
+        reorderedCounter = Counter.builder("ticket.canal.binlog.reordered")
+                .description("Canal binlog events whose timestamp is behind the last consumed event of the same table")
+                .register(meterRegistry);
+        gapCounter = Counter.builder("ticket.canal.binlog.gaps")
+                .description("Canal binlog message id gaps declared lost")
+                .register(meterRegistry);
+        resetCounter = Counter.builder("ticket.canal.binlog.resets")
+                .description("Canal binlog message id restarts detected")
+                .register(meterRegistry);
+        rebuiltCounter = Counter.builder("ticket.canal.binlog.gap.rebuilt.trains")
+                .description("Trains whose remaining ticket cache was rebuilt after a binlog gap")
+                .register(meterRegistry);
+        rebuildExecutor = Executors.newSingleThreadExecutor(
+                ThreadFactoryBuilder.builder().prefix("canal-binlog-gap-rebuilder-").daemon(true).build()
+        );
+    }
+
+    /**
+     * 记录一条已处理成功的 Binlog 消息的位点并检查连续性，检查失败不影响消息消费
+     */
+    public void record(CanalBinlogEvent message) {
+        if (!continuityProperties.getEnabled() || message.getId() == null || message.getEs() == null) {
+            return;
+        }
+        DefaultRedisScript<List> actual = Singleton.get(LUA_CANAL_BINLOG_CHECKPOINT_PATH, () -> {
+            DefaultRedisScript<List> redisScript = new DefaultRedisScript<>();
+            redisScript.setScriptSource(new ResourceScriptSource(new ClassPathResource(LUA_CANAL_BINLOG_CHECKPOINT_PATH)));
+            redisScript.setResultType(List.class);
+            return redisScript;
+        });
+        StringRedisTemplate stringRedisTemplate = (StringRedisTemplate) distributedCache.getInstance();
+        List<String> keys = List.of(
+                String.format(CANAL_BINLOG_CHECKPOINT, message.getDatabase()),
+                String.format(CANAL_BINLOG_PENDING, message.getDatabase())
+        );
+        List<?> result;
+        try {
+            result = stringRedisTemplate.execute(actual, keys,
+                    String.valueOf(message.getId()),
+                    String.valueOf(message.getEs()),
+                    message.getTable(),
+                    String.valueOf(System.currentTimeMillis()),
+                    String.valueOf(continuityProperties.getGapTimeout().toMillis()),
+                    String.valueOf(continuityProperties.getMaxPendingEvents()),
+                    String.valueOf(continuityProperties.getResetThreshold()));
+        } catch (Throwable ex) {
+            log.error("[Binlog位点] 记录失败，库：{}，表：{}，消息ID：{}", message.getDatabase(), message.getTable(), message.getId(), ex);
+            return;
+        }
+        if (result == null || result.size() < 6) {
+            return;
+        }
+        long status = (Long) result.get(0);
+        if ((Long) result.get(1) == 1L) {
+            reorderedCounter.increment();
+            log.warn("[Binlog位点] 表：{} 变更乱序到达，消息ID：{}，Binlog时间：{}", message.getTable(), message.getId(), message.getEs());
+        }
+        if (status == STATUS_RESET) {
+            resetCounter.increment();
+            log.warn("[Binlog位点] 库：{} 消息ID重新计数，以消息ID：{} 重新建立消费水位", message.getDatabase(), message.getId());
+        } else if (status == STATUS_GAP) {
+            long gapFrom = (Long) result.get(2);
+            long gapTo = (Long) result.get(3);
+            long fromEs = (Long) result.get(4);
+            long toEs = (Long) result.get(5);
+            gapCounter.increment();
+            log.error("[Binlog位点] 库：{} 消息ID断档：{} ~ {}，Binlog时间：{} ~ {}", message.getDatabase(), gapFrom, gapTo, fromEs, toEs);
+            boolean seatDatabase = stringRedisTemplate.opsForHash()
+                    .hasKey(keys.get(0), CanalExecuteStrategyMarkEnum.T_SEAT.getActualTable() + ":id");
+            if (seatDatabase && continuityProperties.getRebuildEnabled()) {
+                rebuildExecutor.execute(() -> rebuildAffectedTrains(fromEs, toEs));
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (rebuildExecutor != null) {
+            rebuildExecutor.shutdownNow();
+        }
+    }
+
+    private void rebuildAffectedTrains(long fromEs, long toEs) {
+        long slack = continuityProperties.getUpdateTimeSlack().toMillis();
+        int maxRebuildTrains = continuityProperties.getMaxRebuildTrains();
+        List<Long> trainIds;
+        try {
+            trainIds = seatMapper.listTrainIdByUpdateTime(new Date(fromEs - slack), new Date(toEs + slack), maxRebuildTrains + 1);
+        } catch (Throwable ex) {
+            log.error("[Binlog位点] 查询断档期间变更的列车失败，Binlog时间：{} ~ {}", fromEs, toEs, ex);
+            return;
+        }
+        if (trainIds.size() > maxRebuildTrains) {
+            log.warn("[Binlog位点] 断档期间变更的列车超过 {} 趟，只重建前 {} 趟，其余由余票对账任务修正", maxRebuildTrains, maxRebuildTrains);
+            trainIds = trainIds.subList(0, maxRebuildTrains);
+        }
+        for (Long each : trainIds) {
+            String trainId = String.valueOf(each);
+            // 上一次断档提交的重建尚未执行的列车不再重复提交
+            if (!rebuildingTrainIds.add(trainId)) {
+                continue;
+            }
+            rebuildExecutor.execute(() -> {
+                try {
+                    seatMarginCacheLoader.rebuild(trainId);
+                    rebuiltCounter.increment();
+                } catch (Throwable ex) {
+                    log.error("[Binlog位点] 重建列车余票缓存失败，车次ID：{}", trainId, ex);
+                } finally {
+                    rebuildingTrainIds.remove(trainId);
+                }
+            });
+        }
+        log.info("[Binlog位点] 断档后提交余票缓存重建，Binlog时间：{} ~ {}，列车数量：{}", fromEs, toEs, trainIds.size());
+    }
+}
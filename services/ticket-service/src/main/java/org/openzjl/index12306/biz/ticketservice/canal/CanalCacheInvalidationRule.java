@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.biz.ticketservice.canal;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Singular;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Binlog 缓存失效规则声明
+ * <p>
+ * 每条规则声明一张表的行变更会影响哪些缓存，由 {@link CanalCacheInvalidator} 统一执行：
+ * <ul>
+ *     <li>Redis 缓存：按变更行解析出受影响的缓存 Key 并删除，下一次读取经由 safeGet 等原有加载逻辑重建</li>
+ *     <li>本地缓存：按变更行解析出本地缓存 Key，经 Redis Pub/Sub 广播到所有实例后各自失效</li>
+ * </ul>
+ * UPDATE 事件会分别以变更后的行和变更前的行（变更后的行叠加 old 中的列）解析，变更了 Key 相关列时新旧两份缓存都会失效。
+ * 行中的列值均为 Canal 扁平消息中的字符串。
+ *
+ * @author zhangjlk
+ * @date 2026/10/19 下午6:10
+ */
+@Getter
+@Builder
+public class CanalCacheInvalidationRule {
+
+    /**
+     * 表名
+     */
+    private final String table;
+
+    /**
+     * Redis 缓存 Key 解析器，入参为变更行，返回受影响的缓存 Key
+     */
+    @Singular
+    private final List<Function<Map<String, Object>, Collection<String>>> redisKeys;
+
+    /**
+     * 本地缓存 Key 解析器，入参为变更行，为空表示没有本地缓存
+     */
+    private final Function<Map<String, Object>, String> localKey;
+
+    /**
+     * 本地缓存失效动作，入参为本地缓存 Key，在每个实例上执行
+     */
+    private final Consumer<String> localEviction;
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.biz.ticketservice.canal;
+
+import cn.hutool.core.util.StrUtil;
+import com.baomidou.mybatisplus.core.toolkit.Wrappers;
+import org.openzjl.index12306.biz.ticketservice.dao.entity.TrainStationRelationDO;
+import org.openzjl.index12306.biz.ticketservice.dao.mapper.TrainStationRelationMapper;
+import org.openzjl.index12306.biz.ticketservice.service.TrainStationService;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.openzjl.index12306.biz.ticketservice.common.constant.RedisKeyConstant.REGION_TRAIN_STATION;
+import static org.openzjl.index12306.biz.ticketservice.common.constant.RedisKeyConstant.TRAIN_CARRIAGE;
+import static org.openzjl.index12306.biz.ticketservice.common.constant.RedisKeyConstant.TRAIN_INFO;
+import static org.openzjl.index12306.biz.ticketservice.common.constant.RedisKeyConstant.TRAIN_STATION_DETAIL;
+import static org.openzjl.index12306.biz.ticketservice.common.constant.RedisKeyConstant.TRAIN_STATION_PRICE;
+import static org.openzjl.index12306.biz.ticketservice.common.constant.RedisKeyConstant.TRAIN_STATION_STOPOVER_DETAIL;
+
+/**
+ * Binlog 缓存失效规则声明
+ * <p>
+ * 表与缓存的对应关系：
+ * <ul>
+ *     <li>t_train：列车信息，以及冗余了车次号、售票时间的站点详情与地区站点车票列表</li>
+ *     <li>t_train_station：经停站明细与各实例的列车路线图本地缓存</li>
+ *     <li>t_train_station_price：区间票价</li>
+ *     <li>t_carriage：列车车厢号</li>
+ * </ul>
+ *
+ * @author zhangjlk
+ * @date 2026/10/19 下午6:10
+ */
+@Configuration
+public class CanalCacheInvalidationRuleConfiguration {
+
+    @Bean
+    public CanalCacheInvalidationRule trainCacheInvalidationRule(TrainStationRelationMapper trainStationRelationMapper) {
+        return CanalCacheInvalidationRule.builder()
+                .table("t_train")
+                .redisKey(row -> List.of(TRAIN_INFO + row.get("id")))
+                .redisKey(row -> {
+                    // 站点详情按 车次_出发站_到达站、地区站点车票列表按 出发地区_到达地区 缓存，由列车站点关系展开
+                    List<TrainStationRelationDO> relations = trainStationRelationMapper.selectList(Wrappers.lambdaQuery(TrainStationRelationDO.class)
+                            .eq(TrainStationRelationDO::getTrainId, row.get("id")));
+                    Set<String> keys = new LinkedHashSet<>();
+                    for (TrainStationRelationDO each : relations) {
+                        keys.add(TRAIN_STATION_DETAIL + StrUtil.join("_", each.getTrainId(), each.getDeparture(), each.getArrival()));
+                        keys.add(String.format(REGION_TRAIN_STATION, each.getStartRegion(), each.getEndRegion()));
+                    }
+                    return keys;
+                })
+                .build();
+    }
+
+    @Bean
+    public CanalCacheInvalidationRule trainStationCacheInvalidationRule(TrainStationService trainStationService) {
+        return CanalCacheInvalidationRule.builder()
+                .table("t_train_station")
+                .redisKey(row -> List.of(TRAIN_STATION_STOPOVER_DETAIL + row.get("train_id")))
+                .localKey(row -> String.valueOf(row.get("train_id")))
+                .localEviction(trainStationService::evictTrainRouteGraph)
+                .build();
+    }
+
+    @Bean
+    public CanalCacheInvalidationRule trainStationPriceCacheInvalidationRule() {
+        return CanalCacheInvalidationRule.builder()
+                .table("t_train_station_price")
+                .redisKey(row -> List.of(String.format(TRAIN_STATION_PRICE, row.get("train_id"), row.get("departure"), row.get("arrival"))))
+                .build();
+    }
+
+    @Bean
+    public CanalCacheInvalidationRule carriageCacheInvalidationRule() {
+        return CanalCacheInvalidationRule.builder()
+                .table("t_carriage")
+                .redisKey(row -> List.of(TRAIN_CARRIAGE + row.get("train_id")))
+                .build();
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.biz.ticketservice.canal;
+
+import cn.hutool.core.collection.CollUtil;
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONObject;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.openzjl.index12306.biz.ticketservice.mq.event.CanalBinlogEvent;
+import org.openzjl.index12306.framework.starter.cache.DistributedCache;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import static org.openzjl.index12306.biz.ticketservice.common.constant.RedisKeyConstant.CANAL_CACHE_LOCAL_INVALIDATION_TOPIC;
+
+/**
+ * Binlog 缓存失效执行器
+ * <p>
+ * 时刻表、票价、车厢等基础数据的缓存有效期较长，原先只在车次时间滚动任务中按模式整体清除。
+ * 该组件按 {@link CanalCacheInvalidationRule} 声明，在 Canal 投递对应表的变更时精确失效受影响的缓存：
+ * <ul>
+ *     <li>Redis 缓存在消费线程内同步删除，删除失败时消息按消费失败重新投递</li>
+ *     <li>Canal 消费者组为集群消费，每条消息只由一个实例处理，本地缓存 Key 通过 Redis Pub/Sub 广播给所有实例各自失效</li>
+ * </ul>
+ * 广播丢失时本地缓存仍按原有过期时间兜底。
+ * </p>
+ *
+ * @author zhangjlk
+ * @date 2026/10/19 下午6:10
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CanalCacheInvalidator implements InitializingBean, DisposableBean {
+
+    private final ObjectProvider<CanalCacheInvalidationRule> canalCacheInvalidationRules;
+    private final DistributedCache distributedCache;
+    private final RedissonClient redissonClient;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, List<CanalCacheInvalidationRule>> tableRules = new HashMap<>();
+
+    private RTopic localInvalidationTopic;
+    private Integer listenerId;
+    private Counter evictedCounter;
+
+    @Override
+    public void afterPropertiesSet() {
+        canalCacheInvalidationRules.orderedStream()
+                .forEach(each -> tableRules.computeIfAbsent(each.getTable(), key -> new ArrayList<>()).add(each));
+        evictedCounter = Counter.builder("ticket.canal.cache.invalidated")
+                .description("Redis cache keys evicted by binlog invalidation rules")
+                .register(meterRegistry);
+        localInvalidationTopic = redissonClient.getTopic(CANAL_CACHE_LOCAL_INVALIDATION_TOPIC, StringCodec.INSTANCE);
+        listenerId = localInvalidationTopic.addListener(String.class, (channel, message) -> {
+            try {
+                JSONObject event = JSON.parseObject(message);
+                evictLocal(event.getString("table"), event.getList("keys", String.class));
+            } catch (Throwable ex) {
+                log.error("处理本地缓存失效广播失败，消息：{}", message, ex);
+            }
+        });
+    }
+
+    /**
+     * 判断表是否声明了缓存失效规则
+     */
+    public boolean supports(String table) {
+        return tableRules.containsKey(table);
+    }
+
+    /**
+     * 按声明的规则失效 Binlog 消息涉及的缓存
+     */
+    public void invalidate(CanalBinlogEvent message) {
+        List<CanalCacheInvalidationRule> rules = tableRules.get(message.getTable());
+        if (rules == null || message.getIsDdl() || CollUtil.isEmpty(message.getData())) {
+            return;
+        }
+        List<Map<String, Object>> rows = new ArrayList<>(message.getData());
+        if (Objects.equals("UPDATE", message.getType()) && CollUtil.isNotEmpty(message.getOld())) {
+            for (int i = 0; i < message.getOld().size() && i < message.getData().size(); i++) {
+                Map<String, Object> beforeRow = new LinkedHashMap<>(message.getData().get(i));
+                beforeRow.putAll(message.getOld().get(i));
+                rows.add(beforeRow);
+            }
+        }
+        Set<String> redisKeys = new LinkedHashSet<>();
+        Set<String> localKeys = new LinkedHashSet<>();
+        for (CanalCacheInvalidationRule rule : rules) {
+            for (Map<String, Object> row : rows) {
+                rule.getRedisKeys().forEach(each -> redisKeys.addAll(each.apply(row)));
+                String localKey = rule.getLocalKey() == null ? null : rule.getLocalKey().apply(row);
+                if (localKey != null) {
+                    localKeys.add(localKey);
+                }
+            }
+        }
+        if (!redisKeys.isEmpty()) {
+            distributedCache.delete(redisKeys);
+            evictedCounter.increment(redisKeys.size());
+            log.info("[Binlog缓存失效] 表：{}，类型：{}，删除缓存：{}", message.getTable(), message.getType(), redisKeys);
+        }
+        if (!localKeys.isEmpty()) {
+            publishLocal(message.getTable(), localKeys);
+        }
+    }
+
+    /**
+     * 失效全部实例上该表对应的本地缓存，供定时任务等 Binlog 之外的刷新入口使用
+     *
+     * @param table 声明了失效规则的表名
+     * @param keys  本地缓存 Key
+     */
+    public void invalidateLocal(String table, Collection<String> keys) {
+        if (CollUtil.isEmpty(keys)) {
+            return;
+        }
+        publishLocal(table, keys);
+    }
+
+    private void publishLocal(String table, Collection<String> keys) {
+        // 先失效本实例，广播由订阅回调再执行一次，重复失效无副作用
+        evictLocal(table, keys);
+        try {
+            localInvalidationTopic.publish(JSON.toJSONString(JSONObject.of("table", table, "keys", keys)));
+        } catch (Throwable ex) {
+            log.warn("发布本地缓存失效广播失败，表：{}，Key：{}", table, keys, ex);
+        }
+    }
+
+    private void evictLocal(String table, Collection<String> keys) {
+        List<CanalCacheInvalidationRule> rules = tableRules.get(table);
+        if (rules == null || CollUtil.isEmpty(keys)) {
+            return;
+        }
+        for (CanalCacheInvalidationRule rule : rules) {
+            if (rule.getLocalEviction() != null) {
+                keys.forEach(rule.getLocalEviction());
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (localInvalidationTopic != null && listenerId != null) {
+            localInvalidationTopic.removeListener(listenerId);
+        }
+    }
+}
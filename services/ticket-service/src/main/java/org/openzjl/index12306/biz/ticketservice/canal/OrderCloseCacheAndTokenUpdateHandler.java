@@ -8,13 +8,18 @@ import cn.hutool.core.collection.CollUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.openzjl.index12306.biz.ticketservice.common.enums.CanalExecuteStrategyMarkEnum;
+import org.openzjl.index12306.biz.ticketservice.common.enums.OrderItemStatusEnum;
 import org.openzjl.index12306.biz.ticketservice.mq.event.CanalBinlogEvent;
 import org.openzjl.index12306.biz.ticketservice.remote.TicketOrderRemoteService;
 import org.openzjl.index12306.biz.ticketservice.remote.dto.TicketOrderDetailRespDTO;
 import org.openzjl.index12306.biz.ticketservice.remote.dto.TicketOrderPassengerDetailRespDTO;
 import org.openzjl.index12306.biz.ticketservice.service.SeatService;
+import org.openzjl.index12306.biz.ticketservice.service.handler.ticket.dto.OrderSoldSeatDTO;
 import org.openzjl.index12306.biz.ticketservice.service.handler.ticket.dto.TrainPurchaseTicketRespDTO;
+import org.openzjl.index12306.biz.ticketservice.service.handler.ticket.hold.SeatHoldManager;
+import org.openzjl.index12306.biz.ticketservice.service.handler.ticket.projection.OrderSoldSeatProjection;
 import org.openzjl.index12306.biz.ticketservice.service.handler.ticket.tokenbucket.TicketAvailabilityTokenBucket;
+import org.openzjl.index12306.framework.starter.convention.exception.ServiceException;
 import org.openzjl.index12306.framework.starter.convention.result.Result;
 import org.openzjl.index12306.framework.starter.designpattern.staregy.AbstractExecuteStrategy;
 import org.openzjl.index12306.framework.starter.log.toolkit.BeanUtil;
@@ -51,7 +56,7 @@ public class OrderCloseCacheAndTokenUpdateHandler implements AbstractExecuteStra
     /**
      * 订单远程服务
      * <p>
-     * 用于查询订单详情信息
+     * 仅在已售座位投影缺失时用于查询订单详情信息
      * </p>
      */
     private final TicketOrderRemoteService ticketOrderRemoteService;
@@ -72,6 +77,22 @@ public class OrderCloseCacheAndTokenUpdateHandler implements AbstractExecuteStra
      */
     private final TicketAvailabilityTokenBucket ticketAvailabilityTokenBucket;
 
+    /**
+     * 座位保留管理器
+     * <p>
+     * 用于保证同一订单只回滚一次
+     * </p>
+     */
+    private final SeatHoldManager seatHoldManager;
+
+    /**
+     * 订单已售座位投影
+     * <p>
+     * 提供释放座位所需的座位信息，避免逐单远程查询订单
+     * </p>
+     */
+    private final OrderSoldSeatProjection orderSoldSeatProjection;
+
     /**
      * 执行订单关闭后的处理逻辑
      * <p>
@@ -89,12 +110,13 @@ public class OrderCloseCacheAndTokenUpdateHandler implements AbstractExecuteStra
      *   <li>如果没有关闭状态的订单数据，直接返回</li>
      *   <li>遍历关闭状态的订单数据：
      *     <ul>
-     *       <li>根据订单号查询订单详情</li>
-     *       <li>如果查询成功且订单详情不为空：
+     *       <li>从 Binlog 行中取列车 ID、出发站、到达站，从已售座位投影中取座位信息；投影缺失时回退为根据订单号查询订单详情，
+     *       仍查询不到时撤销已释放标记并抛出异常，由消息重试</li>
+     *       <li>如果座位信息获取成功：
      *         <ul>
-     *           <li>获取列车 ID、出发站、到达站和乘客详情</li>
      *           <li>调用座位服务解锁座位</li>
      *           <li>调用令牌桶服务回滚可用票数</li>
+     *           <li>删除已售座位投影</li>
      *         </ul>
      *       </li>
      *     </ul>
@@ -103,10 +125,10 @@ public class OrderCloseCacheAndTokenUpdateHandler implements AbstractExecuteStra
      */
     @Override
     public void execute(CanalBinlogEvent message) {
-        // 过滤出状态为 30（关闭）的订单数据
+        // 过滤出已取消的订单数据
         List<Map<String, Object>> messageDataList = message.getData().stream()
                 .filter(each -> each.get("status") != null)
-                .filter(each -> Objects.equals(each.get("status"), "30"))
+                .filter(each -> Objects.equals(each.get("status"), String.valueOf(OrderItemStatusEnum.CLOSED.getStatus())))
                 .toList();
         
         // 如果没有关闭状态的订单数据，直接返回
@@ -116,24 +138,65 @@ public class OrderCloseCacheAndTokenUpdateHandler implements AbstractExecuteStra
         
         // 遍历处理关闭状态的订单
         for (Map<String, Object> messageData : messageDataList) {
-            // 根据订单号查询订单详情
-            Result<TicketOrderDetailRespDTO> orderDetailResult = ticketOrderRemoteService.queryTicketOrderByOrderSn(messageData.get("order_sn").toString());
-            TicketOrderDetailRespDTO orderDetailResultData = orderDetailResult.getData();
-            
-            // 如果查询成功且订单详情不为空
-            if (orderDetailResult.isSuccess() && orderDetailResultData != null) {
-                String trainId = String.valueOf(orderDetailResultData.getTrainId());
-                List<TicketOrderPassengerDetailRespDTO> passengerDetails = orderDetailResultData.getPassengerDetails();
-                
-                // 解锁座位
-                seatService.unLock(trainId, orderDetailResultData.getDeparture(), orderDetailResultData.getArrival(), BeanUtil.convert(passengerDetails, TrainPurchaseTicketRespDTO.class));
-                
-                // 回滚令牌桶中的可用票数
-                ticketAvailabilityTokenBucket.rollbackInBucket(orderDetailResultData);
+            String orderSn = messageData.get("order_sn").toString();
+
+            // 座位保留清理任务、延迟关单或取消订单可能已回滚该订单
+            if (!seatHoldManager.markReleased(orderSn)) {
+                continue;
+            }
+
+            // 优先使用 Binlog 行中的车次、区间与下单时登记的已售座位投影，投影缺失时回退为远程查询订单详情
+            TicketOrderDetailRespDTO orderDetail;
+            List<TrainPurchaseTicketRespDTO> trainPurchaseTicketResults;
+            try {
+                OrderSoldSeatDTO orderSoldSeat = orderSoldSeatProjection.get(orderSn);
+                if (orderSoldSeat != null && CollUtil.isNotEmpty(orderSoldSeat.getTrainPurchaseTicketResults())) {
+                    trainPurchaseTicketResults = orderSoldSeat.getTrainPurchaseTicketResults();
+                    orderDetail = buildOrderDetail(messageData, trainPurchaseTicketResults);
+                } else {
+                    log.warn("[订单关闭] 订单号：{} 已售座位投影不存在，远程查询订单详情", orderSn);
+                    orderDetail = queryOrderDetail(orderSn);
+                    if (orderDetail == null) {
+                        // 订单详情暂时查询不到时不能跳过，否则座位一直处于锁定状态，抛出异常由消息重试
+                        throw new ServiceException(String.format("订单关闭回滚座位失败，订单详情不存在，订单号：%s", orderSn));
+                    }
+                    trainPurchaseTicketResults = BeanUtil.convert(orderDetail.getPassengerDetails(), TrainPurchaseTicketRespDTO.class);
+                }
+            } catch (Throwable ex) {
+                // 撤销已释放标记，消息重试时重新回滚
+                seatHoldManager.unmarkReleased(orderSn);
+                throw ex;
+            }
+
+            // 解锁座位
+            try {
+                seatService.unLock(String.valueOf(orderDetail.getTrainId()), orderDetail.getDeparture(), orderDetail.getArrival(), trainPurchaseTicketResults);
+            } catch (Throwable ex) {
+                seatHoldManager.unmarkReleased(orderSn);
+                throw ex;
             }
+
+            // 回滚令牌桶中的可用票数
+            ticketAvailabilityTokenBucket.rollbackInBucket(orderDetail);
+            orderSoldSeatProjection.remove(orderSn);
         }
     }
 
+    private TicketOrderDetailRespDTO buildOrderDetail(Map<String, Object> messageData, List<TrainPurchaseTicketRespDTO> trainPurchaseTicketResults) {
+        TicketOrderDetailRespDTO orderDetail = new TicketOrderDetailRespDTO();
+        orderDetail.setOrderSn(messageData.get("order_sn").toString());
+        orderDetail.setTrainId(Long.parseLong(messageData.get("train_id").toString()));
+        orderDetail.setDeparture(messageData.get("departure").toString());
+        orderDetail.setArrival(messageData.get("arrival").toString());
+        orderDetail.setPassengerDetails(BeanUtil.convert(trainPurchaseTicketResults, TicketOrderPassengerDetailRespDTO.class));
+        return orderDetail;
+    }
+
+    private TicketOrderDetailRespDTO queryOrderDetail(String orderSn) {
+        Result<TicketOrderDetailRespDTO> orderDetailResult = ticketOrderRemoteService.queryTicketOrderByOrderSn(orderSn);
+        return orderDetailResult.isSuccess() ? orderDetailResult.getData() : null;
+    }
+
     /**
      * 获取策略标记
      * <p>
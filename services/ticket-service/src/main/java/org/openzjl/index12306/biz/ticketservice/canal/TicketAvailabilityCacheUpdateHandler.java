@@ -10,10 +10,7 @@ import lombok.RequiredArgsConstructor;
 import org.openzjl.index12306.biz.ticketservice.common.enums.CanalExecuteStrategyMarkEnum;
 import org.openzjl.index12306.biz.ticketservice.common.enums.SeatStatusEnum;
 import org.openzjl.index12306.biz.ticketservice.mq.event.CanalBinlogEvent;
-import org.openzjl.index12306.framework.starter.cache.DistributedCache;
 import org.openzjl.index12306.framework.starter.designpattern.staregy.AbstractExecuteStrategy;
-import org.redisson.transaction.operation.map.MapOperation;
-import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Component;
 import java.util.*;
 import static org.openzjl.index12306.biz.ticketservice.common.constant.RedisKeyConstant.TRAIN_STATION_REMAINING_TICKET;
@@ -30,6 +27,7 @@ import static org.openzjl.index12306.biz.ticketservice.common.constant.RedisKeyC
  *   <li>处理 Canal 数据同步中的座位状态变更事件</li>
  *   <li>根据座位状态变更更新余票缓存</li>
  *   <li>确保缓存中的余票数量与数据库中的实际座位状态保持一致</li>
+ *   <li>单条消息内的增量先按 缓存Key + 座位类型 合并，再交给 {@link TicketAvailabilityDeltaAggregator} 跨消息聚合写入</li>
  * </ul>
  *
  * @author zhangjlk
@@ -39,7 +37,7 @@ import static org.openzjl.index12306.biz.ticketservice.common.constant.RedisKeyC
 @RequiredArgsConstructor
 public class TicketAvailabilityCacheUpdateHandler implements AbstractExecuteStrategy<CanalBinlogEvent, Void> {
 
-    private final DistributedCache distributedCache;
+    private final TicketAvailabilityDeltaAggregator ticketAvailabilityDeltaAggregator;
 
     /**
      * 执行余票缓存更新逻辑
@@ -95,8 +93,8 @@ public class TicketAvailabilityCacheUpdateHandler implements AbstractExecuteStra
             seatTypeMap.put(seatType, num == null ? increment : num + increment);
             cacheChangeKeyMap.put(hashCacheKey, seatTypeMap);
         }
-        StringRedisTemplate instance = (StringRedisTemplate) distributedCache.getInstance();
-        cacheChangeKeyMap.forEach((cacheKey, cacheVal) -> cacheVal.forEach((seatType, num) -> instance.opsForHash().increment(cacheKey, String.valueOf(seatType), num)));
+        // 与其他消息的增量合并后批量写入，写入完成才返回，写入失败时消息重新投递
+        ticketAvailabilityDeltaAggregator.apply(cacheChangeKeyMap);
     }
 
     /**
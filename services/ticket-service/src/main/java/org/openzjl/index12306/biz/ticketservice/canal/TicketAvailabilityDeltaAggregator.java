@@ -0,0 +1,331 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.biz.ticketservice.canal;
+
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONObject;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.openzjl.index12306.biz.ticketservice.config.TicketAvailabilityBinlogAggregationProperties;
+import org.openzjl.index12306.framework.starter.bases.Singleton;
+import org.openzjl.index12306.framework.starter.cache.DistributedCache;
+import org.openzjl.index12306.framework.starter.convention.exception.ServiceException;
+import org.openzjl.index12306.framework.starter.log.threadpool.build.ThreadFactoryBuilder;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.ClusterSlotHashUtil;
+import org.springframework.data.redis.connection.RedisPipelineException;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scripting.support.ResourceScriptSource;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.openzjl.index12306.biz.ticketservice.common.constant.RedisKeyConstant.TICKET_AVAILABILITY_DELTA_BATCH_APPLIED;
+
+/**
+ * 余票 Binlog 增量聚合器
+ * <p>
+ * 售票高峰期 t_seat 的 Binlog 量很大且集中在少数热门车次，逐条消息、逐个座位类型 hincrby 会放大 Redis 写入。
+ * 聚合器把多条消息的增量按 缓存Key（车次_出发站_到达站）+ 座位类型 合并，在聚合窗口结束或待写入字段达到上限时
+ * 按 Redis 集群槽位分组，每组通过一次 Lua 脚本写入，同一脚本内的 Key 都在同一槽位，不会触发 CROSSSLOT。
+ * 区间余票 Key 没有按车次打 Hash Tag（热门车次的全部区间会压到同一节点），分组大多只有一个 Key，
+ * 因此各分组的脚本调用通过一次管道发出，一个窗口只付出一次往返：
+ * <ul>
+ *   <li>消费线程提交增量后阻塞等待所在批次写入完成才返回，消息只有在增量写入 Redis 后才会确认消费位点</li>
+ *   <li>每个批次生成批次号，脚本写入完成后在同一槽位记录批次标记；管道中失败的分组（包括脚本未缓存）、
+ *   客户端超时或连接断开后逐组以同一批次号重试，已写入的分组直接跳过，不会重复累加</li>
+ *   <li>Redis 不会回滚脚本中已执行的命令，脚本先校验全部字段再写入，避免校验失败时只写入一部分字段</li>
+ *   <li>不同槽位的分组相互独立，重试仍失败时批次内的全部消息都以异常结束，由 RocketMQ 重新投递，
+ *   此时已写入的分组会随重新投递再次累加，由余票对账任务修复</li>
+ *   <li>等待超时的消息同样按失败处理，超时时间应远大于聚合窗口，避免已写入的增量被重复投递</li>
+ * </ul>
+ * </p>
+ *
+ * @author zhangjlk
+ * @date 2026/10/18 下午8:40
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TicketAvailabilityDeltaAggregator implements InitializingBean, DisposableBean {
+
+    private static final String LUA_TICKET_AVAILABILITY_APPLY_DELTAS_PATH = "lua/ticket_availability_apply_deltas.lua";
+
+    private final DistributedCache distributedCache;
+    private final TicketAvailabilityBinlogAggregationProperties aggregationProperties;
+    private final MeterRegistry meterRegistry;
+
+    private final Object lock = new Object();
+
+    /**
+     * 当前聚合窗口内待写入的增量，由 {@link #lock} 保护
+     */
+    private PendingBatch pendingBatch = new PendingBatch();
+
+    private ScheduledExecutorService flushExecutor;
+    private Counter submittedCounter;
+    private Counter writtenCounter;
+    private Timer flushTimer;
+
+    @Override
+    public void afterPropertiesSet() {
+        submittedCounter = Counter.builder("ticket.availability.binlog.deltas.submitted")
+                .description("Availability deltas extracted from t_seat binlog events")
+                .register(meterRegistry);
+        writtenCounter = Counter.builder("ticket.availability.binlog.deltas.written")
+                .description("Availability hash fields written to Redis after aggregation")
+                .register(meterRegistry);
+        flushTimer = Timer.builder("ticket.availability.binlog.flush")
+                .description("Aggregated availability delta flush duration")
+                .register(meterRegistry);
+        if (!aggregationProperties.getEnabled()) {
+            return;
+        }
+        flushExecutor = Executors.newSingleThreadScheduledExecutor(
+                ThreadFactoryBuilder.builder().prefix("ticket-availability-binlog-flusher-").daemon(true).build()
+        );
+        long window = aggregationProperties.getWindow().toMillis();
+        flushExecutor.scheduleWithFixedDelay(this::flush, window, window, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 提交一条 Binlog 消息的余票增量，阻塞到增量写入 Redis 后返回
+     *
+     * @param deltas 缓存Key -> 座位类型 -> 增量
+     * @throws ServiceException 写入失败或等待超时时抛出，消息应按消费失败处理
+     */
+    public void apply(Map<String, Map<Integer, Integer>> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        submittedCounter.increment(deltas.values().stream().mapToInt(Map::size).sum());
+        if (flushExecutor == null) {
+            write(deltas);
+            return;
+        }
+        CompletableFuture<Void> flushFuture;
+        boolean flushNow;
+        synchronized (lock) {
+            pendingBatch.merge(deltas);
+            flushFuture = pendingBatch.future;
+            flushNow = pendingBatch.fieldCount >= aggregationProperties.getMaxPendingFields();
+        }
+        if (flushNow) {
+            // 待写入字段达到上限，由当前消费线程直接写入，不再等待窗口结束
+            flush();
+        }
+        try {
+            flushFuture.get(aggregationProperties.getFlushTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            throw new ServiceException("余票增量写入超时");
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ServiceException("余票增量写入被中断");
+        } catch (ExecutionException ex) {
+            throw new ServiceException("余票增量写入失败：" + ex.getCause().getMessage());
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (flushExecutor == null) {
+            return;
+        }
+        flushExecutor.shutdown();
+        // 写出最后一个窗口，释放仍在等待的消费线程
+        flush();
+    }
+
+    private void flush() {
+        PendingBatch batch;
+        synchronized (lock) {
+            if (pendingBatch.fieldCount == 0) {
+                return;
+            }
+            batch = pendingBatch;
+            pendingBatch = new PendingBatch();
+        }
+        try {
+            write(batch.deltas);
+            batch.future.complete(null);
+        } catch (Throwable ex) {
+            log.error("余票增量批量写入失败，缓存Key数量：{}，字段数量：{}", batch.deltas.size(), batch.fieldCount, ex);
+            batch.future.completeExceptionally(ex);
+        }
+    }
+
+    private void write(Map<String, Map<Integer, Integer>> deltas) {
+        // 槽位 -> 缓存Key -> 增量JSON
+        Map<Integer, Map<String, String>> slotGroups = new HashMap<>();
+        int fieldCount = 0;
+        for (Map.Entry<String, Map<Integer, Integer>> entry : deltas.entrySet()) {
+            List<JSONObject> items = new ArrayList<>(entry.getValue().size());
+            // 窗口内相互抵消的增量不写入
+            entry.getValue().forEach((seatType, delta) -> {
+                if (delta != 0) {
+                    items.add(JSONObject.of("field", String.valueOf(seatType), "delta", delta));
+                }
+            });
+            if (!items.isEmpty()) {
+                slotGroups.computeIfAbsent(ClusterSlotHashUtil.calculateSlot(entry.getKey()), key -> new LinkedHashMap<>())
+                        .put(entry.getKey(), JSON.toJSONString(items));
+                fieldCount += items.size();
+            }
+        }
+        if (slotGroups.isEmpty()) {
+            return;
+        }
+        String batchId = UUID.randomUUID().toString();
+        long startTime = System.nanoTime();
+        List<Map<String, String>> groups = new ArrayList<>(slotGroups.values());
+        List<Object> results = groups.size() > 1 ? writePipelined(batchId, groups) : null;
+        for (int i = 0; i < groups.size(); i++) {
+            Object result = results == null || results.size() != groups.size() ? null : results.get(i);
+            if (result instanceof Long applied) {
+                logSkipped(batchId, groups.get(i), applied);
+            } else {
+                writeSlotGroup(batchId, groups.get(i));
+            }
+        }
+        flushTimer.record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+        writtenCounter.increment(fieldCount);
+    }
+
+    /**
+     * 通过一次管道以 EVALSHA 写入全部分组，返回结果与分组顺序一致，失败的分组对应异常或 null
+     * <p>
+     * 管道整体失败时返回 null，由调用方逐组写入
+     * </p>
+     */
+    private List<Object> writePipelined(String batchId, List<Map<String, String>> groups) {
+        byte[] scriptSha = getApplyDeltasScript().getSha1().getBytes();
+        StringRedisTemplate stringRedisTemplate = (StringRedisTemplate) distributedCache.getInstance();
+        try {
+            return stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (Map<String, String> each : groups) {
+                    List<String> keys = buildKeys(batchId, each);
+                    List<String> args = buildArgs(each);
+                    byte[][] keysAndArgs = new byte[keys.size() + args.size()][];
+                    for (int i = 0; i < keys.size(); i++) {
+                        keysAndArgs[i] = keys.get(i).getBytes();
+                    }
+                    for (int i = 0; i < args.size(); i++) {
+                        keysAndArgs[keys.size() + i] = args.get(i).getBytes();
+                    }
+                    connection.scriptingCommands().evalSha(scriptSha, ReturnType.INTEGER, keys.size(), keysAndArgs);
+                }
+                return null;
+            });
+        } catch (RedisPipelineException ex) {
+            // 脚本首次执行时未缓存，管道中的分组以 NOSCRIPT 失败，逐组写入时加载脚本
+            return ex.getResults();
+        } catch (RuntimeException ex) {
+            log.warn("余票增量管道写入失败，逐组写入，批次号：{}，分组数量：{}", batchId, groups.size(), ex);
+            return null;
+        }
+    }
+
+    /**
+     * 写入同一槽位的增量，失败时以同一批次号重试，脚本据批次标记跳过已写入的分组
+     */
+    private void writeSlotGroup(String batchId, Map<String, String> slotGroup) {
+        DefaultRedisScript<Long> actual = getApplyDeltasScript();
+        List<String> keys = buildKeys(batchId, slotGroup);
+        List<String> args = buildArgs(slotGroup);
+        StringRedisTemplate stringRedisTemplate = (StringRedisTemplate) distributedCache.getInstance();
+        for (int attempt = 0; ; attempt++) {
+            try {
+                Long applied = stringRedisTemplate.execute(actual, keys, args.toArray());
+                if (applied != null) {
+                    logSkipped(batchId, slotGroup, applied);
+                }
+                return;
+            } catch (RuntimeException ex) {
+                if (attempt >= aggregationProperties.getFlushRetryTimes()) {
+                    throw ex;
+                }
+                log.warn("余票增量写入失败，以同一批次号重试，批次号：{}，重试次数：{}", batchId, attempt + 1, ex);
+            }
+        }
+    }
+
+    /**
+     * 脚本 Key：批次标记 + 分组内的缓存Key，批次标记以第一个缓存Key作为 Hash Tag
+     */
+    private List<String> buildKeys(String batchId, Map<String, String> slotGroup) {
+        List<String> keys = new ArrayList<>(slotGroup.size() + 1);
+        keys.add(String.format(TICKET_AVAILABILITY_DELTA_BATCH_APPLIED, slotGroup.keySet().iterator().next(), batchId));
+        keys.addAll(slotGroup.keySet());
+        return keys;
+    }
+
+    /**
+     * 脚本参数：批次标记过期时间 + 与缓存Key一一对应的增量JSON
+     */
+    private List<String> buildArgs(Map<String, String> slotGroup) {
+        List<String> args = new ArrayList<>(slotGroup.size() + 1);
+        args.add(String.valueOf(aggregationProperties.getBatchMarkerTtl().toSeconds()));
+        args.addAll(slotGroup.values());
+        return args;
+    }
+
+    private static void logSkipped(String batchId, Map<String, String> slotGroup, long applied) {
+        if (applied < 0) {
+            log.info("余票增量批次已写入，跳过重复写入，批次号：{}，缓存Key数量：{}", batchId, slotGroup.size());
+        }
+    }
+
+    private static DefaultRedisScript<Long> getApplyDeltasScript() {
+        return Singleton.get(LUA_TICKET_AVAILABILITY_APPLY_DELTAS_PATH, () -> {
+            DefaultRedisScript<Long> redisScript = new DefaultRedisScript<>();
+            redisScript.setScriptSource(new ResourceScriptSource(new ClassPathResource(LUA_TICKET_AVAILABILITY_APPLY_DELTAS_PATH)));
+            redisScript.setResultType(Long.class);
+            return redisScript;
+        });
+    }
+
+    /**
+     * 一个聚合窗口内的增量及其写入结果
+     */
+    private static final class PendingBatch {
+
+        private final Map<String, Map<Integer, Integer>> deltas = new HashMap<>();
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+        private int fieldCount;
+
+        private void merge(Map<String, Map<Integer, Integer>> messageDeltas) {
+            messageDeltas.forEach((cacheKey, seatTypeDeltas) -> {
+                Map<Integer, Integer> pending = deltas.computeIfAbsent(cacheKey, key -> new HashMap<>());
+                seatTypeDeltas.forEach((seatType, delta) -> {
+                    Integer previous = pending.put(seatType, delta);
+                    if (previous == null) {
+                        fieldCount++;
+                    } else {
+                        pending.put(seatType, previous + delta);
+                    }
+                });
+            });
+        }
+    }
+}
@@ -90,6 +90,11 @@ public class RedisKeyConstant {
      */
     public static final String TICKET_AVAILABILITY_TOKEN_BUCKET = "index12306-ticket-service:ticket_availability_token_bucket:";
 
+    /**
+     * 余票对账上一轮漂移快照 Hash，Key Prefix + 列车ID，字段为 缓存Key#字段，值为 缓存值->数据库值
+     */
+    public static final String TICKET_AVAILABILITY_RECONCILE_DRIFT = "index12306-ticket-service:ticket_availability_reconcile_drift:";
+
     /**
      * 车厢余票查询，Key Prefix + 列车ID_起始站点_终点
      */
@@ -129,4 +134,60 @@ public class RedisKeyConstant {
      * 用户购票分布式锁 V2版本
      */
     public static final String LOCK_PURCHASE_TICKETS_V2 = "${unique-name:}index12306-ticket-service:lock_purchase_tickets_%s_%d";
+
+    /**
+     * 售罄广播 Redis Pub/Sub 频道
+     */
+    public static final String TICKET_SOLD_OUT_TOPIC = "index12306-ticket-service:ticket_sold_out_topic";
+
+    /**
+     * 售罄广播发布标记，同一 车次_出发站_到达站_座位类型 在标记有效期内只由首个发现售罄的实例发布
+     */
+    public static final String TICKET_SOLD_OUT_PUBLISH_FLAG = "index12306-ticket-service:ticket_sold_out_publish_flag:%s";
+
+    /**
+     * 座位保留到期时间 ZSET，按订单号哈希分片，Member 为订单号，Score 为到期时间戳（毫秒）
+     * <p>
+     * 同一分片的到期 ZSET 与明细 Hash 使用相同的 Hash Tag，落在同一个集群槽位，认领脚本可同时操作两者
+     * </p>
+     */
+    public static final String TICKET_SEAT_HOLD_EXPIRY = "index12306-ticket-service:seat_hold_expiry:{%d}";
+
+    /**
+     * 座位保留明细 Hash，按订单号哈希分片，Field 为订单号，Value 为保留的车次、区间及座位信息
+     */
+    public static final String TICKET_SEAT_HOLD_DETAIL = "index12306-ticket-service:seat_hold_detail:{%d}";
+
+    /**
+     * 座位保留已释放标记，清理任务、延迟关单、取消订单、Binlog 多条释放路径以此保证同一订单只回滚一次
+     */
+    public static final String TICKET_SEAT_HOLD_RELEASED = "index12306-ticket-service:seat_hold_released:%s";
+
+    /**
+     * 订单已售座位投影，Value 为订单的车次、区间以及下单时分配的座位，订单关闭 Binlog 与支付结果回调据此处理座位无需远程查询订单
+     */
+    public static final String TICKET_ORDER_SOLD_SEAT_PROJECTION = "index12306-ticket-service:order_sold_seat_projection:%s";
+
+    /**
+     * Canal Binlog 消费位点 Hash，Key Prefix + 库名，记录连续消费水位与各表最近消费的消息ID、Binlog 时间戳
+     * <p>
+     * 库名作为 Hash Tag，与同库的等待区 ZSET 落在同一个集群槽位，位点脚本可同时操作两者
+     * </p>
+     */
+    public static final String CANAL_BINLOG_CHECKPOINT = "index12306-ticket-service:canal_binlog_checkpoint:{%s}";
+
+    /**
+     * Canal Binlog 等待区 ZSET，Key Prefix + 库名，存放跳跃到达、尚未并入消费水位的消息ID
+     */
+    public static final String CANAL_BINLOG_PENDING = "index12306-ticket-service:canal_binlog_pending:{%s}";
+
+    /**
+     * Binlog 缓存失效规则的本地缓存失效广播 Redis Pub/Sub 频道
+     */
+    public static final String CANAL_CACHE_LOCAL_INVALIDATION_TOPIC = "index12306-ticket-service:canal_cache_local_invalidation_topic";
+
+    /**
+     * 余票增量批次已写入标记，Hash Tag 为同组第一个余票缓存Key，与同组 Key 位于同一槽位，后缀为批次号
+     */
+    public static final String TICKET_AVAILABILITY_DELTA_BATCH_APPLIED = "index12306-ticket-service:ticket_availability_delta_batch_applied:{%s}:%s";
 }
@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.biz.ticketservice.common.enums;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 缓存预热任务状态枚举
+ *
+ * @author zhangjlk
+ * @date 2026/10/18 上午10:12
+ */
+@RequiredArgsConstructor
+public enum CacheWarmupTaskStatusEnum {
+
+    /**
+     * 等待前置任务完成
+     */
+    PENDING(false),
+
+    /**
+     * 执行中
+     */
+    RUNNING(false),
+
+    /**
+     * 执行成功
+     */
+    SUCCESS(true),
+
+    /**
+     * 执行失败
+     */
+    FAILED(true),
+
+    /**
+     * 执行超时
+     */
+    TIMEOUT(true);
+
+    /**
+     * 是否为终态（成功、失败、超时都视为"已结束"）
+     */
+    @Getter
+    private final boolean finished;
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.biz.ticketservice.common.enums;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * 车厢座位布局枚举
+ * <p>
+ * 按 车型 + 座位类型 定义一节车厢的座位排布：排数、每排的座位列字母，以及多人选座时每组邻座人数。
+ * 座位号格式为 两位排号 + 列字母，例如 "01A"、"12F"。
+ * </p>
+ *
+ * @author zhangjlk
+ * @date 2026/10/18 下午2:10
+ */
+@RequiredArgsConstructor
+public enum CarriageSeatLayoutEnum {
+
+    /**
+     * 复兴号-商务座：2 排，A C F
+     */
+    TRAIN_BUSINESS(VehicleTypeEnum.HIGH_SPEED_RAILWAY, VehicleSeatTypeEnum.BUSINESS_CLASS, 2, "ACF", 2),
+
+    /**
+     * 复兴号-一等座：7 排，A C D F
+     */
+    TRAIN_FIRST(VehicleTypeEnum.HIGH_SPEED_RAILWAY, VehicleSeatTypeEnum.FIRST_CLASS, 7, "ACDF", 2),
+
+    /**
+     * 复兴号-二等座：18 排，A B C D F
+     */
+    TRAIN_SECOND(VehicleTypeEnum.HIGH_SPEED_RAILWAY, VehicleSeatTypeEnum.SECOND_CLASS, 18, "ABCDF", 3);
+
+    /**
+     * 车型
+     */
+    @Getter
+    private final VehicleTypeEnum vehicleType;
+
+    /**
+     * 座位类型
+     */
+    @Getter
+    private final VehicleSeatTypeEnum seatType;
+
+    /**
+     * 排数
+     */
+    @Getter
+    private final int rows;
+
+    /**
+     * 每排座位列字母，按从左到右的顺序
+     */
+    private final String columnLetters;
+
+    /**
+     * 多人选座时每组邻座人数
+     */
+    @Getter
+    private final int groupSize;
+
+    /**
+     * 每排座位数
+     */
+    public int getColumns() {
+        return columnLetters.length();
+    }
+
+    /**
+     * 车厢座位总数
+     */
+    public int getCapacity() {
+        return rows * columnLetters.length();
+    }
+
+    /**
+     * 列字母对应的列下标（从 0 开始）
+     *
+     * @param letter 列字母
+     * @return 列下标，不存在返回 -1
+     */
+    public int columnIndex(char letter) {
+        return columnLetters.indexOf(letter);
+    }
+
+    /**
+     * 列下标对应的列字母（从 0 开始）
+     */
+    public char columnLetter(int columnIndex) {
+        return columnLetters.charAt(columnIndex);
+    }
+
+    /**
+     * 根据排、列下标（从 0 开始）生成座位号
+     *
+     * @param rowIndex    排下标
+     * @param columnIndex 列下标
+     * @return 座位号，例如 "01A"
+     */
+    public String seatNumber(int rowIndex, int columnIndex) {
+        int row = rowIndex + 1;
+        return (row < 10 ? "0" + row : String.valueOf(row)) + columnLetters.charAt(columnIndex);
+    }
+
+    /**
+     * 根据车型和座位类型查找车厢座位布局
+     *
+     * @param vehicleType 车型
+     * @param seatType    座位类型
+     * @return 车厢座位布局，不存在返回 null
+     */
+    public static CarriageSeatLayoutEnum findByVehicleSeatType(VehicleTypeEnum vehicleType, VehicleSeatTypeEnum seatType) {
+        return Arrays.stream(CarriageSeatLayoutEnum.values())
+                .filter(each -> Objects.equals(each.getVehicleType(), vehicleType) && Objects.equals(each.getSeatType(), seatType))
+                .findFirst()
+                .orElse(null);
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.biz.ticketservice.common.enums;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 订单明细状态枚举
+ * <p>
+ * 与订单服务的订单明细状态取值保持一致，用于解读远程查询结果与订单表 Binlog 中的状态字段。
+ * </p>
+ *
+ * @author zhangjlk
+ * @date 2026/10/22 上午10:05
+ */
+@RequiredArgsConstructor
+public enum OrderItemStatusEnum {
+
+    /**
+     * 待支付
+     */
+    PENDING_PAYMENT(0),
+
+    /**
+     * 已支付
+     */
+    ALREADY_PAID(10),
+
+    /**
+     * 已进站
+     */
+    ALREADY_PULL_IN(20),
+
+    /**
+     * 已取消
+     */
+    CLOSED(30),
+
+    /**
+     * 已退票
+     */
+    REFUNDED(40),
+
+    /**
+     * 已改签
+     */
+    RESCHEDULED(50);
+
+    @Getter
+    private final Integer status;
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.biz.ticketservice.common.enums;
+
+import lombok.AllArgsConstructor;
+import org.openzjl.index12306.framework.starter.convention.errorcode.IErrorCode;
+import org.openzjl.index12306.framework.starter.convention.exception.AbstractException;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * 余票不足错误码枚举
+ * <p>
+ * 购票链路中因余票不足失败的异常统一携带这些错误码，候补兑现据此区分余票被抢走与其他异常。
+ * </p>
+ *
+ * @author zhangjlk
+ * @date 2026/10/19 下午8:30
+ */
+@AllArgsConstructor
+public enum TicketStockErrorCodeEnum implements IErrorCode {
+
+    /**
+     * 责任链中命中售罄标记或区间余票缓存为 0
+     */
+    STATION_SOLD_OUT("A007001", "列车站点已无余票"),
+
+    /**
+     * 令牌桶中区间余量不足
+     */
+    STATION_TOKEN_EXHAUSTED("B007001", "列车站点已无余票"),
+
+    /**
+     * 选座时区间可售座位不足
+     */
+    STATION_STOCK_INSUFFICIENT("B007002", "站点余票不足，请尝试更换座位或选择其他站点");
+
+    /**
+     * 错误码
+     */
+    private final String code;
+
+    /**
+     * 错误提示消息
+     */
+    private final String message;
+
+    @Override
+    public String code() {
+        return code;
+    }
+
+    @Override
+    public String message() {
+        return message;
+    }
+
+    /**
+     * 判断异常是否为余票不足
+     *
+     * @param ex 购票异常
+     * @return 携带余票不足错误码时返回 true
+     */
+    public static boolean isStockShortage(Throwable ex) {
+        return ex instanceof AbstractException abstractException
+                && Arrays.stream(values()).anyMatch(each -> Objects.equals(each.code, abstractException.getErrorCode()));
+    }
+}
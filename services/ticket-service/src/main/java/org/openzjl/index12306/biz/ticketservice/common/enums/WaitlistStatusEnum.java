@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.biz.ticketservice.common.enums;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 候补订单状态枚举
+ *
+ * @author zhangjlk
+ * @date 2026/10/18 下午5:40
+ */
+@RequiredArgsConstructor
+public enum WaitlistStatusEnum {
+
+    /**
+     * 排队中
+     */
+    WAITING(0),
+
+    /**
+     * 兑现中，已被匹配任务认领，正在下单
+     */
+    MATCHING(10),
+
+    /**
+     * 已兑现，订单已创建
+     */
+    FULFILLED(20),
+
+    /**
+     * 已取消
+     */
+    CANCELLED(30),
+
+    /**
+     * 已过期，截止时间前未等到余票
+     */
+    EXPIRED(40),
+
+    /**
+     * 兑现失败，多次下单失败后不再重试
+     */
+    FAILED(50);
+
+    @Getter
+    private final Integer code;
+}
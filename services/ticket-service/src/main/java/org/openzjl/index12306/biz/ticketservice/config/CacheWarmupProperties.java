@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.biz.ticketservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 启动缓存预热编排配置
+ *
+ * @author zhangjlk
+ * @date 2026/10/18 上午10:15
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = CacheWarmupProperties.PREFIX)
+public class CacheWarmupProperties {
+
+    public static final String PREFIX = "ticket.job.warmup";
+
+    /**
+     * 预热线程池大小，无依赖关系的任务在该线程池中并行执行
+     */
+    private Integer poolSize = 4;
+
+    /**
+     * 单个任务默认超时时间
+     */
+    private Duration defaultTimeout = Duration.ofMinutes(5);
+
+    /**
+     * 按任务名覆盖超时时间，Key 为任务名称
+     */
+    private Map<String, Duration> timeouts = new HashMap<>();
+
+    /**
+     * 关键任务失败或超时后的重试次数
+     */
+    private Integer criticalRetryTimes = 2;
+
+    /**
+     * 关键任务重试间隔
+     */
+    private Duration criticalRetryInterval = Duration.ofSeconds(30);
+
+    /**
+     * 关键任务重试后仍失败时是否仍视为就绪，默认保持 OUT_OF_SERVICE，需人工确认后显式开启才接入流量
+     */
+    private Boolean readyOnCriticalFailure = false;
+
+    /**
+     * 获取指定任务的超时时间
+     */
+    public Duration resolveTimeout(String taskName) {
+        return timeouts.getOrDefault(taskName, defaultTimeout);
+    }
+}
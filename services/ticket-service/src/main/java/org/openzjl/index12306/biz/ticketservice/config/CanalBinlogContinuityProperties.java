@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.biz.ticketservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Canal Binlog 消费连续性检查配置
+ *
+ * @author zhangjlk
+ * @date 2026/10/19 下午5:20
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = CanalBinlogContinuityProperties.PREFIX)
+public class CanalBinlogContinuityProperties {
+
+    public static final String PREFIX = "ticket.canal.continuity";
+
+    /**
+     * 是否记录 Binlog 消费位点并检查断档与乱序
+     */
+    private Boolean enabled = true;
+
+    /**
+     * 消息ID跳跃后等待缺失消息到达的最长时间，超时仍未到达即判定为断档
+     */
+    private Duration gapTimeout = Duration.ofSeconds(30);
+
+    /**
+     * 等待区最多容纳的消息数，超过后不再等待超时，立即判定为断档
+     */
+    private Integer maxPendingEvents = 10000;
+
+    /**
+     * 消息ID小于消费水位的差值超过该值时，视为 Canal 实例重建导致ID重新计数
+     */
+    private Long resetThreshold = 100000L;
+
+    /**
+     * 座位表断档后是否重建受影响列车的余票缓存，关闭时只上报指标与日志
+     */
+    private Boolean rebuildEnabled = true;
+
+    /**
+     * 按 update_time 定位断档期间变更过的列车时，在断档前后时间戳两侧各放宽的时间，覆盖数据库与 Binlog 时间戳的偏差
+     */
+    private Duration updateTimeSlack = Duration.ofSeconds(30);
+
+    /**
+     * 单次断档最多重建的列车数量，超出部分由余票对账任务修正
+     */
+    private Integer maxRebuildTrains = 200;
+}
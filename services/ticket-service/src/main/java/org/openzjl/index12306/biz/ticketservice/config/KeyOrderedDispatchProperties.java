@@ -0,0 +1,33 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.biz.ticketservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 影响库存的 MQ 消息按 Key 有序消费配置
+ *
+ * @author zhangjlk
+ * @date 2026/10/19 上午11:30
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = KeyOrderedDispatchProperties.PREFIX)
+public class KeyOrderedDispatchProperties {
+
+    public static final String PREFIX = "ticket.mq.ordered-dispatch";
+
+    /**
+     * 是否开启按 Key 串行执行，关闭后消息在消费线程中直接执行
+     */
+    private Boolean enabled = true;
+
+    /**
+     * 执行通道数量，相同 Key 固定落在同一通道串行执行，不同通道之间并行
+     */
+    private Integer parallelism = 16;
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.biz.ticketservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 订单已售座位投影配置
+ *
+ * @author zhangjlk
+ * @date 2026/10/19 上午9:10
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = OrderSoldSeatProjectionProperties.PREFIX)
+public class OrderSoldSeatProjectionProperties {
+
+    public static final String PREFIX = "ticket.order-sold-seat-projection";
+
+    /**
+     * 是否在下单时登记已售座位投影，关闭后订单关闭 Binlog 与支付结果回调回退为远程查询订单详情
+     */
+    private Boolean enabled = true;
+
+    /**
+     * 投影有效期，需覆盖订单支付超时时间与关单 Binlog 的最大延迟
+     */
+    private Duration ttl = Duration.ofHours(2);
+}
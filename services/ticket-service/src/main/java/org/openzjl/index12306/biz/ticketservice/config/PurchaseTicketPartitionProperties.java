@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.biz.ticketservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 购票分区执行器配置
+ *
+ * @author zhangjlk
+ * @date 2026/10/18 下午2:40
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = PurchaseTicketPartitionProperties.PREFIX)
+public class PurchaseTicketPartitionProperties {
+
+    public static final String PREFIX = "ticket.purchase.partition";
+
+    /**
+     * 工作线程数，同一车次同一时刻只由一个工作线程执行，不同车次在工作线程之间并行
+     */
+    private Integer workerCount = 16;
+
+    /**
+     * 单个车次的排队容量，队列满时直接拒绝该车次的购票请求
+     */
+    private Integer queueCapacity = 1024;
+
+
+    /**
+     * 租约被其他实例持有时，该车次暂停调度后重试的间隔
+     */
+    private Duration leaseRetryInterval = Duration.ofMillis(20);
+
+    /**
+     * 购票请求在车次队列中的最长等待时间（含执行时间）
+     */
+    private Duration waitTimeout = Duration.ofSeconds(10);
+
+    /**
+     * 单次合并提交的最大请求数，1 表示关闭合并
+     * <p>
+     * 实际上限不超过 租约续期超时时间 / orderCreateTimeout，保证续期中断后租约过期前整组订单已创建完
+     * </p>
+     */
+    private Integer groupCommitMaxSize = 32;
+
+    /**
+     * 单个请求远程创建订单的耗时预算，用于按租约续期超时时间（Redisson lockWatchdogTimeout）限制合并提交的请求数
+     */
+    private Duration orderCreateTimeout = Duration.ofSeconds(1);
+
+    /**
+     * 合并窗口，队列中只剩同车次同区间请求时最多额外等待该时长以凑批
+     */
+    private Duration groupCommitWindow = Duration.ofMillis(5);
+}
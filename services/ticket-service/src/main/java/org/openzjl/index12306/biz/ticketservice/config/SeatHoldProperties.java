@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.biz.ticketservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 座位保留配置
+ *
+ * @author zhangjlk
+ * @date 2026/10/18 下午4:50
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = SeatHoldProperties.PREFIX)
+public class SeatHoldProperties {
+
+    public static final String PREFIX = "ticket.seat-hold";
+
+    /**
+     * 是否开启座位保留，关闭后座位释放完全依赖延迟关单消息与 Binlog
+     */
+    private Boolean enabled = true;
+
+    /**
+     * 保留 ZSET 与明细 Hash 的分片数量，按订单号哈希分片，避免全部订单集中在单个热点 Key
+     */
+    private Integer shardCount = 16;
+
+    /**
+     * 座位保留时长，超过该时长未支付的订单由清理任务关闭并释放座位与令牌
+     */
+    private Duration ttl = Duration.ofMinutes(10);
+
+    /**
+     * 清理任务执行间隔
+     */
+    private Duration sweepInterval = Duration.ofSeconds(1);
+
+    /**
+     * 单批次认领的到期保留数量
+     */
+    private Integer sweepBatchSize = 100;
+
+    /**
+     * 单次清理最多处理的批次数，避免积压时长期占用清理线程
+     */
+    private Integer sweepMaxBatches = 10;
+
+    /**
+     * 关闭订单或释放失败后重新放回保留队列的延迟
+     */
+    private Duration retryDelay = Duration.ofSeconds(30);
+
+    /**
+     * 最大重试次数，超过后放弃并交由延迟关单消息兜底
+     */
+    private Integer maxRetries = 10;
+
+    /**
+     * 已释放标记有效期，需覆盖延迟关单消息与 Binlog 的最大延迟
+     */
+    private Duration releasedMarkerTtl = Duration.ofHours(2);
+
+    /**
+     * 合并购票座位分配超时：锁定座位后超过该时长仍未创建订单的分配记录由恢复任务释放，需大于创建订单的最长耗时
+     */
+    private Duration allocationTimeout = Duration.ofMinutes(2);
+
+    /**
+     * 座位分配恢复任务执行间隔
+     */
+    private Duration allocationRecoverInterval = Duration.ofSeconds(30);
+}
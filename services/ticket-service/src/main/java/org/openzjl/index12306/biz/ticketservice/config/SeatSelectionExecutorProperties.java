@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.biz.ticketservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 选座执行器配置
+ *
+ * @author zhangjlk
+ * @date 2026/10/18 下午7:30
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = SeatSelectionExecutorProperties.PREFIX)
+public class SeatSelectionExecutorProperties {
+
+    public static final String PREFIX = "ticket.purchase.seat-selection";
+
+    /**
+     * 工作线程数
+     */
+    private Integer workerCount = 24;
+
+    /**
+     * 期望的最长排队时间，队列容量按 期望排队时间 / 平均执行耗时 × 工作线程数 动态计算
+     */
+    private Duration targetQueueDelay = Duration.ofMillis(50);
+
+    /**
+     * 队列容量下限
+     */
+    private Integer minQueueCapacity = 32;
+
+    /**
+     * 队列容量上限
+     */
+    private Integer maxQueueCapacity = 1024;
+
+    /**
+     * 单个车次最多占用的队列容量比例（百分比），防止热点车次挤占其他车次的选座任务
+     */
+    private Integer maxTrainQueuePercent = 25;
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.biz.ticketservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 余票 Binlog 增量聚合配置
+ *
+ * @author zhangjlk
+ * @date 2026/10/18 下午8:40
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = TicketAvailabilityBinlogAggregationProperties.PREFIX)
+public class TicketAvailabilityBinlogAggregationProperties {
+
+    public static final String PREFIX = "ticket.availability.cache-update.aggregation";
+
+    /**
+     * 是否跨消息聚合余票增量，关闭时每条 Binlog 消息单独写入
+     */
+    private Boolean enabled = true;
+
+    /**
+     * 聚合窗口，窗口内多条 Binlog 消息的增量合并后一次写入 Redis
+     */
+    private Duration window = Duration.ofMillis(20);
+
+    /**
+     * 待写入的 缓存Key_座位类型 数量达到该值时不再等待窗口结束，立即写入
+     */
+    private Integer maxPendingFields = 2000;
+
+    /**
+     * 消费线程等待增量写入完成的最长时间，超时后消息按消费失败重新投递
+     */
+    private Duration flushTimeout = Duration.ofSeconds(5);
+
+    /**
+     * 批次写入失败后以同一批次号重试的次数，已写入的槽位分组由批次标记跳过
+     */
+    private Integer flushRetryTimes = 2;
+
+    /**
+     * 批次已写入标记的有效期，需覆盖批次重试的时间范围
+     */
+    private Duration batchMarkerTtl = Duration.ofMinutes(10);
+}
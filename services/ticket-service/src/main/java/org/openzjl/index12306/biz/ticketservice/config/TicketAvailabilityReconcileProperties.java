@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.biz.ticketservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 余票对账配置
+ *
+ * @author zhangjlk
+ * @date 2026/10/18 下午3:50
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = TicketAvailabilityReconcileProperties.PREFIX)
+public class TicketAvailabilityReconcileProperties {
+
+    public static final String PREFIX = "ticket.availability.reconcile";
+
+    /**
+     * 是否自动修复令牌桶和区间余票缓存，关闭时只上报漂移指标
+     */
+    private Boolean repairEnabled = false;
+
+    /**
+     * 对账范围：出发时间在未来多少天内的列车
+     */
+    private Integer activeDays = 15;
+
+    /**
+     * 分页查询列车的每页数量
+     */
+    private Integer pageSize = 200;
+
+    /**
+     * 上一轮漂移快照在 Redis 中的保留时间，取对账任务周期的两倍左右，超过后下一轮不再视为连续漂移
+     */
+    private Duration driftSnapshotTtl = Duration.ofMinutes(10);
+}
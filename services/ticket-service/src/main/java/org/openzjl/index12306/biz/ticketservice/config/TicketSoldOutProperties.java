@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.biz.ticketservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 售罄广播配置
+ *
+ * @author zhangjlk
+ * @date 2026/10/18 下午4:20
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = TicketSoldOutProperties.PREFIX)
+public class TicketSoldOutProperties {
+
+    public static final String PREFIX = "ticket.availability.sold-out";
+
+    /**
+     * 是否开启售罄广播与本地售罄拦截
+     */
+    private Boolean enabled = true;
+
+    /**
+     * 本地售罄标记有效期，同时作为发布标记的有效期；到期后重新以令牌桶为准
+     */
+    private Duration expire = Duration.ofSeconds(10);
+
+    /**
+     * 本地售罄集合最大容量
+     */
+    private Long maximumSize = 100000L;
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.biz.ticketservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 候补购票配置
+ *
+ * @author zhangjlk
+ * @date 2026/10/18 下午5:40
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = WaitlistProperties.PREFIX)
+public class WaitlistProperties {
+
+    public static final String PREFIX = "ticket.waitlist";
+
+    /**
+     * 是否开启候补购票
+     */
+    private Boolean enabled = true;
+
+    /**
+     * 单个 车次_座位类型 候补队列的最大排队数，超过后拒绝新的候补
+     */
+    private Integer queueCapacity = 1000;
+
+    /**
+     * 匹配任务执行间隔，余票回补信号在下一次执行时处理
+     */
+    private Duration matchInterval = Duration.ofSeconds(1);
+
+    /**
+     * 全量扫描间隔，兜底处理其他实例回补的余票以及丢失的回补信号
+     */
+    private Duration scanInterval = Duration.ofSeconds(30);
+
+    /**
+     * 单个车次一次匹配读取的候补数量
+     */
+    private Integer matchBatchSize = 50;
+
+    /**
+     * 单个候补最多兑现尝试次数，超过后标记为兑现失败
+     */
+    private Integer maxAttempts = 3;
+
+    /**
+     * 候补截止时间距发车时间的提前量
+     */
+    private Duration cutoffBeforeDeparture = Duration.ofMinutes(30);
+
+    /**
+     * 兑现中状态的超时时间，超时未完成的候补（如实例宕机）重新回到排队中
+     */
+    private Duration matchingTimeout = Duration.ofMinutes(5);
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.biz.ticketservice.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.openzjl.index12306.biz.ticketservice.dto.req.PurchaseTicketReqDTO;
+import org.openzjl.index12306.biz.ticketservice.dto.resp.WaitlistRespDTO;
+import org.openzjl.index12306.biz.ticketservice.service.WaitlistService;
+import org.openzjl.index12306.framework.starter.convention.result.Result;
+import org.openzjl.index12306.framework.starter.web.Results;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * 候补购票控制层
+ *
+ * @author zhangjlk
+ * @date 2026/10/18 下午5:40
+ */
+@RestController
+@RequiredArgsConstructor
+public class WaitlistController {
+
+    private final WaitlistService waitlistService;
+
+    /**
+     * 提交候补订单，余票回补时系统按排队顺序自动下单
+     */
+    @PostMapping("/api/ticket-service/ticket/waitlist/create")
+    public Result<WaitlistRespDTO> createWaitlist(@RequestBody PurchaseTicketReqDTO requestParam) {
+        return Results.success(waitlistService.createWaitlist(requestParam));
+    }
+
+    /**
+     * 查询候补订单状态与排队位置
+     */
+    @GetMapping("/api/ticket-service/ticket/waitlist/query")
+    public Result<WaitlistRespDTO> queryWaitlist(@RequestParam("id") Long id) {
+        return Results.success(waitlistService.queryWaitlist(id));
+    }
+
+    /**
+     * 取消排队中的候补订单
+     */
+    @PostMapping("/api/ticket-service/ticket/waitlist/cancel")
+    public Result<Void> cancelWaitlist(@RequestParam("id") Long id) {
+        waitlistService.cancelWaitlist(id);
+        return Results.success();
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.biz.ticketservice.dao.entity;
+
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.openzjl.index12306.framework.starter.database.base.BaseDO;
+
+/**
+ * 座位分配记录实体
+ * <p>
+ * 合并购票在锁定座位的同一事务内为每个请求写入一条记录，订单创建并登记座位保留后删除；
+ * 进程在两者之间宕机时记录保留下来，由恢复任务释放座位，避免座位既无订单也无保留而永久锁定。
+ * </p>
+ *
+ * @author zhangjlk
+ * @date 2026/10/21 下午4:10
+ */
+@Data
+@Builder
+@TableName("t_seat_allocation")
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeatAllocationDO extends BaseDO {
+
+    /**
+     * id
+     */
+    private Long id;
+
+    /**
+     * 用户名
+     */
+    private String username;
+
+    /**
+     * 列车ID
+     */
+    private Long trainId;
+
+    /**
+     * 出发站点
+     */
+    private String departure;
+
+    /**
+     * 到达站点
+     */
+    private String arrival;
+
+    /**
+     * 车票记录ID列表JSON
+     */
+    private String ticketIds;
+
+    /**
+     * 乘车人以及座位信息JSON
+     */
+    private String seatDetails;
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.biz.ticketservice.dao.entity;
+
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.openzjl.index12306.framework.starter.database.base.BaseDO;
+
+import java.util.Date;
+
+/**
+ * 候补订单实体
+ * <p>
+ * 每条记录是一个购票意向，同一 车次_乘车日期_座位类型 下按 ID 先后排队
+ * </p>
+ *
+ * @author zhangjlk
+ * @date 2026/10/18 下午5:40
+ */
+@Data
+@Builder
+@TableName("t_waitlist_order")
+@NoArgsConstructor
+@AllArgsConstructor
+public class WaitlistOrderDO extends BaseDO {
+
+    /**
+     * id
+     */
+    private Long id;
+
+    /**
+     * 用户ID
+     */
+    private String userId;
+
+    /**
+     * 用户名
+     */
+    private String username;
+
+    /**
+     * 用户真实姓名
+     */
+    private String realName;
+
+    /**
+     * 列车ID
+     */
+    private Long trainId;
+
+    /**
+     * 乘车日期
+     */
+    private Date ridingDate;
+
+    /**
+     * 出发站点
+     */
+    private String departure;
+
+    /**
+     * 到达站点
+     */
+    private String arrival;
+
+    /**
+     * 座位类型
+     */
+    private Integer seatType;
+
+    /**
+     * 乘车人数
+     */
+    private Integer passengerCount;
+
+    /**
+     * 购票请求参数JSON
+     */
+    private String purchaseRequest;
+
+    /**
+     * 候补状态
+     */
+    private Integer status;
+
+    /**
+     * 兑现后的订单号
+     */
+    private String orderSn;
+
+    /**
+     * 兑现尝试次数
+     */
+    private Integer attempts;
+
+    /**
+     * 最近一次兑现失败原因
+     */
+    private String failReason;
+
+    /**
+     * 候补截止时间
+     */
+    private Date deadline;
+}
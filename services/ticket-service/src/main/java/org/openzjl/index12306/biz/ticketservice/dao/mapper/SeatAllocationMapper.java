@@ -0,0 +1,26 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.biz.ticketservice.dao.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Param;
+import org.openzjl.index12306.biz.ticketservice.dao.entity.SeatAllocationDO;
+
+/**
+ * 座位分配记录持久层
+ *
+ * @author zhangjlk
+ * @date 2026/10/21 下午4:10
+ */
+public interface SeatAllocationMapper extends BaseMapper<SeatAllocationDO> {
+
+    /**
+     * 物理删除座位分配记录
+     *
+     * @param id 记录ID
+     * @return 删除的记录数，为 0 说明已被其他路径删除
+     */
+    int removeAllocation(@Param("id") Long id);
+}
@@ -7,8 +7,11 @@ package org.openzjl.index12306.biz.ticketservice.dao.mapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import org.apache.ibatis.annotations.Param;
 import org.openzjl.index12306.biz.ticketservice.dao.entity.SeatDO;
+import org.openzjl.index12306.biz.ticketservice.dto.domain.SeatSegmentCountDTO;
 import org.openzjl.index12306.biz.ticketservice.dto.domain.SeatTypeCountDTO;
+import org.openzjl.index12306.biz.ticketservice.service.handler.ticket.dto.TrainPurchaseTicketRespDTO;
 
+import java.util.Date;
 import java.util.List;
 
 /**
@@ -28,4 +31,27 @@ public interface SeatMapper extends BaseMapper<SeatDO> {
      * 获取列车startStation 到 endStation 区间可用座位数量
      */
     List<SeatTypeCountDTO> listSeatTypeCount(@Param("trainId") Long trainId, @Param("startStation") String startStation, @Param("endStation") String endStation, @Param("seatTypes") List<Integer> seatTypes);
+
+    /**
+     * 按区间和座位类型统计列车全部可用座位数量，一次查询覆盖整趟列车
+     */
+    List<SeatSegmentCountDTO> listSeatSegmentCount(@Param("trainId") Long trainId);
+
+    /**
+     * 按期望状态批量修改座位在多个区间上的状态，起始站与终点站集合的组合即为待修改的区间
+     */
+    int updateSeatStatusBySegments(@Param("trainId") Long trainId,
+                                   @Param("startStations") List<String> startStations,
+                                   @Param("endStations") List<String> endStations,
+                                   @Param("seats") List<TrainPurchaseTicketRespDTO> seats,
+                                   @Param("expectedStatus") Integer expectedStatus,
+                                   @Param("targetStatus") Integer targetStatus);
+
+    /**
+     * 查询座位在指定时间范围内发生过变更的列车ID，最多返回 limit 个
+     * <p>
+     * 需要 t_seat 上的 (update_time, train_id) 索引，生产库通过 db/create_seat_update_time_index.sql 创建
+     * </p>
+     */
+    List<Long> listTrainIdByUpdateTime(@Param("startTime") Date startTime, @Param("endTime") Date endTime, @Param("limit") Integer limit);
 }
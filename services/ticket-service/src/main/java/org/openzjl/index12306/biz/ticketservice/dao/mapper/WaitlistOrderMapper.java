@@ -0,0 +1,17 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.biz.ticketservice.dao.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.openzjl.index12306.biz.ticketservice.dao.entity.WaitlistOrderDO;
+
+/**
+ * 候补订单持久层
+ *
+ * @author zhangjlk
+ * @date 2026/10/18 下午5:40
+ */
+public interface WaitlistOrderMapper extends BaseMapper<WaitlistOrderDO> {
+}
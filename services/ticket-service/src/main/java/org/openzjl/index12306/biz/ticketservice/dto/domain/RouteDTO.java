@@ -4,28 +4,27 @@
  */
 package org.openzjl.index12306.biz.ticketservice.dto.domain;
 
-import lombok.AllArgsConstructor;
-import lombok.Data;
-import lombok.NoArgsConstructor;
+import lombok.Value;
 
 /**
  * 站点路线实体
+ * <p>
+ * 不可变对象，列车路线图缓存的区间计算结果由多个线程共享同一批实例。
+ * </p>
  *
  * @author zhangjlk
  * @date 2025/11/29 09:18
  */
-@Data
-@NoArgsConstructor
-@AllArgsConstructor
+@Value
 public class RouteDTO {
 
     /**
      * 出发站点
      */
-    private String startStation;
+    String startStation;
 
     /**
      * 目的站点
      */
-    private String endStation;
+    String endStation;
 }
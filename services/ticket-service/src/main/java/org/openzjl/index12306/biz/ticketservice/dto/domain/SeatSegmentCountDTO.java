@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.biz.ticketservice.dto.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 区间座位类型可用座位数量实体
+ *
+ * @author zhangjlk
+ * @date 2026/10/18 下午3:50
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeatSegmentCountDTO {
+
+    /**
+     * 起始站
+     */
+    private String startStation;
+
+    /**
+     * 终点站
+     */
+    private String endStation;
+
+    /**
+     * 座位类型
+     */
+    private Integer seatType;
+
+    /**
+     * 可用座位数量
+     */
+    private Integer seatCount;
+}
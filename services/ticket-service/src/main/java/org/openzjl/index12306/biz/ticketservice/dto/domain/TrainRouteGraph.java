@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.biz.ticketservice.dto.domain;
+
+import lombok.Getter;
+import org.openzjl.index12306.biz.ticketservice.dao.entity.TrainStationDO;
+import org.openzjl.index12306.biz.ticketservice.toolkit.StationCalculateUtil;
+import org.openzjl.index12306.framework.starter.log.toolkit.BeanUtil;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 列车路线图
+ * <p>
+ * 一趟列车的经停站快照：按顺序排列的站点列表、站点 -> 下标映射，以及按（出发站, 到达站）缓存的区间计算结果。
+ * 由 {@link org.openzjl.index12306.biz.ticketservice.service.TrainStationService} 按车次和运行日期加载并缓存，
+ * 购票、令牌桶初始化、取消订单、延迟关单等链路共享同一份实例，避免每次计算区间都回表查询 t_train_station。
+ * </p>
+ * <p>
+ * 实例创建后不可变：区间列表为只读列表，元素 {@link RouteDTO} 本身不可变；经停站明细只以副本形式对外提供。
+ * </p>
+ *
+ * @author zhangjlk
+ * @date 2026/10/18 上午10:40
+ */
+public final class TrainRouteGraph {
+
+    /**
+     * 列车 ID
+     */
+    @Getter
+    private final String trainId;
+
+    /**
+     * 运行日期，经停站的到发时刻随运行日期滚动
+     */
+    @Getter
+    private final LocalDate trainDate;
+
+    /**
+     * 经停站明细（数据库原始记录，按经停顺序），实体可变，不直接对外暴露
+     */
+    private final List<TrainStationDO> trainStations;
+
+    /**
+     * 经停站名称列表，例如：["北京南", "济南西", "南京南", "上海虹桥"]
+     */
+    @Getter
+    private final List<String> stations;
+
+    /**
+     * 站点名称 -> 经停顺序下标
+     */
+    private final Map<String, Integer> stationIndex;
+
+    /**
+     * 区间对象表，routeTable[i * n + j] 为站点 i 到站点 j 的区间，各计算结果共享同一批实例
+     */
+    private final RouteDTO[] routeTable;
+
+    /**
+     * 出发站_到达站 -> 起止站之间的全部区间
+     */
+    private final Map<String, List<RouteDTO>> throughRoutes = new ConcurrentHashMap<>();
+
+    /**
+     * 出发站_到达站 -> 需要扣减余票的全部区间
+     */
+    private final Map<String, List<RouteDTO>> takeoutRoutes = new ConcurrentHashMap<>();
+
+    public TrainRouteGraph(String trainId, LocalDate trainDate, List<TrainStationDO> trainStations) {
+        this.trainId = trainId;
+        this.trainDate = trainDate;
+        this.trainStations = List.copyOf(trainStations);
+        this.stations = this.trainStations.stream().map(TrainStationDO::getDeparture).toList();
+        Map<String, Integer> indexMap = new HashMap<>(this.stations.size() * 2);
+        for (int i = 0; i < this.stations.size(); i++) {
+            // 同名站点保留第一次出现的位置，与 List#indexOf 语义保持一致
+            indexMap.putIfAbsent(this.stations.get(i), i);
+        }
+        this.stationIndex = Collections.unmodifiableMap(indexMap);
+        int n = this.stations.size();
+        this.routeTable = new RouteDTO[n * n];
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                routeTable[i * n + j] = new RouteDTO(this.stations.get(i), this.stations.get(j));
+            }
+        }
+    }
+
+    /**
+     * 复制经停站明细，每次调用都创建新的对象，调用方修改返回值不会影响缓存中的数据
+     *
+     * @param targetClass 目标类型
+     * @return 按经停顺序排列的经停站明细副本
+     */
+    public <T> List<T> copyTrainStations(Class<T> targetClass) {
+        return BeanUtil.convert(trainStations, targetClass);
+    }
+
+    /**
+     * 获取站点在线路中的下标
+     *
+     * @param station 站点名称
+     * @return 下标，不存在返回 -1
+     */
+    public int indexOf(String station) {
+        return stationIndex.getOrDefault(station, -1);
+    }
+
+    /**
+     * 计算出发站和到达站之间的全部区间（包含出发站和到达站）
+     *
+     * @param departure 出发站
+     * @param arrival   到达站
+     * @return 只读区间列表
+     */
+    public List<RouteDTO> throughStation(String departure, String arrival) {
+        if (!containsSegment(departure, arrival)) {
+            return Collections.emptyList();
+        }
+        return throughRoutes.computeIfAbsent(
+                departure + "_" + arrival,
+                key -> toRouteList(StationCalculateUtil.throughStationRanges(stations.size(), indexOf(departure), indexOf(arrival)))
+        );
+    }
+
+    /**
+     * 计算购买出发站到到达站车票后需要扣减余票的全部区间
+     *
+     * @param departure 出发站
+     * @param arrival   到达站
+     * @return 只读区间列表
+     */
+    public List<RouteDTO> takeoutStation(String departure, String arrival) {
+        if (!containsSegment(departure, arrival)) {
+            return Collections.emptyList();
+        }
+        return takeoutRoutes.computeIfAbsent(
+                departure + "_" + arrival,
+                key -> toRouteList(StationCalculateUtil.takeoutStationRanges(stations.size(), indexOf(departure), indexOf(arrival)))
+        );
+    }
+
+    /**
+     * 出发站、到达站都在线路上且方向正确时才缓存计算结果，避免非法参数撑大缓存
+     */
+    private boolean containsSegment(String departure, String arrival) {
+        int startIndex = indexOf(departure);
+        int endIndex = indexOf(arrival);
+        return startIndex >= 0 && endIndex >= 0 && startIndex < endIndex;
+    }
+
+    private List<RouteDTO> toRouteList(int[] ranges) {
+        int n = stations.size();
+        RouteDTO[] routes = new RouteDTO[ranges.length];
+        for (int i = 0; i < ranges.length; i++) {
+            routes[i] = routeTable[StationCalculateUtil.rangeStart(ranges[i]) * n + StationCalculateUtil.rangeEnd(ranges[i])];
+        }
+        return List.of(routes);
+    }
+}
@@ -42,4 +42,9 @@ public class PurchaseTicketReqDTO {
      * 到达站点
      */
     private String arrival;
+
+    /**
+     * 候补订单ID，仅候补兑现时由候补匹配任务设置，订单创建后立即在该候补上登记订单号
+     */
+    private Long waitlistId;
 }
@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.biz.ticketservice.dto.resp;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+/**
+ * 候补订单返回参数
+ *
+ * @author zhangjlk
+ * @date 2026/10/18 下午5:40
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WaitlistRespDTO {
+
+    /**
+     * 候补订单ID
+     */
+    private String id;
+
+    /**
+     * 列车ID
+     */
+    private String trainId;
+
+    /**
+     * 出发站点
+     */
+    private String departure;
+
+    /**
+     * 到达站点
+     */
+    private String arrival;
+
+    /**
+     * 座位类型
+     */
+    private Integer seatType;
+
+    /**
+     * 乘车人数
+     */
+    private Integer passengerCount;
+
+    /**
+     * 候补状态
+     */
+    private Integer status;
+
+    /**
+     * 排队位置，仅排队中时有值，从 1 开始
+     */
+    private Long position;
+
+    /**
+     * 兑现后的订单号
+     */
+    private String orderSn;
+
+    /**
+     * 最近一次兑现失败原因
+     */
+    private String failReason;
+
+    /**
+     * 候补截止时间
+     */
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss", timezone = "GMT+8")
+    private Date deadline;
+}
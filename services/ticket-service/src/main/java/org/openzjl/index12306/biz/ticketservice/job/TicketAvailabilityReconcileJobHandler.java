@@ -0,0 +1,30 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.biz.ticketservice.job;
+
+import com.xxl.job.core.handler.annotation.XxlJob;
+import lombok.RequiredArgsConstructor;
+import org.openzjl.index12306.biz.ticketservice.service.handler.ticket.reconcile.TicketAvailabilityReconciler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * 令牌桶、区间余票缓存与座位表对账定时任务
+ *
+ * @author zhangjlk
+ * @date 2026/10/18 下午3:50
+ */
+@RestController
+@RequiredArgsConstructor
+public class TicketAvailabilityReconcileJobHandler {
+
+    private final TicketAvailabilityReconciler ticketAvailabilityReconciler;
+
+    @XxlJob(value = "ticketAvailabilityReconcileJobHandler")
+    @GetMapping("/api/ticket-service/ticket-availability/job/reconcile/execute")
+    public void execute() {
+        ticketAvailabilityReconciler.reconcile();
+    }
+}
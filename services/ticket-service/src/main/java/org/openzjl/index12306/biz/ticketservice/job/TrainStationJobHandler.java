@@ -22,6 +22,7 @@ import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.toolkit.Wrappers;
 import com.xxl.job.core.handler.annotation.XxlJob;
 import lombok.RequiredArgsConstructor;
+import org.openzjl.index12306.biz.ticketservice.canal.CanalCacheInvalidator;
 import org.openzjl.index12306.biz.ticketservice.common.constant.Index12306Constant;
 import org.openzjl.index12306.biz.ticketservice.dao.entity.TrainDO;
 import org.openzjl.index12306.biz.ticketservice.dao.entity.TrainStationDO;
@@ -31,6 +32,7 @@ import org.openzjl.index12306.framework.starter.cache.DistributedCache;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 
@@ -46,6 +48,7 @@ public class TrainStationJobHandler extends AbstractTrainStationJobHandlerTempla
 
     private final TrainStationMapper trainStationMapper;
     private final DistributedCache distributedCache;
+    private final CanalCacheInvalidator canalCacheInvalidator;
 
     @XxlJob(value = "trainStationJobHandler")
     @GetMapping("/api/ticket-service/train-station/job/cache-init/execute")
@@ -56,6 +59,7 @@ public class TrainStationJobHandler extends AbstractTrainStationJobHandlerTempla
 
     @Override
     protected void actualExecute(List<TrainDO> trainDOPageRecords) {
+        List<String> trainIds = new ArrayList<>(trainDOPageRecords.size());
         for (TrainDO each : trainDOPageRecords) {
             LambdaQueryWrapper<TrainStationDO> queryWrapper = Wrappers.lambdaQuery(TrainStationDO.class)
                     .eq(TrainStationDO::getTrainId, each.getId());
@@ -66,6 +70,9 @@ public class TrainStationJobHandler extends AbstractTrainStationJobHandlerTempla
                     Index12306Constant.ADVANCE_TICKET_DAY,
                     TimeUnit.DAYS
             );
+            trainIds.add(String.valueOf(each.getId()));
         }
+        // 经停站数据已刷新，广播失效全部实例的列车路线图缓存
+        canalCacheInvalidator.invalidateLocal("t_train_station", trainIds);
     }
 }
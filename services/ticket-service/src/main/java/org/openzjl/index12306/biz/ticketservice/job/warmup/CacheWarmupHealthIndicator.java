@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.biz.ticketservice.job.warmup;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * 缓存预热就绪指示器
+ * <p>
+ * 关键预热任务全部成功前返回 DOWN，加入 readiness 健康组后，滚动发布时新 Pod 会在缓存预热完成后才接入流量，
+ * 避免首批请求落到冷缓存上触发 {@code safeGet} 分布式锁加载。
+ * 关键任务重试后仍失败或超时时返回 OUT_OF_SERVICE，除非显式开启 {@code ticket.job.warmup.ready-on-critical-failure}
+ *
+ * @author zhangjlk
+ * @date 2026/10/18 上午11:05
+ */
+@RequiredArgsConstructor
+@Component("cacheWarmup")
+public class CacheWarmupHealthIndicator implements HealthIndicator {
+
+    private final CacheWarmupOrchestrator cacheWarmupOrchestrator;
+
+    @Override
+    public Health health() {
+        Health.Builder builder;
+        if (cacheWarmupOrchestrator.isReady()) {
+            builder = Health.up();
+        } else if (cacheWarmupOrchestrator.isCriticalTaskFailed()) {
+            builder = Health.outOfService();
+        } else {
+            builder = Health.down();
+        }
+        return builder.withDetails(cacheWarmupOrchestrator.snapshotTaskStatus()).build();
+    }
+}
@@ -0,0 +1,284 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.biz.ticketservice.job.warmup;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.openzjl.index12306.biz.ticketservice.common.enums.CacheWarmupTaskStatusEnum;
+import org.openzjl.index12306.biz.ticketservice.config.CacheWarmupProperties;
+import org.openzjl.index12306.framework.starter.log.threadpool.build.ThreadPoolBuilder;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 启动缓存预热编排器
+ * <p>
+ * 取代原先串行执行的启动预热，按任务声明的依赖关系构建 DAG：
+ * <ul>
+ *     <li>前置依赖全部结束（成功、失败或超时）后才执行当前任务，预热属于尽力而为，失败的任务不阻断下游</li>
+ *     <li>互不依赖的任务在有界线程池中并行执行</li>
+ *     <li>每个任务独立超时，超时后中断执行线程并记为 TIMEOUT</li>
+ *     <li>关键任务失败或超时后按间隔重试，等待重试期间状态回到 PENDING</li>
+ *     <li>编排异步进行，应用启动不被阻塞；关键任务全部成功前 {@link CacheWarmupHealthIndicator} 保持 DOWN，
+ *     重试后仍失败时为 OUT_OF_SERVICE，显式开启 ready-on-critical-failure 后才在失败时就绪</li>
+ * </ul>
+ * <p>
+ * 指标：
+ * <ul>
+ *     <li>ticket.cache.warmup.task：单任务耗时，标签 task、outcome</li>
+ *     <li>ticket.cache.warmup.duration：整体预热耗时</li>
+ *     <li>ticket.cache.warmup.ready：是否就绪（1/0）</li>
+ * </ul>
+ *
+ * @author zhangjlk
+ * @date 2026/10/18 上午10:32
+ */
+@Slf4j
+@Order(1)
+@Component
+@RequiredArgsConstructor
+public class CacheWarmupOrchestrator implements ApplicationRunner, DisposableBean {
+
+    private final ObjectProvider<CacheWarmupTask> cacheWarmupTasks;
+    private final CacheWarmupProperties cacheWarmupProperties;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * 任务名称 -> 当前状态，按注册顺序保存，便于健康检查输出
+     */
+    private final Map<String, CacheWarmupTaskStatusEnum> taskStatusMap = Collections.synchronizedMap(new LinkedHashMap<>());
+
+    /**
+     * 关键任务名称集合
+     */
+    private final Set<String> criticalTaskNames = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 编排是否已启动，未启动前视为未就绪
+     */
+    private volatile boolean started;
+
+    private volatile ThreadPoolExecutor warmupExecutor;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        Map<String, CacheWarmupTask> taskMap = new LinkedHashMap<>();
+        cacheWarmupTasks.orderedStream().forEach(each -> {
+            if (taskMap.putIfAbsent(each.getName(), each) != null) {
+                throw new IllegalStateException("Duplicate cache warmup task: " + each.getName());
+            }
+        });
+        List<String> executeOrder = topologicalOrder(taskMap);
+        taskMap.values().forEach(each -> {
+            taskStatusMap.put(each.getName(), CacheWarmupTaskStatusEnum.PENDING);
+            if (each.isCritical()) {
+                criticalTaskNames.add(each.getName());
+            }
+        });
+        Gauge.builder("ticket.cache.warmup.ready", this, each -> each.isReady() ? 1D : 0D)
+                .description("Whether all critical cache warmup tasks have succeeded")
+                .register(meterRegistry);
+        started = true;
+        if (taskMap.isEmpty()) {
+            log.info("ticket cache warmup: no task registered, skip");
+            return;
+        }
+
+        int poolSize = Math.max(1, cacheWarmupProperties.getPoolSize());
+        warmupExecutor = ThreadPoolBuilder.builder()
+                .corePoolSize(poolSize)
+                .maximumPoolSize(poolSize)
+                .workQueue(new LinkedBlockingQueue<>())
+                .threadFactory("ticket-cache-warmup-", true)
+                .build();
+        log.info("ticket cache warmup: start, order={}, poolSize={}", executeOrder, poolSize);
+
+        long startTime = System.nanoTime();
+        Map<String, CompletableFuture<Void>> futureMap = new HashMap<>();
+        for (String each : executeOrder) {
+            futureMap.put(each, schedule(taskMap.get(each), futureMap));
+        }
+        CompletableFuture.allOf(futureMap.values().toArray(new CompletableFuture[0]))
+                .whenComplete((unused, ex) -> {
+                    long elapsed = System.nanoTime() - startTime;
+                    Timer.builder("ticket.cache.warmup.duration")
+                            .description("Total ticket cache warmup duration")
+                            .register(meterRegistry)
+                            .record(elapsed, TimeUnit.NANOSECONDS);
+                    log.info("ticket cache warmup done: cost={}ms, status={}", TimeUnit.NANOSECONDS.toMillis(elapsed), snapshotTaskStatus());
+                    warmupExecutor.shutdown();
+                });
+    }
+
+    /**
+     * 是否就绪：关键任务全部成功，或开启 ready-on-critical-failure 时关键任务全部结束
+     */
+    public boolean isReady() {
+        if (!started) {
+            return false;
+        }
+        if (criticalTaskNames.stream().allMatch(each -> criticalTaskStatus(each) == CacheWarmupTaskStatusEnum.SUCCESS)) {
+            return true;
+        }
+        return cacheWarmupProperties.getReadyOnCriticalFailure()
+                && criticalTaskNames.stream().allMatch(each -> criticalTaskStatus(each).isFinished());
+    }
+
+    /**
+     * 是否有关键任务在重试后仍失败或超时
+     */
+    public boolean isCriticalTaskFailed() {
+        return started && criticalTaskNames.stream()
+                .map(this::criticalTaskStatus)
+                .anyMatch(each -> each.isFinished() && each != CacheWarmupTaskStatusEnum.SUCCESS);
+    }
+
+    private CacheWarmupTaskStatusEnum criticalTaskStatus(String taskName) {
+        return taskStatusMap.getOrDefault(taskName, CacheWarmupTaskStatusEnum.PENDING);
+    }
+
+    /**
+     * 当前各任务状态快照
+     */
+    public Map<String, String> snapshotTaskStatus() {
+        Map<String, String> result = new LinkedHashMap<>();
+        synchronized (taskStatusMap) {
+            taskStatusMap.forEach((name, status) -> result.put(name, status.name()));
+        }
+        return result;
+    }
+
+    /**
+     * 等待前置依赖全部结束后提交任务
+     * <p>
+     * 返回的 Future 永远正常完成，任务失败只体现在状态与指标上，不向下游传播异常
+     */
+    private CompletableFuture<Void> schedule(CacheWarmupTask task, Map<String, CompletableFuture<Void>> futureMap) {
+        CompletableFuture<?>[] dependencies = task.getDependencies().stream()
+                .map(futureMap::get)
+                .filter(Objects::nonNull)
+                .toArray(CompletableFuture[]::new);
+        return CompletableFuture.allOf(dependencies).thenCompose(unused -> execute(task, 0));
+    }
+
+    /**
+     * 执行任务，关键任务失败或超时后延迟重试，直到成功或用完重试次数
+     */
+    private CompletableFuture<Void> execute(CacheWarmupTask task, int retried) {
+        return executeOnce(task).thenCompose(status -> {
+            if (status == CacheWarmupTaskStatusEnum.SUCCESS || !task.isCritical() || retried >= cacheWarmupProperties.getCriticalRetryTimes()) {
+                return CompletableFuture.completedFuture(null);
+            }
+            Duration retryInterval = cacheWarmupProperties.getCriticalRetryInterval();
+            log.warn("ticket cache warmup critical task retry: task={}, status={}, retried={}, interval={}", task.getName(), status, retried, retryInterval);
+            taskStatusMap.put(task.getName(), CacheWarmupTaskStatusEnum.PENDING);
+            Executor delayedExecutor = CompletableFuture.delayedExecutor(retryInterval.toMillis(), TimeUnit.MILLISECONDS);
+            return CompletableFuture.runAsync(() -> {}, delayedExecutor).thenCompose(unused -> execute(task, retried + 1));
+        });
+    }
+
+    private CompletableFuture<CacheWarmupTaskStatusEnum> executeOnce(CacheWarmupTask task) {
+        Duration timeout = cacheWarmupProperties.resolveTimeout(task.getName());
+        CompletableFuture<Void> completion = new CompletableFuture<>();
+        long startTime = System.nanoTime();
+        Future<?> running = warmupExecutor.submit(() -> {
+            taskStatusMap.put(task.getName(), CacheWarmupTaskStatusEnum.RUNNING);
+            try {
+                task.getAction().run();
+                completion.complete(null);
+            } catch (Throwable ex) {
+                completion.completeExceptionally(ex);
+            }
+        });
+        return completion
+                .orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS)
+                .handle((unused, ex) -> {
+                    CacheWarmupTaskStatusEnum status;
+                    if (ex == null) {
+                        status = CacheWarmupTaskStatusEnum.SUCCESS;
+                    } else if (ex instanceof TimeoutException) {
+                        // 超时后中断执行线程，避免长期占用预热线程池
+                        running.cancel(true);
+                        status = CacheWarmupTaskStatusEnum.TIMEOUT;
+                        log.warn("ticket cache warmup task timeout: task={}, timeout={}", task.getName(), timeout);
+                    } else {
+                        status = CacheWarmupTaskStatusEnum.FAILED;
+                        log.error("ticket cache warmup task failed: task={}", task.getName(), ex);
+                    }
+                    taskStatusMap.put(task.getName(), status);
+                    Timer.builder("ticket.cache.warmup.task")
+                            .description("Ticket cache warmup task duration")
+                            .tag("task", task.getName())
+                            .tag("outcome", status.name().toLowerCase())
+                            .register(meterRegistry)
+                            .record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+                    return status;
+                });
+    }
+
+    /**
+     * 按依赖关系计算执行顺序，出现环时启动失败
+     */
+    private List<String> topologicalOrder(Map<String, CacheWarmupTask> taskMap) {
+        List<String> result = new ArrayList<>(taskMap.size());
+        Map<String, Boolean> visiting = new HashMap<>();
+        taskMap.keySet().forEach(each -> visit(each, taskMap, visiting, result));
+        return result;
+    }
+
+    private void visit(String name, Map<String, CacheWarmupTask> taskMap, Map<String, Boolean> visiting, List<String> result) {
+        Boolean state = visiting.get(name);
+        if (Boolean.FALSE.equals(state)) {
+            return;
+        }
+        if (Boolean.TRUE.equals(state)) {
+            throw new IllegalStateException("Cyclic cache warmup task dependency at: " + name);
+        }
+        CacheWarmupTask task = taskMap.get(name);
+        visiting.put(name, true);
+        for (String each : task.getDependencies()) {
+            if (!taskMap.containsKey(each)) {
+                // 前置任务可能被配置关闭（如未开启启动时滚动车次时间），此时视为已满足
+                log.info("ticket cache warmup: task {} depends on unregistered task {}, ignored", name, each);
+                continue;
+            }
+            visit(each, taskMap, visiting, result);
+        }
+        visiting.put(name, false);
+        result.add(name);
+    }
+
+    @Override
+    public void destroy() {
+        if (warmupExecutor != null) {
+            warmupExecutor.shutdownNow();
+        }
+    }
+}
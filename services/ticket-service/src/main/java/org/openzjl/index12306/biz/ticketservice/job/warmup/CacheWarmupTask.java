@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.biz.ticketservice.job.warmup;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Singular;
+
+import java.util.List;
+
+/**
+ * 缓存预热任务声明
+ * <p>
+ * 每个任务声明自己的名称、前置依赖以及是否为关键任务，由 {@link CacheWarmupOrchestrator} 统一编排：
+ * <ul>
+ *     <li>前置依赖全部结束后才会执行，互不依赖的任务在线程池中并行执行</li>
+ *     <li>关键任务全部结束前，就绪探针保持 DOWN，Pod 不会接入流量</li>
+ * </ul>
+ *
+ * @author zhangjlk
+ * @date 2026/10/18 上午10:20
+ */
+@Getter
+@Builder
+public class CacheWarmupTask {
+
+    /**
+     * 任务名称，全局唯一，同时作为依赖引用与指标标签
+     */
+    private final String name;
+
+    /**
+     * 前置依赖任务名称集合
+     */
+    @Singular("dependsOn")
+    private final List<String> dependencies;
+
+    /**
+     * 是否为关键任务，关键任务未结束前就绪探针保持 DOWN
+     */
+    private final boolean critical;
+
+    /**
+     * 实际预热逻辑
+     */
+    private final Runnable action;
+}
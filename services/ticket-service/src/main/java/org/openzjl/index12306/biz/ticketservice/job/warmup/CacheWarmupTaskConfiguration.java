@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.biz.ticketservice.job.warmup;
+
+import org.openzjl.index12306.biz.ticketservice.job.RegionTrainStationJobHandler;
+import org.openzjl.index12306.biz.ticketservice.job.TrainDailyTimeGenerateJobHandler;
+import org.openzjl.index12306.biz.ticketservice.job.TrainStationDetailJobHandler;
+import org.openzjl.index12306.biz.ticketservice.job.TrainStationJobHandler;
+import org.openzjl.index12306.biz.ticketservice.job.TrainStationRemainingTicketJobHandler;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.LocalDate;
+
+/**
+ * 启动缓存预热任务声明
+ * <p>
+ * 依赖关系：车次时间滚动 → 余票 / 经停站 / 站点详情 / 地区站点（四者互不依赖，并行执行）
+ *
+ * @author zhangjlk
+ * @date 2026/10/18 上午11:12
+ */
+@Configuration
+@SuppressWarnings("deprecation")
+public class CacheWarmupTaskConfiguration {
+
+    public static final String TRAIN_DAILY_TIME_ROLL = "train-daily-time-roll";
+
+    public static final String TRAIN_STATION_REMAINING_TICKET = "train-station-remaining-ticket";
+
+    public static final String TRAIN_STATION_STOPOVER = "train-station-stopover";
+
+    public static final String TRAIN_STATION_DETAIL = "train-station-detail";
+
+    public static final String REGION_TRAIN_STATION = "region-train-station";
+
+    /**
+     * 启动时自动执行车次时间滚动（默认滚到当天），避免依赖 XXL-JOB 或系统 cron
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "ticket.job.train-daily-time", name = "run-on-startup", havingValue = "true", matchIfMissing = true)
+    public CacheWarmupTask trainDailyTimeRollWarmupTask(TrainDailyTimeGenerateJobHandler trainDailyTimeGenerateJobHandler) {
+        return CacheWarmupTask.builder()
+                .name(TRAIN_DAILY_TIME_ROLL)
+                .critical(true)
+                .action(() -> trainDailyTimeGenerateJobHandler.runRoll(LocalDate.now()))
+                .build();
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "ticket.job", name = "warm-cache-on-startup", havingValue = "true", matchIfMissing = true)
+    public CacheWarmupTask trainStationRemainingTicketWarmupTask(TrainStationRemainingTicketJobHandler trainStationRemainingTicketJobHandler) {
+        return CacheWarmupTask.builder()
+                .name(TRAIN_STATION_REMAINING_TICKET)
+                .dependsOn(TRAIN_DAILY_TIME_ROLL)
+                .critical(true)
+                .action(trainStationRemainingTicketJobHandler::execute)
+                .build();
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "ticket.job", name = "warm-cache-on-startup", havingValue = "true", matchIfMissing = true)
+    public CacheWarmupTask trainStationStopoverWarmupTask(TrainStationJobHandler trainStationJobHandler) {
+        return CacheWarmupTask.builder()
+                .name(TRAIN_STATION_STOPOVER)
+                .dependsOn(TRAIN_DAILY_TIME_ROLL)
+                .critical(false)
+                .action(trainStationJobHandler::execute)
+                .build();
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "ticket.job", name = "warm-cache-on-startup", havingValue = "true", matchIfMissing = true)
+    public CacheWarmupTask trainStationDetailWarmupTask(TrainStationDetailJobHandler trainStationDetailJobHandler) {
+        return CacheWarmupTask.builder()
+                .name(TRAIN_STATION_DETAIL)
+                .dependsOn(TRAIN_DAILY_TIME_ROLL)
+                .critical(false)
+                .action(trainStationDetailJobHandler::execute)
+                .build();
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "ticket.job", name = "warm-cache-on-startup", havingValue = "true", matchIfMissing = true)
+    public CacheWarmupTask regionTrainStationWarmupTask(RegionTrainStationJobHandler regionTrainStationJobHandler) {
+        return CacheWarmupTask.builder()
+                .name(REGION_TRAIN_STATION)
+                .dependsOn(TRAIN_DAILY_TIME_ROLL)
+                .critical(true)
+                .action(regionTrainStationJobHandler::execute)
+                .build();
+    }
+}
@@ -4,14 +4,18 @@
  */
 package org.openzjl.index12306.biz.ticketservice.mq.consumer;
 
+import cn.hutool.core.bean.BeanUtil;
 import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.util.StrUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.rocketmq.spring.annotation.RocketMQMessageListener;
 import org.apache.rocketmq.spring.core.RocketMQListener;
+import org.openzjl.index12306.biz.ticketservice.canal.CanalBinlogContinuityTracker;
+import org.openzjl.index12306.biz.ticketservice.canal.CanalCacheInvalidator;
 import org.openzjl.index12306.biz.ticketservice.common.constant.TicketRocketMQConstant;
 import org.openzjl.index12306.biz.ticketservice.common.enums.CanalExecuteStrategyMarkEnum;
+import org.openzjl.index12306.biz.ticketservice.mq.dispatch.KeyOrderedDispatcher;
 import org.openzjl.index12306.biz.ticketservice.mq.event.CanalBinlogEvent;
 import org.openzjl.index12306.framework.starter.designpattern.staregy.AbstractStrategyChoose;
 import org.openzjl.index12306.framework.starter.idempotent.annotation.Idempotent;
@@ -20,6 +24,10 @@ import org.openzjl.index12306.framework.starter.idempotent.enums.IdempotentTypeE
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 /**
@@ -33,11 +41,16 @@ import java.util.Objects;
 @RequiredArgsConstructor
 @RocketMQMessageListener(
         topic = TicketRocketMQConstant.CANAL_COMMON_SYNC_TOPIC_KEY,
-        consumerGroup = TicketRocketMQConstant.CANAL_COMMON_SYNC_CG_KEY
+        consumerGroup = TicketRocketMQConstant.CANAL_COMMON_SYNC_CG_KEY,
+        // 余票增量跨消息聚合写入，消费线程在等待批次写入期间阻塞，更多的并发消息意味着更大的聚合批次
+        consumeThreadNumber = 64
 )
 public class CanalCommonSyncBinlogConsumer implements RocketMQListener<CanalBinlogEvent> {
 
     private final AbstractStrategyChoose abstractStrategyChoose;
+    private final KeyOrderedDispatcher keyOrderedDispatcher;
+    private final CanalBinlogContinuityTracker canalBinlogContinuityTracker;
+    private final CanalCacheInvalidator canalCacheInvalidator;
 
     @Value("${ticket.availability.cache-update.type:}")
     private String ticketAvailabilityCacheUpdateType;
@@ -51,17 +64,50 @@ public class CanalCommonSyncBinlogConsumer implements RocketMQListener<CanalBinl
     )
     @Override
     public void onMessage(CanalBinlogEvent message) {
+        // 时刻表、票价、车厢等基础数据变更按声明的规则失效缓存，与余票缓存的更新方式无关
+        canalCacheInvalidator.invalidate(message);
         // 余票 Binlog 更新延迟问题如何解决？详情查看：https://nageoffer.com/12306/question
-        if (message.getIsDdl()
-                || CollUtil.isEmpty(message.getOld())
-                || !Objects.equals("UPDATE", message.getType())
-                || !StrUtil.equals(ticketAvailabilityCacheUpdateType, "binlog")) {
+        if (!StrUtil.equals(ticketAvailabilityCacheUpdateType, "binlog")) {
             return;
         }
-        abstractStrategyChoose.chooseAndExecute(
-                message.getTable(),
-                message,
-                CanalExecuteStrategyMarkEnum.isPatternMatch(message.getTable())
-        );
+        if (!message.getIsDdl()
+                && !canalCacheInvalidator.supports(message.getTable())
+                && CollUtil.isNotEmpty(message.getOld())
+                && Objects.equals("UPDATE", message.getType())) {
+            boolean patternMatch = CanalExecuteStrategyMarkEnum.isPatternMatch(message.getTable());
+            // 座位表的余票增量是可交换的 hincrby，无需排序，继续并行聚合写入；
+            // 订单分表的关单事件与延迟关单、支付回调按订单号串行，避免同一订单的座位回滚与置为已售交错执行
+            if (patternMatch && CollUtil.isNotEmpty(message.getData())) {
+                // 一条 Binlog 可能包含多个订单的变更行，按订单号拆分后分别进入各自的执行通道
+                splitByOrderSn(message).forEach((orderSn, each) -> keyOrderedDispatcher.execute(
+                        "binlog", orderSn, () -> abstractStrategyChoose.chooseAndExecute(each.getTable(), each, true)));
+            } else {
+                abstractStrategyChoose.chooseAndExecute(message.getTable(), message, patternMatch);
+            }
+        }
+        // 无需处理的消息同样记录位点，消费水位才能连续推进；处理失败的消息不记录，重试耗尽后表现为断档
+        canalBinlogContinuityTracker.record(message);
+    }
+
+    /**
+     * 按订单号拆分 Binlog 变更行，data 与 old 按下标一一对应，拆分后保持行的原始顺序
+     */
+    private static Map<String, CanalBinlogEvent> splitByOrderSn(CanalBinlogEvent message) {
+        Map<String, CanalBinlogEvent> result = new LinkedHashMap<>();
+        List<Map<String, Object>> data = message.getData();
+        List<Map<String, Object>> old = message.getOld();
+        for (int i = 0; i < data.size(); i++) {
+            CanalBinlogEvent each = result.computeIfAbsent(String.valueOf(data.get(i).get("order_sn")), key -> {
+                CanalBinlogEvent event = BeanUtil.copyProperties(message, CanalBinlogEvent.class);
+                event.setData(new ArrayList<>());
+                event.setOld(new ArrayList<>());
+                return event;
+            });
+            each.getData().add(data.get(i));
+            if (old != null && i < old.size()) {
+                each.getOld().add(old.get(i));
+            }
+        }
+        return result;
     }
 }
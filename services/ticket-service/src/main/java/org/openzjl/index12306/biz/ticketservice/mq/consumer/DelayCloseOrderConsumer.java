@@ -11,32 +11,27 @@ import lombok.extern.slf4j.Slf4j;
 import org.apache.rocketmq.spring.annotation.RocketMQMessageListener;
 import org.apache.rocketmq.spring.core.RocketMQListener;
 import org.openzjl.index12306.biz.ticketservice.common.constant.TicketRocketMQConstant;
-import org.openzjl.index12306.biz.ticketservice.dto.domain.RouteDTO;
 import org.openzjl.index12306.biz.ticketservice.dto.req.CancelTicketOrderReqDTO;
+import org.openzjl.index12306.biz.ticketservice.mq.dispatch.KeyOrderedDispatcher;
 import org.openzjl.index12306.biz.ticketservice.mq.domain.MessageWrapper;
 import org.openzjl.index12306.biz.ticketservice.mq.event.DelayCloseOrderEvent;
 import org.openzjl.index12306.biz.ticketservice.remote.TicketOrderRemoteService;
 import org.openzjl.index12306.biz.ticketservice.remote.dto.TicketOrderDetailRespDTO;
 import org.openzjl.index12306.biz.ticketservice.remote.dto.TicketOrderPassengerDetailRespDTO;
 import org.openzjl.index12306.biz.ticketservice.service.SeatService;
-import org.openzjl.index12306.biz.ticketservice.service.TrainStationService;
+import org.openzjl.index12306.biz.ticketservice.service.cache.SeatMarginCacheUpdater;
 import org.openzjl.index12306.biz.ticketservice.service.handler.ticket.dto.TrainPurchaseTicketRespDTO;
+import org.openzjl.index12306.biz.ticketservice.service.handler.ticket.hold.SeatHoldManager;
 import org.openzjl.index12306.biz.ticketservice.service.handler.ticket.tokenbucket.TicketAvailabilityTokenBucket;
-import org.openzjl.index12306.framework.starter.cache.DistributedCache;
 import org.openzjl.index12306.framework.starter.convention.result.Result;
 import org.openzjl.index12306.framework.starter.idempotent.annotation.Idempotent;
 import org.openzjl.index12306.framework.starter.idempotent.enums.IdempotentSceneEnum;
 import org.openzjl.index12306.framework.starter.idempotent.enums.IdempotentTypeEnum;
 import org.openzjl.index12306.framework.starter.log.toolkit.BeanUtil;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
-
-import static org.openzjl.index12306.biz.ticketservice.common.constant.RedisKeyConstant.TRAIN_STATION_REMAINING_TICKET;
 
 /**
  * 延迟关闭订单消费者
@@ -56,9 +51,10 @@ public class DelayCloseOrderConsumer implements RocketMQListener<MessageWrapper<
 
     private final SeatService seatService;
     private final TicketOrderRemoteService ticketOrderRemoteService;
-    private final TrainStationService trainStationService;
-    private final DistributedCache distributedCache;
+    private final SeatMarginCacheUpdater seatMarginCacheUpdater;
     private final TicketAvailabilityTokenBucket ticketAvailabilityTokenBucket;
+    private final SeatHoldManager seatHoldManager;
+    private final KeyOrderedDispatcher keyOrderedDispatcher;
 
     @Value("${ticket.availability.cache-update.type:}")
     private String ticketAvailabilityCacheUpdateType;
@@ -74,6 +70,11 @@ public class DelayCloseOrderConsumer implements RocketMQListener<MessageWrapper<
     public void onMessage(MessageWrapper<DelayCloseOrderEvent> delayCloseOrderEventMessageWrapper) {
         log.info("[延迟关闭订单] 开始消费：{}", JSON.toJSONString(delayCloseOrderEventMessageWrapper));
         DelayCloseOrderEvent delayCloseOrderEvent = delayCloseOrderEventMessageWrapper.getMessage();
+        // 与同一订单的支付回调、关单 Binlog 串行执行
+        keyOrderedDispatcher.execute("delay-close", delayCloseOrderEvent.getOrderSn(), () -> closeOrder(delayCloseOrderEvent));
+    }
+
+    private void closeOrder(DelayCloseOrderEvent delayCloseOrderEvent) {
         String orderSn = delayCloseOrderEvent.getOrderSn();
         Result<Boolean> closedTickOrder;
         try {
@@ -87,6 +88,10 @@ public class DelayCloseOrderConsumer implements RocketMQListener<MessageWrapper<
                 log.info("[延迟关闭订单] 订单号：{} 用户已支付订单", orderSn);
                 return;
             }
+            if (!seatHoldManager.markReleased(orderSn)) {
+                log.info("[延迟关闭订单] 订单号：{} 座位已由其他路径释放", orderSn);
+                return;
+            }
             String trainId = delayCloseOrderEvent.getTrainId();
             String departure = delayCloseOrderEvent.getDeparture();
             String arrival = delayCloseOrderEvent.getArrival();
@@ -95,20 +100,12 @@ public class DelayCloseOrderConsumer implements RocketMQListener<MessageWrapper<
                 seatService.unLock(trainId, departure, arrival, trainPurchaseTicketResults);
             } catch (Throwable ex) {
                 log.error("[延迟关闭订单] 订单号：{} 回滚列车DB座位状态失败", orderSn, ex);
+                seatHoldManager.unmarkReleased(orderSn);
                 throw ex;
             }
             try {
-                StringRedisTemplate stringRedisTemplate = (StringRedisTemplate) distributedCache.getInstance();
-                Map<Integer, List<TrainPurchaseTicketRespDTO>> seatTypeMap = trainPurchaseTicketResults.stream()
-                        .collect(Collectors.groupingBy(TrainPurchaseTicketRespDTO::getSeatType));
-                List<RouteDTO> routeDTOList = trainStationService.listTakeoutTrainStationRoute(trainId, departure, arrival);
-                routeDTOList.forEach(each -> {
-                    String keySuffix = StrUtil.join("_", trainId, each.getStartStation(), each.getEndStation());
-                    seatTypeMap.forEach((seatType, trainPurchaseTicketRespDTOList) -> {
-                        stringRedisTemplate.opsForHash()
-                                .increment(TRAIN_STATION_REMAINING_TICKET + keySuffix, String.valueOf(seatType), trainPurchaseTicketRespDTOList.size());
-                    });
-                });
+                seatMarginCacheUpdater.increment(trainId, departure, arrival,
+                        trainPurchaseTicketResults.stream().map(TrainPurchaseTicketRespDTO::getSeatType).toList());
                 TicketOrderDetailRespDTO ticketOrderDetail = BeanUtil.convert(delayCloseOrderEvent, TicketOrderDetailRespDTO.class);
                 ticketOrderDetail.setPassengerDetails(BeanUtil.convert(delayCloseOrderEvent.getTrainPurchaseTicketResults(), TicketOrderPassengerDetailRespDTO.class));
                 ticketAvailabilityTokenBucket.rollbackInBucket(ticketOrderDetail);
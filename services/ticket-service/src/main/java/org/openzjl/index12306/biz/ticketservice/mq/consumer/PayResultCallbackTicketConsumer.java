@@ -4,28 +4,30 @@
  */
 package org.openzjl.index12306.biz.ticketservice.mq.consumer;
 
-import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
-import com.baomidou.mybatisplus.core.toolkit.Wrappers;
+import cn.hutool.core.collection.CollUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.rocketmq.spring.annotation.RocketMQMessageListener;
 import org.apache.rocketmq.spring.core.RocketMQListener;
 import org.openzjl.index12306.biz.ticketservice.common.constant.TicketRocketMQConstant;
-import org.openzjl.index12306.biz.ticketservice.common.enums.SeatStatusEnum;
-import org.openzjl.index12306.biz.ticketservice.dao.entity.SeatDO;
-import org.openzjl.index12306.biz.ticketservice.dao.mapper.SeatMapper;
+import org.openzjl.index12306.biz.ticketservice.mq.dispatch.KeyOrderedDispatcher;
 import org.openzjl.index12306.biz.ticketservice.mq.domain.MessageWrapper;
 import org.openzjl.index12306.biz.ticketservice.mq.event.PayResultCallbackTicketEvent;
 import org.openzjl.index12306.biz.ticketservice.remote.TicketOrderRemoteService;
 import org.openzjl.index12306.biz.ticketservice.remote.dto.TicketOrderDetailRespDTO;
-import org.openzjl.index12306.biz.ticketservice.remote.dto.TicketOrderPassengerDetailRespDTO;
+import org.openzjl.index12306.biz.ticketservice.service.SeatService;
+import org.openzjl.index12306.biz.ticketservice.service.handler.ticket.dto.OrderSoldSeatDTO;
+import org.openzjl.index12306.biz.ticketservice.service.handler.ticket.dto.TrainPurchaseTicketRespDTO;
+import org.openzjl.index12306.biz.ticketservice.service.handler.ticket.hold.SeatHoldManager;
+import org.openzjl.index12306.biz.ticketservice.service.handler.ticket.projection.OrderSoldSeatProjection;
 import org.openzjl.index12306.framework.starter.convention.exception.ServiceException;
 import org.openzjl.index12306.framework.starter.convention.result.Result;
 import org.openzjl.index12306.framework.starter.idempotent.annotation.Idempotent;
 import org.openzjl.index12306.framework.starter.idempotent.enums.IdempotentSceneEnum;
 import org.openzjl.index12306.framework.starter.idempotent.enums.IdempotentTypeEnum;
+import org.openzjl.index12306.framework.starter.log.toolkit.BeanUtil;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.Objects;
 
@@ -46,7 +48,11 @@ import java.util.Objects;
 public class PayResultCallbackTicketConsumer implements RocketMQListener<MessageWrapper<PayResultCallbackTicketEvent>> {
 
     private final TicketOrderRemoteService ticketOrderRemoteService;
-    private final SeatMapper seatMapper;
+    private final SeatService seatService;
+    private final SeatHoldManager seatHoldManager;
+    private final OrderSoldSeatProjection orderSoldSeatProjection;
+    private final KeyOrderedDispatcher keyOrderedDispatcher;
+    private final TransactionTemplate transactionTemplate;
 
     @Idempotent(
             uniqueKeyPrefix = "index12306-ticket:pay_result_callback:",
@@ -55,13 +61,43 @@ public class PayResultCallbackTicketConsumer implements RocketMQListener<Message
             scene = IdempotentSceneEnum.MQ,
             keyTimeout = 7200L
     )
-    @Transactional(rollbackFor = Exception.class)
     @Override
     public void onMessage(MessageWrapper<PayResultCallbackTicketEvent> message) {
-        Result<org.openzjl.index12306.biz.ticketservice.remote.dto.TicketOrderDetailRespDTO> ticketOrderDetailResult;
+        // 与同一订单的延迟关单、关单 Binlog 串行执行，事务在执行通道线程内开启
+        keyOrderedDispatcher.execute(
+                "pay-callback",
+                message.getMessage().getOrderSn(),
+                () -> transactionTemplate.executeWithoutResult(status -> markSold(message))
+        );
+    }
+
+    private void markSold(MessageWrapper<PayResultCallbackTicketEvent> message) {
+        String orderSn = message.getMessage().getOrderSn();
+        // 优先使用下单时登记的已售座位投影，投影缺失时回退为远程查询订单详情
+        OrderSoldSeatDTO orderSoldSeat = orderSoldSeatProjection.get(orderSn);
+        if (orderSoldSeat == null || CollUtil.isEmpty(orderSoldSeat.getTrainPurchaseTicketResults())) {
+            log.warn("[支付结果回调] 订单号：{} 已售座位投影不存在，远程查询订单详情", orderSn);
+            orderSoldSeat = queryOrderSoldSeat(orderSn);
+        }
+        int soldCount = seatService.markSold(
+                orderSoldSeat.getTrainId(),
+                orderSoldSeat.getDeparture(),
+                orderSoldSeat.getArrival(),
+                orderSoldSeat.getTrainPurchaseTicketResults()
+        );
+        if (soldCount == 0) {
+            log.warn("[支付结果回调] 订单号：{} 没有处于锁定状态的座位，座位可能已被释放或消息重复消费", orderSn);
+        }
+        // 订单已支付，座位不再需要保留
+        seatHoldManager.remove(orderSn);
+        orderSoldSeatProjection.remove(orderSn);
+    }
+
+    private OrderSoldSeatDTO queryOrderSoldSeat(String orderSn) {
+        Result<TicketOrderDetailRespDTO> ticketOrderDetailResult;
         try {
-            ticketOrderDetailResult = ticketOrderRemoteService.queryTicketOrderByOrderSn(message.getMessage().getOrderSn());
-            if (!ticketOrderDetailResult.isSuccess() && Objects.isNull(ticketOrderDetailResult.getData())) {
+            ticketOrderDetailResult = ticketOrderRemoteService.queryTicketOrderByOrderSn(orderSn);
+            if (!ticketOrderDetailResult.isSuccess() || Objects.isNull(ticketOrderDetailResult.getData())) {
                 throw new ServiceException("支付结果回调查询订单失败");
             }
         } catch (Throwable ex) {
@@ -69,17 +105,11 @@ public class PayResultCallbackTicketConsumer implements RocketMQListener<Message
             throw ex;
         }
         TicketOrderDetailRespDTO ticketOrderDetail = ticketOrderDetailResult.getData();
-        for (TicketOrderPassengerDetailRespDTO each : ticketOrderDetail.getPassengerDetails()) {
-            LambdaUpdateWrapper<SeatDO> updateWrapper = Wrappers.lambdaUpdate(SeatDO.class)
-                    .eq(SeatDO::getTrainId, ticketOrderDetail.getTrainId())
-                    .eq(SeatDO::getCarriageNumber, each.getCarriageNumber())
-                    .eq(SeatDO::getSeatNumber, each.getSeatNumber())
-                    .eq(SeatDO::getSeatType, each.getSeatType())
-                    .eq(SeatDO::getStartStation, ticketOrderDetail.getDeparture())
-                    .eq(SeatDO::getEndStation, ticketOrderDetail.getArrival());
-            SeatDO updateSeatDO = new SeatDO();
-            updateSeatDO.setSeatStatus(SeatStatusEnum.SOLD.getCode());
-            seatMapper.update(updateSeatDO, updateWrapper);
-        }
+        return OrderSoldSeatDTO.builder()
+                .trainId(String.valueOf(ticketOrderDetail.getTrainId()))
+                .departure(ticketOrderDetail.getDeparture())
+                .arrival(ticketOrderDetail.getArrival())
+                .trainPurchaseTicketResults(BeanUtil.convert(ticketOrderDetail.getPassengerDetails(), TrainPurchaseTicketRespDTO.class))
+                .build();
     }
 }
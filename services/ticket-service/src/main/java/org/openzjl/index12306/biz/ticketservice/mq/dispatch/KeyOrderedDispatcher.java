@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.biz.ticketservice.mq.dispatch;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.openzjl.index12306.biz.ticketservice.config.KeyOrderedDispatchProperties;
+import org.openzjl.index12306.framework.starter.convention.exception.ServiceException;
+import org.openzjl.index12306.framework.starter.log.threadpool.build.ThreadFactoryBuilder;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * MQ 消息按 Key 有序执行分发器
+ * <p>
+ * 延迟关单、支付结果回调与订单关闭 Binlog 会并发修改同一订单的座位状态、令牌桶与区间余票缓存，
+ * 多个消费线程交错执行时可能出现关单回滚晚于支付置为已售等乱序。分发器把消息按业务 Key（订单号）
+ * 哈希到固定数量的单线程执行通道：
+ * <ul>
+ *   <li>相同 Key 的消息在实例内严格串行，不同 Key 在各通道之间并行，无需额外的分布式锁</li>
+ *   <li>消费线程阻塞等待执行结果，异常原样抛回消费线程，幂等与消息重试语义保持不变</li>
+ *   <li>通道任务数受消费线程总数约束，不会无限堆积；排队深度与排队耗时通过监控指标暴露</li>
+ * </ul>
+ * 不同 Key 哈希到同一通道时会相互排队，热点 Key 较多时可调大通道数量。
+ * </p>
+ *
+ * @author zhangjlk
+ * @date 2026/10/19 上午11:30
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class KeyOrderedDispatcher implements InitializingBean, DisposableBean {
+
+    private final KeyOrderedDispatchProperties dispatchProperties;
+    private final MeterRegistry meterRegistry;
+
+    private ThreadPoolExecutor[] lanes;
+
+    @Override
+    public void afterPropertiesSet() {
+        if (!dispatchProperties.getEnabled()) {
+            return;
+        }
+        lanes = new ThreadPoolExecutor[dispatchProperties.getParallelism()];
+        for (int i = 0; i < lanes.length; i++) {
+            lanes[i] = new ThreadPoolExecutor(
+                    1,
+                    1,
+                    0L,
+                    TimeUnit.MILLISECONDS,
+                    new LinkedBlockingQueue<>(),
+                    ThreadFactoryBuilder.builder().prefix("ticket-mq-ordered-" + i + "-").daemon(true).build()
+            );
+        }
+        Gauge.builder("ticket.mq.ordered.queue.depth", this, each -> each.queueDepths().sum())
+                .description("Inventory messages waiting in key-ordered lanes")
+                .register(meterRegistry);
+        Gauge.builder("ticket.mq.ordered.queue.depth.max", this, each -> each.queueDepths().max().orElse(0))
+                .description("Deepest key-ordered lane")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 在 Key 对应的执行通道中执行任务，阻塞到任务执行完成
+     *
+     * @param scene 业务场景，用于监控指标
+     * @param key   有序 Key，相同 Key 的任务串行执行
+     * @param task  任务
+     */
+    public void execute(String scene, String key, Runnable task) {
+        if (lanes == null) {
+            task.run();
+            return;
+        }
+        long submitTime = System.nanoTime();
+        Timer queueTimer = Timer.builder("ticket.mq.ordered.queue.time")
+                .description("Time an inventory message waits for its key-ordered lane")
+                .tag("scene", scene)
+                .register(meterRegistry);
+        CompletableFuture<Void> future;
+        try {
+            future = CompletableFuture.runAsync(() -> {
+                queueTimer.record(System.nanoTime() - submitTime, TimeUnit.NANOSECONDS);
+                task.run();
+            }, lanes[(key.hashCode() & Integer.MAX_VALUE) % lanes.length]);
+        } catch (RejectedExecutionException ex) {
+            throw new ServiceException("有序消费通道已关闭");
+        }
+        try {
+            future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ServiceException("等待有序消费通道执行被中断");
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new ServiceException(cause.getMessage());
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (lanes != null) {
+            Arrays.stream(lanes).forEach(ThreadPoolExecutor::shutdown);
+        }
+    }
+
+    private IntStream queueDepths() {
+        return Arrays.stream(lanes).mapToInt(each -> each.getQueue().size() + each.getActiveCount());
+    }
+}
@@ -275,4 +275,36 @@ public class SeatServiceImpl extends ServiceImpl<SeatMapper, SeatDO> implements
             });
         });
     }
+
+    /**
+     * 订单支付成功，置为已售
+     * <p>
+     * 与锁定、解锁相同，需要处理选中座位在所有沿途区间上的记录。一笔订单的全部座位区间通过一条 UPDATE 完成：
+     * 沿途区间的起始站集合为到达站之前的站点、终点站集合为出发站之后的站点，两者组合恰好是与乘车区间重叠的全部区间；
+     * 座位按 车厢号 + 座位号 逐个匹配。WHERE 条件带有期望状态 LOCKED，已被关单释放或已置为已售的记录不会被修改。
+     * </p>
+     *
+     * @param trainId                    列车 ID
+     * @param departure                  出发站
+     * @param arrival                    到达站
+     * @param trainPurchaseTicketResults 乘车人以及座位信息（车厢号、座位号）
+     * @return 置为已售的座位区间记录数
+     */
+    @Override
+    public int markSold(String trainId, String departure, String arrival, List<TrainPurchaseTicketRespDTO> trainPurchaseTicketResults) {
+        if (CollUtil.isEmpty(trainPurchaseTicketResults)) {
+            return 0;
+        }
+        List<RouteDTO> routeList = trainStationService.listTakeoutTrainStationRoute(trainId, departure, arrival);
+        List<String> startStations = routeList.stream().map(RouteDTO::getStartStation).distinct().toList();
+        List<String> endStations = routeList.stream().map(RouteDTO::getEndStation).distinct().toList();
+        return seatMapper.updateSeatStatusBySegments(
+                Long.parseLong(trainId),
+                startStations,
+                endStations,
+                trainPurchaseTicketResults,
+                SeatStatusEnum.LOCKED.getCode(),
+                SeatStatusEnum.SOLD.getCode()
+        );
+    }
 }
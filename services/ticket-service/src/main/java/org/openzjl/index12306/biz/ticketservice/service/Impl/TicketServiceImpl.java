@@ -22,7 +22,6 @@ import org.openzjl.index12306.biz.ticketservice.dao.entity.*;
 import org.openzjl.index12306.biz.ticketservice.dao.mapper.*;
 import org.openzjl.index12306.biz.ticketservice.dto.domain.*;
 import org.openzjl.index12306.biz.ticketservice.dto.req.*;
-import org.openzjl.index12306.biz.ticketservice.dto.resp.TicketOrderDetailRespDTO;
 import org.openzjl.index12306.biz.ticketservice.remote.PayRemoteService;
 import org.openzjl.index12306.biz.ticketservice.remote.dto.*;
 import org.openzjl.index12306.biz.ticketservice.dto.resp.RefundTicketRespDTO;
@@ -31,11 +30,15 @@ import org.openzjl.index12306.biz.ticketservice.dto.resp.TicketPurchaseRespDTO;
 import org.openzjl.index12306.biz.ticketservice.remote.TicketOrderRemoteService;
 import org.openzjl.index12306.biz.ticketservice.service.SeatService;
 import org.openzjl.index12306.biz.ticketservice.service.TicketService;
-import org.openzjl.index12306.biz.ticketservice.service.TrainStationService;
 import org.openzjl.index12306.biz.ticketservice.service.cache.SeatMarginCacheLoader;
+import org.openzjl.index12306.biz.ticketservice.service.cache.SeatMarginCacheUpdater;
 import org.openzjl.index12306.biz.ticketservice.service.handler.ticket.dto.TokenResultDTO;
 import org.openzjl.index12306.biz.ticketservice.service.handler.ticket.dto.TrainPurchaseTicketRespDTO;
+import org.openzjl.index12306.biz.ticketservice.service.handler.ticket.partition.PurchaseTicketGroupCommitter;
+import org.openzjl.index12306.biz.ticketservice.service.handler.ticket.partition.PurchaseTicketPartitionExecutor;
 import org.openzjl.index12306.biz.ticketservice.service.handler.ticket.select.TrainSeatTypeSelector;
+import org.openzjl.index12306.biz.ticketservice.service.handler.ticket.hold.SeatHoldManager;
+import org.openzjl.index12306.biz.ticketservice.service.handler.ticket.soldout.TicketSoldOutRegistry;
 import org.openzjl.index12306.biz.ticketservice.service.handler.ticket.tokenbucket.TicketAvailabilityTokenBucket;
 import org.openzjl.index12306.biz.ticketservice.toolkit.DateUtil;
 import org.openzjl.index12306.biz.ticketservice.toolkit.TimeStringComparator;
@@ -68,7 +71,6 @@ import java.util.*;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 
 import static org.openzjl.index12306.biz.ticketservice.common.constant.Index12306Constant.ADVANCE_TICKET_DAY;
@@ -94,7 +96,6 @@ public class TicketServiceImpl extends ServiceImpl<TicketMapper, TicketDO> imple
     private final TicketOrderRemoteService ticketOrderRemoteService;
     private final StationMapper stationMapper;
     private final SeatService seatService;
-    private final TrainStationService trainStationService;
     private final RedissonClient redissonClient;
     private final ConfigurableEnvironment configurableEnvironment;
     private final AbstractChainContext<TicketPageQueryReqDTO> ticketPageQueryAbstractChainContext;
@@ -102,9 +103,14 @@ public class TicketServiceImpl extends ServiceImpl<TicketMapper, TicketDO> imple
     private final AbstractChainContext<RefundTicketReqDTO> refundTicketAbstractChainContext;
     private final TicketAvailabilityTokenBucket ticketAvailabilityTokenBucket;
     private final SeatMarginCacheLoader seatMarginCacheLoader;
+    private final SeatMarginCacheUpdater seatMarginCacheUpdater;
     private final Environment environment;
     private final TrainSeatTypeSelector trainSeatTypeSelector;
     private final PayRemoteService payRemoteService;
+    private final PurchaseTicketPartitionExecutor purchaseTicketPartitionExecutor;
+    private final PurchaseTicketGroupCommitter purchaseTicketGroupCommitter;
+    private final TicketSoldOutRegistry ticketSoldOutRegistry;
+    private final SeatHoldManager seatHoldManager;
     private TicketService ticketService;
 
     /**
@@ -136,31 +142,6 @@ public class TicketServiceImpl extends ServiceImpl<TicketMapper, TicketDO> imple
     @Value("${framework.cache.redis.prefix}")
     private String cacheRedisPrefix;
 
-    /**
-     * 本地锁缓存（JVM内锁）
-     * <p>
-     * 用途：用于在单个JVM实例内进行同步控制，避免使用分布式锁时的网络开销
-     * <p>
-     * 工作原理：
-     * - Key: 锁的唯一标识（如：车次ID_出发站_到达站）
-     * - Value: ReentrantLock对象，用于JVM内的线程同步
-     * - 过期时间：1天（写入后1天自动清理，防止内存泄漏）
-     * <p>
-     * 使用场景：
-     * - 当需要在单个服务实例内进行同步控制时（如：刷新某个车次的余票缓存）
-     * - 避免多个线程同时刷新同一个车次的缓存，造成重复查询数据库
-     * - 相比分布式锁，本地锁性能更好（无网络开销），但只能控制单个JVM内的线程
-     * <p>
-     * 注意事项：
-     * - 这是JVM级别的锁，不能跨服务实例同步
-     * - 如果需要跨服务实例同步，应使用分布式锁（Redisson）
-     * - 过期时间设置为1天，确保长时间不使用的锁能够自动清理
-     */
-    private final Cache<String, ReentrantLock> localLockMap = Caffeine.newBuilder()
-            // 写入后1天过期，自动清理不使用的锁对象，防止内存泄漏
-            .expireAfterWrite(1, TimeUnit.DAYS)
-            .build();
-
     /**
      * Token车票刷新缓存
      * <p>
@@ -840,14 +821,15 @@ public class TicketServiceImpl extends ServiceImpl<TicketMapper, TicketDO> imple
             type = IdempotentTypeEnum.SPEL
     )
     /**
-     * 购票接口 V2 版本（基于令牌桶限流 + 双重锁机制）。
+     * 购票接口 V2 版本（基于令牌桶限流 + 车次队列合并提交）。
      * <p>
      * 相比 V1 版本，V2 版本引入了以下优化：
      * </p>
      * <ul>
      *     <li>令牌桶限流：控制购票并发，避免超卖。</li>
-     *     <li>按座位类型加锁：不同座位类型的购票操作可以并行，提高并发性能。</li>
-     *     <li>本地锁 + 分布式锁：双重锁机制，本地锁减少网络开销，分布式锁保证跨服务实例的同步。</li>
+     *     <li>车次队列：请求按车次排队，一组工作线程在车次之间轮询，同一车次同一时刻只由一个工作线程处理，不同车次并行。</li>
+     *     <li>合并提交：工作线程把同车次同区间的排队请求一并取出，一个事务内选座、锁座、写车票，再逐个创建订单。</li>
+     *     <li>分布式租约：每组提交前不等待地获取 车次_座位类型 维度的租约、提交后立即释放，租约被其他实例持有时该车次暂停调度后重试。</li>
      *     <li>令牌桶刷新机制：当令牌桶为空时，延迟刷新并验证数据准确性。</li>
      * </ul>
      *
@@ -855,13 +837,13 @@ public class TicketServiceImpl extends ServiceImpl<TicketMapper, TicketDO> imple
      * <ol>
      *     <li>责任链校验：参数校验、权限校验等。</li>
      *     <li>令牌桶限流：从令牌桶获取令牌，控制购票并发。</li>
-     *     <li>令牌桶刷新：如果令牌桶为空，触发刷新机制（防抖 + 双重检查锁定）。</li>
-     *     <li>按座位类型分组：将乘客按座位类型分组，不同座位类型可以并行处理。</li>
-     *     <li>获取锁：为每个座位类型获取本地锁和分布式锁。</li>
-     *     <li>执行购票：在锁保护下执行购票核心流程。</li>
-     *     <li>释放锁：无论成功与否，都要释放所有锁。</li>
+     *     <li>令牌桶刷新：如果令牌桶为空，触发刷新机制（车次维度原子防抖）。</li>
+     *     <li>车次排队：提交到车次队列并在排队超时时间内等待结果，队列已满、排队超时或服务关闭时直接失败。</li>
+     *     <li>合并提交：工作线程获取租约后合并选座并创建订单。</li>
      * </ol>
      *
+     * <p>令牌归还：订单未创建的失败（排队被拒绝、排队超时、选座失败、订单创建失败等）都会归还令牌，由分区执行器与合并提交器保证只归还一次。</p>
+     *
      * @param requestParam 购票请求参数（包含车次ID、出发站、到达站、乘客信息等）
      * @return 购票响应对象（包含订单号和车票详情列表）
      * @throws ServiceException 当令牌桶为空且已刷新过时抛出
@@ -879,134 +861,34 @@ public class TicketServiceImpl extends ServiceImpl<TicketMapper, TicketDO> imple
         // - 如果令牌桶为空，返回 null，表示当前无票可售
         TokenResultDTO tokenResult = ticketAvailabilityTokenBucket.takeTokenFromBucket(requestParam);
         
-        // 令牌桶为空时的处理（刷新机制 + 防抖 + 双重检查锁定）
+        // 令牌桶为空时的处理（刷新机制 + 防抖）
         // 如果获取不到令牌（令牌桶为空），说明该车次当前无票
         // 此时需要检查是否需要刷新令牌桶（从数据库重新加载余票并更新令牌桶）
         if (tokenResult.getTokenIsNull()) {
-            // 第一次检查：快速路径（无锁检查）
-            // 检查本地缓存中是否有该车次的刷新标记
+            // 余量已为 0 的座位类型登记售罄并广播，后续请求在责任链中直接拦截
+            ticketSoldOutRegistry.markSoldOut(requestParam.getTrainId(), requestParam.getDeparture(), requestParam.getArrival(), tokenResult.getSoldOutSeatTypes());
+
             // tokenTicketsRefreshMap 是防抖缓存，1分钟内只允许刷新一次
-            // - 如果返回 null：说明最近1分钟内没有刷新过，可能需要触发刷新
-            // - 如果返回非 null：说明最近1分钟内已经刷新过，避免重复刷新（防抖）
-            Object ifPresentObj = tokenTicketsRefreshMap.getIfPresent(requestParam.getTrainId());
-            
-            // 如果没有刷新标记，说明可以尝试触发刷新
-            if (ifPresentObj == null) {
-                // 双重检查锁定（Double-Check Locking）模式
-                // 使用 synchronized 确保同一时刻只有一个线程能执行刷新逻辑
-                // 锁对象：TicketService.class（类级别的锁，确保所有实例共享同一把锁）
-                synchronized (TicketService.class) {
-                    // 加锁后再次检查
-                    // 获取锁后再次检查缓存，可能其他线程已经写入标记了
-                    // 这是双重检查锁定的核心：确保即使多个线程同时通过第一次检查，也只有一个线程执行刷新
-                    if (tokenTicketsRefreshMap.getIfPresent(requestParam.getTrainId()) == null) {
-                        // 创建刷新标记对象（可以是任意对象，这里使用 new Object()）
-                        // 这个对象本身不重要，重要的是它的存在表示"正在刷新或已刷新过"
-                        ifPresentObj = new Object();
-                        
-                        // 写入缓存标记，有效期1分钟
-                        // 这样后续1分钟内的请求都会发现已有标记，不会重复刷新
-                        tokenTicketsRefreshMap.put(requestParam.getTrainId(), ifPresentObj);
-                        
-                        // 触发令牌桶刷新任务（延迟10秒执行，异步刷新）
-                        // 这个方法会从数据库查询最新余票，并更新令牌桶
-                        tokenIsNullRefreshToken(requestParam, tokenResult);
-                    }
-                    // 如果第二次检查发现已有标记，说明其他线程已经触发刷新，当前线程直接返回
-                }
+            // putIfAbsent 是车次维度的原子操作，只有第一个写入标记的线程触发刷新，不再需要全局 synchronized
+            if (tokenTicketsRefreshMap.asMap().putIfAbsent(requestParam.getTrainId(), new Object()) == null) {
+                // 触发令牌桶刷新任务（延迟10秒执行，异步刷新）
+                // 这个方法会从数据库查询最新余票，并更新令牌桶
+                tokenIsNullRefreshToken(requestParam, tokenResult);
             }
-            // 如果第一次检查发现已有标记，说明最近1分钟内已刷新过，并且没有余票，直接报错
-            throw new ServiceException("列车站点已无余票");
+            // 已有刷新标记说明最近1分钟内已刷新过，并且没有余票，直接报错
+            throw new ServiceException(TicketStockErrorCodeEnum.STATION_TOKEN_EXHAUSTED);
         }
-        
-        // 按座位类型分组乘客
-        // 初始化锁列表，用于存储所有需要获取的锁
-        List<ReentrantLock> localLockList = new ArrayList<>();      // 本地锁列表（JVM内锁）
-        List<RLock> distributedLockList = new ArrayList<>();        // 分布式锁列表（跨服务实例锁）
-        
-        // 将乘客按座位类型分组
-        // 例如：3个乘客，2个要商务座(0)，1个要一等座(1)
-        // 结果：{0: [乘客1, 乘客2], 1: [乘客3]}
-        // 这样不同座位类型的购票操作可以并行处理，提高并发性能
-        Map<Integer, List<org.openzjl.index12306.biz.ticketservice.dto.domain.PurchaseTicketPassengerDetailDTO>> seatTypeMap = requestParam.getPassengers().stream()
-                .collect(Collectors.groupingBy(org.openzjl.index12306.biz.ticketservice.dto.domain.PurchaseTicketPassengerDetailDTO::getSeatType));
-        
-        // 为每个座位类型获取锁
-        // 遍历每个座位类型，为每个类型获取本地锁和分布式锁
-        seatTypeMap.forEach((seatType, passengerList) -> {
-            // 构建锁的key：车次ID_座位类型
-            // 例如：LOCK_PURCHASE_TICKETS_V2 = "index12306-ticket-service:lock_purchase-tickets-v2:%s_%s"
-            // 结果：index12306-ticket-service:lock_purchase-tickets-v2:G123_0（G123次商务座）
-            String lockKey = environment.resolvePlaceholders(String.format(LOCK_PURCHASE_TICKETS_V2, requestParam.getTrainId(), seatType));
-            
-            // 获取或创建本地锁（JVM内锁）
-            // 本地锁用于单个服务实例内的线程同步，性能更好（无网络开销）
-            ReentrantLock localLock = localLockMap.getIfPresent(lockKey);
-            if (localLock == null) {
-                // 双重检查锁定：确保同一时刻只有一个线程创建锁对象
-                synchronized (TicketService.class) {
-                    // 再次检查，可能其他线程已经创建了
-                    if ((localLock = localLockMap.getIfPresent(lockKey)) == null) {
-                        // 创建公平锁（fair lock），按请求顺序获取锁，避免线程饥饿
-                        // true 表示公平锁，false 表示非公平锁
-                        localLock = new ReentrantLock(true);
-                        // 存入缓存，1天后自动过期
-                        localLockMap.put(lockKey, localLock);
-                    }
-                }
-            }
-            // 添加到本地锁列表
-            localLockList.add(localLock);
-            
-            // 获取分布式锁（跨服务实例锁）
-            // 使用公平锁（FairLock），按请求顺序获取锁，避免某些服务实例一直获取不到锁
-            // 分布式锁用于跨服务实例的同步，确保多个服务实例之间不会同时处理同一车次同一座位类型的购票
-            RLock distributedLock = redissonClient.getFairLock(lockKey);
-            distributedLockList.add(distributedLock);
-        });
-        
-        // 加锁并执行购票
-        try {
-            // 先获取所有本地锁（按顺序获取，避免死锁）
-            // 本地锁获取速度快（无网络开销），先获取本地锁可以减少等待时间
-            localLockList.forEach(ReentrantLock::lock);
-            
-            // 再获取所有分布式锁（按顺序获取，避免死锁）
-            // 分布式锁需要网络通信，耗时较长（1-5ms），但能保证跨服务实例的同步
-            distributedLockList.forEach(RLock::lock);
-            
-            // 在锁保护下执行购票核心流程
-            // 此时已经获取了所有必要的锁，可以安全地执行购票操作
-            return ticketService.executePurchaseTickets(requestParam);
-        } finally {
-            // 释放所有锁
-            // 无论购票成功与否，都要释放所有锁，避免死锁
-            // 使用 try-catch 确保即使释放锁时出现异常，也不会影响其他锁的释放
-            
-            // 释放所有本地锁（按顺序释放）
-            localLockList.forEach(localLock -> {
-                try {
-                    localLock.unlock();
-                } catch (Throwable ignored) {
-                    // 忽略释放锁时的异常，确保其他锁能正常释放
-                }
-            });
 
-            // 释放所有分布式锁（按顺序释放）
-            distributedLockList.forEach(distributedLock -> {
-                try {
-                    distributedLock.unlock();
-                } catch (Throwable ignored) {
-                    // 忽略释放锁时的异常，确保其他锁能正常释放
-                }
-            });
-        }
+        // 提交到车次队列并等待合并提交结果
+        // 同一车次同一时刻只由一个工作线程处理，不同车次并行；跨实例互斥由每组提交时获取的 车次_座位类型 租约保证
+        // 订单未创建的失败由分区执行器归还上面获取的令牌
+        return purchaseTicketPartitionExecutor.execute(requestParam);
     }
 
     /**
      * 执行购票核心流程
      * <p>
-     * 该方法在分布式锁保护下执行，确保同一车次同一用户的购票操作串行化，避免并发冲突。
+     * 该方法在车次队列的工作线程内、持有分布式租约时执行，确保同一车次同一座位类型的购票操作串行化，避免并发冲突。
      * 使用 {@code @Transactional} 注解确保数据一致性，任何异常都会触发事务回滚。
      * </p>
      *
@@ -1036,9 +918,6 @@ public class TicketServiceImpl extends ServiceImpl<TicketMapper, TicketDO> imple
     @Override
     @Transactional(rollbackFor = Throwable.class)
     public TicketPurchaseRespDTO executePurchaseTickets(PurchaseTicketReqDTO requestParam) {
-        // 初始化车票详情结果列表，用于返回给前端展示
-        List<TicketOrderDetailRespDTO> ticketOrderDetailResults = new ArrayList<>();
-        
         // 获取车次ID
         String trainId = requestParam.getTrainId();
         
@@ -1074,98 +953,9 @@ public class TicketServiceImpl extends ServiceImpl<TicketMapper, TicketDO> imple
         // 使用MyBatis-Plus的saveBatch方法，批量插入性能更好
         saveBatch(ticketList);
         
-        // 订单服务调用结果
-        Result<String> ticketOrderResult;
-        
-        try {
-            // 构建订单项列表（用于调用订单服务）
-            // 每个订单项对应一张车票，包含价格、座位、乘客信息等
-            List<TicketOrderItemCreateRemoteReqDTO> orderItemCreateRemoteReqDTOList = new ArrayList<>();
-            
-            // 遍历座位分配结果，为每个乘客构建订单项和车票详情
-            trainPurchaseTicketResults.forEach(each -> {
-                // 构建订单项
-                // 包含订单服务需要的所有信息：价格、座位、乘客证件、联系方式等
-                TicketOrderItemCreateRemoteReqDTO orderItemCreateRemoteReqDTO = TicketOrderItemCreateRemoteReqDTO.builder()
-                        .amount(each.getAmount())                    // 车票金额（分）
-                        .carriageNumber(each.getCarriageNumber())    // 车厢号
-                        .seatNumber(each.getSeatNumber())            // 座位号
-                        .passengerId(each.getPassengerId())          // 乘车人ID
-                        .idCard(each.getIdCard())                    // 身份证号
-                        .idType(each.getIdType())                    // 证件类型
-                        .phone(each.getPhone())                      // 手机号
-                        .seatType(each.getSeatType())                // 座位类型（商务座、一等座等）
-                        .ticketType(each.getUserType())              // 票种（成人票、儿童票等）
-                        .realName(each.getRealName())                // 真实姓名
-                        .build();
-                
-                // 构建车票详情
-                // 包含前端展示需要的车票信息
-                TicketOrderDetailRespDTO ticketOrderDetailRespDTO = TicketOrderDetailRespDTO.builder()
-                        .amount(each.getAmount())                    // 车票金额
-                        .carriageNumber(each.getCarriageNumber())    // 车厢号
-                        .seatNumber(each.getSeatNumber())            // 座位号
-                        .idCard(each.getIdCard())                     // 身份证号
-                        .idType(each.getIdType())                     // 证件类型
-                        .seatType(each.getSeatType())                // 座位类型
-                        .ticketType(each.getUserType())              // 票种
-                        .realName(each.getRealName())                // 真实姓名
-                        .build();
-                
-                // 添加到列表
-                orderItemCreateRemoteReqDTOList.add(orderItemCreateRemoteReqDTO);
-                ticketOrderDetailResults.add(ticketOrderDetailRespDTO);
-            });
-            
-            // 查询列车站点关系信息（获取出发时间和到达时间）
-            // 根据车次ID、出发站、到达站查询站点关系，获取该路段的运行时间信息
-            LambdaQueryWrapper<TrainStationRelationDO> queryWrapper = Wrappers.lambdaQuery(TrainStationRelationDO.class)
-                    .eq(TrainStationRelationDO::getTrainId, trainId)                                    // 车次ID
-                    .eq(TrainStationRelationDO::getDeparture, requestParam.getDeparture())                // 出发站编码
-                    .eq(TrainStationRelationDO::getArrival, requestParam.getArrival());                  // 到达站编码
-            TrainStationRelationDO trainStationRelationDO = trainStationRelationMapper.selectOne(queryWrapper);
-            
-            // 构建订单创建请求DTO（用于远程调用订单服务）
-            // 包含订单的所有信息：出发站、到达站、车次、时间、乘客信息等
-            if (StrUtil.isBlank(UserContext.getUserId()) || StrUtil.isBlank(UserContext.getUserName())) {
-                throw new ServiceException("用户未登录或登录已过期");
-            }
-            TicketOrderCreateRemoteReqDTO orderCreateRemoteReqDTO = TicketOrderCreateRemoteReqDTO.builder()
-                    .departure(requestParam.getDeparture())                                          // 出发站编码
-                    .arrival(requestParam.getArrival())                                              // 到达站编码
-                    .orderTime(new Date())                                                           // 下单时间
-                    .source(SourceEnum.INTERNET.getCode())                                           // 订单来源：互联网
-                    .trainNumber(trainDO.getTrainNumber())                                           // 车次号（如：G123）
-                    .departureTime(trainStationRelationDO.getDepartureTime())                        // 出发时间
-                    .arrivalTime(trainStationRelationDO.getArrivalTime())                            // 到达时间
-                    .ridingDate(trainStationRelationDO.getDepartureTime())                            // 乘车日期（使用出发时间）
-                    .userId(String.valueOf(Long.valueOf(UserContext.getUserId())))                                   // 用户ID
-                    .username(UserContext.getUserName())                                             // 用户名
-                    .trainId(Long.parseLong(requestParam.getTrainId()))                              // 车次ID
-                    .ticketOrderItems(orderItemCreateRemoteReqDTOList)                                // 订单项列表
-                    .build();
-            
-            // 调用订单服务创建订单
-            // 订单服务会生成订单号并返回，如果创建失败会返回错误信息
-            ticketOrderResult = ticketOrderRemoteService.createTicketOrder(orderCreateRemoteReqDTO);
-            
-            // 校验订单服务调用结果
-            // 如果调用失败或订单号为空，抛出异常触发事务回滚
-            if (!ticketOrderResult.isSuccess() || StrUtil.isBlank(ticketOrderResult.getData())) {
-                log.error("订单服务调用失败，返回结果: {}", ticketOrderResult.getMessage());
-                throw new ServiceException("订单服务调用失败");
-            }
-        } catch (Throwable ex) {
-            // 捕获所有异常（包括订单服务调用异常）
-            // 记录错误日志，然后重新抛出异常，触发事务回滚
-            // 这样已保存的车票记录会被删除，保证数据一致性
-            log.error("远程调用订单服务创建错误，请求参数: {}", JSON.toJSONString(requestParam), ex);
-            throw ex;
-        }
-        
-        // 构建并返回购票响应对象
-        // 包含订单号（由订单服务生成）和车票详情列表（用于前端展示）
-        return new TicketPurchaseRespDTO(ticketOrderResult.getData(), ticketOrderDetailResults);
+        // 创建订单并构建购票响应
+        // 订单服务调用失败会抛出异常，触发事务回滚，已保存的车票记录和座位锁定会被撤销
+        return purchaseTicketGroupCommitter.createTicketOrder(requestParam, trainDO, trainPurchaseTicketResults);
     }
 
     @Override
@@ -1210,75 +1000,70 @@ public class TicketServiceImpl extends ServiceImpl<TicketMapper, TicketDO> imple
         // 条件1：订单取消成功
         // 条件2：缓存更新类型不是 binlog（如果是 binlog，则由 binlog 监听器自动处理，无需手动回滚）
         if (cancelOrderResult.isSuccess() && !StrUtil.equals(ticketAvailabilityCacheUpdateType, "binlog")) {
-            // 查询订单详情
-            // 获取订单的详细信息，包括车次ID、出发站、到达站、乘客信息等
-            // 这些信息用于后续的回滚操作
-            Result<org.openzjl.index12306.biz.ticketservice.remote.dto.TicketOrderDetailRespDTO> ticketOrderDetailResult = ticketOrderRemoteService.queryTicketOrderByOrderSn(requestParam.getOrderSn());
-            org.openzjl.index12306.biz.ticketservice.remote.dto.TicketOrderDetailRespDTO ticketOrderDetail = ticketOrderDetailResult.getData();
-            
-            // 提取订单基本信息
-            String trainId = String.valueOf(ticketOrderDetail.getTrainId());           // 车次ID
-            String departure = String.valueOf(ticketOrderDetail.getDeparture());       // 出发站编码
-            String arrival = String.valueOf(ticketOrderDetail.getArrival());          // 到达站编码
-            List<TicketOrderPassengerDetailRespDTO> trainPurchaseTicketResults = ticketOrderDetail.getPassengerDetails();  // 乘客详情列表
-            
-            // 回滚数据库座位状态
-            // 释放已占用的座位，更新座位表的状态（从未占用 -> 可用）
-            // 如果回滚失败，抛出异常中断后续操作（保证数据一致性）
-            try {
-                // 将订单乘客详情转换为购票响应DTO，用于释放座位
-                seatService.unLock(trainId, departure, arrival, BeanUtil.convert(trainPurchaseTicketResults, TrainPurchaseTicketRespDTO.class));
-            } catch (Throwable ex) {
-                log.error("[取消订单] 订单号：{} 回滚列车DB状态失败", requestParam.getOrderSn(), ex);
-                throw ex;
-            }
-            
-            // 回滚令牌桶
-            // 将已取出的令牌归还到令牌桶中，增加可售车票数量
-            ticketAvailabilityTokenBucket.rollbackInBucket(ticketOrderDetail);
-            
-            // 回滚 Redis 缓存中的余票数量
-            // 更新 Redis Hash 中各个路段的余票数量
-            // 注意：这里只记录日志，不抛出异常，因为数据库已回滚，数据一致性已保证
-            try {
-                // 获取 Redis 操作模板
-                StringRedisTemplate stringRedisTemplate = (StringRedisTemplate) distributedCache.getInstance();
-                
-                // 按座位类型分组乘客
-                // 例如：3个乘客，2个商务座(0)，1个一等座(1)
-                // 结果：{0: [乘客1, 乘客2], 1: [乘客3]}
-                Map<Integer, List<TicketOrderPassengerDetailRespDTO>> seatTypeMap = trainPurchaseTicketResults.stream()
-                        .collect(Collectors.groupingBy(TicketOrderPassengerDetailRespDTO::getSeatType));
-                
-                // 查询该车次从出发站到到达站的所有路段
-                // 例如：G123次，北京(1001) -> 上海(2001)
-                // 可能包含多个路段：北京->天津、天津->济南、济南->上海
-                List<RouteDTO> routeDTOList = trainStationService.listTakeoutTrainStationRoute(trainId, departure, arrival);
-                
-                // 遍历每个路段，更新该路段的余票数量
-                routeDTOList.forEach(each -> {
-                    // 构建 Redis Hash Key 的后缀：车次ID_出发站_到达站
-                    // 例如：G123_1001_2001（G123次从北京到上海）
-                    String keySuffix = StrUtil.join("_", trainId, each.getStartStation(), each.getEndStation());
-                    
-                    // 遍历每个座位类型，增加该路段的余票数量
-                    seatTypeMap.forEach((seatType, ticketOrderPassengerDetailRespDTOList) -> {
-                        // 使用 HINCRBY 命令增加 Hash 字段的值
-                        // Key: TRAIN_STATION_REMAINING_TICKET + keySuffix
-                        // Field: 座位类型（如："0" 表示商务座）
-                        // Increment: 乘客数量（取消几张票就增加几张）
-                        // 例如：HINCRBY "train_station_remaining_ticket:G123_1001_2001" "0" 2
-                        // 表示：G123次北京到上海路段的商务座余票增加2张
-                        stringRedisTemplate.opsForHash()
-                                .increment(TRAIN_STATION_REMAINING_TICKET + keySuffix, String.valueOf(seatType), ticketOrderPassengerDetailRespDTOList.size());
-                    });
-                });
-            } catch (Throwable ex) {
-                // Redis 缓存回滚失败只记录日志，不抛出异常
-                // 因为数据库已回滚，数据一致性已保证，缓存可以后续通过其他方式修复
-                log.error("[取消关闭订单] 订单号：{} 回滚列车Cache余票失败", requestParam.getOrderSn(), ex);
+            // 订单已取消，越过不可回退点，释放座位和归还令牌不再受请求截止时间限制
+            UserContext.runWithoutDeadline(() -> releaseCancelledOrder(requestParam));
+        }
+    }
+
+    /**
+     * 订单取消成功后回滚座位状态、令牌桶和区间余票缓存
+     */
+    private void releaseCancelledOrder(CancelTicketOrderReqDTO requestParam) {
+        // 查询订单详情
+        // 获取订单的详细信息，包括车次ID、出发站、到达站、乘客信息等
+        // 先于抢占已释放标记查询，查询失败时标记保持空闲，座位保留清理任务仍可释放
+        Result<org.openzjl.index12306.biz.ticketservice.remote.dto.TicketOrderDetailRespDTO> ticketOrderDetailResult = ticketOrderRemoteService.queryTicketOrderByOrderSn(requestParam.getOrderSn());
+        org.openzjl.index12306.biz.ticketservice.remote.dto.TicketOrderDetailRespDTO ticketOrderDetail = ticketOrderDetailResult.getData();
+        if (!ticketOrderDetailResult.isSuccess() || ticketOrderDetail == null || CollUtil.isEmpty(ticketOrderDetail.getPassengerDetails())) {
+            log.error("[取消订单] 订单号：{} 查询订单详情失败，座位由座位保留清理任务释放", requestParam.getOrderSn());
+            return;
+        }
+
+        // 提取订单基本信息
+        String trainId = String.valueOf(ticketOrderDetail.getTrainId());           // 车次ID
+        String departure = String.valueOf(ticketOrderDetail.getDeparture());       // 出发站编码
+        String arrival = String.valueOf(ticketOrderDetail.getArrival());          // 到达站编码
+        List<TicketOrderPassengerDetailRespDTO> trainPurchaseTicketResults = ticketOrderDetail.getPassengerDetails();  // 乘客详情列表
+
+        // 抢占已释放标记，座位保留清理任务或延迟关单已回滚时不再重复回滚
+        if (!seatHoldManager.markReleased(requestParam.getOrderSn())) {
+            return;
+        }
+
+        // 回滚数据库座位状态
+        // 释放已占用的座位，更新座位表的状态（从未占用 -> 可用）
+        // 如果回滚失败，撤销已释放标记并抛出异常中断后续操作（保证数据一致性）
+        boolean seatsReleased = false;
+        try {
+            // 将订单乘客详情转换为购票响应DTO，用于释放座位
+            seatService.unLock(trainId, departure, arrival, BeanUtil.convert(trainPurchaseTicketResults, TrainPurchaseTicketRespDTO.class));
+            seatsReleased = true;
+        } catch (Throwable ex) {
+            log.error("[取消订单] 订单号：{} 回滚列车DB状态失败", requestParam.getOrderSn(), ex);
+            throw ex;
+        } finally {
+            if (!seatsReleased) {
+                seatHoldManager.unmarkReleased(requestParam.getOrderSn());
             }
         }
+        
+        // 回滚令牌桶
+        // 将已取出的令牌归还到令牌桶中，增加可售车票数量
+        ticketAvailabilityTokenBucket.rollbackInBucket(ticketOrderDetail);
+        
+        // 回滚 Redis 缓存中的余票数量
+        // 更新 Redis Hash 中各个路段的余票数量
+        // 注意：这里只记录日志，不抛出异常，因为数据库已回滚，数据一致性已保证
+        try {
+            // 按座位类型回补途经全部区间的余票数量
+            // 例如：G123次北京到上海退2张商务座，北京->天津、天津->济南、济南->上海各区间的商务座余票各增加2张
+            seatMarginCacheUpdater.increment(trainId, departure, arrival,
+                    trainPurchaseTicketResults.stream().map(TicketOrderPassengerDetailRespDTO::getSeatType).toList());
+        } catch (Throwable ex) {
+            // Redis 缓存回滚失败只记录日志，不抛出异常
+            // 因为数据库已回滚，数据一致性已保证，缓存可以后续通过其他方式修复
+            log.error("[取消关闭订单] 订单号：{} 回滚列车Cache余票失败", requestParam.getOrderSn(), ex);
+        }
     }
 
     /**
@@ -1619,7 +1404,8 @@ public class TicketServiceImpl extends ServiceImpl<TicketMapper, TicketDO> imple
         // 延迟执行刷新任务
         // 延迟10秒后执行刷新任务，避免频繁刷新造成数据库压力
         // 使用异步线程池执行，不阻塞当前请求线程
-        tokenIsNullRefreshExecutor.schedule(() -> {
+        // 刷新是后台任务，不受触发它的购票请求截止时间约束
+        tokenIsNullRefreshExecutor.schedule(() -> UserContext.runWithoutDeadline(() -> {
             try {
                 // 解析令牌为空的信息
                 // 初始化座位类型列表和令牌数量映射
@@ -1670,7 +1456,7 @@ public class TicketServiceImpl extends ServiceImpl<TicketMapper, TicketDO> imple
                 // 无论任务执行成功与否，都要释放锁，避免死锁
                 lock.unlock();
             }
-        }, 10, TimeUnit.SECONDS);  // 延迟10秒执行
+        }), 10, TimeUnit.SECONDS);  // 延迟10秒执行
     }
 
     @Override
@@ -6,18 +6,21 @@ package org.openzjl.index12306.biz.ticketservice.service.Impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.toolkit.Wrappers;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import lombok.RequiredArgsConstructor;
 import org.openzjl.index12306.biz.ticketservice.dao.entity.TrainStationDO;
 import org.openzjl.index12306.biz.ticketservice.dao.mapper.TrainStationMapper;
 import org.openzjl.index12306.biz.ticketservice.dto.domain.RouteDTO;
+import org.openzjl.index12306.biz.ticketservice.dto.domain.TrainRouteGraph;
 import org.openzjl.index12306.biz.ticketservice.dto.resp.TrainStationQueryRespDTO;
 import org.openzjl.index12306.biz.ticketservice.service.TrainStationService;
-import org.openzjl.index12306.biz.ticketservice.toolkit.StationCalculateUtil;
-import org.openzjl.index12306.framework.starter.log.toolkit.BeanUtil;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDate;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 列车站点接口实现层
@@ -31,97 +34,99 @@ public class TrainStationServiceImpl implements TrainStationService {
 
     private final TrainStationMapper trainStationMapper;
 
+    /**
+     * 列车路线图本地缓存
+     * <p>
+     * Key: 列车ID + 运行日期，Value: 该车次当日的经停站快照及区间计算结果
+     * <p>
+     * 购票、令牌桶、取消订单、延迟关单每次都要计算扣减区间，经停站数据只有时刻表调整才会变化，
+     * 因此按车次加载一次后在 JVM 内共享，避免每次都查询 t_train_station 并重复做 O(n²) 的区间计算。
+     * 经停站的到发时刻随运行日期滚动，Key 带上运行日期，跨天后按新日期重新加载，不会沿用前一天的快照。
+     * <p>
+     * 注意事项：
+     * - 写入后1天过期，跨天后不再访问的旧日期路线图随之淘汰
+     * - 时刻表变更由 t_train_station 的 Binlog 或经停站刷新任务经 {@link org.openzjl.index12306.biz.ticketservice.canal.CanalCacheInvalidator} 广播，
+     *   各实例收到广播后调用 {@link #evictTrainRouteGraph(String)} 失效本实例的缓存
+     */
+    private final Cache<TrainRouteGraphKey, TrainRouteGraph> trainRouteGraphCache = Caffeine.newBuilder()
+            .expireAfterWrite(1, TimeUnit.DAYS)
+            .maximumSize(10000)
+            .build();
+
     @Override
     public List<TrainStationQueryRespDTO> listTrainStationQuery(String trainId) {
-        // ---------------------------------------------------------
-        // 构建查询条件
-        // ---------------------------------------------------------
-        // Wrappers.lambdaQuery() 创建一个 LambdaQueryWrapper 对象，TrainStationDO 指定了要查询的数据库实体表
-        LambdaQueryWrapper<TrainStationDO> queryWrapper = Wrappers.lambdaQuery(TrainStationDO.class)
-                // 这一句翻译成 SQL 就是： WHERE train_id = trainId
-                .eq(TrainStationDO::getTrainId, trainId);
-
-        // ---------------------------------------------------------
-        // 执行数据库查询
-        // ---------------------------------------------------------
-        // 调用 Mapper 接口的 selectList 方法，返回的结果是 DO (Data Object) 列表，即直接对应数据库表结构的实体对象
-        List<TrainStationDO> trainStationDOList = trainStationMapper.selectList(queryWrapper);
-
-        // ---------------------------------------------------------
-        // 对象转换 (DO -> DTO)
-        // ---------------------------------------------------------
-        // BeanUtil.convert 是一个工具方法
-        // 它会自动把 trainStationDOList 里每个对象的属性值，复制到新的 TrainStationQueryRespDTO 对象中。
-        return BeanUtil.convert(trainStationDOList, TrainStationQueryRespDTO.class);
+        // 经停站明细直接取自路线图缓存
+        // 每次复制出新的 DTO，调用方修改返回值不会影响缓存中的数据
+        return getTrainRouteGraph(trainId).copyTrainStations(TrainStationQueryRespDTO.class);
     }
 
     @Override
     public List<RouteDTO> listTrainStationRoute(String trainId, String departure, String arrival) {
-        // -----------------------------------------------------------------------
-        // 构建数据库查询条件
-        // -----------------------------------------------------------------------
-        LambdaQueryWrapper<TrainStationDO> queryWrapper = Wrappers.lambdaQuery(TrainStationDO.class)
-                // WHERE train_id = {trainId}：锁定具体的某一趟列车
-                .eq(TrainStationDO::getTrainId, trainId)
-                // 只查询出发站字段
-                // 最后一段数据的样式：终点站 -> null
-                .select(TrainStationDO::getDeparture);
-
-        // -----------------------------------------------------------------------
-        // 获取该列车的所有经停站信息
-        // -----------------------------------------------------------------------
-        List<TrainStationDO> trainStationDOList = trainStationMapper.selectList(queryWrapper);
-
-        // -----------------------------------------------------------------------
-        // 数据格式转换 (Entity -> List<String>)
-        // -----------------------------------------------------------------------
-        // 数据库查出来的是对象列表，通常只需要纯粹的站点名称列表
-        List<String> trainStationAllList = trainStationDOList.stream()
-                // 提取每个对象中的 'departure' 字段 (即站点名称)
-                // 终点站
-                .map(TrainStationDO::getDeparture)
-                // 收集成一个字符串列表，例如：["北京南", "济南西", "南京南", "上海虹桥"]
-                .collect(Collectors.toList());
-
-        // 输入：整条线路的所有站点 (trainStationAllList)，用户买的起点 (departure)，用户买的终点 (arrival)
+        // 输入：整条线路的所有站点，用户买的起点 (departure)，用户买的终点 (arrival)
         // 输出：所有受影响的子区间列表
         //       例如用户买 "济南西" -> "南京南"，这里会返回 ["济南西->南京南", "济南西->上海虹桥", "北京南->南京南"...] 等所有冲突区间
-        return StationCalculateUtil.throughStation(trainStationAllList, departure, arrival);
+        // 同一车次同一起止站的结果在路线图内缓存，重复调用不再重新计算
+        return getTrainRouteGraph(trainId).throughStation(departure, arrival);
     }
 
     @Override
     public List<RouteDTO> listTakeoutTrainStationRoute(String trainId, String departure, String arrival) {
-        // -----------------------------------------------------------------------
-        // 准备查询条件
-        // -----------------------------------------------------------------------
+        // 输入：完整站点列表, 用户买的起点 (departure), 用户买的终点 (arrival)
+        // 输出：所有因为这张票卖出而需要扣减库存的区间集合。
+        //       比如用户买 B->D，这里返回的就是 [A->C, A->D, A->E, B->C, B->D, B->E, C->D, C->E ...]
+        // 同一车次同一起止站的结果在路线图内缓存，重复调用不再重新计算
+        return getTrainRouteGraph(trainId).takeoutStation(departure, arrival);
+    }
+
+    @Override
+    public TrainRouteGraph getTrainRouteGraph(String trainId) {
+        return getTrainRouteGraph(trainId, LocalDate.now());
+    }
+
+    @Override
+    public TrainRouteGraph getTrainRouteGraph(String trainId, LocalDate trainDate) {
+        return trainRouteGraphCache.get(new TrainRouteGraphKey(trainId, trainDate), this::loadTrainRouteGraph);
+    }
+
+    @Override
+    public void evictTrainRouteGraph(String trainId) {
+        if (trainId == null) {
+            trainRouteGraphCache.invalidateAll();
+            return;
+        }
+        // 时刻表变更对该车次所有运行日期生效
+        trainRouteGraphCache.asMap().keySet().removeIf(each -> Objects.equals(each.trainId(), trainId));
+    }
+
+    /**
+     * 从数据库加载列车路线图
+     *
+     * @param key 列车ID + 运行日期
+     * @return 列车路线图
+     */
+    private TrainRouteGraph loadTrainRouteGraph(TrainRouteGraphKey key) {
+        // ---------------------------------------------------------
+        // 构建查询条件
+        // ---------------------------------------------------------
+        // 这一句翻译成 SQL 就是： WHERE train_id = trainId
+        // 查询全部字段，经停站明细查询与区间计算共用同一份数据
         LambdaQueryWrapper<TrainStationDO> queryWrapper = Wrappers.lambdaQuery(TrainStationDO.class)
-                // 锁定当前操作的那一趟列车
-                .eq(TrainStationDO::getTrainId, trainId)
-                // 只查询出发站字段
-                // 最后一段数据的样式：终点站 -> null
-                .select(TrainStationDO::getDeparture);
+                .eq(TrainStationDO::getTrainId, key.trainId());
 
-        // -----------------------------------------------------------------------
-        // 获取完整路线图
-        // -----------------------------------------------------------------------
-        // 拿到这趟车的所有经停站 (例如：北京南, 济南西, 南京南, 上海虹桥)
+        // ---------------------------------------------------------
+        // 获取该列车的所有经停站信息
+        // ---------------------------------------------------------
+        // 最后一段数据的样式：终点站 -> null
         List<TrainStationDO> trainStationDOList = trainStationMapper.selectList(queryWrapper);
+        return new TrainRouteGraph(key.trainId(), key.trainDate(), trainStationDOList);
+    }
 
-        // -----------------------------------------------------------------------
-        // 数据清洗 (Entity -> String)
-        // -----------------------------------------------------------------------
-        // 将数据库实体列表转换为纯粹的站点名称列表 List<String>
-        List<String> trainStationAllList = trainStationDOList.stream()
-                .map(TrainStationDO::getDeparture)
-                .collect(Collectors.toList());
-
-        // -----------------------------------------------------------------------
-        // 调用核心扣减逻辑 (Critical!)
-        // -----------------------------------------------------------------------
-        // 调用 StationCalculateUtil.takeoutStation 方法。
-        // 输入：完整站点列表, 用户买的起点 (departure), 用户买的终点 (arrival)
-        // 输出：所有因为这张票卖出而需要扣减库存的区间集合。
-        //       比如用户买 B->D，这里返回的就是 [A->C, A->D, A->E, B->C, B->D, B->E, C->D, C->E ...]
-        return StationCalculateUtil.takeoutStation(trainStationAllList, departure, arrival);
+    /**
+     * 列车路线图缓存 Key
+     *
+     * @param trainId   列车ID
+     * @param trainDate 运行日期
+     */
+    private record TrainRouteGraphKey(String trainId, LocalDate trainDate) {
     }
 }
@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.biz.ticketservice.service.Impl;
+
+import cn.hutool.core.util.StrUtil;
+import com.alibaba.fastjson2.JSON;
+import com.baomidou.mybatisplus.core.toolkit.Wrappers;
+import lombok.RequiredArgsConstructor;
+import org.openzjl.index12306.biz.ticketservice.common.enums.WaitlistStatusEnum;
+import org.openzjl.index12306.biz.ticketservice.config.WaitlistProperties;
+import org.openzjl.index12306.biz.ticketservice.dao.entity.TrainStationRelationDO;
+import org.openzjl.index12306.biz.ticketservice.dao.entity.WaitlistOrderDO;
+import org.openzjl.index12306.biz.ticketservice.dao.mapper.TrainStationRelationMapper;
+import org.openzjl.index12306.biz.ticketservice.dao.mapper.WaitlistOrderMapper;
+import org.openzjl.index12306.biz.ticketservice.dto.domain.PurchaseTicketPassengerDetailDTO;
+import org.openzjl.index12306.biz.ticketservice.dto.req.PurchaseTicketReqDTO;
+import org.openzjl.index12306.biz.ticketservice.dto.resp.WaitlistRespDTO;
+import org.openzjl.index12306.biz.ticketservice.service.WaitlistService;
+import org.openzjl.index12306.biz.ticketservice.service.handler.ticket.filter.purchase.TrainPurchaseTicketParamNotNullChainHandler;
+import org.openzjl.index12306.biz.ticketservice.service.handler.ticket.filter.purchase.TrainPurchaseTicketParamVerifyChainHandler;
+import org.openzjl.index12306.biz.ticketservice.service.handler.ticket.waitlist.WaitlistSignal;
+import org.openzjl.index12306.framework.starter.convention.exception.ClientException;
+import org.openzjl.index12306.framework.starter.convention.exception.ServiceException;
+import org.openzjl.index12306.framework.starter.user.core.UserContext;
+import org.springframework.stereotype.Service;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 候补购票接口层实现
+ * <p>
+ * 余票不足时用户提交候补订单后不再反复调用购票接口，由 {@code WaitlistMatcher} 在余票回补时按排队顺序自动下单，
+ * 用户只需查询候补状态。候补订单持久化在数据库中，服务重启不丢失。
+ * </p>
+ *
+ * @author zhangjlk
+ * @date 2026/10/18 下午5:40
+ */
+@Service
+@RequiredArgsConstructor
+public class WaitlistServiceImpl implements WaitlistService {
+
+    private final WaitlistOrderMapper waitlistOrderMapper;
+    private final TrainStationRelationMapper trainStationRelationMapper;
+    private final TrainPurchaseTicketParamNotNullChainHandler purchaseTicketParamNotNullChainHandler;
+    private final TrainPurchaseTicketParamVerifyChainHandler purchaseTicketParamVerifyChainHandler;
+    private final WaitlistSignal waitlistSignal;
+    private final WaitlistProperties waitlistProperties;
+
+    @Override
+    public WaitlistRespDTO createWaitlist(PurchaseTicketReqDTO requestParam) {
+        if (!waitlistProperties.getEnabled()) {
+            throw new ServiceException("候补购票暂未开放");
+        }
+        // 复用购票责任链的参数与车次校验，余量相关校验不适用于候补
+        purchaseTicketParamNotNullChainHandler.handler(requestParam);
+        purchaseTicketParamVerifyChainHandler.handler(requestParam);
+        List<Integer> seatTypes = requestParam.getPassengers().stream()
+                .map(PurchaseTicketPassengerDetailDTO::getSeatType)
+                .distinct()
+                .toList();
+        if (seatTypes.size() != 1) {
+            throw new ClientException("候补订单仅支持同一座位类型");
+        }
+        String username = UserContext.getUserName();
+        if (StrUtil.isBlank(username) || StrUtil.isBlank(UserContext.getUserId())) {
+            throw new ClientException("用户未登录或登录已过期");
+        }
+        Long trainId = Long.parseLong(requestParam.getTrainId());
+        Integer seatType = seatTypes.get(0);
+        Long existCount = waitlistOrderMapper.selectCount(Wrappers.lambdaQuery(WaitlistOrderDO.class)
+                .eq(WaitlistOrderDO::getUsername, username)
+                .eq(WaitlistOrderDO::getTrainId, trainId)
+                .in(WaitlistOrderDO::getStatus, WaitlistStatusEnum.WAITING.getCode(), WaitlistStatusEnum.MATCHING.getCode()));
+        if (existCount > 0) {
+            throw new ClientException("该车次已存在候补订单");
+        }
+        Long queueLength = waitlistOrderMapper.selectCount(Wrappers.lambdaQuery(WaitlistOrderDO.class)
+                .eq(WaitlistOrderDO::getTrainId, trainId)
+                .eq(WaitlistOrderDO::getSeatType, seatType)
+                .eq(WaitlistOrderDO::getStatus, WaitlistStatusEnum.WAITING.getCode()));
+        if (queueLength >= waitlistProperties.getQueueCapacity()) {
+            throw new ServiceException("当前车次候补人数已满");
+        }
+        TrainStationRelationDO trainStationRelationDO = trainStationRelationMapper.selectOne(Wrappers.lambdaQuery(TrainStationRelationDO.class)
+                .eq(TrainStationRelationDO::getTrainId, requestParam.getTrainId())
+                .eq(TrainStationRelationDO::getDeparture, requestParam.getDeparture())
+                .eq(TrainStationRelationDO::getArrival, requestParam.getArrival()));
+        if (trainStationRelationDO == null) {
+            throw new ClientException("列车车站数据错误");
+        }
+        Date deadline = new Date(trainStationRelationDO.getDepartureTime().getTime() - waitlistProperties.getCutoffBeforeDeparture().toMillis());
+        if (deadline.before(new Date())) {
+            throw new ClientException("已超过候补截止时间");
+        }
+        // 候补兑现时由系统选座，不支持指定座位
+        requestParam.setChooseSeats(null);
+        WaitlistOrderDO waitlistOrderDO = WaitlistOrderDO.builder()
+                .userId(UserContext.getUserId())
+                .username(username)
+                .realName(UserContext.getRealName())
+                .trainId(trainId)
+                .ridingDate(trainStationRelationDO.getDepartureTime())
+                .departure(requestParam.getDeparture())
+                .arrival(requestParam.getArrival())
+                .seatType(seatType)
+                .passengerCount(requestParam.getPassengers().size())
+                .purchaseRequest(JSON.toJSONString(requestParam))
+                .status(WaitlistStatusEnum.WAITING.getCode())
+                .attempts(0)
+                .deadline(deadline)
+                .build();
+        waitlistOrderMapper.insert(waitlistOrderDO);
+        // 提交时可能已有回补的余票，立即触发一次匹配
+        waitlistSignal.signal(trainId);
+        return convert(waitlistOrderDO);
+    }
+
+    @Override
+    public WaitlistRespDTO queryWaitlist(Long id) {
+        return convert(selectCurrentUserWaitlist(id));
+    }
+
+    @Override
+    public void cancelWaitlist(Long id) {
+        WaitlistOrderDO waitlistOrderDO = selectCurrentUserWaitlist(id);
+        WaitlistOrderDO updateWaitlistOrderDO = new WaitlistOrderDO();
+        updateWaitlistOrderDO.setStatus(WaitlistStatusEnum.CANCELLED.getCode());
+        int updated = waitlistOrderMapper.update(updateWaitlistOrderDO, Wrappers.lambdaUpdate(WaitlistOrderDO.class)
+                .eq(WaitlistOrderDO::getId, waitlistOrderDO.getId())
+                .eq(WaitlistOrderDO::getStatus, WaitlistStatusEnum.WAITING.getCode()));
+        if (updated <= 0) {
+            throw new ClientException("候补订单当前状态不可取消");
+        }
+    }
+
+    private WaitlistOrderDO selectCurrentUserWaitlist(Long id) {
+        WaitlistOrderDO waitlistOrderDO = waitlistOrderMapper.selectOne(Wrappers.lambdaQuery(WaitlistOrderDO.class)
+                .eq(WaitlistOrderDO::getId, id)
+                .eq(WaitlistOrderDO::getUsername, UserContext.getUserName()));
+        if (waitlistOrderDO == null) {
+            throw new ClientException("候补订单不存在");
+        }
+        return waitlistOrderDO;
+    }
+
+    private WaitlistRespDTO convert(WaitlistOrderDO waitlistOrderDO) {
+        Long position = null;
+        if (Objects.equals(waitlistOrderDO.getStatus(), WaitlistStatusEnum.WAITING.getCode())) {
+            position = waitlistOrderMapper.selectCount(Wrappers.lambdaQuery(WaitlistOrderDO.class)
+                    .eq(WaitlistOrderDO::getTrainId, waitlistOrderDO.getTrainId())
+                    .eq(WaitlistOrderDO::getSeatType, waitlistOrderDO.getSeatType())
+                    .eq(WaitlistOrderDO::getStatus, WaitlistStatusEnum.WAITING.getCode())
+                    .lt(WaitlistOrderDO::getId, waitlistOrderDO.getId())) + 1;
+        }
+        return WaitlistRespDTO.builder()
+                .id(String.valueOf(waitlistOrderDO.getId()))
+                .trainId(String.valueOf(waitlistOrderDO.getTrainId()))
+                .departure(waitlistOrderDO.getDeparture())
+                .arrival(waitlistOrderDO.getArrival())
+                .seatType(waitlistOrderDO.getSeatType())
+                .passengerCount(waitlistOrderDO.getPassengerCount())
+                .status(waitlistOrderDO.getStatus())
+                .position(position)
+                .orderSn(waitlistOrderDO.getOrderSn())
+                .failReason(waitlistOrderDO.getFailReason())
+                .deadline(waitlistOrderDO.getDeadline())
+                .build();
+    }
+}
@@ -80,4 +80,15 @@ public interface SeatService extends IService<SeatDO> {
      * @param trainPurchaseTicketResults     乘车人以及座位信息
      */
     void unLock(String trainId, String departure, String arrival, List<TrainPurchaseTicketRespDTO> trainPurchaseTicketResults);
+
+    /**
+     * 订单支付成功，将选中座位及沿途区间由锁定一次性置为已售
+     *
+     * @param trainId                        列车ID
+     * @param departure                      出发站
+     * @param arrival                        到达站
+     * @param trainPurchaseTicketResults     乘车人以及座位信息
+     * @return                               置为已售的座位区间记录数，座位已被释放或重复消费时小于预期
+     */
+    int markSold(String trainId, String departure, String arrival, List<TrainPurchaseTicketRespDTO> trainPurchaseTicketResults);
 }
@@ -5,9 +5,11 @@
 package org.openzjl.index12306.biz.ticketservice.service;
 
 import org.openzjl.index12306.biz.ticketservice.dto.domain.RouteDTO;
+import org.openzjl.index12306.biz.ticketservice.dto.domain.TrainRouteGraph;
 import org.openzjl.index12306.biz.ticketservice.dto.resp.TrainStationQueryRespDTO;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDate;
 import java.util.List;
 
 /**
@@ -54,4 +56,31 @@ public interface TrainStationService {
      * @return          列车站点路线关系信息
      */
     List<RouteDTO> listTakeoutTrainStationRoute(String trainId, String departure, String arrival);
+
+    /**
+     * 获取列车当日运行的路线图
+     *
+     * @param trainId 列车ID
+     * @return        列车路线图
+     */
+    TrainRouteGraph getTrainRouteGraph(String trainId);
+
+    /**
+     * 获取列车路线图
+     * 经停站顺序、站点下标以及区间计算结果按车次和运行日期缓存，首次访问时从数据库加载
+     *
+     * @param trainId   列车ID
+     * @param trainDate 运行日期
+     * @return          列车路线图
+     */
+    TrainRouteGraph getTrainRouteGraph(String trainId, LocalDate trainDate);
+
+    /**
+     * 失效本实例的列车路线图缓存，下一次访问重新从数据库加载
+     * 作为 t_train_station 失效规则的本地失效回调，由缓存失效广播在每个实例上调用；
+     * 时刻表（经停站）变更后应通过 CanalCacheInvalidator#invalidateLocal 广播，而不是直接调用本方法
+     *
+     * @param trainId 列车ID，为空时失效全部车次；失效该车次全部运行日期的路线图
+     */
+    void evictTrainRouteGraph(String trainId);
 }
@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.biz.ticketservice.service;
+
+import org.openzjl.index12306.biz.ticketservice.dto.req.PurchaseTicketReqDTO;
+import org.openzjl.index12306.biz.ticketservice.dto.resp.WaitlistRespDTO;
+
+/**
+ * 候补购票接口层
+ *
+ * @author zhangjlk
+ * @date 2026/10/18 下午5:40
+ */
+public interface WaitlistService {
+
+    /**
+     * 提交候补订单
+     *
+     * @param requestParam 购票请求参数
+     * @return 候补订单
+     */
+    WaitlistRespDTO createWaitlist(PurchaseTicketReqDTO requestParam);
+
+    /**
+     * 查询当前用户的候补订单
+     *
+     * @param id 候补订单ID
+     * @return 候补订单
+     */
+    WaitlistRespDTO queryWaitlist(Long id);
+
+    /**
+     * 取消排队中的候补订单
+     *
+     * @param id 候补订单ID
+     */
+    void cancelWaitlist(Long id);
+}
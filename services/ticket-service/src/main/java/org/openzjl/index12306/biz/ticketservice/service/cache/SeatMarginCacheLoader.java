@@ -5,6 +5,7 @@
 package org.openzjl.index12306.biz.ticketservice.service.cache;
 
 import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.util.StrUtil;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.toolkit.Wrappers;
 import lombok.RequiredArgsConstructor;
@@ -16,6 +17,8 @@ import org.openzjl.index12306.biz.ticketservice.dao.mapper.TrainMapper;
 import org.openzjl.index12306.biz.ticketservice.dto.domain.RouteDTO;
 import org.openzjl.index12306.biz.ticketservice.common.enums.VehicleTypeEnum;
 import org.openzjl.index12306.biz.ticketservice.service.TrainStationService;
+import org.openzjl.index12306.biz.ticketservice.service.handler.ticket.reconcile.TicketAvailabilityReconciler;
+import org.openzjl.index12306.biz.ticketservice.service.handler.ticket.reconcile.TicketAvailabilityReconciler.ReconcileItem;
 import org.openzjl.index12306.framework.starter.cache.DistributedCache;
 import org.openzjl.index12306.framework.starter.cache.toolkit.CacheUtil;
 import org.redisson.api.RLock;
@@ -23,9 +26,11 @@ import org.redisson.api.RedissonClient;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 
@@ -47,6 +52,7 @@ public class SeatMarginCacheLoader {
     private final DistributedCache distributedCache;
     private final RedissonClient redissonClient;
     private final TrainStationService trainStationService;
+    private final TicketAvailabilityReconciler ticketAvailabilityReconciler;
 
     /**
      * 加载座位余量缓存（从数据库查询并写入Redis）
@@ -86,7 +92,7 @@ public class SeatMarginCacheLoader {
         
         // 构建缓存Key后缀：车次ID_出发站_到达站
         // 例如："G123_1001_2001"
-        String keySuffix = CacheUtil.buildKey(trainId, departure, arrival);
+        String keySuffix = StrUtil.join("_", trainId, departure, arrival);
         
         // 获取分布式锁，防止多个线程同时查询数据库并写入缓存（防止缓存击穿）
         RLock lock = redissonClient.getLock(String.format(LOCK_SAFE_LOAD_SEAT_MARGIN_GET, keySuffix));
@@ -110,78 +116,9 @@ public class SeatMarginCacheLoader {
                         ADVANCE_TICKET_DAY,
                         TimeUnit.DAYS
                 );
-                
-                // 计算列车的所有路线段
-                // 获取该车次从起始站到终点站的所有路线段
-                // 例如：如果列车路线是 A->B->C->D，则返回：A->B、A->C、A->D、B->C、B->D、C->D
-                List<RouteDTO> routeDTOList = trainStationService.listTrainStationRoute(trainId, trainDO.getStartStation(), trainDO.getEndStation());
-                
-                // 根据列车类型查询不同座位类型的余票
-                if (CollUtil.isNotEmpty(routeDTOList)) {
-                    // 根据列车类型（0=高速铁路，1=动车，2=普通车）查询对应的座位类型
-                    switch (trainDO.getTrainType()) {
-                        // 高速铁路（类型0）：支持商务座、一等座、二等座
-                        case 0 -> {
-                            // 遍历所有路线段，查询每种座位类型的余票
-                            for (RouteDTO each : routeDTOList) {
-                                Map<String, String> trainStationRemainingTicket = new LinkedHashMap<>();
-                                // 查询商务座（编码0）的余票数量
-                                trainStationRemainingTicket.put("0", selectSeatMargin(trainId, 0, each.getStartStation(), each.getEndStation()));
-                                // 查询一等座（编码1）的余票数量
-                                trainStationRemainingTicket.put("1", selectSeatMargin(trainId, 1, each.getStartStation(), each.getEndStation()));
-                                // 查询二等座（编码2）的余票数量
-                                trainStationRemainingTicket.put("2", selectSeatMargin(trainId, 2, each.getStartStation(), each.getEndStation()));
-                                
-                                // 构建该路线段的缓存Key后缀
-                                String actualKeySuffix = CacheUtil.buildKey(trainId, each.getStartStation(), each.getEndStation());
-                                // 将余票信息存入Map，Key为完整的Redis缓存Key
-                                trainStationRemainingTicketMaps.put(TRAIN_STATION_REMAINING_TICKET + actualKeySuffix, trainStationRemainingTicket);
-                            }
-                        }
-                        // 动车（类型1）：支持二等包座、一等卧、二等卧、无座
-                        case 1 -> {
-                            for (RouteDTO each : routeDTOList) {
-                                Map<String, String> trainStationRemainingTicket = new LinkedHashMap<>();
-                                // 查询二等包座（编码3）的余票数量
-                                trainStationRemainingTicket.put("3", selectSeatMargin(trainId, 3, each.getStartStation(), each.getEndStation()));
-                                // 查询一等卧（编码4）的余票数量
-                                trainStationRemainingTicket.put("4", selectSeatMargin(trainId, 4, each.getStartStation(), each.getEndStation()));
-                                // 查询二等卧（编码5）的余票数量
-                                trainStationRemainingTicket.put("5", selectSeatMargin(trainId, 5, each.getStartStation(), each.getEndStation()));
-                                // 查询无座（编码13）的余票数量
-                                trainStationRemainingTicket.put("13", selectSeatMargin(trainId, 13, each.getStartStation(), each.getEndStation()));
-                                
-                                String actualKeySuffix = CacheUtil.buildKey(trainId, each.getStartStation(), each.getEndStation());
-                                trainStationRemainingTicketMaps.put(TRAIN_STATION_REMAINING_TICKET + actualKeySuffix, trainStationRemainingTicket);
-                            }
-                        }
-                        // 普通车（类型2）：支持软卧、硬卧、硬座、无座
-                        case 2 -> {
-                            for (RouteDTO each : routeDTOList) {
-                                Map<String, String> trainStationRemainingTicket = new LinkedHashMap<>();
-                                // 查询软卧（编码6）的余票数量
-                                trainStationRemainingTicket.put("6", selectSeatMargin(trainId, 6, each.getStartStation(), each.getEndStation()));
-                                // 查询硬卧（编码7）的余票数量
-                                trainStationRemainingTicket.put("7", selectSeatMargin(trainId, 7, each.getStartStation(), each.getEndStation()));
-                                // 查询硬座（编码8）的余票数量
-                                trainStationRemainingTicket.put("8", selectSeatMargin(trainId, 8, each.getStartStation(), each.getEndStation()));
-                                // 查询无座（编码13）的余票数量
-                                trainStationRemainingTicket.put("13", selectSeatMargin(trainId, 13, each.getStartStation(), each.getEndStation()));
-                                
-                                String actualKeySuffix = CacheUtil.buildKey(trainId, each.getStartStation(), each.getEndStation());
-                                trainStationRemainingTicketMaps.put(TRAIN_STATION_REMAINING_TICKET + actualKeySuffix, trainStationRemainingTicket);
-                            }
-                        }
-                    }
-                } else {
-                    // 如果没有路线信息，初始化默认值
-                    // 如果路线列表为空，根据列车类型初始化所有座位类型的余票为0
-                    Map<String, String> trainStationRemainingTicket = new LinkedHashMap<>();
-                    // 获取该列车类型支持的所有座位类型，并将余票数量初始化为"0"
-                    VehicleTypeEnum.findSeatTypeByCode(trainDO.getTrainType())
-                            .forEach(each -> trainStationRemainingTicket.put(String.valueOf(each), "0"));
-                    trainStationRemainingTicketMaps.put(TRAIN_STATION_REMAINING_TICKET + keySuffix, trainStationRemainingTicket);
-                }
+
+                // 查询该车次全部路线段、全部座位类型的余票
+                trainStationRemainingTicketMaps.putAll(selectTrainStationRemainingTicket(trainDO, keySuffix));
 
                 // 批量写入Redis缓存
                 // 将所有路线和座位类型的余票信息批量写入Redis Hash
@@ -200,6 +137,145 @@ public class SeatMarginCacheLoader {
                 .orElse(new LinkedHashMap<>());
     }
 
+    /**
+     * 重建列车全部路线段的座位余量缓存
+     * <p>
+     * 与 {@link #load} 不同，无论缓存是否存在都以数据库为准修正，用于 Binlog 断档后修正可能漂移的余票缓存。
+     * 与余票对账一致，按 读取缓存 -> 查询数据库 -> 再读一次缓存 比较，两次读取不一致的字段说明有在途购票或回滚，不做修正；
+     * 其余漂移字段通过比较并设置 Lua 脚本原子修正，避免数据库查询期间的扣减或回滚被旧的数据库结果覆盖。
+     * 缓存 Key 或字段不存在时不写入，由 {@link #load} 懒加载。
+     * </p>
+     *
+     * @param trainId 车次ID，不能为null
+     */
+    public void rebuild(String trainId) {
+        RLock lock = redissonClient.getLock(String.format(LOCK_SAFE_LOAD_SEAT_MARGIN_GET, trainId));
+        lock.lock();
+        try {
+            TrainDO trainDO = distributedCache.safeGet(
+                    TRAIN_INFO + trainId,
+                    TrainDO.class,
+                    () -> trainMapper.selectById(trainId),
+                    ADVANCE_TICKET_DAY,
+                    TimeUnit.DAYS
+            );
+            if (trainDO == null) {
+                return;
+            }
+            String keySuffix = StrUtil.join("_", trainId, trainDO.getStartStation(), trainDO.getEndStation());
+            List<RouteDTO> routeDTOList = trainStationService.listTrainStationRoute(trainId, trainDO.getStartStation(), trainDO.getEndStation());
+            List<String> cacheKeys = CollUtil.isEmpty(routeDTOList)
+                    ? List.of(TRAIN_STATION_REMAINING_TICKET + keySuffix)
+                    : routeDTOList.stream()
+                    .map(each -> TRAIN_STATION_REMAINING_TICKET + StrUtil.join("_", trainId, each.getStartStation(), each.getEndStation()))
+                    .toList();
+
+            List<Map<String, String>> before = ticketAvailabilityReconciler.readHashes(cacheKeys);
+            Map<String, Map<String, String>> trainStationRemainingTicketMaps = selectTrainStationRemainingTicket(trainDO, keySuffix);
+            List<Map<String, String>> after = ticketAvailabilityReconciler.readHashes(cacheKeys);
+
+            for (int i = 0; i < cacheKeys.size(); i++) {
+                String cacheKey = cacheKeys.get(i);
+                Map<String, String> beforeMap = before.get(i);
+                Map<String, String> afterMap = after.get(i);
+                List<ReconcileItem> items = new ArrayList<>();
+                trainStationRemainingTicketMaps.getOrDefault(cacheKey, Map.of()).forEach((field, actual) -> {
+                    String cachedValue = beforeMap.get(field);
+                    if (cachedValue != null && Objects.equals(cachedValue, afterMap.get(field)) && !Objects.equals(cachedValue, actual)) {
+                        items.add(new ReconcileItem(field, cachedValue, actual));
+                    }
+                });
+                ticketAvailabilityReconciler.compareAndSet(cacheKey, items);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 从数据库查询列车全部路线段的座位余票
+     *
+     * @param trainDO   列车信息，用于判断列车类型和计算路线
+     * @param keySuffix 没有路线信息时初始化余票为0的缓存Key后缀
+     * @return Key为Redis缓存Key，Value为该路线所有座位类型的余票信息Map
+     */
+    private Map<String, Map<String, String>> selectTrainStationRemainingTicket(TrainDO trainDO, String keySuffix) {
+        String trainId = String.valueOf(trainDO.getId());
+        Map<String, Map<String, String>> trainStationRemainingTicketMaps = new LinkedHashMap<>();
+        
+        // 计算列车的所有路线段
+        // 获取该车次从起始站到终点站的所有路线段
+        // 例如：如果列车路线是 A->B->C->D，则返回：A->B、A->C、A->D、B->C、B->D、C->D
+        List<RouteDTO> routeDTOList = trainStationService.listTrainStationRoute(trainId, trainDO.getStartStation(), trainDO.getEndStation());
+        
+        // 根据列车类型查询不同座位类型的余票
+        if (CollUtil.isNotEmpty(routeDTOList)) {
+            // 根据列车类型（0=高速铁路，1=动车，2=普通车）查询对应的座位类型
+            switch (trainDO.getTrainType()) {
+                // 高速铁路（类型0）：支持商务座、一等座、二等座
+                case 0 -> {
+                    // 遍历所有路线段，查询每种座位类型的余票
+                    for (RouteDTO each : routeDTOList) {
+                        Map<String, String> trainStationRemainingTicket = new LinkedHashMap<>();
+                        // 查询商务座（编码0）的余票数量
+                        trainStationRemainingTicket.put("0", selectSeatMargin(trainId, 0, each.getStartStation(), each.getEndStation()));
+                        // 查询一等座（编码1）的余票数量
+                        trainStationRemainingTicket.put("1", selectSeatMargin(trainId, 1, each.getStartStation(), each.getEndStation()));
+                        // 查询二等座（编码2）的余票数量
+                        trainStationRemainingTicket.put("2", selectSeatMargin(trainId, 2, each.getStartStation(), each.getEndStation()));
+                        
+                        // 构建该路线段的缓存Key后缀
+                        String actualKeySuffix = StrUtil.join("_", trainId, each.getStartStation(), each.getEndStation());
+                        // 将余票信息存入Map，Key为完整的Redis缓存Key
+                        trainStationRemainingTicketMaps.put(TRAIN_STATION_REMAINING_TICKET + actualKeySuffix, trainStationRemainingTicket);
+                    }
+                }
+                // 动车（类型1）：支持二等包座、一等卧、二等卧、无座
+                case 1 -> {
+                    for (RouteDTO each : routeDTOList) {
+                        Map<String, String> trainStationRemainingTicket = new LinkedHashMap<>();
+                        // 查询二等包座（编码3）的余票数量
+                        trainStationRemainingTicket.put("3", selectSeatMargin(trainId, 3, each.getStartStation(), each.getEndStation()));
+                        // 查询一等卧（编码4）的余票数量
+                        trainStationRemainingTicket.put("4", selectSeatMargin(trainId, 4, each.getStartStation(), each.getEndStation()));
+                        // 查询二等卧（编码5）的余票数量
+                        trainStationRemainingTicket.put("5", selectSeatMargin(trainId, 5, each.getStartStation(), each.getEndStation()));
+                        // 查询无座（编码13）的余票数量
+                        trainStationRemainingTicket.put("13", selectSeatMargin(trainId, 13, each.getStartStation(), each.getEndStation()));
+                        
+                        String actualKeySuffix = StrUtil.join("_", trainId, each.getStartStation(), each.getEndStation());
+                        trainStationRemainingTicketMaps.put(TRAIN_STATION_REMAINING_TICKET + actualKeySuffix, trainStationRemainingTicket);
+                    }
+                }
+                // 普通车（类型2）：支持软卧、硬卧、硬座、无座
+                case 2 -> {
+                    for (RouteDTO each : routeDTOList) {
+                        Map<String, String> trainStationRemainingTicket = new LinkedHashMap<>();
+                        // 查询软卧（编码6）的余票数量
+                        trainStationRemainingTicket.put("6", selectSeatMargin(trainId, 6, each.getStartStation(), each.getEndStation()));
+                        // 查询硬卧（编码7）的余票数量
+                        trainStationRemainingTicket.put("7", selectSeatMargin(trainId, 7, each.getStartStation(), each.getEndStation()));
+                        // 查询硬座（编码8）的余票数量
+                        trainStationRemainingTicket.put("8", selectSeatMargin(trainId, 8, each.getStartStation(), each.getEndStation()));
+                        // 查询无座（编码13）的余票数量
+                        trainStationRemainingTicket.put("13", selectSeatMargin(trainId, 13, each.getStartStation(), each.getEndStation()));
+                        
+                        String actualKeySuffix = StrUtil.join("_", trainId, each.getStartStation(), each.getEndStation());
+                        trainStationRemainingTicketMaps.put(TRAIN_STATION_REMAINING_TICKET + actualKeySuffix, trainStationRemainingTicket);
+                    }
+                }
+            }
+        } else {
+            // 如果没有路线信息，初始化默认值
+            // 如果路线列表为空，根据列车类型初始化所有座位类型的余票为0
+            Map<String, String> trainStationRemainingTicket = new LinkedHashMap<>();
+            // 获取该列车类型支持的所有座位类型，并将余票数量初始化为"0"
+            VehicleTypeEnum.findSeatTypeByCode(trainDO.getTrainType())
+                    .forEach(each -> trainStationRemainingTicket.put(String.valueOf(each), "0"));
+            trainStationRemainingTicketMaps.put(TRAIN_STATION_REMAINING_TICKET + keySuffix, trainStationRemainingTicket);
+        }
+        return trainStationRemainingTicketMaps;
+    }
 
     /**
      * 查询指定路线和座位类型的可用座位数量（余票数量）
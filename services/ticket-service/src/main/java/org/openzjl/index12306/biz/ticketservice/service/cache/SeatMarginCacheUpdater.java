@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.biz.ticketservice.service.cache;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.util.StrUtil;
+import lombok.RequiredArgsConstructor;
+import org.openzjl.index12306.biz.ticketservice.dto.domain.RouteDTO;
+import org.openzjl.index12306.biz.ticketservice.service.TrainStationService;
+import org.openzjl.index12306.framework.starter.cache.DistributedCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.openzjl.index12306.biz.ticketservice.common.constant.RedisKeyConstant.TRAIN_STATION_REMAINING_TICKET;
+
+/**
+ * 座位余量缓存回补
+ * <p>
+ * 取消订单、延迟关单、座位保留到期和合并购票补偿释放座位后，按座位类型回补途经全部区间的余票缓存。
+ * Binlog 模式下区间余票缓存由座位表 Binlog 更新，直接跳过。
+ * </p>
+ *
+ * @author zhangjlk
+ * @date 2026/10/20 下午4:30
+ */
+@Component
+@RequiredArgsConstructor
+public class SeatMarginCacheUpdater {
+
+    private final DistributedCache distributedCache;
+    private final TrainStationService trainStationService;
+
+    @Value("${ticket.availability.cache-update.type:}")
+    private String ticketAvailabilityCacheUpdateType;
+
+    /**
+     * 回补区间余票缓存，失败时抛出异常，由调用方决定重试或等待余票对账修复
+     *
+     * @param trainId   车次ID
+     * @param departure 出发站
+     * @param arrival   到达站
+     * @param seatTypes 释放的座位类型，每张车票一个
+     */
+    public void increment(String trainId, String departure, String arrival, List<Integer> seatTypes) {
+        if (CollUtil.isEmpty(seatTypes) || StrUtil.equals(ticketAvailabilityCacheUpdateType, "binlog")) {
+            return;
+        }
+        StringRedisTemplate stringRedisTemplate = (StringRedisTemplate) distributedCache.getInstance();
+        Map<Integer, Long> seatTypeCountMap = seatTypes.stream()
+                .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
+        List<RouteDTO> routeDTOList = trainStationService.listTakeoutTrainStationRoute(trainId, departure, arrival);
+        routeDTOList.forEach(each -> {
+            String keySuffix = StrUtil.join("_", trainId, each.getStartStation(), each.getEndStation());
+            seatTypeCountMap.forEach((seatType, count) -> stringRedisTemplate.opsForHash()
+                    .increment(TRAIN_STATION_REMAINING_TICKET + keySuffix, String.valueOf(seatType), count));
+        });
+    }
+}
@@ -18,22 +18,25 @@
 package org.openzjl.index12306.biz.ticketservice.service.handler.ticket.base;
 
 import cn.hutool.core.collection.CollUtil;
-import cn.hutool.core.util.StrUtil;
-import org.openzjl.index12306.biz.ticketservice.dto.domain.RouteDTO;
+import cn.hutool.core.collection.ListUtil;
+import cn.hutool.core.lang.Pair;
+import cn.hutool.core.util.NumberUtil;
+import org.openzjl.index12306.biz.ticketservice.common.enums.CarriageSeatLayoutEnum;
+import org.openzjl.index12306.biz.ticketservice.dto.domain.PurchaseTicketPassengerDetailDTO;
 import org.openzjl.index12306.biz.ticketservice.dto.domain.TrainSeatBaseDTO;
-import org.openzjl.index12306.biz.ticketservice.service.TrainStationService;
+import org.openzjl.index12306.biz.ticketservice.service.SeatService;
 import org.openzjl.index12306.biz.ticketservice.service.handler.ticket.dto.SelectSeatDTO;
 import org.openzjl.index12306.biz.ticketservice.service.handler.ticket.dto.TrainPurchaseTicketRespDTO;
+import org.openzjl.index12306.biz.ticketservice.service.handler.ticket.select.CarriageSeatMap;
 import org.openzjl.index12306.framework.starter.bases.ApplicationContextHolder;
-import org.openzjl.index12306.framework.starter.cache.DistributedCache;
 import org.openzjl.index12306.framework.starter.designpattern.staregy.AbstractExecuteStrategy;
 import org.springframework.boot.CommandLineRunner;
-import org.springframework.core.env.ConfigurableEnvironment;
-import org.springframework.data.redis.core.StringRedisTemplate;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
-
-import static org.openzjl.index12306.biz.ticketservice.common.constant.RedisKeyConstant.TRAIN_STATION_REMAINING_TICKET;
+import java.util.Map;
 
 /**
  * 抽象高铁购票模板基础服务
@@ -43,9 +46,7 @@ import static org.openzjl.index12306.biz.ticketservice.common.constant.RedisKeyC
  */
 public abstract class AbstractTrainPurchaseTicketTemplate implements IPurchaseTicket, CommandLineRunner, AbstractExecuteStrategy<SelectSeatDTO, List<TrainPurchaseTicketRespDTO>> {
 
-    private DistributedCache distributedCache;
-    private String ticketAvailabilityCacheUpdateType;
-    private TrainStationService trainStationService;
+    private SeatService seatService;
 
     /**
      * 选择座位
@@ -65,19 +66,246 @@ public abstract class AbstractTrainPurchaseTicketTemplate implements IPurchaseTi
                 .build();
     }
 
+    /**
+     * 加载车厢可售座位图
+     *
+     * @param requestParam   选座参数
+     * @param carriageNumber 车厢号
+     * @param layout         车厢座位布局
+     * @return 车厢座位图
+     */
+    protected CarriageSeatMap loadCarriageSeatMap(SelectSeatDTO requestParam, String carriageNumber, CarriageSeatLayoutEnum layout) {
+        Map<String, CarriageSeatMap> sharedCarriageSeatMaps = requestParam.getCarriageSeatMaps();
+        if (sharedCarriageSeatMaps != null) {
+            // 合并提交时组内共享座位图，前序请求选中的座位已在座位图中占用
+            return sharedCarriageSeatMaps.computeIfAbsent(
+                    requestParam.getSeatType() + "_" + carriageNumber,
+                    key -> decodeCarriageSeatMap(requestParam, carriageNumber, layout)
+            );
+        }
+        return decodeCarriageSeatMap(requestParam, carriageNumber, layout);
+    }
+
+    private CarriageSeatMap decodeCarriageSeatMap(SelectSeatDTO requestParam, String carriageNumber, CarriageSeatLayoutEnum layout) {
+        List<String> listAvailableSeat = seatService.listAvailableSeat(
+                requestParam.getRequestParam().getTrainId(),
+                carriageNumber,
+                requestParam.getSeatType(),
+                requestParam.getRequestParam().getDeparture(),
+                requestParam.getRequestParam().getArrival()
+        );
+        return CarriageSeatMap.decode(layout, listAvailableSeat);
+    }
+
+    /**
+     * 少量乘车人选座：优先同车厢邻座，依次降级为同车厢不邻座、不同车厢不邻座
+     *
+     * @param requestParam      选座参数
+     * @param trainCarriageList 有余票的车厢号列表
+     * @param layout            车厢座位布局
+     * @return 乘车人座位，无法满足时返回空集合
+     */
+    protected List<TrainPurchaseTicketRespDTO> selectAdjacentSeats(SelectSeatDTO requestParam, List<String> trainCarriageList, CarriageSeatLayoutEnum layout) {
+        int passengersNumber = requestParam.getPassengerSeatDetails().size();
+        Map<String, CarriageSeatMap> carriageSeatMaps = new LinkedHashMap<>();
+        for (String carriageNumber : trainCarriageList) {
+            CarriageSeatMap carriageSeatMap = loadCarriageSeatMap(requestParam, carriageNumber, layout);
+            int[][] select = carriageSeatMap.adjacent(passengersNumber);
+            if (select != null) {
+                return buildPurchaseResult(requestParam, Map.of(carriageNumber, select), layout);
+            }
+            carriageSeatMaps.put(carriageNumber, carriageSeatMap);
+        }
+        return selectDemotionSeats(requestParam, carriageSeatMaps, layout);
+    }
+
+    /**
+     * 多乘车人选座：乘车人按布局的每组人数分组，每组在同一车厢内邻座，无法满足时与少量乘车人选座同样降级
+     *
+     * @param requestParam      选座参数
+     * @param trainCarriageList 有余票的车厢号列表
+     * @param layout            车厢座位布局
+     * @return 乘车人座位，无法满足时返回空集合
+     */
+    protected List<TrainPurchaseTicketRespDTO> selectComplexSeats(SelectSeatDTO requestParam, List<String> trainCarriageList, CarriageSeatLayoutEnum layout) {
+        List<List<PurchaseTicketPassengerDetailDTO>> splitPassengerSeatDetails = ListUtil.split(requestParam.getPassengerSeatDetails(), layout.getGroupSize());
+        Map<String, CarriageSeatMap> carriageSeatMaps = new LinkedHashMap<>();
+        for (String carriageNumber : trainCarriageList) {
+            CarriageSeatMap carriageSeatMap = loadCarriageSeatMap(requestParam, carriageNumber, layout);
+            // 在副本上逐组占座，避免影响后续降级时使用的原始座位图
+            CarriageSeatMap carriageSeatMapTranscript = carriageSeatMap.copy();
+            List<int[]> actualSelect = new ArrayList<>(requestParam.getPassengerSeatDetails().size());
+            for (List<PurchaseTicketPassengerDetailDTO> each : splitPassengerSeatDetails) {
+                int[][] select = carriageSeatMapTranscript.adjacent(each.size());
+                if (select == null) {
+                    break;
+                }
+                carriageSeatMapTranscript.occupy(select);
+                actualSelect.addAll(List.of(select));
+            }
+            if (actualSelect.size() == requestParam.getPassengerSeatDetails().size()) {
+                return buildPurchaseResult(requestParam, Map.of(carriageNumber, actualSelect.toArray(new int[0][])), layout);
+            }
+            carriageSeatMaps.put(carriageNumber, carriageSeatMap);
+        }
+        return selectDemotionSeats(requestParam, carriageSeatMaps, layout);
+    }
+
+    /**
+     * 按用户指定座位选座：在同一车厢内按指定座位的相对位置匹配，未指定座位的乘车人取该车厢其它可售座位，
+     * 没有车厢能够匹配时与邻座选座同样降级
+     *
+     * @param requestParam      选座参数
+     * @param trainCarriageList 有余票的车厢号列表
+     * @param layout            车厢座位布局
+     * @return 乘车人座位，无法满足时返回空集合
+     */
+    protected List<TrainPurchaseTicketRespDTO> findMatchSeats(SelectSeatDTO requestParam, List<String> trainCarriageList, CarriageSeatLayoutEnum layout) {
+        List<String> chooseSeatList = requestParam.getRequestParam().getChooseSeats();
+        int passengersNumber = requestParam.getPassengerSeatDetails().size();
+        Map<String, CarriageSeatMap> carriageSeatMaps = new LinkedHashMap<>();
+        for (String carriageNumber : trainCarriageList) {
+            CarriageSeatMap carriageSeatMap = loadCarriageSeatMap(requestParam, carriageNumber, layout);
+            List<Pair<Integer, Integer>> sureSeatList = calcChooseSeatLevelPairList(carriageSeatMap.toSeatLayout(), chooseSeatList, layout);
+            if (CollUtil.isNotEmpty(sureSeatList) && carriageSeatMap.availableCount() >= passengersNumber) {
+                int[][] chooseSeats = sureSeatList.stream()
+                        .limit(passengersNumber)
+                        .map(each -> new int[]{each.getKey() + 1, each.getValue() + 1})
+                        .toArray(int[][]::new);
+                CarriageSeatMap carriageSeatMapTranscript = carriageSeatMap.copy();
+                carriageSeatMapTranscript.occupy(chooseSeats);
+                List<int[]> actualSelect = new ArrayList<>(passengersNumber);
+                actualSelect.addAll(List.of(chooseSeats));
+                actualSelect.addAll(List.of(carriageSeatMapTranscript.nonAdjacent(passengersNumber - chooseSeats.length)));
+                return buildPurchaseResult(requestParam, Map.of(carriageNumber, actualSelect.toArray(new int[0][])), layout);
+            }
+            carriageSeatMaps.put(carriageNumber, carriageSeatMap);
+        }
+        return selectDemotionSeats(requestParam, carriageSeatMaps, layout);
+    }
+
+    /**
+     * 计算车厢内满足用户指定座位相对位置的座位
+     * <p>
+     * 指定座位格式为 列字母 + 排号，例如 "A1"、"F2"。以第一个指定座位为基准计算其它座位的排、列偏移，
+     * 按排从前往后寻找第一个基准列可售且所有偏移位置都可售的排。
+     * </p>
+     *
+     * @param actualSeats    二维座位表，0 表示可售
+     * @param chooseSeatList 用户指定座位
+     * @param layout         车厢座位布局
+     * @return 座位坐标 Pair{排, 列}（从 0 开始），找不到返回空集合
+     */
+    protected List<Pair<Integer, Integer>> calcChooseSeatLevelPairList(int[][] actualSeats, List<String> chooseSeatList, CarriageSeatLayoutEnum layout) {
+        List<Pair<Integer, Integer>> chooseSeatPositionList = new ArrayList<>(chooseSeatList.size());
+        for (String chooseSeat : chooseSeatList) {
+            int columnIndex = chooseSeat.length() < 2 ? -1 : layout.columnIndex(chooseSeat.charAt(0));
+            if (columnIndex < 0 || !NumberUtil.isInteger(chooseSeat.substring(1))) {
+                return Collections.emptyList();
+            }
+            chooseSeatPositionList.add(new Pair<>(Integer.parseInt(chooseSeat.substring(1)), columnIndex));
+        }
+        int firstSeatX = chooseSeatPositionList.get(0).getKey();
+        int firstSeatY = chooseSeatPositionList.get(0).getValue();
+        int minLevelX = 0;
+        for (Pair<Integer, Integer> each : chooseSeatPositionList) {
+            minLevelX = Math.min(minLevelX, each.getKey() - firstSeatX);
+        }
+        for (int i = Math.abs(minLevelX); i < layout.getRows(); i++) {
+            List<Pair<Integer, Integer>> sureSeatList = new ArrayList<>(chooseSeatPositionList.size());
+            for (Pair<Integer, Integer> each : chooseSeatPositionList) {
+                int x = i + each.getKey() - firstSeatX;
+                if (x >= layout.getRows()) {
+                    return Collections.emptyList();
+                }
+                if (actualSeats[x][each.getValue()] != 0) {
+                    break;
+                }
+                sureSeatList.add(new Pair<>(x, each.getValue()));
+            }
+            if (sureSeatList.size() == chooseSeatPositionList.size()) {
+                return sureSeatList;
+            }
+        }
+        return Collections.emptyList();
+    }
+
+    /**
+     * 邻座无法满足时的降级分配
+     * <p>
+     * 1. 同车厢不邻座：找到第一个可售座位数足够的车厢
+     * 2. 不同车厢不邻座：按车厢顺序依次取可售座位，直到分配完全部乘车人
+     * </p>
+     */
+    private List<TrainPurchaseTicketRespDTO> selectDemotionSeats(SelectSeatDTO requestParam, Map<String, CarriageSeatMap> carriageSeatMaps, CarriageSeatLayoutEnum layout) {
+        int passengersNumber = requestParam.getPassengerSeatDetails().size();
+        for (Map.Entry<String, CarriageSeatMap> entry : carriageSeatMaps.entrySet()) {
+            if (entry.getValue().availableCount() >= passengersNumber) {
+                return buildPurchaseResult(requestParam, Map.of(entry.getKey(), entry.getValue().nonAdjacent(passengersNumber)), layout);
+            }
+        }
+        Map<String, int[][]> carriagesNumberSeatsMap = new LinkedHashMap<>();
+        int undistributedPassengerSize = passengersNumber;
+        for (Map.Entry<String, CarriageSeatMap> entry : carriageSeatMaps.entrySet()) {
+            if (undistributedPassengerSize <= 0) {
+                break;
+            }
+            int[][] nonAdjacentSeats = entry.getValue().nonAdjacent(undistributedPassengerSize);
+            if (nonAdjacentSeats.length > 0) {
+                carriagesNumberSeatsMap.put(entry.getKey(), nonAdjacentSeats);
+                undistributedPassengerSize -= nonAdjacentSeats.length;
+            }
+        }
+        if (undistributedPassengerSize > 0) {
+            return new ArrayList<>();
+        }
+        return buildPurchaseResult(requestParam, carriagesNumberSeatsMap, layout);
+    }
+
+    /**
+     * 按车厢顺序将座位依次分配给乘车人
+     *
+     * @param requestParam            选座参数
+     * @param carriagesNumberSeatsMap 车厢号 -> 座位坐标 int[]{排, 列}（从 1 开始）
+     * @param layout                  车厢座位布局
+     * @return 乘车人座位
+     */
+    protected List<TrainPurchaseTicketRespDTO> buildPurchaseResult(SelectSeatDTO requestParam, Map<String, int[][]> carriagesNumberSeatsMap, CarriageSeatLayoutEnum layout) {
+        List<PurchaseTicketPassengerDetailDTO> passengerSeatDetails = requestParam.getPassengerSeatDetails();
+        List<TrainPurchaseTicketRespDTO> actualResult = new ArrayList<>(passengerSeatDetails.size());
+        int countNum = 0;
+        for (Map.Entry<String, int[][]> entry : carriagesNumberSeatsMap.entrySet()) {
+            for (int[] seat : entry.getValue()) {
+                PurchaseTicketPassengerDetailDTO currentTicketPassenger = passengerSeatDetails.get(countNum++);
+                TrainPurchaseTicketRespDTO result = new TrainPurchaseTicketRespDTO();
+                result.setSeatNumber(layout.seatNumber(seat[0] - 1, seat[1] - 1));
+                result.setSeatType(currentTicketPassenger.getSeatType());
+                result.setCarriageNumber(entry.getKey());
+                result.setPassengerId(currentTicketPassenger.getPassengerId());
+                actualResult.add(result);
+            }
+        }
+        return actualResult;
+    }
+
+    /**
+     * 选座
+     * <p>
+     * 区间余票缓存由 {@link org.openzjl.index12306.biz.ticketservice.service.handler.ticket.select.TrainSeatTypeSelector}
+     * 在座位锁定事务提交后扣减，选座失败或事务回滚时缓存保持不变。
+     * </p>
+     */
     @Override
     public List<TrainPurchaseTicketRespDTO> executeResp(SelectSeatDTO requestParam) {
         List<TrainPurchaseTicketRespDTO> actualResult = selectSeats(requestParam);
-        // 扣减车厢余票缓存，扣减站点余票缓存
-        if (CollUtil.isNotEmpty(actualResult) && !StrUtil.equals(ticketAvailabilityCacheUpdateType, "binlog")) {
-            String trainId = requestParam.getRequestParam().getTrainId();
-            String departure = requestParam.getRequestParam().getDeparture();
-            String arrival = requestParam.getRequestParam().getArrival();
-            StringRedisTemplate stringRedisTemplate = (StringRedisTemplate) distributedCache.getInstance();
-            List<RouteDTO> routeDTOList = trainStationService.listTakeoutTrainStationRoute(trainId, departure, arrival);
-            routeDTOList.forEach(each -> {
-                String keySuffix = StrUtil.join("_", trainId, each.getStartStation(), each.getEndStation());
-                stringRedisTemplate.opsForHash().increment(TRAIN_STATION_REMAINING_TICKET + keySuffix, String.valueOf(requestParam.getSeatType()), -actualResult.size());
+        // 在共享座位图中占用本次选中的座位，组内后续请求不会重复选中
+        Map<String, CarriageSeatMap> sharedCarriageSeatMaps = requestParam.getCarriageSeatMaps();
+        if (sharedCarriageSeatMaps != null) {
+            actualResult.forEach(each -> {
+                CarriageSeatMap carriageSeatMap = sharedCarriageSeatMaps.get(requestParam.getSeatType() + "_" + each.getCarriageNumber());
+                if (carriageSeatMap != null) {
+                    carriageSeatMap.occupy(each.getSeatNumber());
+                }
             });
         }
         return actualResult;
@@ -85,9 +313,6 @@ public abstract class AbstractTrainPurchaseTicketTemplate implements IPurchaseTi
 
     @Override
     public void run(String... args) throws Exception {
-        distributedCache = ApplicationContextHolder.getBean(DistributedCache.class);
-        trainStationService = ApplicationContextHolder.getBean(TrainStationService.class);
-        ConfigurableEnvironment configurableEnvironment = ApplicationContextHolder.getBean(ConfigurableEnvironment.class);
-        ticketAvailabilityCacheUpdateType = configurableEnvironment.getProperty("ticket.availability.cache-update.type", "");
+        seatService = ApplicationContextHolder.getBean(SeatService.class);
     }
 }
@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.biz.ticketservice.service.handler.ticket.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 订单已售座位实体
+ *
+ * @author zhangjlk
+ * @date 2026/10/19 下午1:40
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderSoldSeatDTO {
+
+    /**
+     * 车次 ID
+     */
+    private String trainId;
+
+    /**
+     * 出发站点
+     */
+    private String departure;
+
+    /**
+     * 到达站点
+     */
+    private String arrival;
+
+    /**
+     * 座位类型、车厢号与座位号
+     */
+    private List<TrainPurchaseTicketRespDTO> trainPurchaseTicketResults;
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.biz.ticketservice.service.handler.ticket.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.openzjl.index12306.biz.ticketservice.remote.dto.PassengerRespDTO;
+
+import java.util.Map;
+
+/**
+ * 购票上下文实体
+ * <p>
+ * 一次购票请求中与选座结果无关、可以提前批量加载的数据：乘车人明细和当前区间各座位类型的价格。
+ * </p>
+ *
+ * @author zhangjlk
+ * @date 2026/10/18 上午11:30
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PurchaseTicketContextDTO {
+
+    /**
+     * 乘车人ID -> 乘车人明细
+     */
+    private Map<String, PassengerRespDTO> passengerMap;
+
+    /**
+     * 座位类型 -> 当前区间票价
+     */
+    private Map<Integer, Integer> seatTypePriceMap;
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.biz.ticketservice.service.handler.ticket.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 座位保留实体
+ *
+ * @author zhangjlk
+ * @date 2026/10/18 下午4:50
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeatHoldDTO {
+
+    /**
+     * 订单号
+     */
+    private String orderSn;
+
+    /**
+     * 车次 ID
+     */
+    private String trainId;
+
+    /**
+     * 出发站点
+     */
+    private String departure;
+
+    /**
+     * 到达站点
+     */
+    private String arrival;
+
+    /**
+     * 到期时间戳（毫秒）
+     */
+    private Long expireTime;
+
+    /**
+     * 关闭订单或释放失败后的重试次数
+     */
+    private Integer retryCount;
+
+    /**
+     * 乘车人购票信息
+     */
+    private List<TrainPurchaseTicketRespDTO> trainPurchaseTicketResults;
+}
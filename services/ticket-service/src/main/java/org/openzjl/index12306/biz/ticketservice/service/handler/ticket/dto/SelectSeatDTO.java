@@ -5,6 +5,7 @@
 package org.openzjl.index12306.biz.ticketservice.service.handler.ticket.dto;
 
 import java.util.List;
+import java.util.Map;
 
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -12,6 +13,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.openzjl.index12306.biz.ticketservice.dto.domain.PurchaseTicketPassengerDetailDTO;
 import org.openzjl.index12306.biz.ticketservice.dto.req.PurchaseTicketReqDTO;
+import org.openzjl.index12306.biz.ticketservice.service.handler.ticket.select.CarriageSeatMap;
 
 /**
  * 选择座位实体
@@ -39,4 +41,9 @@ public class SelectSeatDTO {
      * 购票请求参数
      */
     private PurchaseTicketReqDTO requestParam;
+
+    /**
+     * 合并提交时组内共享的车厢座位图，Key 为 座位类型_车厢号，为空表示每次选座单独加载
+     */
+    private Map<String, CarriageSeatMap> carriageSeatMaps;
 }
@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.biz.ticketservice.service.handler.ticket.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 售罄广播事件
+ *
+ * @author zhangjlk
+ * @date 2026/10/18 下午4:20
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TicketSoldOutEventDTO {
+
+    /**
+     * true：售罄；false：令牌已回补，清除售罄标记
+     */
+    private Boolean soldOut;
+
+    /**
+     * 车次ID
+     */
+    private String trainId;
+
+    /**
+     * 出发站点，清除事件为空
+     */
+    private String departure;
+
+    /**
+     * 到达站点，清除事件为空
+     */
+    private String arrival;
+
+    /**
+     * 座位类型，清除事件为空时表示该车次全部座位类型
+     */
+    private List<Integer> seatTypes;
+}
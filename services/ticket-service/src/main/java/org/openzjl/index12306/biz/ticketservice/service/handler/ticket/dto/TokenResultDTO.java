@@ -32,4 +32,9 @@ public class TokenResultDTO {
      * 获取 Token 为空站点座位类型和数量
      */
     private List<String> tokenIsNullSeatTypeCounts;
+
+    /**
+     * 令牌已耗尽（余量为 0）的座位类型，用于售罄广播
+     */
+    private List<Integer> soldOutSeatTypes;
 }
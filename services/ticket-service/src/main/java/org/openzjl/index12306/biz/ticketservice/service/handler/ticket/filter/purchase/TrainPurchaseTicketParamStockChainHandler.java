@@ -1,7 +1,12 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
 package org.openzjl.index12306.biz.ticketservice.service.handler.ticket.filter.purchase;
 
 import cn.hutool.core.util.StrUtil;
 import lombok.RequiredArgsConstructor;
+import org.openzjl.index12306.biz.ticketservice.common.enums.TicketStockErrorCodeEnum;
 import org.openzjl.index12306.biz.ticketservice.dto.domain.PurchaseTicketPassengerDetailDTO;
 import org.openzjl.index12306.biz.ticketservice.dto.req.PurchaseTicketReqDTO;
 import org.openzjl.index12306.biz.ticketservice.service.cache.SeatMarginCacheLoader;
@@ -75,7 +80,7 @@ public class TrainPurchaseTicketParamStockChainHandler implements TrainPurchaseT
             if (stock >= passengerDetails.size()) {
                 return;
             }
-            throw new ClientException("列车站点已无余票");
+            throw new ClientException(TicketStockErrorCodeEnum.STATION_SOLD_OUT);
         });
     }
 
@@ -1,17 +1,12 @@
 package org.openzjl.index12306.biz.ticketservice.service.handler.ticket.filter.purchase;
 
-import cn.hutool.core.collection.CollUtil;
-import com.alibaba.fastjson2.JSON;
-import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
-import com.baomidou.mybatisplus.core.toolkit.Wrappers;
 import lombok.RequiredArgsConstructor;
 import org.checkerframework.checker.units.qual.C;
-import org.openzjl.index12306.biz.ticketservice.common.constant.Index12306Constant;
 import org.openzjl.index12306.biz.ticketservice.dao.entity.TrainDO;
-import org.openzjl.index12306.biz.ticketservice.dao.entity.TrainStationDO;
 import org.openzjl.index12306.biz.ticketservice.dao.mapper.TrainMapper;
-import org.openzjl.index12306.biz.ticketservice.dao.mapper.TrainStationMapper;
+import org.openzjl.index12306.biz.ticketservice.dto.domain.TrainRouteGraph;
 import org.openzjl.index12306.biz.ticketservice.dto.req.PurchaseTicketReqDTO;
+import org.openzjl.index12306.biz.ticketservice.service.TrainStationService;
 import org.openzjl.index12306.framework.starter.cache.DistributedCache;
 import org.openzjl.index12306.framework.starter.convention.exception.ClientException;
 import org.openzjl.index12306.framework.starter.log.toolkit.EnvironmentUtil;
@@ -24,7 +19,6 @@ import java.util.concurrent.TimeUnit;
 
 import static org.openzjl.index12306.biz.ticketservice.common.constant.Index12306Constant.ADVANCE_TICKET_DAY;
 import static org.openzjl.index12306.biz.ticketservice.common.constant.RedisKeyConstant.TRAIN_INFO;
-import static org.openzjl.index12306.biz.ticketservice.common.constant.RedisKeyConstant.TRAIN_STATION_STOPOVER_DETAIL;
 
 /**
  * 购票流程过滤器之验证参数是否有效
@@ -37,7 +31,7 @@ import static org.openzjl.index12306.biz.ticketservice.common.constant.RedisKeyC
 public class TrainPurchaseTicketParamVerifyChainHandler implements TrainPurchaseTicketChainFilter<PurchaseTicketReqDTO>{
 
     private final TrainMapper trainMapper;
-    private final TrainStationMapper trainStationMapper;
+    private final TrainStationService trainStationService;
     private final DistributedCache distributedCache;
 
     @Override
@@ -67,22 +61,10 @@ public class TrainPurchaseTicketParamVerifyChainHandler implements TrainPurchase
             }
         }
         // 车站是否存在车次中，以及车站的顺序是否正确
-        String trainStationStopoverDetailStr = distributedCache.safeGet(
-                TRAIN_STATION_STOPOVER_DETAIL + requestParam.getTrainId(),
-                String.class,
-                () -> {
-                    LambdaQueryWrapper<TrainStationDO> queryWrapper = Wrappers.lambdaQuery(TrainStationDO.class)
-                            .eq(TrainStationDO::getTrainId, requestParam.getTrainId())
-                            .select(TrainStationDO::getDeparture);
-                    List<TrainStationDO> actualTrainStationList = trainStationMapper.selectList(queryWrapper);
-                    return CollUtil.isNotEmpty(actualTrainStationList) ? JSON.toJSONString(actualTrainStationList) : null;
-                },
-                Index12306Constant.ADVANCE_TICKET_DAY,
-                TimeUnit.DAYS
-        );
-        List<TrainStationDO> trainDOList = JSON.parseArray(trainStationStopoverDetailStr, TrainStationDO.class);
+        // 经停站顺序取自本地列车路线图缓存，与后续扣减区间计算共用同一份数据
+        TrainRouteGraph trainRouteGraph = trainStationService.getTrainRouteGraph(requestParam.getTrainId());
         boolean validateStation = validateStation(
-                trainDOList.stream().map(TrainStationDO::getDeparture).toList(),
+                trainRouteGraph.getStations(),
                 requestParam.getDeparture(),
                 requestParam.getArrival()
         );
@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.biz.ticketservice.service.handler.ticket.filter.purchase;
+
+import lombok.RequiredArgsConstructor;
+import org.openzjl.index12306.biz.ticketservice.common.enums.TicketStockErrorCodeEnum;
+import org.openzjl.index12306.biz.ticketservice.dto.domain.PurchaseTicketPassengerDetailDTO;
+import org.openzjl.index12306.biz.ticketservice.dto.req.PurchaseTicketReqDTO;
+import org.openzjl.index12306.biz.ticketservice.service.handler.ticket.soldout.TicketSoldOutRegistry;
+import org.openzjl.index12306.framework.starter.convention.exception.ClientException;
+import org.springframework.stereotype.Component;
+
+/**
+ * 购票流程过滤器 - 本地售罄拦截
+ * <p>
+ * 在参数非空校验之后、任何 Redis/数据库访问之前执行，命中本地售罄集合的请求直接失败，
+ * 不再执行令牌桶 Lua 脚本和余票 Hash 查询。
+ * </p>
+ *
+ * @author zhangjlk
+ * @date 2026/10/18 下午4:20
+ */
+@Component
+@RequiredArgsConstructor
+public class TrainPurchaseTicketSoldOutChainHandler implements TrainPurchaseTicketChainFilter<PurchaseTicketReqDTO> {
+
+    private final TicketSoldOutRegistry ticketSoldOutRegistry;
+
+    @Override
+    public void handler(PurchaseTicketReqDTO requestParam) {
+        boolean soldOut = requestParam.getPassengers().stream()
+                .map(PurchaseTicketPassengerDetailDTO::getSeatType)
+                .distinct()
+                .anyMatch(each -> ticketSoldOutRegistry.isSoldOut(requestParam.getTrainId(), requestParam.getDeparture(), requestParam.getArrival(), each));
+        if (soldOut) {
+            throw new ClientException(TicketStockErrorCodeEnum.STATION_SOLD_OUT);
+        }
+    }
+
+    /**
+     * 紧跟参数非空校验执行
+     */
+    @Override
+    public int getOrder() {
+        return 5;
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.biz.ticketservice.service.handler.ticket.hold;
+
+import com.alibaba.fastjson2.JSON;
+import com.baomidou.mybatisplus.core.toolkit.Wrappers;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.openzjl.index12306.biz.ticketservice.config.SeatHoldProperties;
+import org.openzjl.index12306.biz.ticketservice.dao.entity.SeatAllocationDO;
+import org.openzjl.index12306.biz.ticketservice.dao.mapper.SeatAllocationMapper;
+import org.openzjl.index12306.biz.ticketservice.dao.mapper.TicketMapper;
+import org.openzjl.index12306.biz.ticketservice.remote.dto.TicketOrderDetailRespDTO;
+import org.openzjl.index12306.biz.ticketservice.remote.dto.TicketOrderPassengerDetailRespDTO;
+import org.openzjl.index12306.biz.ticketservice.service.SeatService;
+import org.openzjl.index12306.biz.ticketservice.service.cache.SeatMarginCacheUpdater;
+import org.openzjl.index12306.biz.ticketservice.service.handler.ticket.dto.TrainPurchaseTicketRespDTO;
+import org.openzjl.index12306.biz.ticketservice.service.handler.ticket.tokenbucket.TicketAvailabilityTokenBucket;
+import org.openzjl.index12306.framework.starter.log.threadpool.build.ThreadFactoryBuilder;
+import org.openzjl.index12306.framework.starter.log.toolkit.BeanUtil;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 座位分配记录恢复任务
+ * <p>
+ * 合并购票先在一个事务内锁定座位并写入座位分配记录，事务提交后才创建订单、登记座位保留并删除记录。
+ * 进程在两步之间宕机时，座位处于锁定状态却没有订单和保留，保留清理任务无从释放。
+ * 该任务按固定间隔认领超过分配超时仍未删除的记录：删除记录成功的实例负责在同一事务内解锁座位、删除车票记录，
+ * 之后回补区间余票缓存与令牌桶，与订单创建失败时的补偿一致。
+ * </p>
+ *
+ * @author zhangjlk
+ * @date 2026/10/21 下午4:10
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SeatAllocationRecoverer implements InitializingBean, DisposableBean {
+
+    private final SeatAllocationMapper seatAllocationMapper;
+    private final TicketMapper ticketMapper;
+    private final SeatService seatService;
+    private final SeatHoldProperties seatHoldProperties;
+    private final SeatMarginCacheUpdater seatMarginCacheUpdater;
+    private final TicketAvailabilityTokenBucket ticketAvailabilityTokenBucket;
+    private final TransactionTemplate transactionTemplate;
+
+    private ScheduledExecutorService recoverExecutor;
+
+    @Override
+    public void afterPropertiesSet() {
+        recoverExecutor = Executors.newSingleThreadScheduledExecutor(
+                ThreadFactoryBuilder.builder().prefix("seat-allocation-recoverer-").daemon(true).build()
+        );
+        long interval = seatHoldProperties.getAllocationRecoverInterval().toMillis();
+        recoverExecutor.scheduleWithFixedDelay(this::recoverQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 释放一批超时未完成的座位分配
+     *
+     * @return 本次释放的分配记录数量
+     */
+    public int recover() {
+        Date createdBefore = new Date(System.currentTimeMillis() - seatHoldProperties.getAllocationTimeout().toMillis());
+        List<SeatAllocationDO> stale = seatAllocationMapper.selectList(Wrappers.lambdaQuery(SeatAllocationDO.class)
+                .lt(SeatAllocationDO::getCreateTime, createdBefore)
+                .orderByAsc(SeatAllocationDO::getCreateTime)
+                .last("limit " + seatHoldProperties.getSweepBatchSize()));
+        int recovered = 0;
+        for (SeatAllocationDO each : stale) {
+            try {
+                if (release(each)) {
+                    recovered++;
+                }
+            } catch (Throwable ex) {
+                log.error("[座位分配] 记录ID：{} 释放超时未完成的座位分配失败，稍后重试", each.getId(), ex);
+            }
+        }
+        return recovered;
+    }
+
+    private boolean release(SeatAllocationDO seatAllocation) {
+        List<TrainPurchaseTicketRespDTO> trainPurchaseTicketResults = JSON.parseArray(seatAllocation.getSeatDetails(), TrainPurchaseTicketRespDTO.class);
+        String trainId = String.valueOf(seatAllocation.getTrainId());
+        // 删除记录作为认领，多个实例同时恢复时只有删除成功的一方释放座位
+        Boolean claimed = transactionTemplate.execute(status -> {
+            if (seatAllocationMapper.removeAllocation(seatAllocation.getId()) == 0) {
+                return false;
+            }
+            seatService.unLock(trainId, seatAllocation.getDeparture(), seatAllocation.getArrival(), trainPurchaseTicketResults);
+            ticketMapper.deleteBatchIds(JSON.parseArray(seatAllocation.getTicketIds(), Long.class));
+            return true;
+        });
+        if (!Boolean.TRUE.equals(claimed)) {
+            return false;
+        }
+        log.warn("[座位分配] 记录ID：{} 超时未创建订单，已释放座位，车次：{}", seatAllocation.getId(), trainId);
+        try {
+            seatMarginCacheUpdater.increment(trainId, seatAllocation.getDeparture(), seatAllocation.getArrival(),
+                    trainPurchaseTicketResults.stream().map(TrainPurchaseTicketRespDTO::getSeatType).toList());
+            TicketOrderDetailRespDTO ticketOrderDetail = new TicketOrderDetailRespDTO();
+            ticketOrderDetail.setTrainId(seatAllocation.getTrainId());
+            ticketOrderDetail.setDeparture(seatAllocation.getDeparture());
+            ticketOrderDetail.setArrival(seatAllocation.getArrival());
+            ticketOrderDetail.setPassengerDetails(BeanUtil.convert(trainPurchaseTicketResults, TicketOrderPassengerDetailRespDTO.class));
+            ticketAvailabilityTokenBucket.rollbackInBucket(ticketOrderDetail);
+        } catch (Throwable ex) {
+            log.error("[座位分配] 记录ID：{} 回滚列车Cache余票失败，等待余票对账修复", seatAllocation.getId(), ex);
+        }
+        return true;
+    }
+
+    private void recoverQuietly() {
+        try {
+            int recovered = recover();
+            if (recovered > 0) {
+                log.info("[座位分配] 释放超时未完成的座位分配数：{}", recovered);
+            }
+        } catch (Throwable ex) {
+            log.error("[座位分配] 恢复超时未完成的座位分配失败", ex);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (recoverExecutor != null) {
+            recoverExecutor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.biz.ticketservice.service.handler.ticket.hold;
+
+import cn.hutool.core.collection.CollUtil;
+import com.alibaba.fastjson2.JSON;
+import com.google.common.collect.Lists;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.openzjl.index12306.biz.ticketservice.config.SeatHoldProperties;
+import org.openzjl.index12306.biz.ticketservice.dto.req.PurchaseTicketReqDTO;
+import org.openzjl.index12306.biz.ticketservice.service.handler.ticket.dto.SeatHoldDTO;
+import org.openzjl.index12306.biz.ticketservice.service.handler.ticket.dto.TrainPurchaseTicketRespDTO;
+import org.openzjl.index12306.framework.starter.bases.Singleton;
+import org.openzjl.index12306.framework.starter.cache.DistributedCache;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scripting.support.ResourceScriptSource;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.openzjl.index12306.biz.ticketservice.common.constant.RedisKeyConstant.TICKET_SEAT_HOLD_DETAIL;
+import static org.openzjl.index12306.biz.ticketservice.common.constant.RedisKeyConstant.TICKET_SEAT_HOLD_EXPIRY;
+import static org.openzjl.index12306.biz.ticketservice.common.constant.RedisKeyConstant.TICKET_SEAT_HOLD_RELEASED;
+
+/**
+ * 座位保留管理器
+ * <p>
+ * 下单成功后座位进入带 TTL 的保留状态：到期时间记录在 ZSET（Score 为到期时间戳），保留明细记录在 Hash，
+ * 两者按订单号哈希分片，同一订单的 ZSET 与 Hash 位于同一分片。
+ * 座位的释放存在多条路径（保留清理任务、延迟关单消息、用户取消订单、订单 Binlog），
+ * 各路径在回滚座位和令牌前都需要先通过 {@link #markReleased(String)} 抢占已释放标记，保证同一订单只回滚一次。
+ * </p>
+ *
+ * @author zhangjlk
+ * @date 2026/10/18 下午4:50
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SeatHoldManager {
+
+    private static final String LUA_SEAT_HOLD_CLAIM_EXPIRED_PATH = "lua/seat_hold_claim_expired.lua";
+
+    private final DistributedCache distributedCache;
+    private final SeatHoldProperties seatHoldProperties;
+
+    /**
+     * 认领时的起始分片，各次认领轮流从不同分片开始，避免积压时总是优先处理前几个分片
+     */
+    private final AtomicInteger claimCursor = new AtomicInteger();
+
+    /**
+     * 登记座位保留
+     * <p>
+     * 登记失败不影响下单，座位仍可由延迟关单消息释放。
+     * </p>
+     *
+     * @param orderSn                    订单号
+     * @param requestParam               购票请求参数
+     * @param trainPurchaseTicketResults 乘车人以及座位信息
+     */
+    public void hold(String orderSn, PurchaseTicketReqDTO requestParam, List<TrainPurchaseTicketRespDTO> trainPurchaseTicketResults) {
+        if (!seatHoldProperties.getEnabled()) {
+            return;
+        }
+        SeatHoldDTO seatHold = SeatHoldDTO.builder()
+                .orderSn(orderSn)
+                .trainId(requestParam.getTrainId())
+                .departure(requestParam.getDeparture())
+                .arrival(requestParam.getArrival())
+                .expireTime(System.currentTimeMillis() + seatHoldProperties.getTtl().toMillis())
+                .trainPurchaseTicketResults(trainPurchaseTicketResults)
+                .build();
+        try {
+            save(seatHold);
+        } catch (Throwable ex) {
+            log.error("[座位保留] 订单号：{} 登记座位保留失败，由延迟关单消息兜底释放", orderSn, ex);
+        }
+    }
+
+    /**
+     * 订单已支付，移除座位保留
+     */
+    public void remove(String orderSn) {
+        if (!seatHoldProperties.getEnabled()) {
+            return;
+        }
+        StringRedisTemplate stringRedisTemplate = (StringRedisTemplate) distributedCache.getInstance();
+        int shard = shardOf(orderSn);
+        stringRedisTemplate.opsForZSet().remove(String.format(TICKET_SEAT_HOLD_EXPIRY, shard), orderSn);
+        stringRedisTemplate.opsForHash().delete(String.format(TICKET_SEAT_HOLD_DETAIL, shard), orderSn);
+    }
+
+    /**
+     * 抢占订单的已释放标记并移除座位保留
+     *
+     * @param orderSn 订单号
+     * @return true：当前调用方负责回滚座位和令牌；false：已由其他释放路径回滚
+     */
+    public boolean markReleased(String orderSn) {
+        if (!seatHoldProperties.getEnabled()) {
+            return true;
+        }
+        StringRedisTemplate stringRedisTemplate = (StringRedisTemplate) distributedCache.getInstance();
+        Boolean marked = stringRedisTemplate.opsForValue()
+                .setIfAbsent(String.format(TICKET_SEAT_HOLD_RELEASED, orderSn), "1", seatHoldProperties.getReleasedMarkerTtl());
+        if (!Boolean.TRUE.equals(marked)) {
+            return false;
+        }
+        remove(orderSn);
+        return true;
+    }
+
+    /**
+     * 回滚失败时撤销已释放标记，让后续路径重新尝试释放
+     */
+    public void unmarkReleased(String orderSn) {
+        StringRedisTemplate stringRedisTemplate = (StringRedisTemplate) distributedCache.getInstance();
+        stringRedisTemplate.delete(String.format(TICKET_SEAT_HOLD_RELEASED, orderSn));
+    }
+
+    /**
+     * 认领一批已到期的座位保留，认领后的保留不会再被其他实例取到
+     * <p>
+     * 从轮转的起始分片开始逐个分片认领，直到凑满本批次数量或遍历完所有分片。
+     * </p>
+     *
+     * @param limit 本批次最多认领数量
+     * @return 认领到的座位保留
+     */
+    public List<SeatHoldDTO> claimExpired(int limit) {
+        int shardCount = seatHoldProperties.getShardCount();
+        int startShard = Math.floorMod(claimCursor.getAndIncrement(), shardCount);
+        List<SeatHoldDTO> claimed = new ArrayList<>();
+        for (int i = 0; i < shardCount && claimed.size() < limit; i++) {
+            claimed.addAll(claimExpired((startShard + i) % shardCount, limit - claimed.size()));
+        }
+        return claimed;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<SeatHoldDTO> claimExpired(int shard, int limit) {
+        DefaultRedisScript<List> actual = Singleton.get(LUA_SEAT_HOLD_CLAIM_EXPIRED_PATH, () -> {
+            DefaultRedisScript<List> redisScript = new DefaultRedisScript<>();
+            redisScript.setScriptSource(new ResourceScriptSource(new ClassPathResource(LUA_SEAT_HOLD_CLAIM_EXPIRED_PATH)));
+            redisScript.setResultType(List.class);
+            return redisScript;
+        });
+        StringRedisTemplate stringRedisTemplate = (StringRedisTemplate) distributedCache.getInstance();
+        List<String> claimed = stringRedisTemplate.execute(
+                actual,
+                Lists.newArrayList(String.format(TICKET_SEAT_HOLD_EXPIRY, shard), String.format(TICKET_SEAT_HOLD_DETAIL, shard)),
+                String.valueOf(System.currentTimeMillis()),
+                String.valueOf(limit)
+        );
+        if (CollUtil.isEmpty(claimed)) {
+            return List.of();
+        }
+        return claimed.stream().map(each -> JSON.parseObject(each, SeatHoldDTO.class)).toList();
+    }
+
+    /**
+     * 关闭订单或回滚失败后，延迟重新放回保留队列
+     *
+     * @return false：超过最大重试次数，不再放回
+     */
+    public boolean requeue(SeatHoldDTO seatHold) {
+        int retryCount = seatHold.getRetryCount() == null ? 0 : seatHold.getRetryCount();
+        if (retryCount >= seatHoldProperties.getMaxRetries()) {
+            log.error("[座位保留] 订单号：{} 超过最大重试次数，放弃释放，由延迟关单消息兜底", seatHold.getOrderSn());
+            return false;
+        }
+        seatHold.setRetryCount(retryCount + 1);
+        seatHold.setExpireTime(System.currentTimeMillis() + seatHoldProperties.getRetryDelay().toMillis());
+        save(seatHold);
+        return true;
+    }
+
+    private void save(SeatHoldDTO seatHold) {
+        StringRedisTemplate stringRedisTemplate = (StringRedisTemplate) distributedCache.getInstance();
+        int shard = shardOf(seatHold.getOrderSn());
+        // 先写明细再写到期时间，清理任务从 ZSET 认领时明细一定存在
+        stringRedisTemplate.opsForHash().put(String.format(TICKET_SEAT_HOLD_DETAIL, shard), seatHold.getOrderSn(), JSON.toJSONString(seatHold));
+        stringRedisTemplate.opsForZSet().add(String.format(TICKET_SEAT_HOLD_EXPIRY, shard), seatHold.getOrderSn(), seatHold.getExpireTime());
+    }
+
+    private int shardOf(String orderSn) {
+        return Math.floorMod(orderSn.hashCode(), seatHoldProperties.getShardCount());
+    }
+}
@@ -0,0 +1,230 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.biz.ticketservice.service.handler.ticket.hold;
+
+import cn.hutool.core.collection.CollUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.openzjl.index12306.biz.ticketservice.common.enums.OrderItemStatusEnum;
+import org.openzjl.index12306.biz.ticketservice.config.SeatHoldProperties;
+import org.openzjl.index12306.biz.ticketservice.dto.req.CancelTicketOrderReqDTO;
+import org.openzjl.index12306.biz.ticketservice.remote.TicketOrderRemoteService;
+import org.openzjl.index12306.biz.ticketservice.remote.dto.TicketOrderDetailRespDTO;
+import org.openzjl.index12306.biz.ticketservice.remote.dto.TicketOrderPassengerDetailRespDTO;
+import org.openzjl.index12306.biz.ticketservice.service.SeatService;
+import org.openzjl.index12306.biz.ticketservice.service.cache.SeatMarginCacheUpdater;
+import org.openzjl.index12306.biz.ticketservice.service.handler.ticket.dto.SeatHoldDTO;
+import org.openzjl.index12306.biz.ticketservice.service.handler.ticket.dto.TrainPurchaseTicketRespDTO;
+import org.openzjl.index12306.biz.ticketservice.service.handler.ticket.tokenbucket.TicketAvailabilityTokenBucket;
+import org.openzjl.index12306.framework.starter.convention.result.Result;
+import org.openzjl.index12306.framework.starter.log.threadpool.build.ThreadFactoryBuilder;
+import org.openzjl.index12306.framework.starter.log.toolkit.BeanUtil;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 座位保留清理任务
+ * <p>
+ * 每个实例按固定间隔从保留 ZSET 中原子认领一批到期保留，释放时机不再受 RocketMQ 延迟级别和消费者健康状况影响：
+ * <ol>
+ *   <li>逐个关闭订单；关闭失败时以订单明细状态为准：已关闭则继续释放，已支付（含支付后的进站、退票、改签）则放弃，
+ *   待支付或状态无法识别则稍后重试</li>
+ *   <li>已关闭的订单抢占已释放标记后，整批座位在一个事务内恢复为可用</li>
+ *   <li>座位恢复后逐单回补区间余票缓存与令牌桶</li>
+ * </ol>
+ * 座位在数据库、令牌在 Redis，无法放在同一个事务里：座位回滚失败时撤销释放标记并重新入队；
+ * 座位已恢复但令牌回补失败时只记录日志，由余票对账任务修复。
+ * </p>
+ *
+ * @author zhangjlk
+ * @date 2026/10/18 下午5:10
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SeatHoldSweeper implements InitializingBean, DisposableBean {
+
+    /**
+     * 订单明细状态：已支付以及支付后才能进入的已进站、已退票、已改签
+     */
+    private static final Set<Integer> PAID_ORDER_ITEM_STATUSES = Set.of(
+            OrderItemStatusEnum.ALREADY_PAID.getStatus(),
+            OrderItemStatusEnum.ALREADY_PULL_IN.getStatus(),
+            OrderItemStatusEnum.REFUNDED.getStatus(),
+            OrderItemStatusEnum.RESCHEDULED.getStatus()
+    );
+
+    private final SeatHoldManager seatHoldManager;
+    private final SeatHoldProperties seatHoldProperties;
+    private final SeatService seatService;
+    private final TicketOrderRemoteService ticketOrderRemoteService;
+    private final TicketAvailabilityTokenBucket ticketAvailabilityTokenBucket;
+    private final SeatMarginCacheUpdater seatMarginCacheUpdater;
+    private final TransactionTemplate transactionTemplate;
+
+    private ScheduledExecutorService sweepExecutor;
+
+    @Override
+    public void afterPropertiesSet() {
+        if (!seatHoldProperties.getEnabled()) {
+            return;
+        }
+        sweepExecutor = Executors.newSingleThreadScheduledExecutor(
+                ThreadFactoryBuilder.builder().prefix("seat-hold-sweeper-").daemon(true).build()
+        );
+        long interval = seatHoldProperties.getSweepInterval().toMillis();
+        sweepExecutor.scheduleWithFixedDelay(this::sweepQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 清理到期的座位保留
+     *
+     * @return 本次释放的订单数量
+     */
+    public int sweep() {
+        int batchSize = seatHoldProperties.getSweepBatchSize();
+        int released = 0;
+        for (int i = 0; i < seatHoldProperties.getSweepMaxBatches(); i++) {
+            List<SeatHoldDTO> claimed = seatHoldManager.claimExpired(batchSize);
+            if (claimed.isEmpty()) {
+                break;
+            }
+            List<SeatHoldDTO> closed = new ArrayList<>();
+            for (SeatHoldDTO each : claimed) {
+                switch (closeOrder(each)) {
+                    case CLOSED -> closed.add(each);
+                    case PENDING -> seatHoldManager.requeue(each);
+                    default -> log.info("[座位保留] 订单号：{} 用户已支付订单", each.getOrderSn());
+                }
+            }
+            released += release(closed);
+            if (claimed.size() < batchSize) {
+                break;
+            }
+        }
+        return released;
+    }
+
+    private void sweepQuietly() {
+        try {
+            int released = sweep();
+            if (released > 0) {
+                log.info("[座位保留] 释放到期座位保留订单数：{}", released);
+            }
+        } catch (Throwable ex) {
+            log.error("[座位保留] 清理到期座位保留失败", ex);
+        }
+    }
+
+    private OrderCloseResult closeOrder(SeatHoldDTO seatHold) {
+        String orderSn = seatHold.getOrderSn();
+        try {
+            Result<Boolean> closeResult = ticketOrderRemoteService.closeTickOrder(new CancelTicketOrderReqDTO(orderSn));
+            if (closeResult.isSuccess() && Boolean.TRUE.equals(closeResult.getData())) {
+                return OrderCloseResult.CLOSED;
+            }
+        } catch (Throwable ex) {
+            log.warn("[座位保留] 订单号：{} 远程调用订单服务关闭订单失败", orderSn, ex);
+        }
+        // 关闭失败可能是订单已支付、已被用户取消或延迟关单关闭，也可能是远程调用异常，以订单明细状态为准
+        try {
+            Result<TicketOrderDetailRespDTO> orderDetailResult = ticketOrderRemoteService.queryTicketOrderByOrderSn(orderSn);
+            TicketOrderDetailRespDTO orderDetail = orderDetailResult.getData();
+            if (!orderDetailResult.isSuccess() || orderDetail == null || CollUtil.isEmpty(orderDetail.getPassengerDetails())) {
+                return OrderCloseResult.PENDING;
+            }
+            List<Integer> statusList = orderDetail.getPassengerDetails().stream()
+                    .map(TicketOrderPassengerDetailRespDTO::getStatus)
+                    .toList();
+            if (statusList.stream().allMatch(each -> Objects.equals(each, OrderItemStatusEnum.CLOSED.getStatus()))) {
+                return OrderCloseResult.CLOSED;
+            }
+            if (statusList.stream().allMatch(PAID_ORDER_ITEM_STATUSES::contains)) {
+                return OrderCloseResult.PAID;
+            }
+            // 待支付、状态缺失或无法识别时都不能当作已支付放弃，稍后重试
+            return OrderCloseResult.PENDING;
+        } catch (Throwable ex) {
+            log.warn("[座位保留] 订单号：{} 远程调用订单服务查询订单失败", orderSn, ex);
+            return OrderCloseResult.PENDING;
+        }
+    }
+
+    private int release(List<SeatHoldDTO> closed) {
+        // 延迟关单、取消订单、Binlog 可能已经回滚过同一订单
+        List<SeatHoldDTO> releasing = closed.stream()
+                .filter(each -> seatHoldManager.markReleased(each.getOrderSn()))
+                .toList();
+        if (releasing.isEmpty()) {
+            return 0;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> releasing.forEach(each ->
+                    seatService.unLock(each.getTrainId(), each.getDeparture(), each.getArrival(), each.getTrainPurchaseTicketResults())
+            ));
+        } catch (Throwable ex) {
+            log.error("[座位保留] 批量回滚列车DB座位状态失败，订单数：{}", releasing.size(), ex);
+            releasing.forEach(each -> {
+                seatHoldManager.unmarkReleased(each.getOrderSn());
+                seatHoldManager.requeue(each);
+            });
+            return 0;
+        }
+        for (SeatHoldDTO each : releasing) {
+            try {
+                rollbackCache(each);
+            } catch (Throwable ex) {
+                log.error("[座位保留] 订单号：{} 回滚列车Cache余票失败，等待余票对账修复", each.getOrderSn(), ex);
+            }
+        }
+        return releasing.size();
+    }
+
+    private void rollbackCache(SeatHoldDTO seatHold) {
+        String trainId = seatHold.getTrainId();
+        List<TrainPurchaseTicketRespDTO> trainPurchaseTicketResults = seatHold.getTrainPurchaseTicketResults();
+        seatMarginCacheUpdater.increment(trainId, seatHold.getDeparture(), seatHold.getArrival(),
+                trainPurchaseTicketResults.stream().map(TrainPurchaseTicketRespDTO::getSeatType).toList());
+        TicketOrderDetailRespDTO ticketOrderDetail = BeanUtil.convert(seatHold, TicketOrderDetailRespDTO.class);
+        ticketOrderDetail.setTrainId(Long.parseLong(trainId));
+        ticketOrderDetail.setPassengerDetails(BeanUtil.convert(trainPurchaseTicketResults, TicketOrderPassengerDetailRespDTO.class));
+        ticketAvailabilityTokenBucket.rollbackInBucket(ticketOrderDetail);
+    }
+
+    @Override
+    public void destroy() {
+        if (sweepExecutor != null) {
+            sweepExecutor.shutdown();
+        }
+    }
+
+    private enum OrderCloseResult {
+
+        /**
+         * 订单已关闭，需要释放座位
+         */
+        CLOSED,
+
+        /**
+         * 订单仍待支付或状态未知，稍后重试
+         */
+        PENDING,
+
+        /**
+         * 订单已支付，无需释放
+         */
+        PAID
+    }
+}
@@ -0,0 +1,537 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.biz.ticketservice.service.handler.ticket.partition;
+
+import cn.hutool.core.util.StrUtil;
+import com.alibaba.fastjson2.JSON;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.toolkit.Wrappers;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.openzjl.index12306.biz.ticketservice.common.enums.SourceEnum;
+import org.openzjl.index12306.biz.ticketservice.common.enums.TicketStatusEnum;
+import org.openzjl.index12306.biz.ticketservice.common.enums.WaitlistStatusEnum;
+import org.openzjl.index12306.biz.ticketservice.dao.entity.SeatAllocationDO;
+import org.openzjl.index12306.biz.ticketservice.dao.entity.TicketDO;
+import org.openzjl.index12306.biz.ticketservice.dao.entity.TrainDO;
+import org.openzjl.index12306.biz.ticketservice.dao.entity.TrainStationRelationDO;
+import org.openzjl.index12306.biz.ticketservice.dao.entity.WaitlistOrderDO;
+import org.openzjl.index12306.biz.ticketservice.dao.mapper.SeatAllocationMapper;
+import org.openzjl.index12306.biz.ticketservice.dao.mapper.TrainMapper;
+import org.openzjl.index12306.biz.ticketservice.dao.mapper.TrainStationRelationMapper;
+import org.openzjl.index12306.biz.ticketservice.dao.mapper.WaitlistOrderMapper;
+import org.openzjl.index12306.biz.ticketservice.dto.domain.PurchaseTicketPassengerDetailDTO;
+import org.openzjl.index12306.biz.ticketservice.dto.req.PurchaseTicketReqDTO;
+import org.openzjl.index12306.biz.ticketservice.dto.resp.TicketOrderDetailRespDTO;
+import org.openzjl.index12306.biz.ticketservice.dto.resp.TicketPurchaseRespDTO;
+import org.openzjl.index12306.biz.ticketservice.remote.TicketOrderRemoteService;
+import org.openzjl.index12306.biz.ticketservice.remote.dto.TicketOrderCreateRemoteReqDTO;
+import org.openzjl.index12306.biz.ticketservice.remote.dto.TicketOrderItemCreateRemoteReqDTO;
+import org.openzjl.index12306.biz.ticketservice.service.SeatService;
+import org.openzjl.index12306.biz.ticketservice.service.TicketService;
+import org.openzjl.index12306.biz.ticketservice.service.cache.SeatMarginCacheUpdater;
+import org.openzjl.index12306.biz.ticketservice.service.handler.ticket.dto.TrainPurchaseTicketRespDTO;
+import org.openzjl.index12306.biz.ticketservice.service.handler.ticket.hold.SeatHoldManager;
+import org.openzjl.index12306.biz.ticketservice.service.handler.ticket.projection.OrderSoldSeatProjection;
+import org.openzjl.index12306.biz.ticketservice.service.handler.ticket.select.CarriageSeatMap;
+import org.openzjl.index12306.biz.ticketservice.service.handler.ticket.select.TrainSeatTypeSelector;
+import org.openzjl.index12306.biz.ticketservice.service.handler.ticket.tokenbucket.TicketAvailabilityTokenBucket;
+import org.openzjl.index12306.framework.starter.bases.ApplicationContextHolder;
+import org.openzjl.index12306.framework.starter.cache.DistributedCache;
+import org.openzjl.index12306.framework.starter.convention.exception.ServiceException;
+import org.openzjl.index12306.framework.starter.convention.result.Result;
+import org.openzjl.index12306.framework.starter.user.core.UserContext;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.openzjl.index12306.biz.ticketservice.common.constant.Index12306Constant.ADVANCE_TICKET_DAY;
+import static org.openzjl.index12306.biz.ticketservice.common.constant.RedisKeyConstant.TRAIN_INFO;
+
+/**
+ * 购票合并提交器
+ * <p>
+ * 同一车次同一区间的并发购票请求由分区线程合并后交给该组件：
+ * <ol>
+ *   <li>一个事务内：按排队顺序逐个请求选座，组内共享同一份车厢座位图，再一次锁定座位、一次批量写入车票记录，
+ *   并为每个请求写入座位分配记录</li>
+ *   <li>事务提交后：扣减区间余票缓存，以各请求自身的用户上下文分别创建订单、登记座位保留并删除座位分配记录，结果逐个回写给等待中的请求</li>
+ * </ol>
+ * 进程在座位锁定与订单创建之间宕机时，残留的座位分配记录由 {@link org.openzjl.index12306.biz.ticketservice.service.handler.ticket.hold.SeatAllocationRecoverer} 释放。
+ * 失败隔离：
+ * <ul>
+ *   <li>已超过截止时间的请求不再选座，也不再创建订单，归还令牌</li>
+ *   <li>某个请求余票不足时只有该请求失败并归还令牌；合并事务整体失败时退化为逐个请求独立执行</li>
+ *   <li>某个请求创建订单失败时，只释放该请求的座位、删除其车票记录并回滚余票缓存与令牌，不影响同批其他请求</li>
+ * </ul>
+ * 令牌归属：创建订单前通过 {@link PurchaseTicketGroupRequest#settleToken()} 抢占，抢占失败说明调用方已超时并归还令牌。
+ * </p>
+ *
+ * @author zhangjlk
+ * @date 2026/10/18 下午3:20
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PurchaseTicketGroupCommitter implements CommandLineRunner {
+
+    private static final String PURCHASE_TIMEOUT_MESSAGE = "购票排队超时，请稍后再试";
+
+    private final TrainMapper trainMapper;
+    private final TrainStationRelationMapper trainStationRelationMapper;
+    private final DistributedCache distributedCache;
+    private final TrainSeatTypeSelector trainSeatTypeSelector;
+    private final TicketOrderRemoteService ticketOrderRemoteService;
+    private final SeatService seatService;
+    private final TransactionTemplate transactionTemplate;
+    private final SeatHoldManager seatHoldManager;
+    private final OrderSoldSeatProjection orderSoldSeatProjection;
+    private final WaitlistOrderMapper waitlistOrderMapper;
+    private final TicketAvailabilityTokenBucket ticketAvailabilityTokenBucket;
+    private final SeatMarginCacheUpdater seatMarginCacheUpdater;
+    private final SeatAllocationMapper seatAllocationMapper;
+
+    private TicketService ticketService;
+
+    /**
+     * 合并提交一组购票请求，每个请求都会被完成或以异常结束
+     *
+     * @param group 同车次同区间的购票请求，只有一个请求时走原有的单请求流程
+     */
+    public void commit(List<PurchaseTicketGroupRequest> group) {
+        if (group.size() == 1) {
+            executeSingle(group.get(0));
+            return;
+        }
+        // 已超过截止时间的请求调用方已返回排队超时，不再为其选座；与前序请求乘车人重复的请求在合并提交后单独执行
+        List<PurchaseTicketGroupRequest> pending = new ArrayList<>(group.size());
+        List<PurchaseTicketGroupRequest> deferred = new ArrayList<>();
+        Set<String> passengerIds = new HashSet<>();
+        for (PurchaseTicketGroupRequest each : group) {
+            if (isExpired(each)) {
+                failAndRollbackToken(each, new ServiceException(PURCHASE_TIMEOUT_MESSAGE));
+                continue;
+            }
+            List<String> requestPassengerIds = each.getRequestParam().getPassengers().stream()
+                    .map(PurchaseTicketPassengerDetailDTO::getPassengerId)
+                    .toList();
+            if (requestPassengerIds.stream().anyMatch(passengerIds::contains)) {
+                deferred.add(each);
+                continue;
+            }
+            passengerIds.addAll(requestPassengerIds);
+            pending.add(each);
+        }
+        if (!pending.isEmpty()) {
+            commitPending(pending);
+        }
+        deferred.forEach(this::executeSingle);
+    }
+
+    private void commitPending(List<PurchaseTicketGroupRequest> pending) {
+        GroupAllocation groupAllocation;
+        try {
+            // 合并事务以组内最晚的截止时间为准，各请求选座时仍按各自的截止时间执行
+            long deadline = pending.stream().mapToLong(PurchaseTicketGroupRequest::getDeadline).max().getAsLong();
+            groupAllocation = UserContext.callWithDeadline(deadline, () -> transactionTemplate.execute(status -> allocate(pending)));
+        } catch (Throwable ex) {
+            // 区间余票缓存只在事务提交后扣减，事务回滚后逐个重试不会重复扣减
+            log.warn("合并提交失败，退化为逐个购票，车次：{}，请求数：{}，原因：{}",
+                    pending.get(0).getRequestParam().getTrainId(), pending.size(), ex.getMessage());
+            pending.forEach(this::executeSingle);
+            return;
+        }
+        for (int i = 0; i < pending.size(); i++) {
+            PurchaseTicketGroupRequest each = pending.get(i);
+            Throwable failure = groupAllocation.failures.get(i);
+            if (failure != null) {
+                failAndRollbackToken(each, failure);
+                continue;
+            }
+            List<TrainPurchaseTicketRespDTO> ticketResults = groupAllocation.ticketResults.get(i);
+            List<TicketDO> tickets = groupAllocation.tickets.get(i);
+            Long allocationId = groupAllocation.allocationIds.get(i);
+            if (isExpired(each)) {
+                // 调用方已返回排队超时，不再创建订单，释放已锁定的座位，令牌由先抢占到归属的一方归还
+                compensate(each.getRequestParam(), ticketResults, tickets, allocationId, each.settleToken());
+                each.fail(new ServiceException(PURCHASE_TIMEOUT_MESSAGE));
+                continue;
+            }
+            if (!each.settleToken()) {
+                // 调用方已抢占令牌归属并归还令牌，不再创建订单，只释放已锁定的座位
+                compensate(each.getRequestParam(), ticketResults, tickets, allocationId, false);
+                each.fail(new ServiceException(PURCHASE_TIMEOUT_MESSAGE));
+                continue;
+            }
+            TicketPurchaseRespDTO purchaseResult;
+            try {
+                purchaseResult = each.callWithContext(() -> createTicketOrder(each.getRequestParam(), groupAllocation.trainDO, ticketResults));
+            } catch (Throwable ex) {
+                compensate(each.getRequestParam(), ticketResults, tickets, allocationId, true);
+                each.fail(ex);
+                continue;
+            }
+            // 订单已创建、座位保留已登记，座位改由保留清理任务与关单路径释放
+            removeAllocation(allocationId);
+            each.complete(purchaseResult);
+        }
+    }
+
+    /**
+     * 创建订单并构建购票响应
+     * <p>
+     * 单请求购票流程在事务内调用，失败时由事务回滚，座位保留与已售座位投影在事务提交后登记；
+     * 合并提交流程在座位锁定事务提交后调用，失败时由调用方补偿。
+     * </p>
+     *
+     * @param requestParam         购票请求参数
+     * @param trainDO              车次信息
+     * @param trainPurchaseTicketResults 选座结果
+     * @return 购票响应
+     * @throws ServiceException 订单服务调用失败时抛出
+     */
+    public TicketPurchaseRespDTO createTicketOrder(PurchaseTicketReqDTO requestParam, TrainDO trainDO, List<TrainPurchaseTicketRespDTO> trainPurchaseTicketResults) {
+        // 初始化车票详情结果列表，用于返回给前端展示
+        List<TicketOrderDetailRespDTO> ticketOrderDetailResults = new ArrayList<>();
+
+        // 订单服务调用结果
+        Result<String> ticketOrderResult;
+
+        try {
+            // 构建订单项列表（用于调用订单服务）
+            // 每个订单项对应一张车票，包含价格、座位、乘客信息等
+            List<TicketOrderItemCreateRemoteReqDTO> orderItemCreateRemoteReqDTOList = new ArrayList<>();
+
+            // 遍历座位分配结果，为每个乘客构建订单项和车票详情
+            trainPurchaseTicketResults.forEach(each -> {
+                // 构建订单项
+                // 包含订单服务需要的所有信息：价格、座位、乘客证件、联系方式等
+                TicketOrderItemCreateRemoteReqDTO orderItemCreateRemoteReqDTO = TicketOrderItemCreateRemoteReqDTO.builder()
+                        .amount(each.getAmount())                    // 车票金额（分）
+                        .carriageNumber(each.getCarriageNumber())    // 车厢号
+                        .seatNumber(each.getSeatNumber())            // 座位号
+                        .passengerId(each.getPassengerId())          // 乘车人ID
+                        .idCard(each.getIdCard())                    // 身份证号
+                        .idType(each.getIdType())                    // 证件类型
+                        .phone(each.getPhone())                      // 手机号
+                        .seatType(each.getSeatType())                // 座位类型（商务座、一等座等）
+                        .ticketType(each.getUserType())              // 票种（成人票、儿童票等）
+                        .realName(each.getRealName())                // 真实姓名
+                        .build();
+
+                // 构建车票详情
+                // 包含前端展示需要的车票信息
+                TicketOrderDetailRespDTO ticketOrderDetailRespDTO = TicketOrderDetailRespDTO.builder()
+                        .amount(each.getAmount())                    // 车票金额
+                        .carriageNumber(each.getCarriageNumber())    // 车厢号
+                        .seatNumber(each.getSeatNumber())            // 座位号
+                        .idCard(each.getIdCard())                     // 身份证号
+                        .idType(each.getIdType())                     // 证件类型
+                        .seatType(each.getSeatType())                // 座位类型
+                        .ticketType(each.getUserType())              // 票种
+                        .realName(each.getRealName())                // 真实姓名
+                        .build();
+
+                // 添加到列表
+                orderItemCreateRemoteReqDTOList.add(orderItemCreateRemoteReqDTO);
+                ticketOrderDetailResults.add(ticketOrderDetailRespDTO);
+            });
+
+            // 查询列车站点关系信息（获取出发时间和到达时间）
+            // 根据车次ID、出发站、到达站查询站点关系，获取该路段的运行时间信息
+            LambdaQueryWrapper<TrainStationRelationDO> queryWrapper = Wrappers.lambdaQuery(TrainStationRelationDO.class)
+                    .eq(TrainStationRelationDO::getTrainId, requestParam.getTrainId())                    // 车次ID
+                    .eq(TrainStationRelationDO::getDeparture, requestParam.getDeparture())                // 出发站编码
+                    .eq(TrainStationRelationDO::getArrival, requestParam.getArrival());                  // 到达站编码
+            TrainStationRelationDO trainStationRelationDO = trainStationRelationMapper.selectOne(queryWrapper);
+
+            // 构建订单创建请求DTO（用于远程调用订单服务）
+            // 包含订单的所有信息：出发站、到达站、车次、时间、乘客信息等
+            if (StrUtil.isBlank(UserContext.getUserId()) || StrUtil.isBlank(UserContext.getUserName())) {
+                throw new ServiceException("用户未登录或登录已过期");
+            }
+            TicketOrderCreateRemoteReqDTO orderCreateRemoteReqDTO = TicketOrderCreateRemoteReqDTO.builder()
+                    .departure(requestParam.getDeparture())                                          // 出发站编码
+                    .arrival(requestParam.getArrival())                                              // 到达站编码
+                    .orderTime(new Date())                                                           // 下单时间
+                    .source(SourceEnum.INTERNET.getCode())                                           // 订单来源：互联网
+                    .trainNumber(trainDO.getTrainNumber())                                           // 车次号（如：G123）
+                    .departureTime(trainStationRelationDO.getDepartureTime())                        // 出发时间
+                    .arrivalTime(trainStationRelationDO.getArrivalTime())                            // 到达时间
+                    .ridingDate(trainStationRelationDO.getDepartureTime())                            // 乘车日期（使用出发时间）
+                    .userId(String.valueOf(Long.valueOf(UserContext.getUserId())))                                   // 用户ID
+                    .username(UserContext.getUserName())                                             // 用户名
+                    .trainId(Long.parseLong(requestParam.getTrainId()))                              // 车次ID
+                    .ticketOrderItems(orderItemCreateRemoteReqDTOList)                                // 订单项列表
+                    .build();
+
+            // 调用订单服务创建订单
+            // 订单服务会生成订单号并返回，如果创建失败会返回错误信息
+            ticketOrderResult = ticketOrderRemoteService.createTicketOrder(orderCreateRemoteReqDTO);
+
+            // 校验订单服务调用结果
+            // 如果调用失败或订单号为空，抛出异常
+            if (!ticketOrderResult.isSuccess() || StrUtil.isBlank(ticketOrderResult.getData())) {
+                log.error("订单服务调用失败，返回结果: {}", ticketOrderResult.getMessage());
+                throw new ServiceException("订单服务调用失败");
+            }
+        } catch (Throwable ex) {
+            // 捕获所有异常（包括订单服务调用异常）
+            // 记录错误日志，然后重新抛出异常，由事务回滚或调用方补偿
+            log.error("远程调用订单服务创建错误，请求参数: {}", JSON.toJSONString(requestParam), ex);
+            throw ex;
+        }
+
+        // 候补兑现时立即在候补上登记订单号，兑现中超时恢复时据此判断订单是否已创建
+        recordWaitlistOrderSn(requestParam, ticketOrderResult.getData());
+
+        // 座位保留与已售座位投影写在 Redis 中，单请求购票在事务提交后登记，事务回滚时不会留下指向已回滚座位的记录
+        String orderSn = ticketOrderResult.getData();
+        Runnable registerSoldSeats = () -> {
+            // 登记带 TTL 的座位保留，超时未支付由保留清理任务关闭订单并释放座位
+            seatHoldManager.hold(orderSn, requestParam, trainPurchaseTicketResults);
+            // 登记已售座位投影，订单关闭 Binlog 据此释放座位
+            orderSoldSeatProjection.save(orderSn, requestParam, trainPurchaseTicketResults);
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    registerSoldSeats.run();
+                }
+            });
+        } else {
+            registerSoldSeats.run();
+        }
+
+        // 构建并返回购票响应对象
+        // 包含订单号（由订单服务生成）和车票详情列表（用于前端展示）
+        return new TicketPurchaseRespDTO(ticketOrderResult.getData(), ticketOrderDetailResults);
+    }
+
+    /**
+     * 在兑现中的候补上登记订单号，只更新当前用户处于兑现中的候补
+     */
+    private void recordWaitlistOrderSn(PurchaseTicketReqDTO requestParam, String orderSn) {
+        if (requestParam.getWaitlistId() == null) {
+            return;
+        }
+        WaitlistOrderDO updateWaitlistOrderDO = new WaitlistOrderDO();
+        updateWaitlistOrderDO.setOrderSn(orderSn);
+        waitlistOrderMapper.update(updateWaitlistOrderDO, Wrappers.lambdaUpdate(WaitlistOrderDO.class)
+                .eq(WaitlistOrderDO::getId, requestParam.getWaitlistId())
+                .eq(WaitlistOrderDO::getUsername, UserContext.getUserName())
+                .eq(WaitlistOrderDO::getStatus, WaitlistStatusEnum.MATCHING.getCode()));
+    }
+
+    /**
+     * 单个请求独立执行：选座、写入车票记录与创建订单在同一事务内，失败时事务回滚，令牌由工作线程归还
+     */
+    private void executeSingle(PurchaseTicketGroupRequest request) {
+        if (isExpired(request)) {
+            failAndRollbackToken(request, new ServiceException(PURCHASE_TIMEOUT_MESSAGE));
+            return;
+        }
+        if (!request.settleToken()) {
+            // 调用方已抢占令牌归属并归还令牌
+            request.fail(new ServiceException(PURCHASE_TIMEOUT_MESSAGE));
+            return;
+        }
+        try {
+            request.complete(request.callWithContext(() -> ticketService.executePurchaseTickets(request.getRequestParam())));
+        } catch (Throwable ex) {
+            rollbackToken(request.getRequestParam());
+            request.fail(ex);
+        }
+    }
+
+    /**
+     * 未锁定座位的请求以失败结束，抢占到令牌归属时归还令牌，抢占失败说明调用方已归还
+     */
+    private void failAndRollbackToken(PurchaseTicketGroupRequest request, Throwable ex) {
+        if (request.settleToken()) {
+            rollbackToken(request.getRequestParam());
+        }
+        request.fail(ex);
+    }
+
+    private void rollbackToken(PurchaseTicketReqDTO requestParam) {
+        try {
+            // 购票已失败，归还令牌不受请求截止时间限制，调用方排队超时后同样需要归还
+            UserContext.runWithoutDeadline(() -> ticketAvailabilityTokenBucket.rollbackInBucket(requestParam));
+        } catch (Throwable ex) {
+            log.error("购票失败后归还令牌失败，等待余票对账修复，请求参数：{}", JSON.toJSONString(requestParam), ex);
+        }
+    }
+
+    /**
+     * 在事务内按排队顺序逐个选座，一次锁定座位并批量写入车票记录
+     * <p>
+     * 组内请求共享同一份车厢座位图，每个请求按自身乘车人独立选座，邻座保证与单独购票时一致；
+     * 某个请求余票不足时只记录该请求的失败，不影响组内其他请求。
+     * </p>
+     */
+    private GroupAllocation allocate(List<PurchaseTicketGroupRequest> pending) {
+        PurchaseTicketReqDTO firstRequestParam = pending.get(0).getRequestParam();
+        TrainDO trainDO = distributedCache.safeGet(
+                TRAIN_INFO + firstRequestParam.getTrainId(),
+                TrainDO.class,
+                () -> trainMapper.selectById(firstRequestParam.getTrainId()),
+                ADVANCE_TICKET_DAY,
+                TimeUnit.DAYS
+        );
+        Map<String, CarriageSeatMap> carriageSeatMaps = new HashMap<>();
+        List<List<TrainPurchaseTicketRespDTO>> ticketResults = new ArrayList<>(pending.size());
+        List<Throwable> failures = new ArrayList<>(pending.size());
+        List<TrainPurchaseTicketRespDTO> allTicketResults = new ArrayList<>();
+        for (PurchaseTicketGroupRequest each : pending) {
+            List<TrainPurchaseTicketRespDTO> requestTicketResults = List.of();
+            Throwable failure = null;
+            try {
+                requestTicketResults = each.callWithContext(() -> trainSeatTypeSelector.selectInGroup(trainDO.getTrainType(), each.getRequestParam(), carriageSeatMaps));
+            } catch (ServiceException ex) {
+                failure = ex;
+            }
+            ticketResults.add(requestTicketResults);
+            failures.add(failure);
+            allTicketResults.addAll(requestTicketResults);
+        }
+        List<List<TicketDO>> tickets = new ArrayList<>(pending.size());
+        List<TicketDO> allTickets = new ArrayList<>();
+        List<Long> allocationIds = new ArrayList<>(pending.size());
+        for (int i = 0; i < pending.size(); i++) {
+            PurchaseTicketGroupRequest request = pending.get(i);
+            List<TicketDO> requestTickets = ticketResults.get(i).stream()
+                    .map(each -> TicketDO.builder()
+                            .username(request.getUsername())
+                            .trainId(Long.parseLong(request.getRequestParam().getTrainId()))
+                            .carriageNumber(each.getCarriageNumber())
+                            .seatNumber(each.getSeatNumber())
+                            .passengerId(each.getPassengerId())
+                            .ticketStatus(TicketStatusEnum.UNPAID.getCode())
+                            .build())
+                    .toList();
+            tickets.add(requestTickets);
+            allTickets.addAll(requestTickets);
+        }
+        if (!allTicketResults.isEmpty()) {
+            // 所有请求的座位一次性锁定，区间余票缓存按请求在事务提交后扣减
+            seatService.lockSeat(firstRequestParam.getTrainId(), firstRequestParam.getDeparture(), firstRequestParam.getArrival(), allTicketResults);
+            for (int i = 0; i < pending.size(); i++) {
+                trainSeatTypeSelector.decrementRemainingTicketAfterCommit(pending.get(i).getRequestParam(), ticketResults.get(i));
+            }
+            ticketService.saveBatch(allTickets);
+        }
+        // 座位分配记录与座位锁定同一事务提交，订单创建前宕机时由恢复任务据此释放座位
+        for (int i = 0; i < pending.size(); i++) {
+            if (ticketResults.get(i).isEmpty()) {
+                allocationIds.add(null);
+                continue;
+            }
+            PurchaseTicketReqDTO requestParam = pending.get(i).getRequestParam();
+            SeatAllocationDO seatAllocationDO = SeatAllocationDO.builder()
+                    .username(pending.get(i).getUsername())
+                    .trainId(Long.parseLong(requestParam.getTrainId()))
+                    .departure(requestParam.getDeparture())
+                    .arrival(requestParam.getArrival())
+                    .ticketIds(JSON.toJSONString(tickets.get(i).stream().map(TicketDO::getId).toList()))
+                    .seatDetails(JSON.toJSONString(ticketResults.get(i)))
+                    .build();
+            seatAllocationMapper.insert(seatAllocationDO);
+            allocationIds.add(seatAllocationDO.getId());
+        }
+        return new GroupAllocation(trainDO, ticketResults, tickets, allocationIds, failures);
+    }
+
+    /**
+     * 事务提交后无法出票时释放该请求的座位、删除车票记录，并回滚区间余票缓存，持有令牌归属时一并回滚令牌桶
+     * <p>
+     * 与单请求购票失败时事务回滚、令牌回滚的效果保持一致。
+     * </p>
+     */
+    private void compensate(PurchaseTicketReqDTO requestParam, List<TrainPurchaseTicketRespDTO> ticketResults, List<TicketDO> tickets,
+                            Long allocationId, boolean rollbackToken) {
+        try {
+            Boolean claimed = transactionTemplate.execute(status -> {
+                // 删除座位分配记录作为认领，恢复任务已释放过的座位不再重复释放
+                if (seatAllocationMapper.removeAllocation(allocationId) == 0) {
+                    return false;
+                }
+                seatService.unLock(requestParam.getTrainId(), requestParam.getDeparture(), requestParam.getArrival(), ticketResults);
+                ticketService.removeByIds(tickets.stream().map(TicketDO::getId).toList());
+                return true;
+            });
+            if (!Boolean.TRUE.equals(claimed)) {
+                return;
+            }
+        } catch (Throwable ex) {
+            log.error("合并购票订单创建失败后回滚座位失败，请求参数：{}", JSON.toJSONString(requestParam), ex);
+            return;
+        }
+        try {
+            seatMarginCacheUpdater.increment(requestParam.getTrainId(), requestParam.getDeparture(), requestParam.getArrival(),
+                    ticketResults.stream().map(TrainPurchaseTicketRespDTO::getSeatType).toList());
+            if (rollbackToken) {
+                ticketAvailabilityTokenBucket.rollbackInBucket(requestParam);
+            }
+        } catch (Throwable ex) {
+            log.error("合并购票订单创建失败后回滚列车Cache余票失败，等待余票对账修复，请求参数：{}", JSON.toJSONString(requestParam), ex);
+        }
+    }
+
+    private void removeAllocation(Long allocationId) {
+        try {
+            seatAllocationMapper.removeAllocation(allocationId);
+        } catch (Throwable ex) {
+            log.error("[座位分配] 记录ID：{} 订单已创建但删除座位分配记录失败", allocationId, ex);
+        }
+    }
+
+    private static boolean isExpired(PurchaseTicketGroupRequest request) {
+        return request.isDone() || System.currentTimeMillis() >= request.getDeadline();
+    }
+
+    @Override
+    public void run(String... args) throws Exception {
+        ticketService = ApplicationContextHolder.getBean(TicketService.class);
+    }
+
+    private static final class GroupAllocation {
+
+        private final TrainDO trainDO;
+        private final List<List<TrainPurchaseTicketRespDTO>> ticketResults;
+        private final List<List<TicketDO>> tickets;
+
+        /**
+         * 与请求一一对应的座位分配记录ID，选座失败为 null
+         */
+        private final List<Long> allocationIds;
+
+        /**
+         * 与请求一一对应的选座失败原因，选座成功为 null
+         */
+        private final List<Throwable> failures;
+
+        private GroupAllocation(TrainDO trainDO, List<List<TrainPurchaseTicketRespDTO>> ticketResults, List<List<TicketDO>> tickets,
+                                List<Long> allocationIds, List<Throwable> failures) {
+            this.trainDO = trainDO;
+            this.ticketResults = ticketResults;
+            this.tickets = tickets;
+            this.allocationIds = allocationIds;
+            this.failures = failures;
+        }
+    }
+}
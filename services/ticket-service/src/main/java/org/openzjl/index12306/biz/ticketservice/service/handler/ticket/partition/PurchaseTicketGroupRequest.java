@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.biz.ticketservice.service.handler.ticket.partition;
+
+import cn.hutool.core.collection.CollUtil;
+import com.alibaba.ttl.TransmittableThreadLocal;
+import lombok.Getter;
+import org.openzjl.index12306.biz.ticketservice.dto.req.PurchaseTicketReqDTO;
+import org.openzjl.index12306.biz.ticketservice.dto.resp.TicketPurchaseRespDTO;
+import org.openzjl.index12306.framework.starter.user.core.UserContext;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * 车次队列中等待执行的购票请求
+ * <p>
+ * 提交时捕获调用线程的上下文（用户信息等），工作线程合并执行多个请求时，
+ * 通过 {@link #callWithContext(Supplier)} 以各自请求的身份执行订单创建等步骤。
+ * </p>
+ * <p>
+ * 请求入队前已从令牌桶获取令牌，令牌的归还由 {@link #settleToken()} 决定归属，保证只归还一次。
+ * </p>
+ *
+ * @author zhangjlk
+ * @date 2026/10/18 下午3:20
+ */
+public final class PurchaseTicketGroupRequest {
+
+    @Getter
+    private final PurchaseTicketReqDTO requestParam;
+
+    /**
+     * 提交请求的用户名
+     */
+    @Getter
+    private final String username;
+
+    /**
+     * 分布式租约名称列表（已排序）
+     */
+    final List<String> leaseKeys;
+
+    /**
+     * 合并键：车次_出发站_到达站，指定选座的请求不参与合并，为 null
+     */
+    final String groupKey;
+
+    /**
+     * 排队截止时间（毫秒时间戳），不晚于请求截止时间，超过后提交线程不再等待结果
+     */
+    @Getter
+    private final long deadline;
+
+    private final Object capturedContext;
+
+    /**
+     * 购票结果，提交线程在此等待
+     */
+    @Getter
+    final CompletableFuture<TicketPurchaseRespDTO> future = new CompletableFuture<>();
+
+    /**
+     * 令牌是否已有归属方
+     */
+    private final AtomicBoolean tokenSettled = new AtomicBoolean();
+
+    /**
+     * 构造排队请求，在提交线程调用，捕获当前线程的上下文
+     *
+     * @param requestParam 购票请求参数
+     * @param leaseKeys    分布式租约名称列表（已排序）
+     * @param deadline     排队截止时间（毫秒时间戳）
+     */
+    public PurchaseTicketGroupRequest(PurchaseTicketReqDTO requestParam, List<String> leaseKeys, long deadline) {
+        this.requestParam = requestParam;
+        this.username = UserContext.getUserName();
+        this.leaseKeys = leaseKeys;
+        this.groupKey = CollUtil.isEmpty(requestParam.getChooseSeats())
+                ? String.join("_", requestParam.getTrainId(), requestParam.getDeparture(), requestParam.getArrival())
+                : null;
+        this.deadline = deadline;
+        this.capturedContext = TransmittableThreadLocal.Transmitter.capture();
+    }
+
+    /**
+     * 以提交请求时的上下文执行，上下文中包含用户信息与请求截止时间
+     */
+    public <R> R callWithContext(Supplier<R> supplier) {
+        return TransmittableThreadLocal.Transmitter.runSupplierWithCaptured(capturedContext, supplier);
+    }
+
+    public void complete(TicketPurchaseRespDTO result) {
+        future.complete(result);
+    }
+
+    public void fail(Throwable ex) {
+        future.completeExceptionally(ex);
+    }
+
+    /**
+     * 抢占令牌的处理权，提交线程与工作线程之间只有一方能抢占成功：
+     * <ul>
+     *   <li>工作线程在创建订单前抢占，成功后订单创建成功则令牌随订单消耗，失败由工作线程归还</li>
+     *   <li>请求以失败结束（排队被拒绝、超时、取消、选座失败等）时双方都会尝试抢占，成功的一方归还令牌</li>
+     * </ul>
+     *
+     * @return 抢占成功返回 true
+     */
+    public boolean settleToken() {
+        return tokenSettled.compareAndSet(false, true);
+    }
+
+    public boolean isDone() {
+        return future.isDone();
+    }
+}
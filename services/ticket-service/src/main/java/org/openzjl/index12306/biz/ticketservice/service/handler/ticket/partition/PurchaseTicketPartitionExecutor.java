@@ -0,0 +1,433 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.biz.ticketservice.service.handler.ticket.partition;
+
+import com.alibaba.fastjson2.JSON;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.openzjl.index12306.biz.ticketservice.config.PurchaseTicketPartitionProperties;
+import org.openzjl.index12306.biz.ticketservice.dto.domain.PurchaseTicketPassengerDetailDTO;
+import org.openzjl.index12306.biz.ticketservice.dto.req.PurchaseTicketReqDTO;
+import org.openzjl.index12306.biz.ticketservice.dto.resp.TicketPurchaseRespDTO;
+import org.openzjl.index12306.biz.ticketservice.service.handler.ticket.tokenbucket.TicketAvailabilityTokenBucket;
+import org.openzjl.index12306.framework.starter.convention.exception.ServiceException;
+import org.openzjl.index12306.framework.starter.log.threadpool.build.ThreadFactoryBuilder;
+import org.openzjl.index12306.framework.starter.user.core.UserContext;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.openzjl.index12306.biz.ticketservice.common.constant.RedisKeyConstant.LOCK_PURCHASE_TICKETS_V2;
+
+/**
+ * 购票分区执行器
+ * <p>
+ * 购票请求按车次ID分别排队，由一组工作线程在车次之间轮询执行，每个车次同一时刻只由一个工作线程处理：
+ * <ul>
+ *   <li>同一车次的购票串行执行，JVM 内无需任何锁</li>
+ *   <li>不同车次互不阻塞，只要有空闲工作线程就能并行执行</li>
+ *   <li>跨实例互斥通过 车次_座位类型 维度的分布式租约实现，租约以不等待的方式获取：
+ *   租约被其他实例持有时，该车次的请求放回队首并暂停调度一个重试间隔，工作线程转而处理其他车次</li>
+ *   <li>工作线程取出请求后，把该车次队列中同区间的请求一并取出（可在合并窗口内短暂等待），
+ *   交给 {@link PurchaseTicketGroupCommitter} 合并选座、一次提交</li>
+ * </ul>
+ * 租约在每组提交后立即释放，不在连续请求间复用：热点车次每组多一次加解锁往返（合并提交已摊薄该开销），
+ * 换取其他实例在下一次重试时就能获得租约，不会因某个实例持续复用而长期拿不到。
+ * 租约不设固定时长，由看门狗在提交期间持续续期，整组远程创建订单耗时再长也不会中途过期；
+ * 实例与 Redis 失联导致续期中断时，租约在看门狗超时时间后过期，合并提交的请求数按该时间与单个订单的创建预算限制，
+ * 保证租约过期前整组已提交完，另一个实例不会与之同时选座。
+ * 不等待获取不进入公平锁的排队队列，因此跨实例之间不保证严格先来先得。
+ * </p>
+ * <p>
+ * 请求入队前已从令牌桶获取令牌，订单未创建时必须归还：入队被拒绝由提交线程归还；入队后由提交线程与工作线程
+ * 通过 {@link PurchaseTicketGroupRequest#settleToken()} 抢占归属，工作线程开始创建订单后提交线程不再归还。
+ * </p>
+ *
+ * @author zhangjlk
+ * @date 2026/10/18 下午2:40
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PurchaseTicketPartitionExecutor implements InitializingBean, DisposableBean {
+
+    private final RedissonClient redissonClient;
+    private final ConfigurableEnvironment environment;
+    private final PurchaseTicketPartitionProperties partitionProperties;
+    private final PurchaseTicketGroupCommitter purchaseTicketGroupCommitter;
+    private final TicketAvailabilityTokenBucket ticketAvailabilityTokenBucket;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+
+    /**
+     * 车次ID -> 该车次排队中的请求，工作线程取第一个可调度的车次，并把该车次移到末尾
+     */
+    private final LinkedHashMap<String, TrainQueue> trainQueues = new LinkedHashMap<>();
+
+    private boolean shutdown;
+
+    /**
+     * 单次合并提交的最大请求数，不超过租约看门狗超时时间内能够创建完的订单数
+     */
+    private int groupCommitMaxSize;
+
+    @Override
+    public void afterPropertiesSet() {
+        long lockWatchdogTimeout = redissonClient.getConfig().getLockWatchdogTimeout();
+        long orderCreateTimeout = Math.max(1L, partitionProperties.getOrderCreateTimeout().toMillis());
+        groupCommitMaxSize = (int) Math.max(1L, Math.min(partitionProperties.getGroupCommitMaxSize(), lockWatchdogTimeout / orderCreateTimeout));
+        if (groupCommitMaxSize < partitionProperties.getGroupCommitMaxSize()) {
+            log.warn("合并提交最大请求数 {} 超过租约看门狗超时时间 {}ms 内可创建的订单数，按 {} 执行",
+                    partitionProperties.getGroupCommitMaxSize(), lockWatchdogTimeout, groupCommitMaxSize);
+        }
+        ThreadFactory threadFactory = ThreadFactoryBuilder.builder()
+                .prefix("purchase-ticket-partition-")
+                .daemon(true)
+                .build();
+        int workerCount = Math.max(1, partitionProperties.getWorkerCount());
+        for (int i = 0; i < workerCount; i++) {
+            threadFactory.newThread(this::work).start();
+        }
+    }
+
+    /**
+     * 在车次队列中执行购票
+     * <p>
+     * 调用前请求已获取令牌，订单未创建而以异常结束时在这里归还令牌；工作线程已开始创建订单的请求由工作线程负责。
+     * </p>
+     *
+     * @param requestParam 购票请求参数
+     * @return 购票响应
+     */
+    public TicketPurchaseRespDTO execute(PurchaseTicketReqDTO requestParam) {
+        PurchaseTicketGroupRequest request = null;
+        try {
+            List<String> leaseKeys = requestParam.getPassengers().stream()
+                    .map(PurchaseTicketPassengerDetailDTO::getSeatType)
+                    .distinct()
+                    .sorted()
+                    .map(seatType -> environment.resolvePlaceholders(String.format(LOCK_PURCHASE_TICKETS_V2, requestParam.getTrainId(), seatType)))
+                    .toList();
+            // 调用线程最多等待 waitTimeout 与请求剩余时间中的较小值，之后队列中尚未执行的请求直接丢弃
+            UserContext.checkDeadline();
+            long waitMillis = Math.min(partitionProperties.getWaitTimeout().toMillis(), UserContext.getRemainingMillis());
+            request = new PurchaseTicketGroupRequest(requestParam, leaseKeys, System.currentTimeMillis() + waitMillis);
+            enqueue(requestParam.getTrainId(), request);
+            return await(request, waitMillis);
+        } catch (Throwable ex) {
+            // 入队被拒绝，或排队超时、被取消、工作线程在创建订单前失败，订单不会再创建，归还令牌
+            if (request == null || request.settleToken()) {
+                rollbackToken(requestParam);
+            }
+            throw ex;
+        }
+    }
+
+    private TicketPurchaseRespDTO await(PurchaseTicketGroupRequest request, long waitMillis) {
+        try {
+            return request.future.get(waitMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            // 尚未开始执行的请求出队时丢弃，已在执行的请求由工作线程完成
+            request.future.cancel(false);
+            throw new ServiceException("购票排队超时，请稍后再试");
+        } catch (InterruptedException ex) {
+            request.future.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new ServiceException("购票被中断");
+        } catch (CancellationException ex) {
+            throw new ServiceException("购票服务正在关闭，请稍后再试");
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new ServiceException(cause.getMessage());
+        }
+    }
+
+    private void rollbackToken(PurchaseTicketReqDTO requestParam) {
+        try {
+            // 购票已失败，归还令牌不受请求截止时间限制，调用方排队超时后同样需要归还
+            UserContext.runWithoutDeadline(() -> ticketAvailabilityTokenBucket.rollbackInBucket(requestParam));
+        } catch (Throwable ex) {
+            log.error("购票失败后归还令牌失败，等待余票对账修复，请求参数：{}", JSON.toJSONString(requestParam), ex);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        List<PurchaseTicketGroupRequest> pending = new ArrayList<>();
+        lock.lock();
+        try {
+            // 正在执行的组由工作线程提交完并释放租约后退出，尚未执行的请求直接取消
+            shutdown = true;
+            trainQueues.values().forEach(each -> pending.addAll(each.requests));
+            trainQueues.values().forEach(each -> each.requests.clear());
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        pending.forEach(each -> each.future.cancel(false));
+    }
+
+    private void enqueue(String trainId, PurchaseTicketGroupRequest request) {
+        lock.lock();
+        try {
+            if (shutdown) {
+                throw new ServiceException("购票服务正在关闭，请稍后再试");
+            }
+            TrainQueue trainQueue = trainQueues.computeIfAbsent(trainId, TrainQueue::new);
+            if (trainQueue.requests.size() >= partitionProperties.getQueueCapacity()) {
+                log.warn("车次购票队列已满，车次：{}", trainId);
+                throw new ServiceException("当前车次购票人数过多，请稍后再试");
+            }
+            trainQueue.requests.addLast(request);
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void work() {
+        while (true) {
+            TrainQueue trainQueue;
+            try {
+                trainQueue = take();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (trainQueue == null) {
+                return;
+            }
+            long parkNanos = 0L;
+            try {
+                parkNanos = runGroup(trainQueue);
+            } catch (Throwable ex) {
+                log.error("车次购票队列执行异常，车次：{}", trainQueue.trainId, ex);
+            } finally {
+                release(trainQueue, parkNanos);
+            }
+        }
+    }
+
+    /**
+     * 在车次之间轮询取出下一个可调度的车次：没有其他工作线程正在处理、未因租约被占用而暂停，且有排队请求
+     * <p>
+     * 关闭后返回 null，取出的车次标记为执行中，直到 {@link #release} 归还。
+     * </p>
+     */
+    private TrainQueue take() throws InterruptedException {
+        lock.lock();
+        try {
+            while (!shutdown) {
+                long now = System.nanoTime();
+                long waitNanos = Long.MAX_VALUE;
+                Iterator<Map.Entry<String, TrainQueue>> iterator = trainQueues.entrySet().iterator();
+                while (iterator.hasNext()) {
+                    TrainQueue each = iterator.next().getValue();
+                    if (each.running) {
+                        continue;
+                    }
+                    each.requests.removeIf(PurchaseTicketGroupRequest::isDone);
+                    if (each.requests.isEmpty()) {
+                        iterator.remove();
+                        continue;
+                    }
+                    long parkedNanos = each.resumeNanos - now;
+                    if (parkedNanos > 0) {
+                        waitNanos = Math.min(waitNanos, parkedNanos);
+                        continue;
+                    }
+                    iterator.remove();
+                    trainQueues.put(each.trainId, each);
+                    each.running = true;
+                    return each;
+                }
+                if (waitNanos == Long.MAX_VALUE) {
+                    notEmpty.await();
+                } else {
+                    notEmpty.awaitNanos(waitNanos);
+                }
+            }
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 归还车次，parkNanos 大于 0 时该车次在这段时间内不再被调度
+     */
+    private void release(TrainQueue trainQueue, long parkNanos) {
+        lock.lock();
+        try {
+            trainQueue.running = false;
+            trainQueue.resumeNanos = System.nanoTime() + parkNanos;
+            if (trainQueue.requests.isEmpty()) {
+                trainQueues.remove(trainQueue.trainId, trainQueue);
+            } else {
+                notEmpty.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 执行车次队首的一组请求
+     *
+     * @return 租约被其他实例持有时返回该车次需要暂停调度的时长，否则返回 0
+     */
+    private long runGroup(TrainQueue trainQueue) {
+        List<PurchaseTicketGroupRequest> group = collectGroup(trainQueue);
+        if (group.isEmpty()) {
+            return 0L;
+        }
+        TreeSet<String> leaseKeys = new TreeSet<>();
+        group.forEach(each -> leaseKeys.addAll(each.leaseKeys));
+        List<String> acquiredLeases = new ArrayList<>(leaseKeys.size());
+        try {
+            if (!tryAcquireLeases(leaseKeys, acquiredLeases)) {
+                requeue(trainQueue, group);
+                return partitionProperties.getLeaseRetryInterval().toNanos();
+            }
+            purchaseTicketGroupCommitter.commit(group);
+        } catch (Throwable ex) {
+            group.forEach(each -> each.fail(ex));
+        } finally {
+            acquiredLeases.forEach(this::unlockQuietly);
+        }
+        return 0L;
+    }
+
+    /**
+     * 从车次队列中取出与队首请求同区间的请求
+     * <p>
+     * 队列中只剩可合并的请求时，在合并窗口内短暂等待后续请求；一旦出现同车次其他区间的请求就立即停止等待。
+     * 车次处于执行中，其他工作线程不会取走该车次的请求。
+     * </p>
+     */
+    private List<PurchaseTicketGroupRequest> collectGroup(TrainQueue trainQueue) {
+        List<PurchaseTicketGroupRequest> group = new ArrayList<>();
+        int maxSize = groupCommitMaxSize;
+        long deadline = System.nanoTime() + partitionProperties.getGroupCommitWindow().toNanos();
+        String groupKey = null;
+        while (true) {
+            boolean otherPending = false;
+            lock.lock();
+            try {
+                Iterator<PurchaseTicketGroupRequest> iterator = trainQueue.requests.iterator();
+                while (iterator.hasNext() && group.size() < maxSize) {
+                    PurchaseTicketGroupRequest each = iterator.next();
+                    if (each.isDone()) {
+                        iterator.remove();
+                    } else if (group.isEmpty() || (groupKey != null && Objects.equals(groupKey, each.groupKey))) {
+                        iterator.remove();
+                        group.add(each);
+                        groupKey = each.groupKey;
+                    } else {
+                        otherPending = true;
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+            if (group.isEmpty() || groupKey == null || otherPending || group.size() >= maxSize || System.nanoTime() >= deadline) {
+                return group;
+            }
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(200));
+        }
+    }
+
+    /**
+     * 租约被其他实例持有时，把整组请求按原顺序放回队首，已超时的请求不再放回，关闭后直接取消
+     */
+    private void requeue(TrainQueue trainQueue, List<PurchaseTicketGroupRequest> group) {
+        lock.lock();
+        try {
+            for (int i = group.size() - 1; i >= 0; i--) {
+                PurchaseTicketGroupRequest each = group.get(i);
+                if (shutdown) {
+                    each.future.cancel(false);
+                } else if (!each.isDone()) {
+                    trainQueue.requests.addFirst(each);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 按名称顺序不等待地获取租约，任意一个获取失败即返回 false，已获取的租约由调用方释放
+     * <p>
+     * 不指定租约时长，由看门狗续期到工作线程释放为止；加锁与释放在同一个工作线程内完成。
+     * </p>
+     */
+    private boolean tryAcquireLeases(Iterable<String> leaseKeys, List<String> acquiredLeases) throws InterruptedException {
+        for (String each : leaseKeys) {
+            if (!redissonClient.getFairLock(each).tryLock(0L, -1L, TimeUnit.MILLISECONDS)) {
+                return false;
+            }
+            acquiredLeases.add(each);
+        }
+        return true;
+    }
+
+    private void unlockQuietly(String leaseKey) {
+        RLock lock = redissonClient.getFairLock(leaseKey);
+        try {
+            lock.unlock();
+        } catch (Throwable ex) {
+            // 租约可能已自然过期，忽略释放异常
+            log.warn("释放购票租约失败，租约：{}", leaseKey);
+        }
+    }
+
+    private static final class TrainQueue {
+
+        private final String trainId;
+        private final ArrayDeque<PurchaseTicketGroupRequest> requests = new ArrayDeque<>();
+
+        /**
+         * 是否有工作线程正在处理该车次
+         */
+        private boolean running;
+
+        /**
+         * 租约被其他实例持有时暂停调度，到该时间（{@link System#nanoTime()} 时间轴）后恢复
+         */
+        private long resumeNanos;
+
+        private TrainQueue(String trainId) {
+            this.trainId = trainId;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.biz.ticketservice.service.handler.ticket.projection;
+
+import cn.hutool.core.util.StrUtil;
+import com.alibaba.fastjson2.JSON;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.openzjl.index12306.biz.ticketservice.config.OrderSoldSeatProjectionProperties;
+import org.openzjl.index12306.biz.ticketservice.dto.req.PurchaseTicketReqDTO;
+import org.openzjl.index12306.biz.ticketservice.service.handler.ticket.dto.OrderSoldSeatDTO;
+import org.openzjl.index12306.biz.ticketservice.service.handler.ticket.dto.TrainPurchaseTicketRespDTO;
+import org.openzjl.index12306.framework.starter.cache.DistributedCache;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+import static org.openzjl.index12306.biz.ticketservice.common.constant.RedisKeyConstant.TICKET_ORDER_SOLD_SEAT_PROJECTION;
+
+/**
+ * 订单已售座位投影
+ * <p>
+ * 订单关闭释放座位、支付成功置为已售都需要订单的车次、区间以及每位乘车人分配到的座位。
+ * 下单成功后在购票服务侧按订单号登记座位投影，订单关闭 Binlog 与支付结果回调处理时直接读取，
+ * 大批量关单、支付不再逐单远程查询订单服务（订单详情查询需要在订单分片间广播）。
+ * </p>
+ * <p>
+ * 投影只保存车次、区间以及座位类型、车厢号和座位号，不包含乘车人证件等敏感信息；订单支付或关闭后删除，未删除的由 TTL 兜底过期。
+ * </p>
+ *
+ * @author zhangjlk
+ * @date 2026/10/19 上午9:10
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OrderSoldSeatProjection {
+
+    private final DistributedCache distributedCache;
+    private final OrderSoldSeatProjectionProperties projectionProperties;
+
+    /**
+     * 登记订单已售座位
+     * <p>
+     * 登记失败不影响下单，订单关闭与支付回调时回退为远程查询订单详情。
+     * </p>
+     *
+     * @param orderSn                    订单号
+     * @param requestParam               购票请求参数
+     * @param trainPurchaseTicketResults 乘车人以及座位信息
+     */
+    public void save(String orderSn, PurchaseTicketReqDTO requestParam, List<TrainPurchaseTicketRespDTO> trainPurchaseTicketResults) {
+        if (!projectionProperties.getEnabled()) {
+            return;
+        }
+        List<TrainPurchaseTicketRespDTO> soldSeats = trainPurchaseTicketResults.stream()
+                .map(each -> {
+                    TrainPurchaseTicketRespDTO soldSeat = new TrainPurchaseTicketRespDTO();
+                    soldSeat.setSeatType(each.getSeatType());
+                    soldSeat.setCarriageNumber(each.getCarriageNumber());
+                    soldSeat.setSeatNumber(each.getSeatNumber());
+                    return soldSeat;
+                })
+                .toList();
+        OrderSoldSeatDTO orderSoldSeat = OrderSoldSeatDTO.builder()
+                .trainId(requestParam.getTrainId())
+                .departure(requestParam.getDeparture())
+                .arrival(requestParam.getArrival())
+                .trainPurchaseTicketResults(soldSeats)
+                .build();
+        try {
+            StringRedisTemplate stringRedisTemplate = (StringRedisTemplate) distributedCache.getInstance();
+            stringRedisTemplate.opsForValue().set(
+                    String.format(TICKET_ORDER_SOLD_SEAT_PROJECTION, orderSn),
+                    JSON.toJSONString(orderSoldSeat),
+                    projectionProperties.getTtl()
+            );
+        } catch (Throwable ex) {
+            log.error("[已售座位投影] 订单号：{} 登记已售座位失败，订单关闭与支付回调时回退为远程查询", orderSn, ex);
+        }
+    }
+
+    /**
+     * 查询订单已售座位
+     *
+     * @param orderSn 订单号
+     * @return 车次、区间以及座位类型、车厢号和座位号；投影不存在时返回 null
+     */
+    public OrderSoldSeatDTO get(String orderSn) {
+        StringRedisTemplate stringRedisTemplate = (StringRedisTemplate) distributedCache.getInstance();
+        String orderSoldSeat = stringRedisTemplate.opsForValue().get(String.format(TICKET_ORDER_SOLD_SEAT_PROJECTION, orderSn));
+        if (StrUtil.isBlank(orderSoldSeat)) {
+            return null;
+        }
+        return JSON.parseObject(orderSoldSeat, OrderSoldSeatDTO.class);
+    }
+
+    /**
+     * 订单已支付或座位已释放，删除投影
+     */
+    public void remove(String orderSn) {
+        StringRedisTemplate stringRedisTemplate = (StringRedisTemplate) distributedCache.getInstance();
+        stringRedisTemplate.delete(String.format(TICKET_ORDER_SOLD_SEAT_PROJECTION, orderSn));
+    }
+}
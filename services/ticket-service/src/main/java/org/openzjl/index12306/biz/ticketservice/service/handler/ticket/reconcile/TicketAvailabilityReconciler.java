@@ -0,0 +1,315 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.biz.ticketservice.service.handler.ticket.reconcile;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.date.DateUtil;
+import cn.hutool.core.util.StrUtil;
+import com.alibaba.fastjson2.JSON;
+import com.baomidou.mybatisplus.core.toolkit.Wrappers;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.openzjl.index12306.biz.ticketservice.common.enums.VehicleTypeEnum;
+import org.openzjl.index12306.biz.ticketservice.config.TicketAvailabilityReconcileProperties;
+import org.openzjl.index12306.biz.ticketservice.dao.entity.TrainDO;
+import org.openzjl.index12306.biz.ticketservice.dao.mapper.SeatMapper;
+import org.openzjl.index12306.biz.ticketservice.dao.mapper.TrainMapper;
+import org.openzjl.index12306.biz.ticketservice.dto.domain.RouteDTO;
+import org.openzjl.index12306.biz.ticketservice.dto.domain.SeatSegmentCountDTO;
+import org.openzjl.index12306.biz.ticketservice.service.TrainStationService;
+import org.openzjl.index12306.framework.starter.bases.Singleton;
+import org.openzjl.index12306.framework.starter.cache.DistributedCache;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scripting.support.ResourceScriptSource;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.openzjl.index12306.biz.ticketservice.common.constant.RedisKeyConstant.TICKET_AVAILABILITY_RECONCILE_DRIFT;
+import static org.openzjl.index12306.biz.ticketservice.common.constant.RedisKeyConstant.TICKET_AVAILABILITY_TOKEN_BUCKET;
+import static org.openzjl.index12306.biz.ticketservice.common.constant.RedisKeyConstant.TRAIN_STATION_REMAINING_TICKET;
+
+/**
+ * 余票对账器
+ * <p>
+ * 令牌桶、区间余票缓存和 t_seat 分别由购票 Lua 脚本、回滚、Binlog 增量、关单等不同路径更新，
+ * 对账器以 t_seat 为准，按列车一次聚合查询出全部区间、全部座位类型的可用座位数，与两类缓存逐字段比较：
+ * <ul>
+ *   <li>读取缓存 -> 查询数据库 -> 再读一次缓存，两次读取不一致的字段说明有在途购票或回滚，本轮不计入漂移</li>
+ *   <li>漂移通过指标上报：漂移字段数、漂移票数（绝对值之和）、修复字段数和对账耗时</li>
+ *   <li>开启修复后，同一字段连续两轮对账的 (缓存值, 数据库值) 完全相同才视为确认漂移，
+ *   通过比较并设置 Lua 脚本原子修正，期间被并发修改的字段跳过</li>
+ *   <li>上一轮的漂移快照按列车存放在 Redis 中并设置过期时间，XXL-Job 把连续两轮调度到不同执行器时仍能确认漂移</li>
+ * </ul>
+ * 缓存 Key 不存在（尚未加载或已过期）时不参与对账，由原有的懒加载逻辑负责重建。
+ * </p>
+ *
+ * @author zhangjlk
+ * @date 2026/10/18 下午3:50
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TicketAvailabilityReconciler implements InitializingBean {
+
+    private static final String LUA_TICKET_AVAILABILITY_RECONCILE_CAS_PATH = "lua/ticket_availability_reconcile_cas.lua";
+    private static final String CACHE_TOKEN_BUCKET = "token_bucket";
+    private static final String CACHE_REMAINING_TICKET = "remaining_ticket";
+
+    private final TrainMapper trainMapper;
+    private final SeatMapper seatMapper;
+    private final TrainStationService trainStationService;
+    private final DistributedCache distributedCache;
+    private final TicketAvailabilityReconcileProperties reconcileProperties;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, AtomicLong> driftFieldGauges = new HashMap<>();
+    private final Map<String, AtomicLong> driftTicketGauges = new HashMap<>();
+
+    @Override
+    public void afterPropertiesSet() {
+        for (String each : List.of(CACHE_TOKEN_BUCKET, CACHE_REMAINING_TICKET)) {
+            AtomicLong driftFields = new AtomicLong();
+            AtomicLong driftTickets = new AtomicLong();
+            Gauge.builder("ticket.availability.reconcile.drift.fields", driftFields, AtomicLong::get)
+                    .description("Fields whose cached availability differs from t_seat in the last reconcile run")
+                    .tag("cache", each)
+                    .register(meterRegistry);
+            Gauge.builder("ticket.availability.reconcile.drift.tickets", driftTickets, AtomicLong::get)
+                    .description("Sum of absolute availability drift against t_seat in the last reconcile run")
+                    .tag("cache", each)
+                    .register(meterRegistry);
+            driftFieldGauges.put(each, driftFields);
+            driftTicketGauges.put(each, driftTickets);
+        }
+    }
+
+    /**
+     * 对出发时间在对账范围内的全部列车执行一轮对账
+     */
+    public void reconcile() {
+        long startTime = System.nanoTime();
+        Date now = new Date();
+        Date endTime = DateUtil.offsetDay(now, reconcileProperties.getActiveDays());
+        ReconcileRound round = new ReconcileRound();
+        for (long currentPage = 1; ; currentPage++) {
+            var queryWrapper = Wrappers.lambdaQuery(TrainDO.class)
+                    .between(TrainDO::getDepartureTime, now, endTime);
+            var trainDOPage = trainMapper.selectPage(new Page<>(currentPage, reconcileProperties.getPageSize()), queryWrapper);
+            if (trainDOPage == null || CollUtil.isEmpty(trainDOPage.getRecords())) {
+                break;
+            }
+            for (TrainDO each : trainDOPage.getRecords()) {
+                try {
+                    reconcileTrain(each, round);
+                } catch (Throwable ex) {
+                    log.error("余票对账失败，车次ID：{}", each.getId(), ex);
+                }
+            }
+        }
+        round.driftFields.forEach((cache, value) -> driftFieldGauges.get(cache).set(value));
+        round.driftTickets.forEach((cache, value) -> driftTicketGauges.get(cache).set(value));
+        long elapsed = System.nanoTime() - startTime;
+        Timer.builder("ticket.availability.reconcile.duration")
+                .description("Ticket availability reconcile run duration")
+                .register(meterRegistry)
+                .record(elapsed, TimeUnit.NANOSECONDS);
+        log.info("余票对账完成，耗时：{}ms，漂移字段：{}，漂移票数：{}，修复字段：{}",
+                TimeUnit.NANOSECONDS.toMillis(elapsed), round.driftFields, round.driftTickets, round.repairedFields);
+    }
+
+    private void reconcileTrain(TrainDO trainDO, ReconcileRound round) {
+        String trainId = String.valueOf(trainDO.getId());
+        List<String> stations = trainStationService.getTrainRouteGraph(trainId).getStations();
+        if (stations.size() < 2) {
+            return;
+        }
+        List<Integer> seatTypes = VehicleTypeEnum.findSeatTypeByCode(trainDO.getTrainType());
+        List<RouteDTO> routes = trainStationService.listTakeoutTrainStationRoute(trainId, stations.get(0), stations.get(stations.size() - 1));
+
+        String tokenBucketKey = TICKET_AVAILABILITY_TOKEN_BUCKET + trainId;
+        List<String> cacheKeys = new ArrayList<>(routes.size() + 1);
+        cacheKeys.add(tokenBucketKey);
+        routes.forEach(each -> cacheKeys.add(TRAIN_STATION_REMAINING_TICKET + StrUtil.join("_", trainId, each.getStartStation(), each.getEndStation())));
+
+        List<Map<String, String>> before = readHashes(cacheKeys);
+        Map<String, Integer> actualCounts = new HashMap<>();
+        for (SeatSegmentCountDTO each : seatMapper.listSeatSegmentCount(trainDO.getId())) {
+            actualCounts.put(StrUtil.join("_", each.getStartStation(), each.getEndStation(), each.getSeatType()), each.getSeatCount());
+        }
+        List<Map<String, String>> after = readHashes(cacheKeys);
+
+        // 上一轮漂移快照，Key 为 缓存Key#字段，Value 为 缓存值->数据库值
+        String driftSnapshotKey = TICKET_AVAILABILITY_RECONCILE_DRIFT + trainId;
+        Map<String, String> previousDrifts = readHashes(List.of(driftSnapshotKey)).get(0);
+        Map<String, String> drifts = new HashMap<>();
+
+        // 令牌桶字段：出发站_到达站_座位类型
+        List<ReconcileItem> tokenBucketItems = new ArrayList<>();
+        for (RouteDTO route : routes) {
+            for (Integer seatType : seatTypes) {
+                String segmentSeatType = StrUtil.join("_", route.getStartStation(), route.getEndStation(), seatType);
+                collectDrift(tokenBucketKey, segmentSeatType,
+                        before.get(0), after.get(0), actualCounts.getOrDefault(segmentSeatType, 0), CACHE_TOKEN_BUCKET, round, previousDrifts, drifts, tokenBucketItems);
+            }
+        }
+        repair(tokenBucketKey, tokenBucketItems, CACHE_TOKEN_BUCKET, round);
+
+        // 区间余票缓存字段：座位类型
+        for (int i = 0; i < routes.size(); i++) {
+            RouteDTO route = routes.get(i);
+            String remainingTicketKey = cacheKeys.get(i + 1);
+            List<ReconcileItem> remainingTicketItems = new ArrayList<>();
+            for (Integer seatType : seatTypes) {
+                String segmentSeatType = StrUtil.join("_", route.getStartStation(), route.getEndStation(), seatType);
+                collectDrift(remainingTicketKey, String.valueOf(seatType),
+                        before.get(i + 1), after.get(i + 1), actualCounts.getOrDefault(segmentSeatType, 0), CACHE_REMAINING_TICKET, round, previousDrifts, drifts, remainingTicketItems);
+            }
+            repair(remainingTicketKey, remainingTicketItems, CACHE_REMAINING_TICKET, round);
+        }
+
+        // 只保留本轮仍存在的漂移，已恢复一致的字段不再参与下一轮确认
+        saveDriftSnapshot(driftSnapshotKey, drifts);
+    }
+
+    private void saveDriftSnapshot(String driftSnapshotKey, Map<String, String> drifts) {
+        StringRedisTemplate stringRedisTemplate = (StringRedisTemplate) distributedCache.getInstance();
+        if (drifts.isEmpty()) {
+            stringRedisTemplate.delete(driftSnapshotKey);
+            return;
+        }
+        long ttlMillis = reconcileProperties.getDriftSnapshotTtl().toMillis();
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            byte[] rawKey = driftSnapshotKey.getBytes();
+            connection.keyCommands().del(rawKey);
+            Map<byte[], byte[]> rawDrifts = new HashMap<>(drifts.size());
+            drifts.forEach((field, value) -> rawDrifts.put(field.getBytes(), value.getBytes()));
+            connection.hashCommands().hMSet(rawKey, rawDrifts);
+            connection.keyCommands().pExpire(rawKey, ttlMillis);
+            return null;
+        });
+    }
+
+    private void collectDrift(String cacheKey, String field, Map<String, String> before, Map<String, String> after,
+                              int actualCount, String cache, ReconcileRound round,
+                              Map<String, String> previousDrifts, Map<String, String> drifts, List<ReconcileItem> confirmedItems) {
+        String cachedValue = before.get(field);
+        // 缓存不存在或两次读取之间被并发修改，本轮跳过
+        if (cachedValue == null || !Objects.equals(cachedValue, after.get(field))) {
+            return;
+        }
+        int cachedCount;
+        try {
+            cachedCount = Integer.parseInt(cachedValue);
+        } catch (NumberFormatException ex) {
+            return;
+        }
+        if (cachedCount == actualCount) {
+            return;
+        }
+        round.driftFields.merge(cache, 1L, Long::sum);
+        round.driftTickets.merge(cache, (long) Math.abs(cachedCount - actualCount), Long::sum);
+        String driftKey = cacheKey + "#" + field;
+        String driftValue = cachedValue + "->" + actualCount;
+        drifts.put(driftKey, driftValue);
+        if (Objects.equals(previousDrifts.get(driftKey), driftValue)) {
+            confirmedItems.add(new ReconcileItem(field, cachedValue, String.valueOf(actualCount)));
+        }
+    }
+
+    private void repair(String cacheKey, List<ReconcileItem> confirmedItems, String cache, ReconcileRound round) {
+        if (confirmedItems.isEmpty()) {
+            return;
+        }
+        if (!reconcileProperties.getRepairEnabled()) {
+            log.warn("余票缓存确认漂移（未开启自动修复），Key：{}，字段：{}", cacheKey, JSON.toJSONString(confirmedItems));
+            return;
+        }
+        long repairedCount = compareAndSet(cacheKey, confirmedItems);
+        round.repairedFields.merge(cache, repairedCount, Long::sum);
+        Counter.builder("ticket.availability.reconcile.repaired")
+                .description("Cached availability fields repaired from t_seat")
+                .tag("cache", cache)
+                .register(meterRegistry)
+                .increment(repairedCount);
+        log.warn("余票缓存漂移已修复，Key：{}，确认漂移：{}，实际修复：{}", cacheKey, JSON.toJSONString(confirmedItems), repairedCount);
+    }
+
+    /**
+     * 通过比较并设置 Lua 脚本原子修正缓存字段，字段当前值不等于 expect 时跳过
+     *
+     * @param cacheKey 令牌桶或区间余票缓存的Hash Key
+     * @param items    修正项
+     * @return 实际修正的字段数量
+     */
+    public long compareAndSet(String cacheKey, List<ReconcileItem> items) {
+        if (items.isEmpty()) {
+            return 0L;
+        }
+        DefaultRedisScript<Long> actual = Singleton.get(LUA_TICKET_AVAILABILITY_RECONCILE_CAS_PATH, () -> {
+            DefaultRedisScript<Long> redisScript = new DefaultRedisScript<>();
+            redisScript.setScriptSource(new ResourceScriptSource(new ClassPathResource(LUA_TICKET_AVAILABILITY_RECONCILE_CAS_PATH)));
+            redisScript.setResultType(Long.class);
+            return redisScript;
+        });
+        StringRedisTemplate stringRedisTemplate = (StringRedisTemplate) distributedCache.getInstance();
+        Long repaired = stringRedisTemplate.execute(actual, List.of(cacheKey), JSON.toJSONString(items));
+        return repaired == null ? 0L : repaired;
+    }
+
+    /**
+     * 管道批量读取 Hash 缓存，返回结果与传入的 Key 顺序一致，Key 不存在时为空 Map
+     */
+    @SuppressWarnings("unchecked")
+    public List<Map<String, String>> readHashes(List<String> cacheKeys) {
+        StringRedisTemplate stringRedisTemplate = (StringRedisTemplate) distributedCache.getInstance();
+        List<Object> results = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            cacheKeys.forEach(each -> connection.hashCommands().hGetAll(each.getBytes()));
+            return null;
+        });
+        List<Map<String, String>> hashes = new ArrayList<>(results.size());
+        results.forEach(each -> hashes.add(each == null ? Map.of() : (Map<String, String>) each));
+        return hashes;
+    }
+
+    private static final class ReconcileRound {
+
+        private final Map<String, Long> driftFields = new HashMap<>(Map.of(CACHE_TOKEN_BUCKET, 0L, CACHE_REMAINING_TICKET, 0L));
+        private final Map<String, Long> driftTickets = new HashMap<>(Map.of(CACHE_TOKEN_BUCKET, 0L, CACHE_REMAINING_TICKET, 0L));
+        private final Map<String, Long> repairedFields = new HashMap<>(Map.of(CACHE_TOKEN_BUCKET, 0L, CACHE_REMAINING_TICKET, 0L));
+    }
+
+    /**
+     * 修正项，字段名与 Lua 脚本中的 field/expect/actual 对应
+     */
+    @Data
+    @AllArgsConstructor
+    public static class ReconcileItem {
+
+        private String field;
+
+        private String expect;
+
+        private String actual;
+    }
+}
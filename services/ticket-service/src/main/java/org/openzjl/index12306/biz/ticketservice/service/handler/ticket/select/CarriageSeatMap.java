@@ -0,0 +1,221 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.biz.ticketservice.service.handler.ticket.select;
+
+import cn.hutool.core.lang.Pair;
+import lombok.Getter;
+import org.openzjl.index12306.biz.ticketservice.common.enums.CarriageSeatLayoutEnum;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 车厢座位图
+ * <p>
+ * 用位图记录一节车厢的可售座位：第 row * columns + column 位为 1 表示该座位可售。
+ * 可售座位号列表按布局一次性解码到位图中，邻座 / 非邻座查找都基于位运算完成，
+ * 不再为每个座位拼接字符串并在列表中 contains 查找。
+ * </p>
+ * <p>
+ * 返回的座位坐标为 int[]{排, 列}，从 1 开始计数。
+ * </p>
+ *
+ * @author zhangjlk
+ * @date 2026/10/18 下午2:10
+ */
+public final class CarriageSeatMap {
+
+    /**
+     * 车厢座位布局
+     */
+    @Getter
+    private final CarriageSeatLayoutEnum layout;
+
+    /**
+     * 可售座位位图
+     */
+    private final BitSet available;
+
+    private CarriageSeatMap(CarriageSeatLayoutEnum layout, BitSet available) {
+        this.layout = layout;
+        this.available = available;
+    }
+
+    /**
+     * 将可售座位号列表解码为车厢座位图
+     *
+     * @param layout               车厢座位布局
+     * @param availableSeatNumbers 可售座位号，例如 ["01A", "01C", "12F"]，格式不合法或越界的座位号会被忽略
+     * @return 车厢座位图
+     */
+    public static CarriageSeatMap decode(CarriageSeatLayoutEnum layout, Collection<String> availableSeatNumbers) {
+        BitSet available = new BitSet(layout.getCapacity());
+        for (String seatNumber : availableSeatNumbers) {
+            int bitIndex = bitIndexOf(layout, seatNumber);
+            if (bitIndex >= 0) {
+                available.set(bitIndex);
+            }
+        }
+        return new CarriageSeatMap(layout, available);
+    }
+
+    /**
+     * 复制一份座位图，用于在不影响原座位图的前提下模拟占座
+     */
+    public CarriageSeatMap copy() {
+        return new CarriageSeatMap(layout, (BitSet) available.clone());
+    }
+
+    /**
+     * 可售座位数
+     */
+    public int availableCount() {
+        return available.cardinality();
+    }
+
+    /**
+     * 座位是否可售，排、列下标从 0 开始
+     */
+    public boolean isAvailable(int rowIndex, int columnIndex) {
+        return available.get(rowIndex * layout.getColumns() + columnIndex);
+    }
+
+    /**
+     * 占用座位，坐标从 1 开始，与查找结果保持一致
+     *
+     * @param seats 座位坐标 int[]{排, 列}
+     */
+    public void occupy(int[][] seats) {
+        for (int[] seat : seats) {
+            available.clear((seat[0] - 1) * layout.getColumns() + seat[1] - 1);
+        }
+    }
+
+    /**
+     * 按座位号占用座位，格式不合法或越界的座位号会被忽略
+     *
+     * @param seatNumber 座位号，例如 "01A"
+     */
+    public void occupy(String seatNumber) {
+        int bitIndex = bitIndexOf(layout, seatNumber);
+        if (bitIndex >= 0) {
+            available.clear(bitIndex);
+        }
+    }
+
+    /**
+     * 查找同一排内连续的 numSeats 个可售座位
+     * <p>
+     * 按排从前往后、同排从左往右查找第一个满足条件的位置。
+     * </p>
+     *
+     * @param numSeats 座位数
+     * @return 座位坐标 int[]{排, 列}（从 1 开始），找不到返回 null
+     */
+    public int[][] adjacent(int numSeats) {
+        int columns = layout.getColumns();
+        if (numSeats <= 0 || numSeats > columns) {
+            return null;
+        }
+        long window = (1L << numSeats) - 1;
+        for (int row = 0; row < layout.getRows(); row++) {
+            long rowMask = rowMask(row);
+            for (int column = 0; column + numSeats <= columns; column++) {
+                if (((rowMask >>> column) & window) == window) {
+                    int[][] actualSeat = new int[numSeats][2];
+                    for (int k = 0; k < numSeats; k++) {
+                        actualSeat[k][0] = row + 1;
+                        actualSeat[k][1] = column + k + 1;
+                    }
+                    return actualSeat;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 按排从前往后、同排从左往右取前 numSeats 个可售座位，不要求相邻
+     *
+     * @param numSeats 座位数
+     * @return 座位坐标 int[]{排, 列}（从 1 开始），可售座位不足时返回全部可售座位
+     */
+    public int[][] nonAdjacent(int numSeats) {
+        if (numSeats <= 0) {
+            return new int[0][];
+        }
+        int size = Math.min(numSeats, available.cardinality());
+        int[][] actualSeat = new int[size][2];
+        int columns = layout.getColumns();
+        int bitIndex = available.nextSetBit(0);
+        for (int i = 0; i < size; i++) {
+            actualSeat[i][0] = bitIndex / columns + 1;
+            actualSeat[i][1] = bitIndex % columns + 1;
+            bitIndex = available.nextSetBit(bitIndex + 1);
+        }
+        return actualSeat;
+    }
+
+    /**
+     * 全部可售座位，按排从前往后、同排从左往右排列，坐标从 0 开始
+     */
+    public List<Pair<Integer, Integer>> vacantSeatList() {
+        List<Pair<Integer, Integer>> vacantSeatList = new ArrayList<>(available.cardinality());
+        int columns = layout.getColumns();
+        for (int bitIndex = available.nextSetBit(0); bitIndex >= 0; bitIndex = available.nextSetBit(bitIndex + 1)) {
+            vacantSeatList.add(new Pair<>(bitIndex / columns, bitIndex % columns));
+        }
+        return vacantSeatList;
+    }
+
+    /**
+     * 转换为二维座位表：0 表示可售，1 表示不可售，供按用户指定座位匹配的逻辑使用
+     */
+    public int[][] toSeatLayout() {
+        int rows = layout.getRows();
+        int columns = layout.getColumns();
+        int[][] seatLayout = new int[rows][columns];
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                seatLayout[row][column] = isAvailable(row, column) ? 0 : 1;
+            }
+        }
+        return seatLayout;
+    }
+
+    private long rowMask(int row) {
+        int columns = layout.getColumns();
+        long mask = 0L;
+        int from = row * columns;
+        for (int bitIndex = available.nextSetBit(from); bitIndex >= 0 && bitIndex < from + columns; bitIndex = available.nextSetBit(bitIndex + 1)) {
+            mask |= 1L << (bitIndex - from);
+        }
+        return mask;
+    }
+
+    private static int bitIndexOf(CarriageSeatLayoutEnum layout, String seatNumber) {
+        if (seatNumber == null || seatNumber.length() < 2) {
+            return -1;
+        }
+        int columnIndex = layout.columnIndex(seatNumber.charAt(seatNumber.length() - 1));
+        if (columnIndex < 0) {
+            return -1;
+        }
+        int row = 0;
+        for (int i = 0; i < seatNumber.length() - 1; i++) {
+            char ch = seatNumber.charAt(i);
+            if (ch < '0' || ch > '9') {
+                return -1;
+            }
+            row = row * 10 + (ch - '0');
+        }
+        if (row < 1 || row > layout.getRows()) {
+            return -1;
+        }
+        return (row - 1) * layout.getColumns() + columnIndex;
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.biz.ticketservice.service.handler.ticket.select;
+
+import cn.hutool.core.collection.CollUtil;
+import com.alibaba.fastjson2.JSON;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.toolkit.Wrappers;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.openzjl.index12306.biz.ticketservice.dao.entity.TrainStationPriceDO;
+import org.openzjl.index12306.biz.ticketservice.dao.mapper.TrainStationPriceMapper;
+import org.openzjl.index12306.biz.ticketservice.dto.domain.PurchaseTicketPassengerDetailDTO;
+import org.openzjl.index12306.biz.ticketservice.dto.req.PurchaseTicketReqDTO;
+import org.openzjl.index12306.biz.ticketservice.remote.UserRemoteService;
+import org.openzjl.index12306.biz.ticketservice.remote.dto.PassengerRespDTO;
+import org.openzjl.index12306.biz.ticketservice.service.handler.ticket.dto.PurchaseTicketContextDTO;
+import org.openzjl.index12306.framework.starter.cache.DistributedCache;
+import org.openzjl.index12306.framework.starter.convention.exception.RemoteException;
+import org.openzjl.index12306.framework.starter.convention.result.Result;
+import org.openzjl.index12306.framework.starter.user.core.UserContext;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.openzjl.index12306.biz.ticketservice.common.constant.Index12306Constant.ADVANCE_TICKET_DAY;
+import static org.openzjl.index12306.biz.ticketservice.common.constant.RedisKeyConstant.TRAIN_STATION_PRICE;
+
+/**
+ * 购票上下文加载器
+ * <p>
+ * 乘车人明细和区间票价只取决于请求参数，与选座结果无关。
+ * 无论有几种座位类型，都在选座开始前异步发起加载，与选座并行执行；只有一种座位类型时选座在调用线程执行，
+ * 加载仍在执行器上进行，远程查询乘车人的耗时与选座重叠。无论多少乘车人都只做一次批量查询：
+ * <ul>
+ *   <li>乘车人：一次远程调用按全部乘车人ID查询（用户服务侧由 USER_PASSENGER_LIST 缓存支撑）</li>
+ *   <li>票价：按 车次_出发站_到达站 一次性取出全部座位类型价格，与车票查询共用 TRAIN_STATION_PRICE 缓存</li>
+ * </ul>
+ * </p>
+ *
+ * @author zhangjlk
+ * @date 2026/10/18 上午11:30
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PurchaseTicketContextLoader {
+
+    private final UserRemoteService userRemoteService;
+    private final TrainStationPriceMapper trainStationPriceMapper;
+    private final DistributedCache distributedCache;
+    private final SeatSelectionExecutor seatSelectionExecutor;
+
+    /**
+     * 异步加载购票上下文
+     * <p>
+     * 加载任务与选座任务共用 {@link SeatSelectionExecutor}，执行器繁忙时直接拒绝，购票快速失败而不是由调用线程代为执行。
+     * </p>
+     *
+     * @param requestParam 购票请求参数
+     * @return 购票上下文
+     */
+    public CompletableFuture<PurchaseTicketContextDTO> loadAsync(PurchaseTicketReqDTO requestParam) {
+        // 用户名在当前请求线程中取出，避免依赖线程池对上下文的传递
+        return loadAsync(requestParam, UserContext.getUserName());
+    }
+
+    /**
+     * 以指定用户身份异步加载购票上下文
+     * <p>
+     * 合并选座时多个请求属于不同用户，乘车人需要按各自的用户名查询。
+     * </p>
+     *
+     * @param requestParam 购票请求参数
+     * @param username     乘车人所属用户名
+     * @return 购票上下文
+     */
+    public CompletableFuture<PurchaseTicketContextDTO> loadAsync(PurchaseTicketReqDTO requestParam, String username) {
+        List<String> passengerIds = requestParam.getPassengers().stream()
+                .map(PurchaseTicketPassengerDetailDTO::getPassengerId)
+                .distinct()
+                .collect(Collectors.toList());
+        CompletableFuture<Map<String, PassengerRespDTO>> passengerFuture = seatSelectionExecutor.supplyAsync(
+                requestParam.getTrainId(),
+                () -> loadPassengers(username, passengerIds)
+        );
+        CompletableFuture<Map<Integer, Integer>> priceFuture = seatSelectionExecutor.supplyAsync(
+                requestParam.getTrainId(),
+                () -> loadSeatTypePrices(requestParam)
+        );
+        return passengerFuture.thenCombine(priceFuture, (passengerMap, seatTypePriceMap) -> PurchaseTicketContextDTO.builder()
+                .passengerMap(passengerMap)
+                .seatTypePriceMap(seatTypePriceMap)
+                .build());
+    }
+
+    private Map<String, PassengerRespDTO> loadPassengers(String username, List<String> passengerIds) {
+        List<PassengerRespDTO> passengerRemoteResultList;
+        try {
+            Result<List<PassengerRespDTO>> passengerRemoteResult = userRemoteService.listPassengerQueryByIds(username, passengerIds);
+            if (!passengerRemoteResult.isSuccess() || CollUtil.isEmpty(passengerRemoteResultList = passengerRemoteResult.getData())) {
+                throw new RemoteException("用户远程调用查询乘车人相关信息错误！");
+            }
+        } catch (Throwable ex) {
+            if (ex instanceof RemoteException) {
+                log.error("用户服务远程调用查询乘车人相关信息错误，当前用户：{}，请求参数：{}", username, passengerIds);
+            } else {
+                log.error("用户服务远程调用查询乘车人相关信息错误，当前用户：{}，请求参数：{}", username, passengerIds, ex);
+            }
+            throw ex;
+        }
+        return passengerRemoteResultList.stream()
+                .collect(Collectors.toMap(PassengerRespDTO::getId, Function.identity(), (left, right) -> left));
+    }
+
+    private Map<Integer, Integer> loadSeatTypePrices(PurchaseTicketReqDTO requestParam) {
+        String trainStationPriceStr = distributedCache.safeGet(
+                String.format(TRAIN_STATION_PRICE, requestParam.getTrainId(), requestParam.getDeparture(), requestParam.getArrival()),
+                String.class,
+                () -> {
+                    LambdaQueryWrapper<TrainStationPriceDO> queryWrapper = Wrappers.lambdaQuery(TrainStationPriceDO.class)
+                            .eq(TrainStationPriceDO::getTrainId, requestParam.getTrainId())
+                            .eq(TrainStationPriceDO::getDeparture, requestParam.getDeparture())
+                            .eq(TrainStationPriceDO::getArrival, requestParam.getArrival());
+                    return JSON.toJSONString(trainStationPriceMapper.selectList(queryWrapper));
+                },
+                ADVANCE_TICKET_DAY,
+                TimeUnit.DAYS
+        );
+        return JSON.parseArray(trainStationPriceStr, TrainStationPriceDO.class).stream()
+                .collect(Collectors.toMap(TrainStationPriceDO::getSeatType, TrainStationPriceDO::getPrice, (left, right) -> left));
+    }
+}
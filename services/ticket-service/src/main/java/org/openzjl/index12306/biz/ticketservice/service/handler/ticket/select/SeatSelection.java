@@ -1,119 +0,0 @@
-package org.openzjl.index12306.biz.ticketservice.service.handler.ticket.select;
-
-import cn.hutool.core.collection.CollUtil;
-
-import java.util.ArrayList;
-import java.util.List;
-
-/**
- * 座位选择器
- *
- * @author zhangjlk
- * @date 2025/12/30 上午10:16
- */
-public class SeatSelection {
-
-    public static int[][] adjacent(int numSeats, int[][] seatLayout) {
-        int numRows = seatLayout.length;
-        int numCols = seatLayout[0].length;
-        List<int[]> selectedSeats = new ArrayList<>();
-        for (int i = 0; i < numRows; i++) {
-            for (int j = 0; j < numCols; j++) {
-                if (seatLayout[i][j] == 0) {
-                    int consecutiveSeats = 0;
-                    for (int k = j; k < numCols; k++) {
-                        if (seatLayout[i][k] == 0) {
-                            consecutiveSeats++;
-                            if (consecutiveSeats == numSeats) {
-                                for (int l = k - numSeats + 1; l <= k; l++) {
-                                    selectedSeats.add(new int[]{i, l});
-                                }
-                                break;
-                            }
-                        } else {
-                            consecutiveSeats = 0;
-                        }
-                    }
-                    if (!selectedSeats.isEmpty()) {
-                        break;
-                    }
-                }
-            }
-            if (!selectedSeats.isEmpty()) {
-                break;
-            }
-        }
-        if (CollUtil.isEmpty(selectedSeats)) {
-            return null;
-        }
-        int[][] actualSeat = new int[numSeats][2];
-        int i = 0;
-        for (int[] seat : selectedSeats) {
-            int row = seat[0] + 1;
-            int col = seat[1] + 1;
-            actualSeat[i][0] = row;
-            actualSeat[i][1] = col;
-            i++;
-        }
-        return actualSeat;
-    }
-
-    public static int[][] nonAdjacent(int numSeats, int[][] seatLayout) {
-        int numRows = seatLayout.length;
-        int numCols = seatLayout[0].length;
-        List<int[]> selectedSeats = new ArrayList<>();
-        for (int i = 0; i < numRows; i++) {
-            for (int j = 0; j < numCols; j++) {
-                if (seatLayout[i][j] == 0) {
-                    selectedSeats.add(new int[]{i, j});
-                    if (selectedSeats.size() == numSeats) {
-                        break;
-                    }
-                }
-            }
-            if (selectedSeats.size() == numSeats) {
-                break;
-            }
-        }
-        return convertToActualSeat(selectedSeats);
-    }
-
-    private static int[][] convertToActualSeat(List<int[]> selectedSeats) {
-        int[][] actualSeat = new int[selectedSeats.size()][2];
-        for (int i = 0; i < selectedSeats.size(); i++) {
-            int[] seat = selectedSeats.get(i);
-            int row = seat[0] + 1;
-            int col = seat[1] + 1;
-            actualSeat[i][0] = row;
-            actualSeat[i][1] = col;
-        }
-        return actualSeat;
-    }
-
-    public static void main(String[] args) {
-        int[][] seatLayout = {
-                {1, 1, 1, 1},
-                {1, 1, 1, 0},
-                {1, 1, 1, 0},
-                {0, 0, 0, 0}
-        };
-        int[][] select = adjacent(2, seatLayout);
-        System.out.println("成功预订相邻座位，座位位置为：");
-        assert select != null;
-        for (int[] ints : select) {
-            System.out.printf("第 %d 排，第 %d 列%n", ints[0], ints[1]);
-        }
-
-        int[][] seatLayoutTwo = {
-                {1, 0, 1, 1},
-                {1, 1, 0, 0},
-                {1, 1, 1, 0},
-                {0, 0, 0, 0}
-        };
-        int[][] selectTwo = nonAdjacent(3, seatLayoutTwo);
-        System.out.println("成功预订不相邻座位，座位位置为：");
-        for (int[] ints : selectTwo) {
-            System.out.printf("第 %d 排，第 %d 列%n", ints[0], ints[1]);
-        }
-    }
-}
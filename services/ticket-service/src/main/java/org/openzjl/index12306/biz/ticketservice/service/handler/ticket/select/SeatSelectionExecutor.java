@@ -0,0 +1,286 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.biz.ticketservice.service.handler.ticket.select;
+
+import com.alibaba.ttl.TransmittableThreadLocal;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.openzjl.index12306.biz.ticketservice.config.SeatSelectionExecutorProperties;
+import org.openzjl.index12306.framework.starter.convention.exception.ServiceException;
+import org.openzjl.index12306.framework.starter.log.threadpool.build.ThreadFactoryBuilder;
+import org.openzjl.index12306.framework.starter.user.core.UserContext;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * 选座执行器
+ * <p>
+ * 替代原先同步队列 + CallerRunsPolicy 的选座线程池，避免突发流量下 Tomcat 线程自己执行选座、排队时间无上限：
+ * <ul>
+ *   <li>有界队列：容量按 期望排队时间 / 平均执行耗时 × 工作线程数 动态计算，执行变慢时容量随之收缩，超出容量直接拒绝</li>
+ *   <li>车次公平：任务按车次分别排队，工作线程在车次之间轮询出队，单个车次最多占用一定比例的队列容量</li>
+ *   <li>截止时间：任务携带提交线程 {@link UserContext} 中的请求截止时间，出队时已超时的任务直接丢弃</li>
+ *   <li>监控指标：排队耗时、执行耗时、拒绝次数、超时丢弃次数、排队任务数与当前容量</li>
+ * </ul>
+ * </p>
+ *
+ * @author zhangjlk
+ * @date 2026/10/18 下午7:30
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SeatSelectionExecutor implements InitializingBean, DisposableBean {
+
+    /**
+     * 平均执行耗时的指数加权系数
+     */
+    private static final double RUN_TIME_EWMA_ALPHA = 0.2D;
+
+    private final SeatSelectionExecutorProperties seatSelectionExecutorProperties;
+    private final MeterRegistry meterRegistry;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+
+    /**
+     * 车次ID -> 该车次排队中的任务，出队时取第一个车次的队首任务，并把该车次移到末尾
+     */
+    private final LinkedHashMap<String, ArrayDeque<SeatSelectionTask<?>>> trainQueues = new LinkedHashMap<>();
+
+    /**
+     * 平均执行耗时（纳秒），0 表示尚无样本
+     */
+    private final AtomicLong averageRunNanos = new AtomicLong();
+
+    private int workerCount;
+    private int queuedCount;
+    private boolean shutdown;
+
+    private Timer queueTimer;
+    private Timer runTimer;
+    private Counter queueFullRejectedCounter;
+    private Counter trainLimitRejectedCounter;
+    private Counter expiredCounter;
+
+    @Override
+    public void afterPropertiesSet() {
+        queueTimer = Timer.builder("ticket.seat.selection.queue.time")
+                .description("Time seat selection tasks spent waiting in the queue")
+                .register(meterRegistry);
+        runTimer = Timer.builder("ticket.seat.selection.run.time")
+                .description("Seat selection task execution time")
+                .register(meterRegistry);
+        queueFullRejectedCounter = Counter.builder("ticket.seat.selection.rejected")
+                .description("Seat selection tasks rejected on submit")
+                .tag("reason", "queue_full")
+                .register(meterRegistry);
+        trainLimitRejectedCounter = Counter.builder("ticket.seat.selection.rejected")
+                .description("Seat selection tasks rejected on submit")
+                .tag("reason", "train_limit")
+                .register(meterRegistry);
+        expiredCounter = Counter.builder("ticket.seat.selection.expired")
+                .description("Seat selection tasks dropped after the request deadline")
+                .register(meterRegistry);
+        Gauge.builder("ticket.seat.selection.queued", this, SeatSelectionExecutor::queuedCount)
+                .description("Seat selection tasks waiting in the queue")
+                .register(meterRegistry);
+        Gauge.builder("ticket.seat.selection.capacity", this, SeatSelectionExecutor::capacity)
+                .description("Current adaptive seat selection queue capacity")
+                .register(meterRegistry);
+
+        ThreadFactory threadFactory = ThreadFactoryBuilder.builder()
+                .prefix("seat-selection-")
+                .daemon(true)
+                .build();
+        workerCount = Math.max(1, seatSelectionExecutorProperties.getWorkerCount());
+        for (int i = 0; i < workerCount; i++) {
+            threadFactory.newThread(this::work).start();
+        }
+    }
+
+    /**
+     * 提交选座相关任务
+     *
+     * @param trainId  车次ID，用于车次间公平调度
+     * @param supplier 任务逻辑
+     * @return 任务结果，出队时已超过截止时间的任务以 {@link ServiceException} 结束
+     * @throws ServiceException 已超过截止时间、队列已满或该车次排队任务过多时抛出
+     */
+    public <T> CompletableFuture<T> supplyAsync(String trainId, Supplier<T> supplier) {
+        if (UserContext.isDeadlineExceeded()) {
+            expiredCounter.increment();
+            throw new ServiceException("购票请求已超时，请稍后再试");
+        }
+        SeatSelectionTask<T> task = new SeatSelectionTask<>(supplier, UserContext.getDeadline());
+        lock.lock();
+        try {
+            if (shutdown) {
+                throw new ServiceException("购票服务正在关闭，请稍后再试");
+            }
+            int capacity = capacity();
+            if (queuedCount >= capacity) {
+                queueFullRejectedCounter.increment();
+                throw new ServiceException("选座繁忙，请稍后再试");
+            }
+            ArrayDeque<SeatSelectionTask<?>> trainQueue = trainQueues.get(trainId);
+            int trainCapacity = Math.max(1, capacity * seatSelectionExecutorProperties.getMaxTrainQueuePercent() / 100);
+            if (trainQueue != null && trainQueue.size() >= trainCapacity) {
+                trainLimitRejectedCounter.increment();
+                throw new ServiceException("当前车次购票人数过多，请稍后再试");
+            }
+            if (trainQueue == null) {
+                trainQueue = new ArrayDeque<>();
+                trainQueues.put(trainId, trainQueue);
+            }
+            trainQueue.addLast(task);
+            queuedCount++;
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+        return task.future;
+    }
+
+    @Override
+    public void destroy() {
+        lock.lock();
+        try {
+            // 已入队的任务由工作线程执行完，随后工作线程退出
+            shutdown = true;
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 当前队列容量，由 Little 定律推算：期望排队时间内工作线程能够处理完的任务数
+     */
+    private int capacity() {
+        int minCapacity = seatSelectionExecutorProperties.getMinQueueCapacity();
+        int maxCapacity = Math.max(minCapacity, seatSelectionExecutorProperties.getMaxQueueCapacity());
+        long average = averageRunNanos.get();
+        if (average <= 0) {
+            return maxCapacity;
+        }
+        long capacity = seatSelectionExecutorProperties.getTargetQueueDelay().toNanos() * workerCount / average;
+        return (int) Math.max(minCapacity, Math.min(maxCapacity, capacity));
+    }
+
+    private int queuedCount() {
+        lock.lock();
+        try {
+            return queuedCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void work() {
+        while (true) {
+            SeatSelectionTask<?> task;
+            try {
+                task = take();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (task == null) {
+                return;
+            }
+            task.run();
+        }
+    }
+
+    /**
+     * 在车次之间轮询取出下一个任务，关闭且队列为空时返回 null
+     */
+    private SeatSelectionTask<?> take() throws InterruptedException {
+        lock.lock();
+        try {
+            while (queuedCount == 0) {
+                if (shutdown) {
+                    return null;
+                }
+                notEmpty.await();
+            }
+            Iterator<Map.Entry<String, ArrayDeque<SeatSelectionTask<?>>>> iterator = trainQueues.entrySet().iterator();
+            Map.Entry<String, ArrayDeque<SeatSelectionTask<?>>> first = iterator.next();
+            ArrayDeque<SeatSelectionTask<?>> trainQueue = first.getValue();
+            SeatSelectionTask<?> task = trainQueue.pollFirst();
+            iterator.remove();
+            if (!trainQueue.isEmpty()) {
+                trainQueues.put(first.getKey(), trainQueue);
+            }
+            queuedCount--;
+            return task;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void recordRunTime(long runNanos) {
+        runTimer.record(runNanos, TimeUnit.NANOSECONDS);
+        averageRunNanos.updateAndGet(previous -> previous <= 0
+                ? runNanos
+                : previous + (long) (RUN_TIME_EWMA_ALPHA * (runNanos - previous)));
+    }
+
+    private final class SeatSelectionTask<T> {
+
+        private final Supplier<T> supplier;
+        /**
+         * 请求截止时间（毫秒时间戳），未设置时为 null
+         */
+        private final Long deadline;
+        private final long enqueueNanos = System.nanoTime();
+        private final Object capturedContext = TransmittableThreadLocal.Transmitter.capture();
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+
+        private SeatSelectionTask(Supplier<T> supplier, Long deadline) {
+            this.supplier = supplier;
+            this.deadline = deadline;
+        }
+
+        private void run() {
+            long startTime = System.nanoTime();
+            queueTimer.record(startTime - enqueueNanos, TimeUnit.NANOSECONDS);
+            if (future.isDone()) {
+                return;
+            }
+            if (deadline != null && deadline <= System.currentTimeMillis()) {
+                expiredCounter.increment();
+                future.completeExceptionally(new ServiceException("购票请求已超时，请稍后再试"));
+                return;
+            }
+            try {
+                // 捕获的上下文中包含请求截止时间，任务内的远程调用和 SQL 同样受其约束
+                future.complete(TransmittableThreadLocal.Transmitter.runSupplierWithCaptured(capturedContext, supplier));
+            } catch (Throwable ex) {
+                future.completeExceptionally(ex);
+            } finally {
+                recordRunTime(System.nanoTime() - startTime);
+            }
+        }
+    }
+}
@@ -5,33 +5,39 @@
 package org.openzjl.index12306.biz.ticketservice.service.handler.ticket.select;
 
 import cn.hutool.core.collection.CollUtil;
-import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
-import com.baomidou.mybatisplus.core.toolkit.Wrappers;
+import cn.hutool.core.util.StrUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.openzjl.index12306.biz.ticketservice.common.enums.TicketStockErrorCodeEnum;
 import org.openzjl.index12306.biz.ticketservice.common.enums.VehicleSeatTypeEnum;
 import org.openzjl.index12306.biz.ticketservice.common.enums.VehicleTypeEnum;
-import org.openzjl.index12306.biz.ticketservice.dao.entity.TrainStationPriceDO;
-import org.openzjl.index12306.biz.ticketservice.dao.mapper.TrainStationPriceMapper;
 import org.openzjl.index12306.biz.ticketservice.dto.domain.PurchaseTicketPassengerDetailDTO;
+import org.openzjl.index12306.biz.ticketservice.dto.domain.RouteDTO;
 import org.openzjl.index12306.biz.ticketservice.dto.req.PurchaseTicketReqDTO;
-import org.openzjl.index12306.biz.ticketservice.remote.UserRemoteService;
 import org.openzjl.index12306.biz.ticketservice.remote.dto.PassengerRespDTO;
 import org.openzjl.index12306.biz.ticketservice.service.SeatService;
+import org.openzjl.index12306.biz.ticketservice.service.TrainStationService;
+import org.openzjl.index12306.biz.ticketservice.service.handler.ticket.dto.PurchaseTicketContextDTO;
 import org.openzjl.index12306.biz.ticketservice.service.handler.ticket.dto.SelectSeatDTO;
 import org.openzjl.index12306.biz.ticketservice.service.handler.ticket.dto.TrainPurchaseTicketRespDTO;
-import org.openzjl.index12306.framework.starter.convention.exception.RemoteException;
+import org.openzjl.index12306.framework.starter.cache.DistributedCache;
 import org.openzjl.index12306.framework.starter.convention.exception.ServiceException;
-import org.openzjl.index12306.framework.starter.convention.result.Result;
 import org.openzjl.index12306.framework.starter.designpattern.staregy.AbstractStrategyChoose;
 import org.openzjl.index12306.framework.starter.user.core.UserContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.*;
-import java.util.concurrent.Future;
-import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
+import static org.openzjl.index12306.biz.ticketservice.common.constant.RedisKeyConstant.TRAIN_STATION_REMAINING_TICKET;
+
 /**
  * 购票时列车座位选择器
  *
@@ -44,23 +50,29 @@ import java.util.stream.Collectors;
 public class TrainSeatTypeSelector {
 
     private final SeatService seatService;
-    private final UserRemoteService userRemoteService;
     private final AbstractStrategyChoose abstractStrategyChoose;
-    private final TrainStationPriceMapper trainStationPriceMapper;
-    private final ThreadPoolExecutor selectSeatThreadPoolExecutor;
+    private final PurchaseTicketContextLoader purchaseTicketContextLoader;
+    private final SeatSelectionExecutor seatSelectionExecutor;
+    private final DistributedCache distributedCache;
+    private final TrainStationService trainStationService;
+
+    @Value("${ticket.availability.cache-update.type:}")
+    private String ticketAvailabilityCacheUpdateType;
 
     /**
      * 选座主方法
      * <p>
      * 功能说明：
      * 根据车次类型和购票请求，为所有乘客分配座位。支持多种座位类型的并发选座，
-     * 提高选座效率。如果只有一种座位类型，则串行处理，避免不必要的线程开销。
+     * 提高选座效率。如果只有一种座位类型，则在当前线程处理，避免不必要的线程开销。
      * <p>
      * 处理流程：
-     * 1. 按座位类型分组：将乘客按选择的座位类型分组（如：商务座、一等座、二等座）
-     * 2. 并发/串行选座：根据座位类型数量决定使用并发还是串行处理
-     * 3. 结果验证：验证选座结果是否完整（每个乘客都分配到了座位）
-     * 4. 提取乘客ID：从选座结果中提取乘客ID，用于后续处理
+     * 1. 加载购票上下文：批量查询乘车人明细和区间票价，异步加载，与选座并行执行
+     * 2. 按座位类型分组：将乘客按选择的座位类型分组（如：商务座、一等座、二等座）
+     * 3. 并发/串行选座：根据座位类型数量决定使用并发还是串行处理
+     * 4. 结果验证：验证选座结果是否完整（每个乘客都分配到了座位）
+     * 5. 补充乘车人信息和票价，锁定座位
+     * 6. 事务提交后扣减区间余票缓存
      *
      * @param trainType 车次类型编码（如：0=高速铁路，1=动车等）
      * @param requestParam 购票请求参数（包含车次ID、出发站、到达站、乘客列表等）
@@ -68,10 +80,109 @@ public class TrainSeatTypeSelector {
      * @throws ServiceException 如果选座失败（如余票不足），抛出业务异常
      */
     public List<TrainPurchaseTicketRespDTO> select(Integer trainType, PurchaseTicketReqDTO requestParam) {
-        // 按座位类型分组
-        // 获取所有乘客详情列表
-        List<PurchaseTicketPassengerDetailDTO> passengerDetails = requestParam.getPassengers();
+        // 乘车人明细和区间票价与选座结果无关，先异步发起加载，与选座并行执行
+        CompletableFuture<PurchaseTicketContextDTO> purchaseTicketContextFuture = purchaseTicketContextLoader.loadAsync(requestParam);
+        
+        // 按座位类型分组并选座，验证每个乘客都分配到了座位
+        List<TrainPurchaseTicketRespDTO> actualResult = distributeAllSeats(trainType, requestParam, null);
+
+        // 等待购票上下文加载完成
+        // 乘车人明细与区间票价与选座并行加载，这里通常可以直接拿到结果
+        PurchaseTicketContextDTO purchaseTicketContext = joinPurchaseTicketContext(purchaseTicketContextFuture);
+
+        // 补充乘车人信息和座位价格
+        fillPassengerAndPrice(actualResult, purchaseTicketContext);
+
+        // 锁定座位
+        // 锁定所有已选中的座位，防止其他用户同时选择相同的座位
+        seatService.lockSeat(requestParam.getTrainId(), requestParam.getDeparture(), requestParam.getArrival(), actualResult);
+
+        // 座位锁定事务提交后扣减区间余票缓存
+        decrementRemainingTicketAfterCommit(requestParam, actualResult);
         
+        // 返回完整的选座结果列表
+        // 包含：座位信息、乘客信息、价格信息等，用于后续创建订单
+        return actualResult;
+    }
+
+
+    /**
+     * 合并提交时为组内单个请求选座
+     * <p>
+     * 组内请求按排队顺序逐个调用，共享同一份车厢座位图：前序请求选中的座位已在座位图中占用，后续请求不会重复选中；
+     * 每个请求仍按自身乘车人独立分组选座，邻座保证与单独购票时一致。
+     * 座位由调用方在全部请求选座后一次性锁定，锁定后再调用 {@link #decrementRemainingTicketAfterCommit(PurchaseTicketReqDTO, List)}。
+     * </p>
+     *
+     * @param trainType        车次类型编码
+     * @param requestParam     购票请求参数
+     * @param carriageSeatMaps 组内共享的车厢座位图
+     * @return 选座结果
+     * @throws ServiceException 余票不足时抛出，只影响当前请求
+     */
+    public List<TrainPurchaseTicketRespDTO> selectInGroup(Integer trainType, PurchaseTicketReqDTO requestParam, Map<String, CarriageSeatMap> carriageSeatMaps) {
+        CompletableFuture<PurchaseTicketContextDTO> purchaseTicketContextFuture = purchaseTicketContextLoader.loadAsync(requestParam);
+        List<TrainPurchaseTicketRespDTO> actualResult = distributeAllSeats(trainType, requestParam, carriageSeatMaps);
+        fillPassengerAndPrice(actualResult, joinPurchaseTicketContext(purchaseTicketContextFuture));
+        return actualResult;
+    }
+
+    /**
+     * 扣减区间余票缓存
+     * <p>
+     * 在事务中调用时注册到事务提交之后执行，事务回滚时缓存保持不变，退化重试或补偿时不会重复扣减；
+     * 没有事务时立即执行。扣减失败只记录日志，由余票对账任务修复。Binlog 模式下余票缓存由座位表 Binlog 更新，直接跳过。
+     * </p>
+     *
+     * @param requestParam 购票请求参数
+     * @param actualResult 已锁定的选座结果
+     */
+    public void decrementRemainingTicketAfterCommit(PurchaseTicketReqDTO requestParam, List<TrainPurchaseTicketRespDTO> actualResult) {
+        if (CollUtil.isEmpty(actualResult) || StrUtil.equals(ticketAvailabilityCacheUpdateType, "binlog")) {
+            return;
+        }
+        Runnable decrement = () -> {
+            try {
+                String trainId = requestParam.getTrainId();
+                StringRedisTemplate stringRedisTemplate = (StringRedisTemplate) distributedCache.getInstance();
+                Map<Integer, Long> seatTypeCountMap = actualResult.stream()
+                        .collect(Collectors.groupingBy(TrainPurchaseTicketRespDTO::getSeatType, Collectors.counting()));
+                List<RouteDTO> routeDTOList = trainStationService.listTakeoutTrainStationRoute(trainId, requestParam.getDeparture(), requestParam.getArrival());
+                routeDTOList.forEach(each -> {
+                    String keySuffix = StrUtil.join("_", trainId, each.getStartStation(), each.getEndStation());
+                    seatTypeCountMap.forEach((seatType, count) -> stringRedisTemplate.opsForHash()
+                            .increment(TRAIN_STATION_REMAINING_TICKET + keySuffix, String.valueOf(seatType), -count));
+                });
+            } catch (Throwable ex) {
+                log.error("扣减区间余票缓存失败，等待余票对账修复，车次：{}，出发站：{}，到达站：{}",
+                        requestParam.getTrainId(), requestParam.getDeparture(), requestParam.getArrival(), ex);
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    decrement.run();
+                }
+            });
+        } else {
+            decrement.run();
+        }
+    }
+
+    /**
+     * 按座位类型分组并为全部乘客分配座位
+     * <p>
+     * 多种座位类型时并发选座，只有一种座位类型时在当前线程处理，避免不必要的线程开销。
+     * 合并提交时各座位类型共享组内座位图，始终在当前线程依次选座。
+     * </p>
+     *
+     * @param carriageSeatMaps 合并提交时组内共享的车厢座位图，单请求购票为 null
+     * @throws ServiceException 部分乘客未分配到座位时抛出
+     */
+    private List<TrainPurchaseTicketRespDTO> distributeAllSeats(Integer trainType, PurchaseTicketReqDTO requestParam, Map<String, CarriageSeatMap> carriageSeatMaps) {
+        List<PurchaseTicketPassengerDetailDTO> passengerDetails = requestParam.getPassengers();
+
         // 按座位类型分组，将乘客按选择的座位类型分类
         // 例如：如果有5个乘客，3个选择商务座，2个选择一等座
         // 结果：{0: [乘客1, 乘客2, 乘客3], 1: [乘客4, 乘客5]}
@@ -80,52 +191,56 @@ public class TrainSeatTypeSelector {
         Map<Integer, List<PurchaseTicketPassengerDetailDTO>> seatTypeMap = passengerDetails.stream()
                 .collect(Collectors.groupingBy(PurchaseTicketPassengerDetailDTO::getSeatType));
         
-        // 创建线程安全的结果列表，用于存储所有选座结果
-        // 使用Collections.synchronizedList确保多线程并发写入时的线程安全
-        // 初始容量设置为seatTypeMap.size()，减少扩容次数
-        List<TrainPurchaseTicketRespDTO> actualResult = Collections.synchronizedList(new ArrayList<>(seatTypeMap.size()));
+        // 创建结果列表，用于存储所有选座结果
+        // 结果只在当前线程合并，无需同步
+        List<TrainPurchaseTicketRespDTO> actualResult = new ArrayList<>(passengerDetails.size());
+
+        // 合并提交时共享座位图不是线程安全的，各座位类型在当前线程依次选座，
+        // 避免超时后仍在执行的选座任务与组内后续请求同时修改座位图
+        if (carriageSeatMaps != null) {
+            seatTypeMap.forEach((seatType, passengers) -> actualResult.addAll(distributeSeats(trainType, seatType, requestParam, passengers, carriageSeatMaps)));
+            if (!Objects.equals(actualResult.size(), passengerDetails.size())) {
+                throw new ServiceException(TicketStockErrorCodeEnum.STATION_STOCK_INSUFFICIENT);
+            }
+            return actualResult;
+        }
         
         // 并发或串行选座
-        // 判断是否有多种座位类型
-        if (seatTypeMap.size() > 1) {
-            // 多种座位类型：使用线程池并发处理，提高效率
-            // 例如：同时为商务座、一等座、二等座的乘客选座
-            
-            // 创建Future列表，用于收集异步任务的Future对象
-            List<Future<List<TrainPurchaseTicketRespDTO>>> futureResults = new ArrayList<>(seatTypeMap.size());
-            
-            // 为每种座位类型提交异步选座任务到线程池
-            seatTypeMap.forEach((seatType, passengerSeatDetails) -> {
-                // 提交选座任务到线程池，立即返回Future对象（不阻塞）
-                // 任务会在后台线程中执行，多个座位类型的选座任务并发执行
-                Future<List<TrainPurchaseTicketRespDTO>> completableFuture = selectSeatThreadPoolExecutor
-                        .submit(() -> distributeSeats(trainType, seatType, requestParam, passengerSeatDetails));
-                // 将Future对象添加到列表中，用于后续收集结果
-                futureResults.add(completableFuture);
-            });
-            
-            // 等待所有异步任务完成，并收集结果
-            // 使用parallelStream()并行处理Future列表，提高效率
-            futureResults.parallelStream().forEach(completableFuture -> {
-                try {
-                    // future.get() 会阻塞等待任务完成，然后获取选座结果
-                    // 将每个座位类型的选座结果合并到总结果列表中
-                    actualResult.addAll(completableFuture.get());
-                } catch (Exception e) {
-                    // 如果选座失败（如余票不足），抛出业务异常
-                    // 注意：这里捕获的是Exception，包括ExecutionException（任务执行异常）
-                    throw new ServiceException("站点余票不足");
-                }
-            });
-        } else {
-            // 只有一种座位类型：串行处理，避免不必要的线程开销
-            // 例如：所有乘客都选择商务座，直接串行处理即可
-            seatTypeMap.forEach((seatType, passengerSeatDetails) -> {
-                // 直接调用选座方法，同步执行
-                List<TrainPurchaseTicketRespDTO> aggregationResult = distributeSeats(trainType, seatType, requestParam, passengerSeatDetails);
-                // 将选座结果添加到总结果列表中
-                actualResult.addAll(aggregationResult);
-            });
+        // 第一种座位类型在当前线程执行，其余座位类型提交到选座执行器并发执行
+        // 只有一种座位类型（最常见的情况）时完全在当前线程执行，没有线程切换
+        List<CompletableFuture<List<TrainPurchaseTicketRespDTO>>> futureResults = new ArrayList<>(seatTypeMap.size() - 1);
+        Integer inlineSeatType = null;
+        for (Map.Entry<Integer, List<PurchaseTicketPassengerDetailDTO>> entry : seatTypeMap.entrySet()) {
+            if (inlineSeatType == null) {
+                inlineSeatType = entry.getKey();
+                continue;
+            }
+            // 提交选座任务，执行器繁忙或该车次排队任务过多时直接拒绝，不再由调用线程代为执行
+            futureResults.add(seatSelectionExecutor.supplyAsync(
+                    requestParam.getTrainId(),
+                    () -> distributeSeats(trainType, entry.getKey(), requestParam, entry.getValue(), carriageSeatMaps)
+            ));
+        }
+        try {
+            actualResult.addAll(distributeSeats(trainType, inlineSeatType, requestParam, seatTypeMap.get(inlineSeatType), carriageSeatMaps));
+        } catch (RuntimeException ex) {
+            futureResults.forEach(each -> each.cancel(false));
+            throw ex;
+        }
+
+        // 等待其余座位类型的选座结果，最多等到请求的截止时间
+        for (CompletableFuture<List<TrainPurchaseTicketRespDTO>> each : futureResults) {
+            try {
+                long remainingMillis = UserContext.getRemainingMillis();
+                actualResult.addAll(remainingMillis == Long.MAX_VALUE ? each.get() : each.get(Math.max(0L, remainingMillis), TimeUnit.MILLISECONDS));
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new ServiceException("购票被中断");
+            } catch (Exception ex) {
+                // 选座失败（如余票不足）或等待超过截止时间，尚未执行的任务出队时直接丢弃
+                futureResults.forEach(item -> item.cancel(false));
+                throw new ServiceException("站点余票不足", TicketStockErrorCodeEnum.STATION_STOCK_INSUFFICIENT);
+            }
         }
         
         // 验证选座结果
@@ -134,109 +249,61 @@ public class TrainSeatTypeSelector {
         // 条件2：actualResult.size() != passengerDetails.size()，说明部分乘客没有分配到座位
         // 如果任一条件满足，说明选座失败，抛出异常
         if (CollUtil.isEmpty(actualResult) || !Objects.equals(actualResult.size(), passengerDetails.size())) {
-            throw new ServiceException("站点余票不足，请尝试更换座位或选择其他站点");
+            throw new ServiceException(TicketStockErrorCodeEnum.STATION_STOCK_INSUFFICIENT);
         }
-        
-        // 提取乘客ID并验证乘客信息
-        // 从选座结果中提取所有乘客ID，用于后续处理（如验证乘客信息、创建订单等）
-        // 例如：从选座结果中提取 ["passenger1", "passenger2", "passenger3"]
-        List<String> passengerIds = actualResult.stream()
-                .map(TrainPurchaseTicketRespDTO::getPassengerId)
-                .collect(Collectors.toList());
-        
-        // 调用远程用户服务，根据乘客ID批量查询乘客详细信息
-        // 目的：验证乘客信息是否存在、是否有效，确保购票的乘客信息正确
-        // 例如：验证乘客身份证号、姓名、联系方式等信息是否匹配
-        Result<List<PassengerRespDTO>> passengerRemoteResult;
-        List<PassengerRespDTO> passengerRemoteResultList;
-        try {
-            // 调用远程用户服务，批量查询乘客信息
-            // 参数1：当前登录用户名，用于权限验证
-            // 参数2：乘客ID列表，需要查询的乘客ID集合
-            // 返回：Result包装的乘客信息列表
-            passengerRemoteResult = userRemoteService.listPassengerQueryByIds(UserContext.getUserName(), passengerIds);
-            
-            // 验证远程调用结果
-            // 条件1：!passengerRemoteResult.isSuccess() - 远程调用失败（如网络异常、服务异常等）
-            // 条件2：CollUtil.isEmpty(passengerRemoteResultList = passengerRemoteResult.getData()) - 返回数据为空
-            if (!passengerRemoteResult.isSuccess() || CollUtil.isEmpty(passengerRemoteResultList = passengerRemoteResult.getData())) {
-                throw new RemoteException("用户远程调用查询乘车人相关信息错误！");
-            }
-        } catch (Throwable ex) {
-            // 捕获所有异常（包括RemoteException和其他异常）
-            if (ex instanceof RemoteException) {
-                // 如果是远程调用异常（业务异常），只记录错误信息，不记录堆栈
-                // 因为这是预期的业务异常，堆栈信息可能不必要
-                log.error("用户服务远程调用查询乘车人相关信息错误，当前用户：{}，请求参数：{}", UserContext.getUserName(), passengerIds);
-            } else {
-                // 如果是其他异常（如网络异常、系统异常等），记录完整的错误信息和堆栈
-                // 这些异常是未预期的，需要完整的堆栈信息用于排查问题
-                log.error("用户服务远程调用查询乘车人相关信息错误，当前用户：{}，请求参数：{}", UserContext.getUserName(), passengerIds, ex);
-            }
-            // 重新抛出异常，终止选座流程
-            // 因为乘客信息验证失败，无法继续后续的购票流程
-            throw ex;
-        }
-        
+
+        return actualResult;
+    }
+
+    /**
+     * 为选座结果补充乘车人信息和票价
+     */
+    private void fillPassengerAndPrice(List<TrainPurchaseTicketRespDTO> actualResult, PurchaseTicketContextDTO purchaseTicketContext) {
+        Map<String, PassengerRespDTO> passengerMap = purchaseTicketContext.getPassengerMap();
+        Map<Integer, Integer> seatTypePriceMap = purchaseTicketContext.getSeatTypePriceMap();
+
         // 补充选座结果的详细信息
         // 为每个选座结果补充乘客的详细信息（身份证号、手机号、姓名等）和座位价格
-        // 这些信息在选座时可能没有完整获取，需要从远程服务查询结果和数据库中补充
         actualResult.forEach(each -> {
-            // 获取当前选座结果对应的乘客ID
-            String passengerId = each.getPassengerId();
-            
-            // 从远程服务查询结果中查找对应的乘客信息
-            // 通过乘客ID匹配，找到该乘客的完整信息（身份证号、手机号、姓名等）
-            passengerRemoteResultList.stream()
-                    // 过滤出ID匹配的乘客信息
-                    .filter(item -> Objects.equals(item.getId(), passengerId))
-                    // 获取第一个匹配的乘客信息（理论上应该只有一个）
-                    .findFirst()
-                    // 如果找到了乘客信息，则补充到选座结果中
-                    .ifPresent(passenger -> {
-                        // 补充身份证号：用于后续创建订单和实名制验证
-                        each.setIdCard(passenger.getIdCard());
-                        // 补充手机号：用于订单通知和联系
-                        each.setPhone(passenger.getPhone());
-                        // 补充证件类型：用于区分身份证、护照等不同证件类型
-                        each.setUserType(passenger.getIdType());
-                        // 补充真实姓名：用于订单显示和实名制验证
-                        each.setRealName(passenger.getRealName());
-                    });
+            // 按乘客ID从批量查询结果中取出乘客信息
+            PassengerRespDTO passenger = passengerMap.get(each.getPassengerId());
+            if (passenger != null) {
+                // 补充身份证号：用于后续创建订单和实名制验证
+                each.setIdCard(passenger.getIdCard());
+                // 补充手机号：用于订单通知和联系
+                each.setPhone(passenger.getPhone());
+                // 补充证件类型：用于区分身份证、护照等不同证件类型
+                each.setUserType(passenger.getIdType());
+                // 补充真实姓名：用于订单显示和实名制验证
+                each.setRealName(passenger.getRealName());
+            }
 
-            // 查询座位价格
-            // 从数据库查询该座位的价格信息
-            // 查询条件：车次ID、出发站、到达站、座位类型
-            LambdaQueryWrapper<TrainStationPriceDO> lambdaQueryWrapper = Wrappers.lambdaQuery(TrainStationPriceDO.class)
-                    // 条件1：车次ID必须匹配
-                    .eq(TrainStationPriceDO::getTrainId, requestParam.getTrainId())
-                    // 条件2：出发站必须匹配
-                    .eq(TrainStationPriceDO::getDeparture, requestParam.getDeparture())
-                    // 条件3：到达站必须匹配
-                    .eq(TrainStationPriceDO::getArrival, requestParam.getArrival())
-                    // 条件4：座位类型必须匹配（如：商务座、一等座、二等座）
-                    .eq(TrainStationPriceDO::getSeatType, each.getSeatType())
-                    // 只查询价格字段，提高查询效率
-                    .select(TrainStationPriceDO::getPrice);
-            
-            // 执行查询，获取该座位的价格信息
-            // 注意：这里假设一定能查询到价格，如果查询不到可能会抛出异常
-            TrainStationPriceDO trainStationPriceDO = trainStationPriceMapper.selectOne(lambdaQueryWrapper);
-            
-            // 将价格设置到选座结果中
+            // 座位价格：同一区间所有座位类型的价格已一次性取出，按座位类型直接取值
             // 价格单位：分（数据库存储格式），后续可能需要转换为元
-            each.setAmount(trainStationPriceDO.getPrice());
+            Integer price = seatTypePriceMap.get(each.getSeatType());
+            if (price == null) {
+                throw new ServiceException("列车站点价格数据错误");
+            }
+            each.setAmount(price);
         });
-        
-        // 锁定座位
-        // 锁定所有已选中的座位，防止其他用户同时选择相同的座位
-        seatService.lockSeat(requestParam.getTrainId(), requestParam.getDeparture(), requestParam.getArrival(), actualResult);
-        
-        // 返回完整的选座结果列表
-        // 包含：座位信息、乘客信息、价格信息等，用于后续创建订单
-        return actualResult;
     }
 
+    /**
+     * 获取购票上下文加载结果
+     * <p>
+     * 加载过程中的业务异常（如乘车人查询失败）原样抛出，与同步调用时的行为保持一致。
+     * </p>
+     */
+    private PurchaseTicketContextDTO joinPurchaseTicketContext(CompletableFuture<PurchaseTicketContextDTO> purchaseTicketContextFuture) {
+        try {
+            return purchaseTicketContextFuture.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
 
     /**
      * 分配座位（使用策略模式）
@@ -261,10 +328,11 @@ public class TrainSeatTypeSelector {
      * @param seatType 座位类型编码（如：0=商务座，1=一等座，2=二等座等）
      * @param requestParam 购票请求参数（包含车次ID、出发站、到达站、出发日期等）
      * @param passengerSeatDetails 该座位类型对应的乘客详情列表（已按座位类型分组）
+     * @param carriageSeatMaps 合并提交时组内共享的车厢座位图，单请求购票为 null
      * @return 选座结果列表，包含每个乘客分配到的座位信息
      * @throws ServiceException 如果选座失败（如余票不足、座位已被占用等），抛出业务异常
      */
-    private List<TrainPurchaseTicketRespDTO> distributeSeats(Integer trainType, Integer seatType, PurchaseTicketReqDTO requestParam, List<PurchaseTicketPassengerDetailDTO> passengerSeatDetails) {
+    private List<TrainPurchaseTicketRespDTO> distributeSeats(Integer trainType, Integer seatType, PurchaseTicketReqDTO requestParam, List<PurchaseTicketPassengerDetailDTO> passengerSeatDetails, Map<String, CarriageSeatMap> carriageSeatMaps) {
         // 构建策略Key：车型名称 + 座位类型名称
         // 例如：HIGH_SPEED_RAILWAY + BUSINESS_CLASS = "HIGH_SPEED_RAILWAYBUSINESS_CLASS"
         // 这个Key用于在策略选择器中找到对应的选座策略实现类
@@ -279,6 +347,8 @@ public class TrainSeatTypeSelector {
                 .passengerSeatDetails(passengerSeatDetails)
                 // 购票请求参数（包含车次ID、出发站、到达站、出发日期等完整信息）
                 .requestParam(requestParam)
+                // 合并提交时组内共享的车厢座位图
+                .carriageSeatMaps(carriageSeatMaps)
                 .build();
         
         try {
@@ -294,7 +364,8 @@ public class TrainSeatTypeSelector {
             // 1. 余票不足：该座位类型没有足够的余票
             // 2. 座位已被占用：并发场景下座位被其他用户占用
             // 3. 选座策略执行失败：策略内部逻辑出错
-            throw new ServiceException(e.getMessage());
+            // 原样抛出，保留余票不足等错误码
+            throw e;
         }
     }
 }
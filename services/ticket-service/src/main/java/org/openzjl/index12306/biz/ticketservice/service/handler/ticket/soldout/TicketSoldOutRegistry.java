@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.biz.ticketservice.service.handler.ticket.soldout;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.util.StrUtil;
+import com.alibaba.fastjson2.JSON;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.openzjl.index12306.biz.ticketservice.config.TicketSoldOutProperties;
+import org.openzjl.index12306.biz.ticketservice.service.handler.ticket.dto.TicketSoldOutEventDTO;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.openzjl.index12306.biz.ticketservice.common.constant.RedisKeyConstant.TICKET_SOLD_OUT_PUBLISH_FLAG;
+import static org.openzjl.index12306.biz.ticketservice.common.constant.RedisKeyConstant.TICKET_SOLD_OUT_TOPIC;
+
+/**
+ * 售罄登记表
+ * <p>
+ * 抢票高峰期绝大部分请求落在已售罄的车次上，每个请求仍要执行令牌桶 Lua 脚本、读取余票 Hash。
+ * 该组件在每个实例维护一个本地的、带过期时间的售罄集合（Key：车次_出发站_到达站_座位类型）：
+ * <ul>
+ *   <li>令牌桶返回余量为 0 时登记售罄，并由首个发现的实例（发布标记 SETNX 成功）通过 Redis Pub/Sub 广播给所有实例</li>
+ *   <li>购票责任链在任何远程调用之前检查本地集合，命中直接拒绝</li>
+ *   <li>退票、取消订单回补令牌或令牌桶被删除重建时广播清除事件，各实例移除该车次对应座位类型的售罄标记</li>
+ * </ul>
+ * 本地标记到期后自动失效，即使清除事件丢失也只会短暂拒绝，随后重新以令牌桶为准。
+ * </p>
+ *
+ * @author zhangjlk
+ * @date 2026/10/18 下午4:20
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TicketSoldOutRegistry implements InitializingBean, DisposableBean {
+
+    private final RedissonClient redissonClient;
+    private final TicketSoldOutProperties soldOutProperties;
+
+    private Cache<String, Boolean> soldOutCache;
+    private RTopic soldOutTopic;
+    private Integer listenerId;
+
+    @Override
+    public void afterPropertiesSet() {
+        soldOutCache = Caffeine.newBuilder()
+                .expireAfterWrite(soldOutProperties.getExpire())
+                .maximumSize(soldOutProperties.getMaximumSize())
+                .build();
+        if (!soldOutProperties.getEnabled()) {
+            return;
+        }
+        soldOutTopic = redissonClient.getTopic(TICKET_SOLD_OUT_TOPIC, StringCodec.INSTANCE);
+        listenerId = soldOutTopic.addListener(String.class, (channel, message) -> {
+            try {
+                apply(JSON.parseObject(message, TicketSoldOutEventDTO.class));
+            } catch (Throwable ex) {
+                log.error("处理售罄广播失败，消息：{}", message, ex);
+            }
+        });
+    }
+
+    /**
+     * 判断区间座位类型是否已售罄
+     */
+    public boolean isSoldOut(String trainId, String departure, String arrival, Integer seatType) {
+        return soldOutProperties.getEnabled() && soldOutCache.getIfPresent(buildKey(trainId, departure, arrival, seatType)) != null;
+    }
+
+    /**
+     * 登记售罄并广播
+     *
+     * @param seatTypes 令牌余量已为 0 的座位类型
+     */
+    public void markSoldOut(String trainId, String departure, String arrival, List<Integer> seatTypes) {
+        if (!soldOutProperties.getEnabled() || CollUtil.isEmpty(seatTypes)) {
+            return;
+        }
+        TicketSoldOutEventDTO event = TicketSoldOutEventDTO.builder()
+                .soldOut(Boolean.TRUE)
+                .trainId(trainId)
+                .departure(departure)
+                .arrival(arrival)
+                .seatTypes(seatTypes)
+                .build();
+        apply(event);
+        // 同一区间座位类型只由首个发现售罄的实例广播，其余实例只登记本地标记
+        boolean firstObserver = false;
+        for (Integer each : seatTypes) {
+            String publishFlag = String.format(TICKET_SOLD_OUT_PUBLISH_FLAG, buildKey(trainId, departure, arrival, each));
+            firstObserver |= redissonClient.getBucket(publishFlag, StringCodec.INSTANCE).setIfAbsent("1", soldOutProperties.getExpire());
+        }
+        if (firstObserver) {
+            publish(event);
+        }
+    }
+
+    /**
+     * 令牌回补后清除售罄标记，并在删除发布标记成功时广播
+     * <p>
+     * 售罄广播后各实例的本地集合一致，以本地移除的 Key 删除对应的发布标记：多个实例同时回补时只有删除成功的实例广播，
+     * 发布标记已不存在说明售罄从未广播或已被其他实例清除并广播，不再重复广播。
+     * </p>
+     *
+     * @param seatTypes 回补的座位类型，为空时清除该车次全部座位类型
+     */
+    public void clearSoldOut(String trainId, List<Integer> seatTypes) {
+        if (!soldOutProperties.getEnabled()) {
+            return;
+        }
+        TicketSoldOutEventDTO event = TicketSoldOutEventDTO.builder()
+                .soldOut(Boolean.FALSE)
+                .trainId(trainId)
+                .seatTypes(seatTypes)
+                .build();
+        // 发布标记随之删除，下次售罄重新广播
+        boolean flagRemoved = false;
+        for (String each : apply(event)) {
+            flagRemoved |= redissonClient.getBucket(String.format(TICKET_SOLD_OUT_PUBLISH_FLAG, each), StringCodec.INSTANCE).delete();
+        }
+        if (flagRemoved) {
+            publish(event);
+        }
+    }
+
+    /**
+     * 在本地集合登记或清除售罄
+     *
+     * @return 清除事件从本地集合移除的 Key，登记事件返回空列表
+     */
+    private List<String> apply(TicketSoldOutEventDTO event) {
+        if (Boolean.TRUE.equals(event.getSoldOut())) {
+            event.getSeatTypes().forEach(each -> soldOutCache.put(buildKey(event.getTrainId(), event.getDeparture(), event.getArrival(), each), Boolean.TRUE));
+            return List.of();
+        }
+        // 令牌回补会影响经过的所有区间，按车次 + 座位类型整体清除
+        String trainPrefix = event.getTrainId() + "_";
+        List<String> removedKeys = new ArrayList<>();
+        soldOutCache.asMap().keySet().removeIf(key -> {
+            if (!key.startsWith(trainPrefix)) {
+                return false;
+            }
+            if (CollUtil.isNotEmpty(event.getSeatTypes())
+                    && event.getSeatTypes().stream().noneMatch(seatType -> key.endsWith("_" + seatType))) {
+                return false;
+            }
+            removedKeys.add(key);
+            return true;
+        });
+        return removedKeys;
+    }
+
+    private void publish(TicketSoldOutEventDTO event) {
+        try {
+            soldOutTopic.publish(JSON.toJSONString(event));
+        } catch (Throwable ex) {
+            // 广播失败不影响购票主流程，其他实例会在各自的令牌桶调用中自行发现售罄
+            log.warn("发布售罄广播失败，事件：{}", JSON.toJSONString(event), ex);
+        }
+    }
+
+    private String buildKey(String trainId, String departure, String arrival, Integer seatType) {
+        return StrUtil.join("_", trainId, departure, arrival, seatType);
+    }
+
+    @Override
+    public void destroy() {
+        if (soldOutTopic != null && listenerId != null) {
+            soldOutTopic.removeListener(listenerId);
+        }
+    }
+}
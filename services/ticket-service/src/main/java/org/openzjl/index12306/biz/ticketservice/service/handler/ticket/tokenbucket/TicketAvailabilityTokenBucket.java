@@ -23,6 +23,8 @@ import org.openzjl.index12306.biz.ticketservice.remote.dto.TicketOrderPassengerD
 import org.openzjl.index12306.biz.ticketservice.service.SeatService;
 import org.openzjl.index12306.biz.ticketservice.service.TrainStationService;
 import org.openzjl.index12306.biz.ticketservice.service.handler.ticket.dto.TokenResultDTO;
+import org.openzjl.index12306.biz.ticketservice.service.handler.ticket.soldout.TicketSoldOutRegistry;
+import org.openzjl.index12306.biz.ticketservice.service.handler.ticket.waitlist.WaitlistSignal;
 import org.openzjl.index12306.framework.starter.bases.Singleton;
 import org.openzjl.index12306.framework.starter.cache.DistributedCache;
 import org.openzjl.index12306.framework.starter.convention.exception.ServiceException;
@@ -63,6 +65,8 @@ public final class TicketAvailabilityTokenBucket {
     private final RedissonClient redissonClient;
     private final SeatService seatService;
     private final TrainMapper trainMapper;
+    private final TicketSoldOutRegistry ticketSoldOutRegistry;
+    private final WaitlistSignal waitlistSignal;
 
     private static final String LUA_TICKET_AVAILABILITY_TOKEN_BUCKET_PATH = "lua/ticket_availability_token_bucket.lua";
     private static final String LUA_TICKET_AVAILABILITY_ROLLBACK_TOKEN_BUCKET_PATH = "lua/ticket_availability_rollback_token_bucket.lua";
@@ -376,6 +380,35 @@ public final class TicketAvailabilityTokenBucket {
             log.error("回滚列车余票令牌失败，订单信息: {}", JSON.toJSONString(requestParam));
             throw new ServiceException("回滚列车余票令牌失败！");
         }
+
+        // 令牌已回补，清除各实例上该车次对应座位类型的售罄标记
+        ticketSoldOutRegistry.clearSoldOut(
+                String.valueOf(requestParam.getTrainId()),
+                requestParam.getPassengerDetails().stream().map(TicketOrderPassengerDetailRespDTO::getSeatType).distinct().toList()
+        );
+
+        // 唤醒该车次的候补匹配
+        waitlistSignal.signal(requestParam.getTrainId());
+    }
+
+    /**
+     * 回滚购票请求已获取但未使用的令牌
+     * <p>
+     * 购票请求获取令牌后、订单创建前失败时调用（排队被拒绝、排队超时、选座失败等），
+     * 按请求中乘车人的座位类型归还令牌，避免令牌桶长期低于实际余票。
+     * </p>
+     *
+     * @param requestParam 购票请求参数
+     */
+    public void rollbackInBucket(PurchaseTicketReqDTO requestParam) {
+        TicketOrderDetailRespDTO ticketOrderDetail = new TicketOrderDetailRespDTO();
+        ticketOrderDetail.setTrainId(Long.parseLong(requestParam.getTrainId()));
+        ticketOrderDetail.setDeparture(requestParam.getDeparture());
+        ticketOrderDetail.setArrival(requestParam.getArrival());
+        ticketOrderDetail.setPassengerDetails(requestParam.getPassengers().stream()
+                .map(each -> TicketOrderPassengerDetailRespDTO.builder().seatType(each.getSeatType()).build())
+                .toList());
+        rollbackInBucket(ticketOrderDetail);
     }
 
     /**
@@ -388,6 +421,8 @@ public final class TicketAvailabilityTokenBucket {
         StringRedisTemplate stringRedisTemplate = (StringRedisTemplate) distributedCache.getInstance();
         String tokenBucketHashKey = TICKET_AVAILABILITY_TOKEN_BUCKET + requestParam.getTrainId();
         stringRedisTemplate.delete(tokenBucketHashKey);
+        // 令牌桶将按数据库重新加载，售罄标记一并清除
+        ticketSoldOutRegistry.clearSoldOut(requestParam.getTrainId(), null);
     }
 
     public void putTokenInBucket() {
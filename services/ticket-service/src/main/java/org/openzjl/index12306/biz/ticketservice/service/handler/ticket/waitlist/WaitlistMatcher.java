@@ -0,0 +1,281 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.biz.ticketservice.service.handler.ticket.waitlist;
+
+import cn.hutool.core.util.StrUtil;
+import com.alibaba.fastjson2.JSON;
+import com.baomidou.mybatisplus.core.toolkit.Wrappers;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.openzjl.index12306.biz.ticketservice.common.enums.TicketStockErrorCodeEnum;
+import org.openzjl.index12306.biz.ticketservice.common.enums.WaitlistStatusEnum;
+import org.openzjl.index12306.biz.ticketservice.config.WaitlistProperties;
+import org.openzjl.index12306.biz.ticketservice.dao.entity.WaitlistOrderDO;
+import org.openzjl.index12306.biz.ticketservice.dao.mapper.WaitlistOrderMapper;
+import org.openzjl.index12306.biz.ticketservice.dto.req.PurchaseTicketReqDTO;
+import org.openzjl.index12306.biz.ticketservice.dto.resp.TicketPurchaseRespDTO;
+import org.openzjl.index12306.biz.ticketservice.remote.TicketOrderRemoteService;
+import org.openzjl.index12306.biz.ticketservice.remote.dto.TicketOrderDetailRespDTO;
+import org.openzjl.index12306.biz.ticketservice.service.TicketService;
+import org.openzjl.index12306.framework.starter.bases.ApplicationContextHolder;
+import org.openzjl.index12306.framework.starter.cache.DistributedCache;
+import org.openzjl.index12306.framework.starter.convention.result.Result;
+import org.openzjl.index12306.framework.starter.log.threadpool.build.ThreadFactoryBuilder;
+import org.openzjl.index12306.framework.starter.user.core.UserContext;
+import org.openzjl.index12306.framework.starter.user.core.UserInfoDTO;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.openzjl.index12306.biz.ticketservice.common.constant.RedisKeyConstant.TICKET_AVAILABILITY_TOKEN_BUCKET;
+
+/**
+ * 候补匹配任务
+ * <p>
+ * 每个实例按固定间隔处理余票回补信号，并定期全量扫描有排队候补的车次（兜底其他实例回补的余票和丢失的信号）：
+ * <ol>
+ *   <li>按 ID 顺序读取车次的排队候补，先到先得；令牌桶中对应区间余量不足的候补跳过，不阻塞后面其他区间的候补</li>
+ *   <li>通过状态 CAS（排队中 -> 兑现中）认领候补，多实例并发匹配时同一候补只会被一个实例兑现</li>
+ *   <li>以候补用户身份走正常购票流程 {@link TicketService#purchaseTicketsV2}，由分区执行器调用 executePurchaseTickets 创建订单</li>
+ *   <li>余票不足导致的下单失败直接回到排队中；其他异常累计尝试次数，未超过上限时回到排队中，原排队位置不变</li>
+ *   <li>订单创建后立即在候补上登记订单号，兑现中超时的候补按订单号确认订单是否已创建，已创建的不再回到排队中</li>
+ * </ol>
+ * </p>
+ *
+ * @author zhangjlk
+ * @date 2026/10/18 下午5:40
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class WaitlistMatcher implements CommandLineRunner, DisposableBean {
+
+    private final WaitlistOrderMapper waitlistOrderMapper;
+    private final WaitlistSignal waitlistSignal;
+    private final WaitlistProperties waitlistProperties;
+    private final DistributedCache distributedCache;
+    private final TicketOrderRemoteService ticketOrderRemoteService;
+
+    private TicketService ticketService;
+    private ScheduledExecutorService matchExecutor;
+    private long lastScanTime;
+
+    @Override
+    public void run(String... args) throws Exception {
+        ticketService = ApplicationContextHolder.getBean(TicketService.class);
+        if (!waitlistProperties.getEnabled()) {
+            return;
+        }
+        matchExecutor = Executors.newSingleThreadScheduledExecutor(
+                ThreadFactoryBuilder.builder().prefix("waitlist-matcher-").daemon(true).build()
+        );
+        long interval = waitlistProperties.getMatchInterval().toMillis();
+        matchExecutor.scheduleWithFixedDelay(this::matchQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    private void matchQuietly() {
+        try {
+            Set<Long> trainIds = new LinkedHashSet<>(waitlistSignal.drain());
+            long now = System.currentTimeMillis();
+            if (now - lastScanTime >= waitlistProperties.getScanInterval().toMillis()) {
+                lastScanTime = now;
+                recoverStaleMatching();
+                trainIds.addAll(listWaitingTrainIds());
+            }
+            for (Long each : trainIds) {
+                try {
+                    match(each);
+                } catch (Throwable ex) {
+                    log.error("[候补匹配] 车次：{} 匹配失败", each, ex);
+                }
+            }
+        } catch (Throwable ex) {
+            log.error("[候补匹配] 执行失败", ex);
+        }
+    }
+
+    /**
+     * 匹配车次的候补队列
+     *
+     * @param trainId 列车ID
+     * @return 本次兑现的候补数量
+     */
+    public int match(Long trainId) {
+        List<WaitlistOrderDO> waitingList = waitlistOrderMapper.selectList(Wrappers.lambdaQuery(WaitlistOrderDO.class)
+                .eq(WaitlistOrderDO::getTrainId, trainId)
+                .eq(WaitlistOrderDO::getStatus, WaitlistStatusEnum.WAITING.getCode())
+                .orderByAsc(WaitlistOrderDO::getId)
+                .last("limit " + waitlistProperties.getMatchBatchSize()));
+        if (waitingList.isEmpty()) {
+            return 0;
+        }
+        StringRedisTemplate stringRedisTemplate = (StringRedisTemplate) distributedCache.getInstance();
+        Map<Object, Object> tokenBucket = stringRedisTemplate.opsForHash().entries(TICKET_AVAILABILITY_TOKEN_BUCKET + trainId);
+        if (tokenBucket.isEmpty()) {
+            // 令牌桶未加载说明近期没有购票或回补，等待下一次信号
+            return 0;
+        }
+        Map<String, Long> available = new HashMap<>();
+        tokenBucket.forEach((field, value) -> available.put(field.toString(), Long.parseLong(value.toString())));
+        Date now = new Date();
+        int fulfilled = 0;
+        for (WaitlistOrderDO each : waitingList) {
+            if (each.getDeadline().before(now)) {
+                compareAndSetStatus(each.getId(), WaitlistStatusEnum.WAITING, WaitlistStatusEnum.EXPIRED);
+                continue;
+            }
+            String field = StrUtil.join("_", each.getDeparture(), each.getArrival(), each.getSeatType());
+            long remaining = available.getOrDefault(field, 0L);
+            if (remaining < each.getPassengerCount()) {
+                continue;
+            }
+            if (!compareAndSetStatus(each.getId(), WaitlistStatusEnum.WAITING, WaitlistStatusEnum.MATCHING)) {
+                continue;
+            }
+            if (fulfill(each)) {
+                available.put(field, remaining - each.getPassengerCount());
+                fulfilled++;
+            } else {
+                // 下单失败多为余票已被抢走，本轮不再尝试同区间的后续候补
+                available.put(field, 0L);
+            }
+        }
+        if (fulfilled > 0) {
+            log.info("[候补匹配] 车次：{} 兑现候补数：{}", trainId, fulfilled);
+        }
+        return fulfilled;
+    }
+
+    private boolean fulfill(WaitlistOrderDO waitlistOrderDO) {
+        PurchaseTicketReqDTO requestParam = JSON.parseObject(waitlistOrderDO.getPurchaseRequest(), PurchaseTicketReqDTO.class);
+        requestParam.setWaitlistId(waitlistOrderDO.getId());
+        UserContext.setUser(UserInfoDTO.builder()
+                .userId(waitlistOrderDO.getUserId())
+                .username(waitlistOrderDO.getUsername())
+                .realName(waitlistOrderDO.getRealName())
+                .build());
+        try {
+            TicketPurchaseRespDTO purchaseResult = ticketService.purchaseTicketsV2(requestParam);
+            WaitlistOrderDO updateWaitlistOrderDO = new WaitlistOrderDO();
+            updateWaitlistOrderDO.setStatus(WaitlistStatusEnum.FULFILLED.getCode());
+            updateWaitlistOrderDO.setOrderSn(purchaseResult.getOrderSn());
+            updateWaitlistOrderDO.setAttempts(waitlistOrderDO.getAttempts() + 1);
+            waitlistOrderMapper.update(updateWaitlistOrderDO, Wrappers.lambdaUpdate(WaitlistOrderDO.class)
+                    .eq(WaitlistOrderDO::getId, waitlistOrderDO.getId()));
+            return true;
+        } catch (Throwable ex) {
+            WaitlistOrderDO updateWaitlistOrderDO = new WaitlistOrderDO();
+            if (TicketStockErrorCodeEnum.isStockShortage(ex)) {
+                // 余票在匹配与下单之间被抢走属于正常竞争，不计入尝试次数，回到排队中等待下一次回补
+                log.info("[候补匹配] 候补订单：{} 兑现时余票不足，继续排队：{}", waitlistOrderDO.getId(), ex.getMessage());
+                updateWaitlistOrderDO.setStatus(WaitlistStatusEnum.WAITING.getCode());
+                waitlistOrderMapper.update(updateWaitlistOrderDO, Wrappers.lambdaUpdate(WaitlistOrderDO.class)
+                        .eq(WaitlistOrderDO::getId, waitlistOrderDO.getId()));
+                return false;
+            }
+            int attempts = waitlistOrderDO.getAttempts() + 1;
+            boolean exhausted = attempts >= waitlistProperties.getMaxAttempts();
+            log.warn("[候补匹配] 候补订单：{} 第 {} 次兑现失败：{}", waitlistOrderDO.getId(), attempts, ex.getMessage());
+            updateWaitlistOrderDO.setStatus(exhausted ? WaitlistStatusEnum.FAILED.getCode() : WaitlistStatusEnum.WAITING.getCode());
+            updateWaitlistOrderDO.setAttempts(attempts);
+            updateWaitlistOrderDO.setFailReason(StrUtil.maxLength(ex.getMessage(), 200));
+            waitlistOrderMapper.update(updateWaitlistOrderDO, Wrappers.lambdaUpdate(WaitlistOrderDO.class)
+                    .eq(WaitlistOrderDO::getId, waitlistOrderDO.getId()));
+            return false;
+        } finally {
+            UserContext.removeUser();
+        }
+    }
+
+    private boolean compareAndSetStatus(Long id, WaitlistStatusEnum expect, WaitlistStatusEnum update) {
+        WaitlistOrderDO updateWaitlistOrderDO = new WaitlistOrderDO();
+        updateWaitlistOrderDO.setStatus(update.getCode());
+        return waitlistOrderMapper.update(updateWaitlistOrderDO, Wrappers.lambdaUpdate(WaitlistOrderDO.class)
+                .eq(WaitlistOrderDO::getId, id)
+                .eq(WaitlistOrderDO::getStatus, expect.getCode())) > 0;
+    }
+
+    private List<Long> listWaitingTrainIds() {
+        return waitlistOrderMapper.selectList(Wrappers.lambdaQuery(WaitlistOrderDO.class)
+                        .select(WaitlistOrderDO::getTrainId)
+                        .eq(WaitlistOrderDO::getStatus, WaitlistStatusEnum.WAITING.getCode())
+                        .groupBy(WaitlistOrderDO::getTrainId))
+                .stream()
+                .map(WaitlistOrderDO::getTrainId)
+                .toList();
+    }
+
+    /**
+     * 兑现中超时的候补（实例在下单过程中宕机）按订单号恢复
+     * <p>
+     * 购票流程在创建订单后立即登记订单号：
+     * <ul>
+     *   <li>已登记订单号且订单服务能查到订单，说明订单已创建，置为已兑现，不再重复下单</li>
+     *   <li>未登记订单号，或订单服务查不到订单，说明订单未创建，回到排队中</li>
+     *   <li>订单服务调用失败时保持兑现中，下一次扫描重试</li>
+     * </ul>
+     * 兑现走正常购票流程，受排队截止时间约束，远小于兑现中超时时间，恢复时原兑现流程已经结束。
+     * 订单服务已返回订单号、登记订单号之前宕机时，单请求购票的事务回滚、座位释放，该订单由延迟关单关闭，候补回到排队中重新下单。
+     * </p>
+     *
+     * @return 本次恢复的候补数量
+     */
+    public int recoverStaleMatching() {
+        List<WaitlistOrderDO> staleList = waitlistOrderMapper.selectList(Wrappers.lambdaQuery(WaitlistOrderDO.class)
+                .eq(WaitlistOrderDO::getStatus, WaitlistStatusEnum.MATCHING.getCode())
+                .lt(WaitlistOrderDO::getUpdateTime, new Date(System.currentTimeMillis() - waitlistProperties.getMatchingTimeout().toMillis()))
+                .orderByAsc(WaitlistOrderDO::getId)
+                .last("limit " + waitlistProperties.getMatchBatchSize()));
+        int recovered = 0;
+        for (WaitlistOrderDO each : staleList) {
+            WaitlistOrderDO updateWaitlistOrderDO = new WaitlistOrderDO();
+            updateWaitlistOrderDO.setStatus(WaitlistStatusEnum.WAITING.getCode());
+            if (StrUtil.isNotBlank(each.getOrderSn())) {
+                Result<TicketOrderDetailRespDTO> orderResult;
+                try {
+                    orderResult = ticketOrderRemoteService.queryTicketOrderByOrderSn(each.getOrderSn());
+                } catch (Throwable ex) {
+                    log.warn("[候补匹配] 候补订单：{} 查询订单：{} 失败，下次扫描重试", each.getId(), each.getOrderSn(), ex);
+                    continue;
+                }
+                if (!orderResult.isSuccess()) {
+                    log.warn("[候补匹配] 候补订单：{} 查询订单：{} 失败，下次扫描重试：{}", each.getId(), each.getOrderSn(), orderResult.getMessage());
+                    continue;
+                }
+                if (orderResult.getData() != null) {
+                    updateWaitlistOrderDO.setStatus(WaitlistStatusEnum.FULFILLED.getCode());
+                    updateWaitlistOrderDO.setAttempts(each.getAttempts() + 1);
+                }
+            }
+            int updated = waitlistOrderMapper.update(updateWaitlistOrderDO, Wrappers.lambdaUpdate(WaitlistOrderDO.class)
+                    .eq(WaitlistOrderDO::getId, each.getId())
+                    .eq(WaitlistOrderDO::getStatus, WaitlistStatusEnum.MATCHING.getCode()));
+            if (updated > 0) {
+                recovered++;
+                log.info("[候补匹配] 兑现中超时的候补订单：{} 恢复为：{}，订单号：{}", each.getId(),
+                        WaitlistStatusEnum.FULFILLED.getCode().equals(updateWaitlistOrderDO.getStatus()) ? "已兑现" : "排队中", each.getOrderSn());
+            }
+        }
+        return recovered;
+    }
+
+    @Override
+    public void destroy() {
+        if (matchExecutor != null) {
+            matchExecutor.shutdown();
+        }
+    }
+}
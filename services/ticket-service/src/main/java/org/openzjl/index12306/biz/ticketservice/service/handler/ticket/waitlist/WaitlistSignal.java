@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.biz.ticketservice.service.handler.ticket.waitlist;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 候补余票回补信号
+ * <p>
+ * 令牌回补（取消订单、延迟关单、座位保留到期、Binlog 关单）时登记车次，
+ * 由 {@link WaitlistMatcher} 在下一次执行时取出并匹配该车次的候补队列。同一车次的多次回补合并为一次匹配。
+ * </p>
+ *
+ * @author zhangjlk
+ * @date 2026/10/18 下午5:40
+ */
+@Component
+public class WaitlistSignal {
+
+    private final Set<Long> pendingTrainIds = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 登记余票回补的车次
+     */
+    public void signal(Long trainId) {
+        if (trainId != null) {
+            pendingTrainIds.add(trainId);
+        }
+    }
+
+    /**
+     * 取出并清空已登记的车次
+     */
+    public List<Long> drain() {
+        List<Long> result = new ArrayList<>();
+        Iterator<Long> iterator = pendingTrainIds.iterator();
+        while (iterator.hasNext()) {
+            result.add(iterator.next());
+            iterator.remove();
+        }
+        return result;
+    }
+}
@@ -12,12 +12,25 @@ import java.util.List;
 
 /**
  * 站点计算工具
+ * <p>
+ * 区间统一用站点下标表示：站点 i 到站点 j（i < j）记为 (i, j)，占用 [i, j) 这几段"单位路段"，
+ * 两个区间只要占用的单位路段有交集，就会互相影响余票。
+ * 下标形式的区间压缩为一个 int（高 16 位出发站下标，低 16 位到达站下标），
+ * 计算过程只做下标运算，不再在循环中 indexOf，也不再为每个区间创建对象。
+ * </p>
  *
  * @author zhangjlk
  * @date 2025/11/29 09:56
  */
 public class StationCalculateUtil {
 
+    /**
+     * 单条线路支持的最大站点数，受压缩区间中 16 位下标的限制
+     */
+    public static final int MAX_STATION_COUNT = 1 << 16;
+
+    private static final int[] EMPTY_RANGES = new int[0];
+
     /**
      * 计算出发站和终点站中间的站点（包含出发站和终点站）
      *
@@ -27,40 +40,9 @@ public class StationCalculateUtil {
      * @return              出发站和终点站中间的站点
      */
     public static List<RouteDTO> throughStation(List<String> stations, String startStation, String endStation) {
-        // 初始化结果列表，用于存储所有计算出的区间对象
-        List<RouteDTO> routesToDeduct = new ArrayList<>();
-
-        // 获取出发站和到达站在整条线路列表中的索引位置
-        int startIndex = stations.indexOf(startStation);
-        int endIndex = stations.indexOf(endStation);
-
-        // 校验逻辑
-        // - startIndex < 0: 出发站不存在
-        // - endIndex < 0: 到达站不存在
-        // - startIndex >= endIndex: 出发站必须在到达站之前（不能反向，也不能是同一站）
-        if (startIndex < 0 || endIndex < 0 || startIndex >= endIndex) {
-            return routesToDeduct; // 校验失败，返回空列表
-        }
-
-        // 生成所有子区间
-        // 外层循环 i：遍历作为子区间的"出发站"，从本次行程的起点开始，直到终点前一站
-        for (int i = startIndex; i < endIndex; i++) {
-            // 内层循环 j：遍历作为子区间的"到达站"，从 i 的下一站开始，直到本次行程的终点
-            for (int j = i + 1; j <= endIndex; j++) {
-
-                // 获取具体的站名
-                String currentStation = stations.get(i); // 子区间的起点
-                String nextStation = stations.get(j);    // 子区间的终点
-
-                RouteDTO routeDTO = new RouteDTO(currentStation, nextStation);
-
-                // 加入结果集
-                routesToDeduct.add(routeDTO);
-            }
-        }
-
-        // 返回所有受影响的区间列表
-        return routesToDeduct;
+        // 获取出发站和到达站在整条线路列表中的索引位置，只查找一次
+        int[] ranges = throughStationRanges(stations.size(), stations.indexOf(startStation), stations.indexOf(endStation));
+        return toRouteList(stations, ranges);
     }
 
     /**
@@ -73,47 +55,107 @@ public class StationCalculateUtil {
      * @return              所有受影响需要扣减库存的区间列表
      */
     public static List<RouteDTO> takeoutStation(List<String> stations, String startStation, String endStation) {
-        List<RouteDTO> takeoutStationList = new ArrayList<>();
-
-        int startIndex = stations.indexOf(startStation); // 本次购买的起始站的索引
-        int endIndex = stations.indexOf(endStation);     // 本次购买的终点站的索引
+        int[] ranges = takeoutStationRanges(stations.size(), stations.indexOf(startStation), stations.indexOf(endStation));
+        return toRouteList(stations, ranges);
+    }
 
-        // 基础校验：站点必须存在，且出发站必须在终点站之前
-        if (startIndex == -1 || endIndex == -1 || startIndex >= endIndex) {
-            return takeoutStationList;
+    /**
+     * 按下标计算出发站和终点站之间的全部区间（包含出发站和终点站）
+     * <p>
+     * 即所有满足 startIndex <= i < j <= endIndex 的 (i, j)，按 i、j 升序排列。
+     * </p>
+     *
+     * @param stationCount 线路站点总数
+     * @param startIndex   出发站下标
+     * @param endIndex     终点站下标
+     * @return 压缩区间数组，参数非法时返回空数组
+     */
+    public static int[] throughStationRanges(int stationCount, int startIndex, int endIndex) {
+        // 校验逻辑
+        // - startIndex < 0: 出发站不存在
+        // - endIndex >= stationCount: 到达站越界
+        // - startIndex >= endIndex: 出发站必须在到达站之前（不能反向，也不能是同一站）
+        if (!isValidRange(stationCount, startIndex, endIndex)) {
+            return EMPTY_RANGES;
         }
-
-        // ---------------------------------------------------------
-        // 核心逻辑第一部分：处理"起点在 startStation 之前"的受影响区间
-        // 场景：比如买了 B->D。那么 A->C, A->D, A->E 都会受到影响，因为它们都经过 B-C 或 C-D 段。
-        // 但是 A->B 不受影响，因为路段没重叠
-        // ---------------------------------------------------------
-        if (startIndex != 0) {
-            // 遍历出发站之前的所有站点
-            for (int i = 0; i < startIndex; i++) {
-                // j: 从 1 开始，为了跳过出发站本身
-                for (int j = i + 1; j < stations.size() - startIndex; j++) {
-                    // stations.get(startIndex + j): 只有当这条路线的终点 越过了 startIndex，就会产生重叠路段
-                    takeoutStationList.add(new RouteDTO(stations.get(i), stations.get(startIndex + j)));
-                }
+        // 区间内共 m 个站点，两两组合 m * (m - 1) / 2 个区间，一次性分配好结果数组
+        int m = endIndex - startIndex + 1;
+        int[] ranges = new int[m * (m - 1) / 2];
+        int cursor = 0;
+        for (int i = startIndex; i < endIndex; i++) {
+            for (int j = i + 1; j <= endIndex; j++) {
+                ranges[cursor++] = packRange(i, j);
             }
         }
+        return ranges;
+    }
 
-        // ---------------------------------------------------------
-        // 核心逻辑第二部分：处理"起点在 startStation 之后(含)"的受影响区间
-        // 场景：比如买了 B->D。那么 B->C, B->E, C->D, C->E 都会受影响。
-        // ---------------------------------------------------------
-        // i: 遍历从 startStation 到 endStation 之间的站点
-        for (int i = startIndex; i <= endIndex; i++) {
-            // j: 遍历 i 之后的所有站点
-            // 条件 i < endIndex 是为了防止 i 已经到了终点站，虽然外层循环允许 i=endIndex，但内层逻辑实际上需要 i 作为起点。
-            // 逻辑：只要起点 i 还没到本次行程的终点 D，那么从 i 出发往后的票都会受影响。
-            for (int j = i + 1; j < stations.size() && i < endIndex; j++) {
-                takeoutStationList.add(new RouteDTO(stations.get(i), stations.get(j)));
+    /**
+     * 按下标计算购买 startIndex -> endIndex 后需要扣减余票的全部区间
+     * <p>
+     * 区间 (i, j) 与 (startIndex, endIndex) 有重叠路段，当且仅当 i < endIndex 且 j > startIndex，
+     * 按 i、j 升序排列。
+     * </p>
+     *
+     * @param stationCount 线路站点总数
+     * @param startIndex   出发站下标
+     * @param endIndex     终点站下标
+     * @return 压缩区间数组，参数非法时返回空数组
+     */
+    public static int[] takeoutStationRanges(int stationCount, int startIndex, int endIndex) {
+        if (!isValidRange(stationCount, startIndex, endIndex)) {
+            return EMPTY_RANGES;
+        }
+        // 起点 i < startIndex 时，终点只能落在 (startIndex, stationCount) 内：共 stationCount - startIndex - 1 个
+        // 起点 startIndex <= i < endIndex 时，终点落在 (i, stationCount) 内：共 stationCount - i - 1 个
+        int size = startIndex * (stationCount - startIndex - 1);
+        for (int i = startIndex; i < endIndex; i++) {
+            size += stationCount - i - 1;
+        }
+        int[] ranges = new int[size];
+        int cursor = 0;
+        for (int i = 0; i < endIndex; i++) {
+            for (int j = Math.max(i, startIndex) + 1; j < stationCount; j++) {
+                ranges[cursor++] = packRange(i, j);
             }
         }
+        return ranges;
+    }
+
+    /**
+     * 压缩区间：高 16 位出发站下标，低 16 位到达站下标
+     */
+    public static int packRange(int startIndex, int endIndex) {
+        return (startIndex << 16) | endIndex;
+    }
 
-        return takeoutStationList;
+    /**
+     * 解析压缩区间的出发站下标
+     */
+    public static int rangeStart(int range) {
+        return range >>> 16;
+    }
+
+    /**
+     * 解析压缩区间的到达站下标
+     */
+    public static int rangeEnd(int range) {
+        return range & 0xFFFF;
+    }
+
+    private static boolean isValidRange(int stationCount, int startIndex, int endIndex) {
+        return stationCount <= MAX_STATION_COUNT
+                && startIndex >= 0
+                && endIndex < stationCount
+                && startIndex < endIndex;
+    }
+
+    private static List<RouteDTO> toRouteList(List<String> stations, int[] ranges) {
+        List<RouteDTO> result = new ArrayList<>(ranges.length);
+        for (int range : ranges) {
+            result.add(new RouteDTO(stations.get(rangeStart(range)), stations.get(rangeEnd(range))));
+        }
+        return result;
     }
 
     public static void main(String[] args) {
@@ -0,0 +1,19 @@
+-- 创建 ticket-service 座位分配记录表：t_seat_allocation
+-- 在 12306_ticket 中执行
+
+USE `12306_ticket`;
+
+CREATE TABLE IF NOT EXISTS `t_seat_allocation` (
+  `id` BIGINT(20) NOT NULL COMMENT 'ID',
+  `username` VARCHAR(50) DEFAULT NULL COMMENT '用户名',
+  `train_id` BIGINT(20) NOT NULL COMMENT '列车ID',
+  `departure` VARCHAR(64) NOT NULL COMMENT '出发站点',
+  `arrival` VARCHAR(64) NOT NULL COMMENT '到达站点',
+  `ticket_ids` TEXT NOT NULL COMMENT '车票记录ID列表JSON',
+  `seat_details` TEXT NOT NULL COMMENT '乘车人以及座位信息JSON',
+  `create_time` DATETIME DEFAULT NULL,
+  `update_time` DATETIME DEFAULT NULL,
+  `del_flag` INT(11) DEFAULT 0,
+  PRIMARY KEY (`id`),
+  KEY `idx_create_time` (`create_time`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='座位分配记录表';
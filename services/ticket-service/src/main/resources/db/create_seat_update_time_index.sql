@@ -0,0 +1,8 @@
+-- 为 ticket-service 座位表 t_seat 增加按更新时间查询的索引
+-- 在 12306_ticket 中执行
+-- 背景：Canal Binlog 断档后按断档前后的 Binlog 时间戳查询期间座位变更过的列车（SeatMapper#listTrainIdByUpdateTime），
+--       没有该索引时会全表扫描 t_seat；索引包含 train_id，distinct train_id 可直接在索引上完成
+
+USE `12306_ticket`;
+
+ALTER TABLE `t_seat` ADD INDEX `idx_update_time_train_id` (`update_time`, `train_id`);
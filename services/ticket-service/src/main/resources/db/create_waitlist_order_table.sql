@@ -0,0 +1,29 @@
+-- 创建 ticket-service 候补订单表：t_waitlist_order
+-- 在 12306_ticket 中执行
+
+USE `12306_ticket`;
+
+CREATE TABLE IF NOT EXISTS `t_waitlist_order` (
+  `id` BIGINT(20) NOT NULL COMMENT 'ID',
+  `user_id` VARCHAR(64) NOT NULL COMMENT '用户ID',
+  `username` VARCHAR(50) NOT NULL COMMENT '用户名',
+  `real_name` VARCHAR(50) DEFAULT NULL COMMENT '用户真实姓名',
+  `train_id` BIGINT(20) NOT NULL COMMENT '列车ID',
+  `riding_date` DATETIME NOT NULL COMMENT '乘车日期',
+  `departure` VARCHAR(64) NOT NULL COMMENT '出发站点',
+  `arrival` VARCHAR(64) NOT NULL COMMENT '到达站点',
+  `seat_type` INT(11) NOT NULL COMMENT '座位类型',
+  `passenger_count` INT(11) NOT NULL COMMENT '乘车人数',
+  `purchase_request` TEXT NOT NULL COMMENT '购票请求参数JSON',
+  `status` INT(11) NOT NULL DEFAULT 0 COMMENT '候补状态 0：排队中 10：兑现中 20：已兑现 30：已取消 40：已过期 50：兑现失败',
+  `order_sn` VARCHAR(64) DEFAULT NULL COMMENT '兑现后的订单号',
+  `attempts` INT(11) NOT NULL DEFAULT 0 COMMENT '兑现尝试次数',
+  `fail_reason` VARCHAR(256) DEFAULT NULL COMMENT '最近一次兑现失败原因',
+  `deadline` DATETIME NOT NULL COMMENT '候补截止时间',
+  `create_time` DATETIME DEFAULT NULL,
+  `update_time` DATETIME DEFAULT NULL,
+  `del_flag` INT(11) DEFAULT 0,
+  PRIMARY KEY (`id`),
+  KEY `idx_train_status` (`train_id`, `status`, `id`),
+  KEY `idx_username_status` (`username`, `status`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='候补订单表';
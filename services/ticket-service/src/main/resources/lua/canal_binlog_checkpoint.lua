@@ -0,0 +1,124 @@
+-- ============================================
+-- Canal Binlog 消费位点记录与连续性检查脚本
+-- ============================================
+-- 功能：记录一条已消费 Binlog 消息的位点，按消息ID维护连续消费水位，检查乱序、断档与ID重置
+--       - 每张表记录最近消费的消息ID、Binlog 时间戳与消费次数，时间戳回退即为乱序
+--       - 消息ID为水位 + 1 时水位前进，并吸收等待区中紧随其后的消息ID
+--       - 跳跃到达的消息ID进入等待区，等待超时或等待区超过上限时，把水位与等待区首个ID之间视为断档并跳过
+--       - 消息ID小于水位且差值超过阈值时视为 Canal 实例重建导致ID重新计数，以当前消息重新建立水位
+--
+-- 参数说明：
+--   KEYS[1]: 位点 Hash Key（按库）
+--   KEYS[2]: 等待区 ZSET Key（按库），Member 为 消息ID:Binlog时间戳，Score 为消息ID
+--   ARGV[1]: 消息ID
+--   ARGV[2]: Binlog 时间戳（毫秒）
+--   ARGV[3]: 表名
+--   ARGV[4]: 当前时间戳（毫秒）
+--   ARGV[5]: 断档等待超时（毫秒）
+--   ARGV[6]: 等待区最大消息数
+--   ARGV[7]: ID重置判定阈值
+--
+-- 返回值：{状态, 是否乱序, 断档起始ID, 断档结束ID, 断档前时间戳, 断档后时间戳}
+--   状态：0=正常，1=重复或同批次消息，2=断档，3=ID重置
+-- ============================================
+
+local id = tonumber(ARGV[1])
+local es = tonumber(ARGV[2])
+local tableName = ARGV[3]
+local now = tonumber(ARGV[4])
+local gapTimeout = tonumber(ARGV[5])
+local maxPending = tonumber(ARGV[6])
+local resetThreshold = tonumber(ARGV[7])
+
+-- 表级位点，时间戳回退说明同一张表的变更乱序到达
+local reordered = 0
+local tableEs = tonumber(redis.call('hget', KEYS[1], tableName .. ':es') or '0')
+if es < tableEs then
+    reordered = 1
+else
+    redis.call('hset', KEYS[1], tableName .. ':es', es)
+end
+redis.call('hset', KEYS[1], tableName .. ':id', id)
+redis.call('hincrby', KEYS[1], tableName .. ':count', 1)
+
+local function resetWatermark()
+    redis.call('del', KEYS[2])
+    redis.call('hset', KEYS[1], 'watermark', id, 'watermark_es', es, 'max_id', id, 'advanced_at', now)
+    redis.call('hdel', KEYS[1], 'stalled_at')
+end
+
+-- 从给定水位开始吸收等待区中连续的消息ID，返回新的水位及其时间戳
+local function advance(watermark, watermarkEs)
+    while true do
+        local head = redis.call('zrange', KEYS[2], 0, 0, 'WITHSCORES')
+        if #head == 0 then
+            break
+        end
+        local headId = tonumber(head[2])
+        if headId > watermark + 1 then
+            break
+        end
+        redis.call('zremrangebyrank', KEYS[2], 0, 0)
+        if headId > watermark then
+            watermark = headId
+            watermarkEs = tonumber(string.match(head[1], ':(%d+)$'))
+        end
+    end
+    return watermark, watermarkEs
+end
+
+local watermark = redis.call('hget', KEYS[1], 'watermark')
+if not watermark then
+    resetWatermark()
+    return {0, reordered, 0, 0, 0, 0}
+end
+watermark = tonumber(watermark)
+local watermarkEs = tonumber(redis.call('hget', KEYS[1], 'watermark_es'))
+
+if id <= watermark then
+    if watermark - id > resetThreshold then
+        resetWatermark()
+        return {3, reordered, 0, 0, 0, 0}
+    end
+    -- 同一批次拆分出的多条消息共享消息ID，或是消费失败后的重新投递
+    return {1, reordered, 0, 0, 0, 0}
+end
+
+if id > tonumber(redis.call('hget', KEYS[1], 'max_id') or '0') then
+    redis.call('hset', KEYS[1], 'max_id', id)
+end
+
+local status = 0
+local gapFrom, gapTo, fromEs, toEs = 0, 0, 0, 0
+local newWatermark, newWatermarkEs = watermark, watermarkEs
+if id == watermark + 1 then
+    newWatermark, newWatermarkEs = advance(id, es)
+else
+    if redis.call('zcard', KEYS[2]) == 0 then
+        redis.call('hset', KEYS[1], 'stalled_at', now)
+    end
+    redis.call('zadd', KEYS[2], id, id .. ':' .. es)
+    local stalledAt = tonumber(redis.call('hget', KEYS[1], 'stalled_at') or now)
+    if now - stalledAt >= gapTimeout or redis.call('zcard', KEYS[2]) > maxPending then
+        -- 等待区首个消息ID之前缺失的消息视为已丢失，跳过断档继续推进水位
+        local head = redis.call('zrange', KEYS[2], 0, 0, 'WITHSCORES')
+        local headId = tonumber(head[2])
+        status = 2
+        gapFrom = watermark + 1
+        gapTo = headId - 1
+        fromEs = watermarkEs
+        toEs = tonumber(string.match(head[1], ':(%d+)$'))
+        newWatermark, newWatermarkEs = advance(headId - 1, watermarkEs)
+    end
+end
+
+if newWatermark > watermark then
+    redis.call('hset', KEYS[1], 'watermark', newWatermark, 'watermark_es', newWatermarkEs, 'advanced_at', now)
+    if redis.call('zcard', KEYS[2]) == 0 then
+        redis.call('hdel', KEYS[1], 'stalled_at')
+    else
+        redis.call('hset', KEYS[1], 'stalled_at', now)
+    end
+end
+
+return {status, reordered, gapFrom, gapTo, fromEs, toEs}
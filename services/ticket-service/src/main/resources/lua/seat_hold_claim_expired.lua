@@ -0,0 +1,30 @@
+-- ============================================
+-- 座位保留到期认领脚本
+-- ============================================
+-- 功能：原子性地取出一批已到期的座位保留，从到期 ZSET 与明细 Hash 中移除并返回明细
+--       多个实例的清理任务并发执行时，同一保留只会被一个实例认领
+--
+-- 参数说明：
+--   KEYS[1]: 座位保留到期时间 ZSET Key（单个分片）
+--   KEYS[2]: 座位保留明细 Hash Key（与 KEYS[1] 同一分片，Hash Tag 相同）
+--   ARGV[1]: 当前时间戳（毫秒）
+--   ARGV[2]: 本批次最多认领数量
+--
+-- 返回值：认领到的保留明细JSON数组
+-- ============================================
+
+local orderSns = redis.call('zrangebyscore', KEYS[1], '-inf', ARGV[1], 'LIMIT', 0, tonumber(ARGV[2]))
+local claimed = {}
+
+for index, orderSn in ipairs(orderSns) do
+    -- 支付回调或其他释放路径可能已移除该保留，只有本次移除成功才算认领
+    if redis.call('zrem', KEYS[1], orderSn) == 1 then
+        local detail = redis.call('hget', KEYS[2], orderSn)
+        redis.call('hdel', KEYS[2], orderSn)
+        if detail then
+            table.insert(claimed, detail)
+        end
+    end
+end
+
+return claimed
@@ -0,0 +1,45 @@
+-- ============================================
+-- 余票增量批量写入脚本
+-- ============================================
+-- 功能：把一个聚合窗口内多条 Binlog 消息合并后的余票增量一次性写入，
+--       替代逐条消息、逐个座位类型的 hincrby 调用
+--
+-- 幂等：每次写入携带批次标记 Key，写入完成后记录标记，同一批次重试时直接跳过，
+--       避免客户端超时或连接断开后重试导致增量重复写入
+-- 部分写入：Redis 不会回滚脚本中已执行的命令，脚本先解析并校验全部字段，校验通过后才开始写入
+--
+-- 参数说明：
+--   KEYS[1]: 批次已写入标记 Key，Hash Tag 与其余 Key 位于同一槽位
+--   KEYS[i]（i >= 2）: 区间余票缓存的Hash Key（如：index12306-ticket-service:train_station_remaining_ticket:车次ID_出发站_到达站）
+--   ARGV[1]: 批次标记有效期（秒）
+--   ARGV[i]（i >= 2）: KEYS[i] 对应的增量JSON数组（如：[{"field":"0","delta":-3},{"field":"2","delta":1}]）
+--
+-- 返回值：写入的字段数量，批次已写入过时返回 -1
+-- ============================================
+
+if redis.call('exists', KEYS[1]) == 1 then
+    return -1
+end
+
+local batches = {}
+for i = 2, #KEYS do
+    local items = cjson.decode(ARGV[i])
+    for index, item in ipairs(items) do
+        local current = redis.call('hget', KEYS[i], item.field)
+        if current and not tonumber(current) then
+            return redis.error_reply('余票缓存字段不是整数：' .. KEYS[i] .. ' ' .. item.field)
+        end
+    end
+    batches[i] = items
+end
+
+local applied = 0
+for i = 2, #KEYS do
+    for index, item in ipairs(batches[i]) do
+        redis.call('hincrby', KEYS[i], item.field, item.delta)
+        applied = applied + 1
+    end
+end
+
+redis.call('set', KEYS[1], '1', 'EX', tonumber(ARGV[1]))
+return applied
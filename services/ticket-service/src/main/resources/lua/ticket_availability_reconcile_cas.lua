@@ -0,0 +1,26 @@
+-- ============================================
+-- 余票对账修复脚本（比较并设置）
+-- ============================================
+-- 功能：对账确认漂移后，原子性地把 Hash 字段修正为数据库计算出的权威值
+--       只有字段当前值仍等于对账时读到的值才会修正，期间被购票/回滚改动过的字段跳过，留给下一轮对账
+--
+-- 参数说明：
+--   KEYS[1]: 令牌桶或区间余票缓存的Hash Key
+--   ARGV[1]: 修正项JSON数组（如：[{"field":"1001_1002_0","expect":"5","actual":"7"}]）
+--
+-- 返回值：实际修正的字段数量
+-- ============================================
+
+local items = cjson.decode(ARGV[1])
+local repaired = 0
+
+for index, item in ipairs(items) do
+    local current = redis.call('hget', KEYS[1], item.field)
+    -- 对账时读到的值与当前值一致，说明期间没有并发修改，可以安全覆盖
+    if current ~= false and current == item.expect then
+        redis.call('hset', KEYS[1], item.field, item.actual)
+        repaired = repaired + 1
+    end
+end
+
+return repaired
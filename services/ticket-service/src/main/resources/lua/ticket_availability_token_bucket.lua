@@ -11,7 +11,8 @@
 --
 -- 返回值：
 --   成功：{"tokenIsNull":false}
---   失败：{"tokenIsNull":true,"tokenIsNullSeatTypeCounts":["0_2","1_3"]}
+--   失败：{"tokenIsNull":true,"tokenIsNullSeatTypeCounts":["0_2","1_3"],"soldOutSeatTypes":[0]}
+--   soldOutSeatTypes 只包含余量已为 0 的座位类型（余量不足但未归零的不算售罄），没有时不返回该字段
 -- ============================================
 
 -- ========== 处理路线标识，提取实际的Key ==========
@@ -36,6 +37,7 @@ local jsonArray = cjson.decode(jsonArrayStr)
 local result = {}                    -- 返回结果对象
 local tokenIsNull = false            -- 令牌是否为空（余票是否不足）
 local tokenIsNullSeatTypeCounts = {} -- 余票不足的座位类型和数量列表
+local soldOutSeatTypes = {}          -- 余票已为 0 的座位类型列表
 
 -- ========== 检查所有座位类型的余票是否充足 ==========
 -- 遍历用户要购买的每种座位类型，检查余票是否足够
@@ -61,6 +63,10 @@ for index, jsonObj in ipairs(jsonArray) do
         tokenIsNull = true
         -- 记录余票不足的座位类型和数量（格式：座位类型_数量）
         table.insert(tokenIsNullSeatTypeCounts, seatType .. "_" .. count)
+        -- 余量已为 0，说明该区间该座位类型已售罄
+        if ticketSeatAvailabilityTokenValue <= 0 then
+            table.insert(soldOutSeatTypes, seatType)
+        end
     end
 end
 
@@ -70,6 +76,10 @@ result['tokenIsNull'] = tokenIsNull
 if tokenIsNull then
     -- 如果余票不足，返回详细信息（哪些座位类型余票不足）
     result['tokenIsNullSeatTypeCounts'] = tokenIsNullSeatTypeCounts
+    -- cjson 会把空 table 编码为 {}，只有非空时才返回
+    if #soldOutSeatTypes > 0 then
+        result['soldOutSeatTypes'] = soldOutSeatTypes
+    end
     -- 返回JSON格式的结果，告知调用方余票不足
     return cjson.encode(result)
 end
@@ -66,7 +66,7 @@ public class PassengerController {
      */
     @Idempotent(
             uniqueKeyPrefix = "index12306-user:lock_passenger-alter:",
-            key = "T(org.openzjl.index12306.framework.starter.user.core.UserContext).getUsername()",
+            key = "T(org.openzjl.index12306.framework.starter.user.core.UserContext).getUserName()",
             type = IdempotentTypeEnum.SPEL,
             scene = IdempotentSceneEnum.RESTAPI,
             message = "正在新增乘车人，请稍后再尝试..."
@@ -85,7 +85,7 @@ public class PassengerController {
      */
     @Idempotent(
             uniqueKeyPrefix = "index12306-user:lock_passenger-alter:",
-            key = "T(org.openzjl.index12306.framework.starter.user.core.UserContext).getUsername()",
+            key = "T(org.openzjl.index12306.framework.starter.user.core.UserContext).getUserName()",
             type = IdempotentTypeEnum.SPEL,
             scene = IdempotentSceneEnum.RESTAPI,
             message = "正在修改乘车人，请稍后再尝试..."
@@ -104,7 +104,7 @@ public class PassengerController {
      */
     @Idempotent(
             uniqueKeyPrefix = "index12306-user:lock_passenger-alter:",
-            key = "T(org.openzjl.index12306.framework.starter.user.core.UserContext).getUsername()",
+            key = "T(org.openzjl.index12306.framework.starter.user.core.UserContext).getUserName()",
             type = IdempotentTypeEnum.SPEL,
             scene = IdempotentSceneEnum.RESTAPI,
             message = "正在移除乘车人，请稍后再尝试..."
@@ -238,7 +238,7 @@ public class PassengerServiceImpl implements PassengerService {
      */
     @Idempotent(
             uniqueKeyPrefix = "index12306-user:lock_passenger-alter:",
-            key = "T(org.openzjl.index12306.framework.starter.user.core.UserContext.getUsername()",
+            key = "T(org.openzjl.index12306.framework.starter.user.core.UserContext).getUserName()",
             type = IdempotentTypeEnum.SPEL,
             scene = IdempotentSceneEnum.RESTAPI,
             message = "正在移除乘车人，请稍后再试..."
@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.tests.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openzjl.index12306.framework.starter.cache.DistributedCache;
+import org.openzjl.index12306.framework.starter.cache.StringRedisTemplateProxy;
+import org.openzjl.index12306.framework.starter.cache.config.RedisDistributedProperties;
+import org.openzjl.index12306.framework.starter.idempotent.config.IdempotentMQProperties;
+import org.openzjl.index12306.framework.starter.idempotent.core.spel.IdempotentMQConsumeStatusStore;
+import org.openzjl.index12306.framework.starter.idempotent.core.spel.RedisKeyMQConsumeStatusStore;
+import org.openzjl.index12306.framework.starter.idempotent.core.spel.TimeSlicedHashMQConsumeStatusStore;
+import org.openzjl.index12306.framework.starter.idempotent.enums.IdempotentMQConsumeStatusEnum;
+import org.openzjl.index12306.framework.starter.idempotent.enums.IdempotentMQStoreTypeEnum;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import redis.embedded.RedisServer;
+
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * MQ 幂等消费状态存储基准测试
+ * <p>
+ * 对比每条消息一个 Redis String 与按时间分片 Hash 两种存储，使用内嵌 Redis：
+ * <ul>
+ *   <li>内存：{@link #main(String[])} 先为每种存储写入相同数量的已消费状态，输出 Redis used_memory 增量与平均每条字节数</li>
+ *   <li>延迟：JMH 统计一次成功消费（写入消费中 + 置为已消费）与一次重复消费（命中已消费）的平均耗时</li>
+ * </ul>
+ * 幂等 Key 前缀、Key 形式与过期时间取自 Canal Binlog 消费者。
+ * </p>
+ * <p>
+ * 运行方式：执行 {@link #main(String[])}，第一个参数为内存对比写入的消息数量，默认 200000
+ * </p>
+ *
+ * @author zhangjlk
+ * @date 2026/10/19 下午3:20
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IdempotentMQConsumeStatusStoreBenchmark {
+
+    private static final int REDIS_PORT = 6391;
+
+    private static final String KEY_PREFIX = "index12306-ticket:binlog_sync:";
+
+    /**
+     * 消费中超时时间，与 MQ 幂等处理器一致
+     */
+    private static final long CONSUMING_TIMEOUT = 600L;
+
+    /**
+     * 已消费过期时间，与 Canal Binlog 消费者一致
+     */
+    private static final long KEY_TIMEOUT = 7200L;
+
+    private static final String REPEATED_KEY = "repeated";
+
+    @Param({"KEY", "TIME_SLICED_HASH"})
+    private IdempotentMQStoreTypeEnum storeType;
+
+    private RedisServer redisServer;
+
+    private LettuceConnectionFactory connectionFactory;
+
+    private IdempotentMQConsumeStatusStore consumeStatusStore;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        redisServer = new RedisServer(REDIS_PORT);
+        redisServer.start();
+        connectionFactory = createConnectionFactory();
+        consumeStatusStore = createStore(storeType, connectionFactory);
+        consume(consumeStatusStore, REPEATED_KEY);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        connectionFactory.destroy();
+        redisServer.stop();
+    }
+
+    @Benchmark
+    public void consume() {
+        consume(consumeStatusStore, messageKey(sequence.incrementAndGet()));
+    }
+
+    @Benchmark
+    public String repeatedConsume() {
+        return consumeStatusStore.setIfAbsentAndGet(KEY_PREFIX, REPEATED_KEY, IdempotentMQConsumeStatusEnum.CONSUMING.getCode(), CONSUMING_TIMEOUT, KEY_TIMEOUT);
+    }
+
+    public static void main(String[] args) throws Exception {
+        int messageCount = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        for (IdempotentMQStoreTypeEnum each : IdempotentMQStoreTypeEnum.values()) {
+            printMemoryUsage(each, messageCount);
+        }
+        new Runner(new OptionsBuilder()
+                .include(IdempotentMQConsumeStatusStoreBenchmark.class.getSimpleName())
+                .build()
+        ).run();
+    }
+
+    private static void printMemoryUsage(IdempotentMQStoreTypeEnum storeType, int messageCount) throws Exception {
+        RedisServer redisServer = new RedisServer(REDIS_PORT);
+        redisServer.start();
+        LettuceConnectionFactory connectionFactory = createConnectionFactory();
+        try {
+            StringRedisTemplate stringRedisTemplate = new StringRedisTemplate(connectionFactory);
+            IdempotentMQConsumeStatusStore consumeStatusStore = createStore(storeType, connectionFactory);
+            long usedMemoryBefore = usedMemory(stringRedisTemplate);
+            for (long i = 0; i < messageCount; i++) {
+                consume(consumeStatusStore, messageKey(i));
+            }
+            long usedMemory = usedMemory(stringRedisTemplate) - usedMemoryBefore;
+            Long keyCount = stringRedisTemplate.execute((RedisCallback<Long>) connection -> connection.serverCommands().dbSize());
+            System.out.printf("%-16s 消息 %d，顶层 Key %d，内存增量 %.1f MB，平均每条 %.1f 字节%n",
+                    storeType, messageCount, keyCount, usedMemory / 1024D / 1024D, (double) usedMemory / messageCount);
+        } finally {
+            connectionFactory.destroy();
+            redisServer.stop();
+        }
+    }
+
+    /**
+     * 一次成功消费：写入消费中，业务执行成功后置为已消费
+     */
+    private static void consume(IdempotentMQConsumeStatusStore consumeStatusStore, String key) {
+        consumeStatusStore.setIfAbsentAndGet(KEY_PREFIX, key, IdempotentMQConsumeStatusEnum.CONSUMING.getCode(), CONSUMING_TIMEOUT, KEY_TIMEOUT);
+        consumeStatusStore.put(KEY_PREFIX, key, IdempotentMQConsumeStatusEnum.CONSUMED.getCode(), KEY_TIMEOUT, KEY_TIMEOUT);
+    }
+
+    /**
+     * 与 Canal Binlog 消费者的 SpEL Key 形式一致：消息ID_消息哈希值
+     */
+    private static String messageKey(long sequence) {
+        return sequence + "_" + Long.hashCode(sequence * 0x9E3779B97F4A7C15L);
+    }
+
+    private static long usedMemory(StringRedisTemplate stringRedisTemplate) {
+        Properties memoryInfo = stringRedisTemplate.execute((RedisCallback<Properties>) connection -> connection.serverCommands().info("memory"));
+        return Long.parseLong(memoryInfo.getProperty("used_memory"));
+    }
+
+    private static LettuceConnectionFactory createConnectionFactory() {
+        LettuceConnectionFactory connectionFactory = new LettuceConnectionFactory("127.0.0.1", REDIS_PORT);
+        connectionFactory.afterPropertiesSet();
+        return connectionFactory;
+    }
+
+    private static IdempotentMQConsumeStatusStore createStore(IdempotentMQStoreTypeEnum storeType, LettuceConnectionFactory connectionFactory) {
+        StringRedisTemplate stringRedisTemplate = new StringRedisTemplate(connectionFactory);
+        DistributedCache distributedCache = new StringRedisTemplateProxy(stringRedisTemplate, new RedisDistributedProperties(), null);
+        if (storeType == IdempotentMQStoreTypeEnum.TIME_SLICED_HASH) {
+            return new TimeSlicedHashMQConsumeStatusStore(distributedCache, new IdempotentMQProperties());
+        }
+        return new RedisKeyMQConsumeStatusStore(distributedCache);
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.tests.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openzjl.index12306.biz.ticketservice.dto.domain.RouteDTO;
+import org.openzjl.index12306.biz.ticketservice.toolkit.StationCalculateUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 站点区间计算基准测试
+ * <p>
+ * 对比旧版 indexOf + 嵌套循环 + 逐个创建 RouteDTO 的实现，与基于下标的压缩区间实现。
+ * 购买区间取线路中段（约 1/3 到 2/3 处），覆盖长途车次上扣减区间最多的场景。
+ * </p>
+ * <p>
+ * 运行方式：执行 {@link #main(String[])}，或打包后 java -cp ... org.openjdk.jmh.Main StationCalculateBenchmark
+ * </p>
+ *
+ * @author zhangjlk
+ * @date 2026/10/18 上午11:05
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StationCalculateBenchmark {
+
+    /**
+     * 线路站点数
+     */
+    @Param({"10", "30", "60"})
+    private int stationCount;
+
+    private List<String> stations;
+
+    private String departure;
+
+    private String arrival;
+
+    private int startIndex;
+
+    private int endIndex;
+
+    @Setup
+    public void setup() {
+        stations = new ArrayList<>(stationCount);
+        for (int i = 0; i < stationCount; i++) {
+            stations.add("站点" + i);
+        }
+        startIndex = stationCount / 3;
+        endIndex = stationCount * 2 / 3;
+        departure = stations.get(startIndex);
+        arrival = stations.get(endIndex);
+    }
+
+    @Benchmark
+    public List<RouteDTO> legacyThroughStation() {
+        return LegacyStationCalculate.throughStation(stations, departure, arrival);
+    }
+
+    @Benchmark
+    public List<RouteDTO> throughStation() {
+        return StationCalculateUtil.throughStation(stations, departure, arrival);
+    }
+
+    @Benchmark
+    public int[] throughStationRanges() {
+        return StationCalculateUtil.throughStationRanges(stationCount, startIndex, endIndex);
+    }
+
+    @Benchmark
+    public List<RouteDTO> legacyTakeoutStation() {
+        return LegacyStationCalculate.takeoutStation(stations, departure, arrival);
+    }
+
+    @Benchmark
+    public List<RouteDTO> takeoutStation() {
+        return StationCalculateUtil.takeoutStation(stations, departure, arrival);
+    }
+
+    @Benchmark
+    public int[] takeoutStationRanges() {
+        return StationCalculateUtil.takeoutStationRanges(stationCount, startIndex, endIndex);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(StationCalculateBenchmark.class.getSimpleName())
+                .build()
+        ).run();
+    }
+
+    /**
+     * 旧版区间计算实现，仅作为基准对照
+     */
+    static final class LegacyStationCalculate {
+
+        static List<RouteDTO> throughStation(List<String> stations, String startStation, String endStation) {
+            List<RouteDTO> routesToDeduct = new ArrayList<>();
+            int startIndex = stations.indexOf(startStation);
+            int endIndex = stations.indexOf(endStation);
+            if (startIndex < 0 || endIndex < 0 || startIndex >= endIndex) {
+                return routesToDeduct;
+            }
+            for (int i = startIndex; i < endIndex; i++) {
+                for (int j = i + 1; j <= endIndex; j++) {
+                    routesToDeduct.add(new RouteDTO(stations.get(i), stations.get(j)));
+                }
+            }
+            return routesToDeduct;
+        }
+
+        static List<RouteDTO> takeoutStation(List<String> stations, String startStation, String endStation) {
+            List<RouteDTO> takeoutStationList = new ArrayList<>();
+            int startIndex = stations.indexOf(startStation);
+            int endIndex = stations.indexOf(endStation);
+            if (startIndex == -1 || endIndex == -1 || startIndex >= endIndex) {
+                return takeoutStationList;
+            }
+            if (startIndex != 0) {
+                for (int i = 0; i < startIndex; i++) {
+                    for (int j = i + 1; j < stations.size() - startIndex; j++) {
+                        takeoutStationList.add(new RouteDTO(stations.get(i), stations.get(startIndex + j)));
+                    }
+                }
+            }
+            for (int i = startIndex; i <= endIndex; i++) {
+                for (int j = i + 1; j < stations.size() && i < endIndex; j++) {
+                    takeoutStationList.add(new RouteDTO(stations.get(i), stations.get(j)));
+                }
+            }
+            return takeoutStationList;
+        }
+    }
+}
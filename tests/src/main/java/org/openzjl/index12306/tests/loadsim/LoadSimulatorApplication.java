@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.tests.loadsim;
+
+import lombok.extern.slf4j.Slf4j;
+import org.openzjl.index12306.biz.ticketservice.TicketServiceApplication;
+import org.openzjl.index12306.biz.ticketservice.remote.TicketOrderRemoteService;
+import org.openzjl.index12306.biz.ticketservice.remote.UserRemoteService;
+import org.openzjl.index12306.framework.starter.database.handler.MyMetaObjectHandler;
+import org.openzjl.index12306.tests.loadsim.config.LoadSimulationProperties;
+import org.openzjl.index12306.tests.loadsim.verify.OversellCheckResultDTO;
+import org.openzjl.index12306.tests.loadsim.verify.OversellVerifier;
+import org.openzjl.index12306.tests.loadsim.workload.LoadSimulationRunner;
+import org.openzjl.index12306.tests.loadsim.workload.OperationStatistics;
+import org.openzjl.index12306.tests.loadsim.workload.OperationTypeEnum;
+import org.openzjl.index12306.tests.mqbus.InMemoryMessageBus;
+import org.openzjl.index12306.tests.mqbus.config.InMemoryMessageBusConfiguration;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.env.SimpleCommandLinePropertySource;
+import redis.embedded.RedisServer;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * 购票热点链路压测模拟启动器
+ * <p>
+ * 在单个进程内启动内嵌 Redis 和 H2（MySQL 兼容模式），以 loadsim 环境启动完整的购票服务：
+ * 订单服务、用户服务的 Feign 客户端由内存实现替代，注册中心、配置中心、Sentinel、RocketMQ 全部关闭。
+ * 启动时生成模拟车次与座位数据，压测结束后输出各操作的吞吐与延迟分位数，并执行超卖校验，存在超卖时进程以非 0 退出。
+ * </p>
+ * <p>
+ * 运行方式（首次需先安装依赖模块）：
+ * <pre>
+ * mvn -pl tests -am install -DskipTests
+ * mvn -pl tests spring-boot:run -Dspring-boot.run.arguments="--loadsim.threads=64 --loadsim.duration=60s"
+ * </pre>
+ * 压测参数见 {@link LoadSimulationProperties}，均可通过命令行参数覆盖。
+ * </p>
+ * <p>
+ * 追加 loadsim-mq 环境（--spring.profiles.active=loadsim-mq）时启用进程内消息总线：余票缓存改为 Binlog 更新，
+ * 下单发送延迟关单消息、支付发送支付结果回调、t_seat 与订单状态变更模拟 Canal 投递，覆盖全部消费者与 Binlog 处理器。
+ * 校验前等待消息总线空闲，报告中输出消息投递、重试与死信数量。
+ * </p>
+ *
+ * @author zhangjlk
+ * @date 2026/10/18 下午6:50
+ */
+@Slf4j
+@Configuration(proxyBeanMethods = false)
+@ComponentScan
+@Import(InMemoryMessageBusConfiguration.class)
+public class LoadSimulatorApplication {
+
+    private static final String REDIS_PORT_PROPERTY = LoadSimulationProperties.PREFIX + ".redis-port";
+
+    /**
+     * Feign 客户端默认注册为 primary，与内存实现上的 @Primary 冲突，这里取消被替代客户端的 primary 标记
+     */
+    @Bean
+    public static BeanFactoryPostProcessor inMemoryRemoteServicePostProcessor() {
+        return beanFactory -> List.of(UserRemoteService.class.getName(), TicketOrderRemoteService.class.getName()).stream()
+                .filter(beanFactory::containsBeanDefinition)
+                .forEach(each -> beanFactory.getBeanDefinition(each).setPrimary(false));
+    }
+
+    /**
+     * 数据库组件的自动装配未注册公共字段填充，这里单独注册，保证新增记录的 del_flag 为未删除，逻辑删除条件下可以查到
+     */
+    @Bean
+    public MyMetaObjectHandler myMetaObjectHandler() {
+        return new MyMetaObjectHandler();
+    }
+
+    public static void main(String[] args) throws Exception {
+        int redisPort = Optional.ofNullable(new SimpleCommandLinePropertySource(args).getProperty(REDIS_PORT_PROPERTY))
+                .map(Integer::parseInt)
+                .orElse(new LoadSimulationProperties().getRedisPort());
+        RedisServer redisServer = new RedisServer(redisPort);
+        redisServer.start();
+        int exitCode;
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(TicketServiceApplication.class, LoadSimulatorApplication.class)
+                .profiles("loadsim")
+                .web(WebApplicationType.NONE)
+                .run(args)) {
+            LoadSimulationProperties loadSimulationProperties = context.getBean(LoadSimulationProperties.class);
+            Map<OperationTypeEnum, OperationStatistics> statisticsMap = context.getBean(LoadSimulationRunner.class).run();
+            // 等待令牌桶、余票缓存等异步回补完成后再校验
+            Thread.sleep(loadSimulationProperties.getSettleTime().toMillis());
+            InMemoryMessageBus messageBus = context.getBeanProvider(InMemoryMessageBus.class).getIfAvailable();
+            if (messageBus != null && !messageBus.awaitIdle()) {
+                log.warn("[压测模拟] 等待消息总线空闲超时，剩余 {} 条消息未消费完成", messageBus.getPendingCount());
+            }
+            OversellCheckResultDTO checkResult = context.getBean(OversellVerifier.class).verify();
+            printReport(loadSimulationProperties, statisticsMap, checkResult, messageBus);
+            exitCode = checkResult.isOversold() ? 1 : 0;
+        } finally {
+            redisServer.stop();
+        }
+        System.exit(exitCode);
+    }
+
+    private static void printReport(LoadSimulationProperties loadSimulationProperties,
+                                    Map<OperationTypeEnum, OperationStatistics> statisticsMap,
+                                    OversellCheckResultDTO checkResult,
+                                    InMemoryMessageBus messageBus) {
+        double seconds = loadSimulationProperties.getDuration().toMillis() / 1000D;
+        StringBuilder report = new StringBuilder(System.lineSeparator());
+        report.append(String.format("========== 购票压测报告（线程 %d，统计时长 %.0fs，车次 %d） ==========%n",
+                loadSimulationProperties.getThreads(), seconds, loadSimulationProperties.getTrainCount()));
+        report.append(String.format("%-6s %10s %10s %8s %10s %9s %9s %9s %9s %9s %9s%n",
+                "操作", "成功", "拒绝", "异常", "吞吐/s", "avg(ms)", "p50", "p90", "p99", "p99.9", "max"));
+        statisticsMap.forEach((operationType, statistics) -> report.append(String.format("%-6s %10d %10d %8d %10.1f %9.2f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                operationType.getLabel(), statistics.getSuccess(), statistics.getRejected(), statistics.getErrors(),
+                statistics.getSuccess() / seconds, statistics.meanMillis(), statistics.percentileMillis(50), statistics.percentileMillis(90),
+                statistics.percentileMillis(99), statistics.percentileMillis(99.9), statistics.percentileMillis(100))));
+        statisticsMap.forEach((operationType, statistics) -> statistics.getFailureReasons().entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()))
+                .limit(5)
+                .forEach(each -> report.append(String.format("  [%s失败] %d 次 %s%n", operationType.getLabel(), each.getValue(), each.getKey()))));
+        report.append(String.format("---------- 超卖校验：%s ----------%n", checkResult.isOversold() ? "失败" : "通过"));
+        report.append(String.format("有效订单 %d，有效车票 %d%n", checkResult.getActiveOrders(), checkResult.getActiveTickets()));
+        report.append(String.format("重复售出座位区间 %d，已售未锁定区间 %d，锁定未售区间 %d%n",
+                checkResult.getDoubleBookedSeats(), checkResult.getUnlockedSoldSegments(), checkResult.getLeakedLockedSegments()));
+        report.append(String.format("令牌偏多 %d，令牌偏少 %d%n", checkResult.getTokenAboveSeatCount(), checkResult.getTokenBelowSeatCount()));
+        report.append(String.format("余票缓存偏多 %d，余票缓存偏少 %d%n", checkResult.getRemainingAboveSeatCount(), checkResult.getRemainingBelowSeatCount()));
+        if (messageBus != null) {
+            report.append(String.format("消息总线：发送 %d，消费成功 %d，重新投递 %d，死信 %d，未完成 %d%n",
+                    messageBus.getPublishedCount().get(), messageBus.getConsumedCount().get(), messageBus.getRedeliveredCount().get(),
+                    messageBus.getDeadLetterCount().get(), messageBus.getPendingCount()));
+        }
+        checkResult.getSamples().forEach(each -> report.append("  ").append(each).append(System.lineSeparator()));
+        log.info(report.toString());
+    }
+}
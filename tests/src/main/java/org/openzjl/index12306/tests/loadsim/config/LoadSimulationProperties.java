@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.tests.loadsim.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 购票压测模拟配置
+ *
+ * @author zhangjlk
+ * @date 2026/10/18 下午6:50
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = LoadSimulationProperties.PREFIX)
+public class LoadSimulationProperties {
+
+    public static final String PREFIX = "loadsim";
+
+    /**
+     * 内嵌 Redis 端口，避免与本机已有的 Redis 冲突
+     */
+    private Integer redisPort = 16379;
+
+    /**
+     * 生成的车次数量
+     */
+    private Integer trainCount = 20;
+
+    /**
+     * 每个车次的停靠站数量，座位按相邻站点区间逐段生成
+     */
+    private Integer stationCount = 10;
+
+    /**
+     * 每个车次的商务座车厢数
+     */
+    private Integer businessCarriageCount = 1;
+
+    /**
+     * 每个车次的一等座车厢数
+     */
+    private Integer firstCarriageCount = 2;
+
+    /**
+     * 每个车次的二等座车厢数
+     */
+    private Integer secondCarriageCount = 5;
+
+    /**
+     * 热门车次数量，热门车次承担 hotTrafficPercent 的购票流量，模拟春运头部车次
+     */
+    private Integer hotTrainCount = 2;
+
+    /**
+     * 热门车次流量占比（0-100）
+     */
+    private Integer hotTrafficPercent = 60;
+
+    /**
+     * 并发线程数
+     */
+    private Integer threads = 64;
+
+    /**
+     * 预热时长，预热期间的请求不计入统计
+     */
+    private Duration warmup = Duration.ofSeconds(10);
+
+    /**
+     * 压测时长
+     */
+    private Duration duration = Duration.ofSeconds(60);
+
+    /**
+     * 购票请求权重
+     */
+    private Integer purchaseWeight = 70;
+
+    /**
+     * 取消订单请求权重
+     */
+    private Integer cancelWeight = 10;
+
+    /**
+     * 支付订单请求权重，默认不支付，订单由取消或延迟关单关闭
+     */
+    private Integer payWeight = 0;
+
+    /**
+     * 车票查询请求权重
+     */
+    private Integer queryWeight = 20;
+
+    /**
+     * 单次购票最多乘车人数
+     */
+    private Integer maxPassengers = 2;
+
+    /**
+     * 模拟用户数量，每个用户有 maxPassengers 个乘车人
+     */
+    private Integer userCount = 10000;
+
+    /**
+     * 校验前等待异步回补（令牌桶、余票缓存）完成的时间
+     */
+    private Duration settleTime = Duration.ofSeconds(3);
+}
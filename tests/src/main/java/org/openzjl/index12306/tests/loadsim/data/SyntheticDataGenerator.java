@@ -0,0 +1,217 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.tests.loadsim.data;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.openzjl.index12306.biz.ticketservice.common.enums.CarriageSeatLayoutEnum;
+import org.openzjl.index12306.biz.ticketservice.common.enums.VehicleTypeEnum;
+import org.openzjl.index12306.tests.loadsim.config.LoadSimulationProperties;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 模拟数据生成器
+ * <p>
+ * 在应用启动阶段（早于缓存预热和压测负载）建表并批量写入车次、站点、车厢、区间价格和座位数据，规模由 {@link LoadSimulationProperties} 决定。
+ * 座位与生产数据一致，按 座位 x 任意两站组成的区间 生成：锁定、解锁、查询余座都按 出发站_到达站 精确匹配沿途全部区间，
+ * 默认 20 个车次、10 个站点、8 节车厢时 t_seat 约 46 万行。
+ * </p>
+ *
+ * @author zhangjlk
+ * @date 2026/10/18 下午6:50
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SyntheticDataGenerator implements InitializingBean {
+
+    private static final int BATCH_SIZE = 2000;
+
+    /**
+     * 各座位类型单个区间的票价（分）
+     */
+    private static final int[] SEGMENT_PRICE = {30000, 15000, 9000};
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final LoadSimulationProperties loadSimulationProperties;
+
+    /**
+     * 生成的车次元数据
+     */
+    @Getter
+    private final List<SyntheticTrainDTO> trains = new ArrayList<>();
+
+    private long nextId = 1L;
+
+    @Override
+    public void afterPropertiesSet() {
+        new ResourceDatabasePopulator(new ClassPathResource("loadsim/schema.sql")).execute(dataSource);
+        long startTime = System.currentTimeMillis();
+        int stationCount = loadSimulationProperties.getStationCount();
+        int trainCount = loadSimulationProperties.getTrainCount();
+        // 站点池比单车次站点数多，车次按不同起点截取，部分车次共享区间，查询时一个区间能查到多个车次
+        int stationPoolSize = stationCount + Math.max(1, trainCount / 2);
+        insertStations(stationPoolSize);
+        LocalDateTime firstDeparture = LocalDate.now().plusDays(1).atTime(6, 0);
+        long seatRows = 0;
+        for (int i = 0; i < trainCount; i++) {
+            int offset = i % (stationPoolSize - stationCount + 1);
+            List<Integer> stationIndexes = new ArrayList<>();
+            for (int j = 0; j < stationCount; j++) {
+                stationIndexes.add(offset + j);
+            }
+            seatRows += insertTrain(i, stationIndexes, firstDeparture.plusMinutes(10L * i));
+        }
+        log.info("[压测模拟] 生成车次：{}，站点：{}，座位区间行：{}，耗时：{}ms",
+                trainCount, stationPoolSize, seatRows, System.currentTimeMillis() - startTime);
+    }
+
+    private void insertStations(int stationPoolSize) {
+        List<Object[]> regionArgs = new ArrayList<>();
+        List<Object[]> stationArgs = new ArrayList<>();
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        for (int i = 0; i < stationPoolSize; i++) {
+            regionArgs.add(new Object[]{nextId++, regionName(i), regionName(i), regionCode(i), "X", "xuni" + i, 0, now, now});
+            stationArgs.add(new Object[]{nextId++, stationCode(i), stationName(i), "xunizhan" + i, regionCode(i), regionName(i), now, now});
+        }
+        jdbcTemplate.batchUpdate("insert into t_region (id, name, full_name, code, initial, spell, popular_flag, create_time, update_time, del_flag) " +
+                "values (?, ?, ?, ?, ?, ?, ?, ?, ?, 0)", regionArgs);
+        jdbcTemplate.batchUpdate("insert into t_station (id, code, name, spell, region, region_name, create_time, update_time, del_flag) " +
+                "values (?, ?, ?, ?, ?, ?, ?, ?, 0)", stationArgs);
+    }
+
+    private long insertTrain(int trainIndex, List<Integer> stationIndexes, LocalDateTime departureTime) {
+        long trainId = nextId++;
+        String trainNumber = "G" + (1000 + trainIndex);
+        int stationCount = stationIndexes.size();
+        List<String> stations = stationIndexes.stream().map(SyntheticDataGenerator::stationName).toList();
+        List<String> stationCodes = stationIndexes.stream().map(SyntheticDataGenerator::stationCode).toList();
+        List<String> regions = stationIndexes.stream().map(SyntheticDataGenerator::regionName).toList();
+        // 每站运行 30 分钟，停靠 2 分钟
+        List<LocalDateTime> arrivalTimes = new ArrayList<>();
+        List<LocalDateTime> departureTimes = new ArrayList<>();
+        for (int i = 0; i < stationCount; i++) {
+            LocalDateTime arrival = departureTime.plusMinutes(32L * i);
+            arrivalTimes.add(arrival);
+            departureTimes.add(i == 0 ? arrival : arrival.plusMinutes(2));
+        }
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        jdbcTemplate.update("insert into t_train (id, train_number, train_type, train_tag, train_brand, start_station, end_station, start_region, end_region, " +
+                        "sale_time, sale_status, departure_time, arrival_time, create_time, update_time, del_flag) values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0)",
+                trainId, trainNumber, VehicleTypeEnum.HIGH_SPEED_RAILWAY.getCode(), "0", "0", stations.get(0), stations.get(stationCount - 1),
+                regions.get(0), regions.get(stationCount - 1), Timestamp.valueOf(LocalDateTime.now().minusDays(1)), 0,
+                Timestamp.valueOf(departureTimes.get(0)), Timestamp.valueOf(arrivalTimes.get(stationCount - 1)), now, now);
+
+        List<Object[]> trainStationArgs = new ArrayList<>();
+        for (int i = 0; i < stationCount; i++) {
+            boolean last = i == stationCount - 1;
+            trainStationArgs.add(new Object[]{nextId++, trainId, (long) stationIndexes.get(i) + 1, String.format("%02d", i + 1),
+                    stations.get(i), last ? null : stations.get(i + 1), regions.get(i), last ? null : regions.get(i + 1),
+                    Timestamp.valueOf(arrivalTimes.get(i)), Timestamp.valueOf(departureTimes.get(i)), i == 0 ? 0 : 2, now, now});
+        }
+        jdbcTemplate.batchUpdate("insert into t_train_station (id, train_id, station_id, sequence, departure, arrival, start_region, end_region, " +
+                "arrival_time, departure_time, stopover_time, create_time, update_time, del_flag) values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0)", trainStationArgs);
+
+        List<Object[]> relationArgs = new ArrayList<>();
+        List<Object[]> priceArgs = new ArrayList<>();
+        for (int i = 0; i < stationCount; i++) {
+            for (int j = i + 1; j < stationCount; j++) {
+                relationArgs.add(new Object[]{nextId++, trainId, stations.get(i), stations.get(j), regions.get(i), regions.get(j),
+                        i == 0, j == stationCount - 1, Timestamp.valueOf(departureTimes.get(i)), Timestamp.valueOf(arrivalTimes.get(j)), now, now});
+                for (int seatType = 0; seatType < SEGMENT_PRICE.length; seatType++) {
+                    priceArgs.add(new Object[]{nextId++, trainId, stations.get(i), stations.get(j), seatType, SEGMENT_PRICE[seatType] * (j - i), now, now});
+                }
+            }
+        }
+        jdbcTemplate.batchUpdate("insert into t_train_station_relation (id, train_id, departure, arrival, start_region, end_region, departure_flag, arrival_flag, " +
+                "departure_time, arrival_time, create_time, update_time, del_flag) values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0)", relationArgs);
+        jdbcTemplate.batchUpdate("insert into t_train_station_price (id, train_id, departure, arrival, seat_type, price, create_time, update_time, del_flag) " +
+                "values (?, ?, ?, ?, ?, ?, ?, ?, 0)", priceArgs);
+
+        Map<Integer, List<String>> seatTypeCarriages = new LinkedHashMap<>();
+        Map<Integer, Integer> seatTypeCapacity = new LinkedHashMap<>();
+        List<Object[]> carriageArgs = new ArrayList<>();
+        List<Object[]> seatArgs = new ArrayList<>();
+        long seatRows = 0;
+        int carriageSequence = 1;
+        int[] carriageCounts = {
+                loadSimulationProperties.getBusinessCarriageCount(),
+                loadSimulationProperties.getFirstCarriageCount(),
+                loadSimulationProperties.getSecondCarriageCount()
+        };
+        CarriageSeatLayoutEnum[] layouts = {CarriageSeatLayoutEnum.TRAIN_BUSINESS, CarriageSeatLayoutEnum.TRAIN_FIRST, CarriageSeatLayoutEnum.TRAIN_SECOND};
+        for (int k = 0; k < layouts.length; k++) {
+            CarriageSeatLayoutEnum layout = layouts[k];
+            Integer seatType = layout.getSeatType().getCode();
+            for (int c = 0; c < carriageCounts[k]; c++) {
+                String carriageNumber = String.format("%02d", carriageSequence++);
+                seatTypeCarriages.computeIfAbsent(seatType, key -> new ArrayList<>()).add(carriageNumber);
+                seatTypeCapacity.merge(seatType, layout.getCapacity(), Integer::sum);
+                carriageArgs.add(new Object[]{nextId++, trainId, carriageNumber, seatType, layout.getCapacity(), now, now});
+                for (int row = 0; row < layout.getRows(); row++) {
+                    for (int column = 0; column < layout.getColumns(); column++) {
+                        String seatNumber = layout.seatNumber(row, column);
+                        for (int i = 0; i < stationCount; i++) {
+                            for (int j = i + 1; j < stationCount; j++) {
+                                seatArgs.add(new Object[]{nextId++, trainId, carriageNumber, seatNumber, seatType,
+                                        stations.get(i), stations.get(j), 0, SEGMENT_PRICE[seatType] * (j - i), now, now});
+                                if (seatArgs.size() >= BATCH_SIZE) {
+                                    seatRows += flushSeats(seatArgs);
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        seatRows += flushSeats(seatArgs);
+        jdbcTemplate.batchUpdate("insert into t_carriage (id, train_id, carriage_number, carriage_type, seat_count, create_time, update_time, del_flag) " +
+                "values (?, ?, ?, ?, ?, ?, ?, 0)", carriageArgs);
+        trains.add(new SyntheticTrainDTO(trainId, trainNumber, stations, stationCodes, seatTypeCarriages, seatTypeCapacity));
+        return seatRows;
+    }
+
+    private int flushSeats(List<Object[]> seatArgs) {
+        if (seatArgs.isEmpty()) {
+            return 0;
+        }
+        jdbcTemplate.batchUpdate("insert into t_seat (id, train_id, carriage_number, seat_number, seat_type, start_station, end_station, seat_status, price, " +
+                "create_time, update_time, del_flag) values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0)", seatArgs);
+        int size = seatArgs.size();
+        seatArgs.clear();
+        return size;
+    }
+
+    private static String stationName(int index) {
+        return String.format("模拟站%03d", index + 1);
+    }
+
+    private static String stationCode(int index) {
+        return String.format("MNZ%03d", index + 1);
+    }
+
+    private static String regionName(int index) {
+        return String.format("模拟城%03d", index + 1);
+    }
+
+    private static String regionCode(int index) {
+        return String.format("MNC%03d", index + 1);
+    }
+}
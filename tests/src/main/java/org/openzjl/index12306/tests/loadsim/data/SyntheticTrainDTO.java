@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.tests.loadsim.data;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 模拟车次元数据，压测负载据此生成请求、超卖校验据此推算区间余量
+ *
+ * @author zhangjlk
+ * @date 2026/10/18 下午6:50
+ */
+@Data
+@AllArgsConstructor
+public class SyntheticTrainDTO {
+
+    /**
+     * 列车ID
+     */
+    private Long trainId;
+
+    /**
+     * 车次号
+     */
+    private String trainNumber;
+
+    /**
+     * 按停靠顺序排列的站点名称
+     */
+    private List<String> stations;
+
+    /**
+     * 按停靠顺序排列的站点编码，与 stations 一一对应
+     */
+    private List<String> stationCodes;
+
+    /**
+     * 座位类型 -> 该座位类型的车厢号
+     */
+    private Map<Integer, List<String>> seatTypeCarriages;
+
+    /**
+     * 座位类型 -> 整车该座位类型的座位总数
+     */
+    private Map<Integer, Integer> seatTypeCapacity;
+}
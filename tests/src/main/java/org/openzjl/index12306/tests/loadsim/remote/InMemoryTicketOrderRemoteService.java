@@ -0,0 +1,267 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.tests.loadsim.remote;
+
+import lombok.RequiredArgsConstructor;
+import org.apache.rocketmq.common.message.MessageConst;
+import org.apache.rocketmq.spring.core.RocketMQTemplate;
+import org.openzjl.index12306.biz.ticketservice.common.constant.TicketRocketMQConstant;
+import org.openzjl.index12306.biz.ticketservice.common.enums.OrderItemStatusEnum;
+import org.openzjl.index12306.biz.ticketservice.dto.req.CancelTicketOrderReqDTO;
+import org.openzjl.index12306.biz.ticketservice.dto.req.TicketOrderItemQueryReqDTO;
+import org.openzjl.index12306.biz.ticketservice.mq.domain.MessageWrapper;
+import org.openzjl.index12306.biz.ticketservice.mq.event.DelayCloseOrderEvent;
+import org.openzjl.index12306.biz.ticketservice.mq.event.PayResultCallbackTicketEvent;
+import org.openzjl.index12306.biz.ticketservice.remote.TicketOrderRemoteService;
+import org.openzjl.index12306.biz.ticketservice.remote.dto.TicketOrderCreateRemoteReqDTO;
+import org.openzjl.index12306.biz.ticketservice.remote.dto.TicketOrderDetailRespDTO;
+import org.openzjl.index12306.biz.ticketservice.remote.dto.TicketOrderPassengerDetailRespDTO;
+import org.openzjl.index12306.biz.ticketservice.service.handler.ticket.dto.TrainPurchaseTicketRespDTO;
+import org.openzjl.index12306.framework.starter.convention.errorcode.BaseErrorCode;
+import org.openzjl.index12306.framework.starter.convention.result.Result;
+import org.openzjl.index12306.framework.starter.log.toolkit.BeanUtil;
+import org.openzjl.index12306.framework.starter.web.Results;
+import org.openzjl.index12306.tests.mqbus.canal.SyntheticCanalBinlogEmitter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 内存订单服务
+ * <p>
+ * 替代订单服务的 Feign 客户端，订单只保存在内存中，状态流转与订单服务一致：待支付的订单才能取消、关闭或支付。
+ * 压测结束后超卖校验以这里的未关闭订单为准。
+ * </p>
+ * <p>
+ * 启用进程内消息总线时同时模拟订单服务与支付服务的消息：
+ * <ul>
+ *   <li>创建订单后与订单服务一样发送延迟级别 14 的延迟关单消息</li>
+ *   <li>订单状态变更后发送订单分表的 Canal Binlog 消息，驱动关单释放座位</li>
+ *   <li>支付成功后与支付服务一样发送支付结果回调消息</li>
+ * </ul>
+ * </p>
+ *
+ * @author zhangjlk
+ * @date 2026/10/18 下午6:50
+ */
+@Primary
+@Component
+@RequiredArgsConstructor
+public class InMemoryTicketOrderRemoteService implements TicketOrderRemoteService {
+
+    /**
+     * 订单明细状态：待支付
+     */
+    public static final int ORDER_ITEM_STATUS_PENDING_PAYMENT = OrderItemStatusEnum.PENDING_PAYMENT.getStatus();
+
+    /**
+     * 订单明细状态：已取消
+     */
+    public static final int ORDER_ITEM_STATUS_CLOSED = OrderItemStatusEnum.CLOSED.getStatus();
+
+    /**
+     * 订单明细状态：已支付
+     */
+    public static final int ORDER_ITEM_STATUS_PAID = OrderItemStatusEnum.ALREADY_PAID.getStatus();
+
+    /**
+     * 延迟关单消息的延迟级别，与订单服务一致（10 分钟）
+     */
+    private static final int DELAY_CLOSE_ORDER_LEVEL = 14;
+
+    /**
+     * 订单分表数量，Binlog 消息的表名为 t_order_0 ~ t_order_15
+     */
+    private static final int ORDER_TABLE_SHARDING_COUNT = 16;
+
+    private static final String ORDER_DATABASE = "12306_order";
+
+    private final ObjectProvider<RocketMQTemplate> rocketMQTemplateProvider;
+    private final ObjectProvider<SyntheticCanalBinlogEmitter> canalBinlogEmitterProvider;
+    private final Environment environment;
+
+    private final Map<String, TicketOrderDetailRespDTO> orders = new ConcurrentHashMap<>();
+    private final AtomicLong orderSequence = new AtomicLong();
+
+    @Override
+    public Result<TicketOrderDetailRespDTO> queryTicketOrderByOrderSn(String orderSn) {
+        TicketOrderDetailRespDTO order = orders.get(orderSn);
+        if (order == null) {
+            return serviceError("订单不存在");
+        }
+        synchronized (order) {
+            return Results.success(order);
+        }
+    }
+
+    @Override
+    public Result<List<TicketOrderPassengerDetailRespDTO>> queryTicketItemOrderById(TicketOrderItemQueryReqDTO requestParam) {
+        TicketOrderDetailRespDTO order = orders.get(requestParam.getOrderSn());
+        if (order == null) {
+            return serviceError("订单不存在");
+        }
+        synchronized (order) {
+            return Results.success(new ArrayList<>(order.getPassengerDetails()));
+        }
+    }
+
+    @Override
+    public Result<String> createTicketOrder(TicketOrderCreateRemoteReqDTO requestParam) {
+        String orderSn = String.format("LS%d%08d", requestParam.getTrainId(), orderSequence.incrementAndGet());
+        List<TicketOrderPassengerDetailRespDTO> passengerDetails = requestParam.getTicketOrderItems().stream()
+                .map(each -> TicketOrderPassengerDetailRespDTO.builder()
+                        .username(requestParam.getUsername())
+                        .seatType(each.getSeatType())
+                        .carriageNumber(each.getCarriageNumber())
+                        .seatNumber(each.getSeatNumber())
+                        .realName(each.getRealName())
+                        .idType(each.getIdType())
+                        .ticketType(each.getTicketType())
+                        .amount(each.getAmount())
+                        .status(ORDER_ITEM_STATUS_PENDING_PAYMENT)
+                        .build())
+                .toList();
+        TicketOrderDetailRespDTO order = new TicketOrderDetailRespDTO();
+        order.setOrderSn(orderSn);
+        order.setTrainId(requestParam.getTrainId());
+        order.setDeparture(requestParam.getDeparture());
+        order.setArrival(requestParam.getArrival());
+        order.setRidingDate(requestParam.getRidingDate());
+        order.setOrderTime(requestParam.getOrderTime());
+        order.setTrainNumber(requestParam.getTrainNumber());
+        order.setDepartureTime(requestParam.getDepartureTime());
+        order.setArrivalTime(requestParam.getArrivalTime());
+        order.setPassengerDetails(new ArrayList<>(passengerDetails));
+        orders.put(orderSn, order);
+        rocketMQTemplateProvider.ifAvailable(each -> sendDelayCloseOrder(each, order, requestParam));
+        return Results.success(orderSn);
+    }
+
+    @Override
+    public Result<Void> cancelTicketOrder(CancelTicketOrderReqDTO requestParam) {
+        return closePendingOrder(requestParam.getOrderSn()) ? Results.success() : serviceError("订单状态不是待支付，无法取消");
+    }
+
+    @Override
+    public Result<Boolean> closeTickOrder(CancelTicketOrderReqDTO cancelTicketOrderReqDTO) {
+        return closePendingOrder(cancelTicketOrderReqDTO.getOrderSn()) ? Results.success(true) : serviceError("订单状态不是待支付，无法关闭");
+    }
+
+    /**
+     * 支付待支付的订单
+     * <p>
+     * 订单状态置为已支付后发送订单分表 Binlog 与支付结果回调消息，购票服务消费回调后把锁定的座位置为已售。
+     * </p>
+     *
+     * @param orderSn 订单号
+     * @return 订单是否为待支付并已支付
+     */
+    public boolean payOrder(String orderSn) {
+        TicketOrderDetailRespDTO order = orders.get(orderSn);
+        if (order == null || !changePendingStatus(order, ORDER_ITEM_STATUS_PAID)) {
+            return false;
+        }
+        rocketMQTemplateProvider.ifAvailable(each -> sendPayResultCallback(each, order));
+        return true;
+    }
+
+    /**
+     * 全部订单快照，用于超卖校验
+     */
+    public Collection<TicketOrderDetailRespDTO> listOrders() {
+        return orders.values();
+    }
+
+    private boolean closePendingOrder(String orderSn) {
+        TicketOrderDetailRespDTO order = orders.get(orderSn);
+        return order != null && changePendingStatus(order, ORDER_ITEM_STATUS_CLOSED);
+    }
+
+    private boolean changePendingStatus(TicketOrderDetailRespDTO order, int status) {
+        synchronized (order) {
+            boolean pending = order.getPassengerDetails().stream()
+                    .allMatch(each -> each.getStatus() == ORDER_ITEM_STATUS_PENDING_PAYMENT);
+            if (!pending) {
+                return false;
+            }
+            order.getPassengerDetails().forEach(each -> each.setStatus(status));
+        }
+        canalBinlogEmitterProvider.ifAvailable(each -> emitOrderStatusBinlog(each, order, status));
+        return true;
+    }
+
+    private void sendDelayCloseOrder(RocketMQTemplate rocketMQTemplate, TicketOrderDetailRespDTO order, TicketOrderCreateRemoteReqDTO requestParam) {
+        DelayCloseOrderEvent delayCloseOrderEvent = DelayCloseOrderEvent.builder()
+                .trainId(String.valueOf(order.getTrainId()))
+                .departure(order.getDeparture())
+                .arrival(order.getArrival())
+                .orderSn(order.getOrderSn())
+                .trainPurchaseTicketResults(BeanUtil.convert(requestParam.getTicketOrderItems(), TrainPurchaseTicketRespDTO.class))
+                .build();
+        String destination = environment.resolvePlaceholders(TicketRocketMQConstant.ORDER_DELAY_CLOSE_TOPIC_KEY)
+                + ":" + environment.resolvePlaceholders(TicketRocketMQConstant.ORDER_DELAY_CLOSE_TAG_KEY);
+        rocketMQTemplate.syncSend(destination, buildMessage(order.getOrderSn(), delayCloseOrderEvent), 2000L, DELAY_CLOSE_ORDER_LEVEL);
+    }
+
+    private void sendPayResultCallback(RocketMQTemplate rocketMQTemplate, TicketOrderDetailRespDTO order) {
+        BigDecimal amount = BigDecimal.valueOf(order.getPassengerDetails().stream()
+                .map(TicketOrderPassengerDetailRespDTO::getAmount)
+                .filter(Objects::nonNull)
+                .mapToInt(Integer::intValue)
+                .sum());
+        PayResultCallbackTicketEvent payResultCallbackTicketEvent = new PayResultCallbackTicketEvent();
+        payResultCallbackTicketEvent.setOrderSn(order.getOrderSn());
+        payResultCallbackTicketEvent.setOutOrderSn(order.getOrderSn());
+        payResultCallbackTicketEvent.setTradeNo("LSPAY" + order.getOrderSn());
+        payResultCallbackTicketEvent.setTotalAmount(amount);
+        payResultCallbackTicketEvent.setPayAmount(amount);
+        payResultCallbackTicketEvent.setGmtPayment(new Date());
+        payResultCallbackTicketEvent.setStatus("TRADE_SUCCESS");
+        String destination = environment.resolvePlaceholders(TicketRocketMQConstant.PAY_GLOBAL_TOPIC_KEY)
+                + ":" + environment.resolvePlaceholders(TicketRocketMQConstant.PAY_RESULT_CALLBACK_TAG_KEY);
+        rocketMQTemplate.syncSend(destination, buildMessage(order.getOrderSn(), payResultCallbackTicketEvent));
+    }
+
+    private static Message<?> buildMessage(String keys, Object messageEvent) {
+        return MessageBuilder
+                .withPayload(new MessageWrapper<>(keys, messageEvent))
+                .setHeader(MessageConst.PROPERTY_KEYS, keys)
+                .build();
+    }
+
+    private void emitOrderStatusBinlog(SyntheticCanalBinlogEmitter canalBinlogEmitter, TicketOrderDetailRespDTO order, int status) {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("order_sn", order.getOrderSn());
+        data.put("train_id", String.valueOf(order.getTrainId()));
+        data.put("train_number", order.getTrainNumber());
+        data.put("departure", order.getDeparture());
+        data.put("arrival", order.getArrival());
+        data.put("status", String.valueOf(status));
+        Map<String, Object> old = new LinkedHashMap<>();
+        old.put("status", String.valueOf(ORDER_ITEM_STATUS_PENDING_PAYMENT));
+        String table = "t_order_" + Math.floorMod(order.getOrderSn().hashCode(), ORDER_TABLE_SHARDING_COUNT);
+        canalBinlogEmitter.emit(ORDER_DATABASE, table, "UPDATE", List.of(data), List.of(old));
+    }
+
+    private static <T> Result<T> serviceError(String message) {
+        return new Result<T>()
+                .setCode(BaseErrorCode.SERVICE_ERROR.code())
+                .setMessage(message);
+    }
+}
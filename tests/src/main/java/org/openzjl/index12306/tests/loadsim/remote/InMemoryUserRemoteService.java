@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.tests.loadsim.remote;
+
+import org.openzjl.index12306.biz.ticketservice.remote.UserRemoteService;
+import org.openzjl.index12306.biz.ticketservice.remote.dto.PassengerRespDTO;
+import org.openzjl.index12306.framework.starter.convention.result.Result;
+import org.openzjl.index12306.framework.starter.web.Results;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 内存用户服务
+ * <p>
+ * 替代用户服务的 Feign 客户端，按乘车人ID直接构造乘车人信息，不产生网络开销。
+ * </p>
+ *
+ * @author zhangjlk
+ * @date 2026/10/18 下午6:50
+ */
+@Primary
+@Component
+public class InMemoryUserRemoteService implements UserRemoteService {
+
+    @Override
+    public Result<List<PassengerRespDTO>> listPassengerQueryByIds(String username, List<String> ids) {
+        List<PassengerRespDTO> passengers = ids.stream()
+                .map(each -> {
+                    PassengerRespDTO passenger = new PassengerRespDTO();
+                    passenger.setId(each);
+                    passenger.setUsername(username);
+                    passenger.setRealName("乘车人" + each);
+                    passenger.setIdType(0);
+                    passenger.setIdCard(String.format("1101011990%08d", Math.abs((long) each.hashCode()) % 100000000L));
+                    passenger.setDiscountType(0);
+                    passenger.setPhone("13800000000");
+                    return passenger;
+                })
+                .toList();
+        return Results.success(passengers);
+    }
+}
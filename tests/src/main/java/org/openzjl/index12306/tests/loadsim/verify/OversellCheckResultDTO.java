@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.tests.loadsim.verify;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 超卖校验结果
+ *
+ * @author zhangjlk
+ * @date 2026/10/18 下午6:50
+ */
+@Data
+public class OversellCheckResultDTO {
+
+    /**
+     * 未关闭订单数
+     */
+    private long activeOrders;
+
+    /**
+     * 未关闭订单中的车票数
+     */
+    private long activeTickets;
+
+    /**
+     * 同一座位的重叠区间被多张有效车票占用的次数（超卖）
+     */
+    private long doubleBookedSeats;
+
+    /**
+     * 有效车票覆盖的区间在座位表中仍为可售的次数（座位未锁定，会被再次售出）
+     */
+    private long unlockedSoldSegments;
+
+    /**
+     * 座位表中已锁定但没有有效车票覆盖的区间数（取消或关单后未释放，少卖）
+     */
+    private long leakedLockedSegments;
+
+    /**
+     * 令牌桶余量大于座位表实际可售数的 区间_座位类型 数（令牌放行后选座失败或超卖）
+     */
+    private long tokenAboveSeatCount;
+
+    /**
+     * 令牌桶余量小于座位表实际可售数的 区间_座位类型 数（少卖，由余票对账修复）
+     */
+    private long tokenBelowSeatCount;
+
+    /**
+     * 站点余票缓存大于座位表实际可售数的 区间_座位类型 数
+     */
+    private long remainingAboveSeatCount;
+
+    /**
+     * 站点余票缓存小于座位表实际可售数的 区间_座位类型 数
+     */
+    private long remainingBelowSeatCount;
+
+    /**
+     * 问题样例，最多保留若干条
+     */
+    private List<String> samples = new ArrayList<>();
+
+    /**
+     * 是否存在超卖
+     */
+    public boolean isOversold() {
+        return doubleBookedSeats > 0 || unlockedSoldSegments > 0;
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.tests.loadsim.verify;
+
+import cn.hutool.core.util.StrUtil;
+import lombok.RequiredArgsConstructor;
+import org.openzjl.index12306.biz.ticketservice.remote.dto.TicketOrderDetailRespDTO;
+import org.openzjl.index12306.biz.ticketservice.remote.dto.TicketOrderPassengerDetailRespDTO;
+import org.openzjl.index12306.framework.starter.cache.DistributedCache;
+import org.openzjl.index12306.tests.loadsim.data.SyntheticDataGenerator;
+import org.openzjl.index12306.tests.loadsim.data.SyntheticTrainDTO;
+import org.openzjl.index12306.tests.loadsim.remote.InMemoryTicketOrderRemoteService;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.openzjl.index12306.biz.ticketservice.common.constant.RedisKeyConstant.TICKET_AVAILABILITY_TOKEN_BUCKET;
+import static org.openzjl.index12306.biz.ticketservice.common.constant.RedisKeyConstant.TRAIN_STATION_REMAINING_TICKET;
+
+/**
+ * 超卖校验
+ * <p>
+ * 压测停止、异步回补完成后，以内存订单服务中的未关闭订单为准，逐车次核对：
+ * <ol>
+ *   <li>同一座位的有效车票区间两两不重叠，否则为超卖</li>
+ *   <li>与有效车票乘车区间重叠的每个 出发站_到达站 区间在 t_seat 中均已锁定；反过来，已锁定的区间都能找到重叠的有效车票</li>
+ *   <li>令牌桶每个 出发站_到达站_座位类型 的余量与 t_seat 推算的可售座位数一致</li>
+ *   <li>已加载的站点余票缓存与 t_seat 推算的可售座位数一致，覆盖购票链路或 Binlog 消费对余票缓存的增量更新</li>
+ * </ol>
+ * </p>
+ *
+ * @author zhangjlk
+ * @date 2026/10/18 下午6:50
+ */
+@Component
+@RequiredArgsConstructor
+public class OversellVerifier {
+
+    private static final int MAX_SAMPLES = 20;
+
+    private final SyntheticDataGenerator syntheticDataGenerator;
+    private final InMemoryTicketOrderRemoteService ticketOrderRemoteService;
+    private final JdbcTemplate jdbcTemplate;
+    private final DistributedCache distributedCache;
+
+    public OversellCheckResultDTO verify() {
+        OversellCheckResultDTO result = new OversellCheckResultDTO();
+        Map<Long, List<TicketOrderDetailRespDTO>> activeOrderMap = new HashMap<>();
+        for (TicketOrderDetailRespDTO each : ticketOrderRemoteService.listOrders()) {
+            synchronized (each) {
+                boolean active = each.getPassengerDetails().stream()
+                        .noneMatch(item -> Objects.equals(item.getStatus(), InMemoryTicketOrderRemoteService.ORDER_ITEM_STATUS_CLOSED));
+                if (active) {
+                    activeOrderMap.computeIfAbsent(each.getTrainId(), key -> new ArrayList<>()).add(each);
+                    result.setActiveOrders(result.getActiveOrders() + 1);
+                    result.setActiveTickets(result.getActiveTickets() + each.getPassengerDetails().size());
+                }
+            }
+        }
+        for (SyntheticTrainDTO each : syntheticDataGenerator.getTrains()) {
+            verifyTrain(each, activeOrderMap.getOrDefault(each.getTrainId(), List.of()), result);
+        }
+        return result;
+    }
+
+    private void verifyTrain(SyntheticTrainDTO train, List<TicketOrderDetailRespDTO> activeOrders, OversellCheckResultDTO result) {
+        List<String> stations = train.getStations();
+        int segmentCount = stations.size() - 1;
+        // 座位（车厢号_座位号）-> 有效车票占用的相邻区间
+        Map<String, BitSet> soldSegments = new HashMap<>();
+        for (TicketOrderDetailRespDTO order : activeOrders) {
+            int departureIndex = stations.indexOf(order.getDeparture());
+            int arrivalIndex = stations.indexOf(order.getArrival());
+            for (TicketOrderPassengerDetailRespDTO each : order.getPassengerDetails()) {
+                String seatKey = StrUtil.join("_", each.getCarriageNumber(), each.getSeatNumber());
+                BitSet occupied = soldSegments.computeIfAbsent(seatKey, key -> new BitSet(segmentCount));
+                if (!occupied.get(departureIndex, arrivalIndex).isEmpty()) {
+                    result.setDoubleBookedSeats(result.getDoubleBookedSeats() + 1);
+                    addSample(result, String.format("超卖：车次 %s 座位 %s 区间 %s-%s 与其他车票重叠，订单号 %s",
+                            train.getTrainNumber(), seatKey, order.getDeparture(), order.getArrival(), order.getOrderSn()));
+                }
+                occupied.set(departureIndex, arrivalIndex);
+            }
+        }
+
+        // 座位 -> 已锁定的 出发站_到达站 区间，t_seat 按任意两站组成的区间存储，以 出发站下标 x 站点数 + 到达站下标 编号
+        int stationCount = stations.size();
+        Map<String, BitSet> lockedRoutes = new HashMap<>();
+        jdbcTemplate.query("select carriage_number, seat_number, start_station, end_station from t_seat where train_id = ? and seat_status <> 0", rs -> {
+            String seatKey = StrUtil.join("_", rs.getString("carriage_number"), rs.getString("seat_number"));
+            int routeIndex = stations.indexOf(rs.getString("start_station")) * stationCount + stations.indexOf(rs.getString("end_station"));
+            lockedRoutes.computeIfAbsent(seatKey, key -> new BitSet(stationCount * stationCount)).set(routeIndex);
+        }, train.getTrainId());
+
+        Set<String> seatKeys = new HashSet<>(soldSegments.keySet());
+        seatKeys.addAll(lockedRoutes.keySet());
+        for (String seatKey : seatKeys) {
+            // 与有效车票占用的任一相邻区间重叠的区间都应锁定，与 SeatService#lockSeat 锁定的沿途区间一致
+            BitSet sold = soldSegments.getOrDefault(seatKey, new BitSet());
+            BitSet expected = new BitSet(stationCount * stationCount);
+            for (int i = 0; i < stationCount; i++) {
+                for (int j = i + 1; j < stationCount; j++) {
+                    if (!sold.get(i, j).isEmpty()) {
+                        expected.set(i * stationCount + j);
+                    }
+                }
+            }
+            BitSet locked = lockedRoutes.getOrDefault(seatKey, new BitSet());
+            BitSet unlockedSold = (BitSet) expected.clone();
+            unlockedSold.andNot(locked);
+            BitSet leakedLocked = (BitSet) locked.clone();
+            leakedLocked.andNot(expected);
+            if (!unlockedSold.isEmpty()) {
+                result.setUnlockedSoldSegments(result.getUnlockedSoldSegments() + unlockedSold.cardinality());
+                addSample(result, String.format("超卖：车次 %s 座位 %s 已售区间 %s 在座位表中仍可售", train.getTrainNumber(), seatKey, describeRoutes(unlockedSold, stations)));
+            }
+            if (!leakedLocked.isEmpty()) {
+                result.setLeakedLockedSegments(result.getLeakedLockedSegments() + leakedLocked.cardinality());
+                addSample(result, String.format("少卖：车次 %s 座位 %s 锁定区间 %s 没有有效车票", train.getTrainNumber(), seatKey, describeRoutes(leakedLocked, stations)));
+            }
+        }
+        verifyAvailability(train, lockedRoutes, result);
+    }
+
+    private static String describeRoutes(BitSet routes, List<String> stations) {
+        return routes.stream()
+                .mapToObj(each -> stations.get(each / stations.size()) + "-" + stations.get(each % stations.size()))
+                .collect(Collectors.joining(",", "[", "]"));
+    }
+
+    private void verifyAvailability(SyntheticTrainDTO train, Map<String, BitSet> lockedRoutes, OversellCheckResultDTO result) {
+        StringRedisTemplate stringRedisTemplate = (StringRedisTemplate) distributedCache.getInstance();
+        // 没有购票请求的车次不会加载令牌桶
+        Map<Object, Object> tokenBucket = stringRedisTemplate.opsForHash().entries(TICKET_AVAILABILITY_TOKEN_BUCKET + train.getTrainId());
+        List<String> stations = train.getStations();
+        Map<String, Integer> carriageSeatType = new HashMap<>();
+        train.getSeatTypeCarriages().forEach((seatType, carriages) -> carriages.forEach(each -> carriageSeatType.put(each, seatType)));
+        for (int i = 0; i < stations.size(); i++) {
+            for (int j = i + 1; j < stations.size(); j++) {
+                // 与余座查询一致，该 出发站_到达站 区间记录被锁定的座位不可售
+                Map<Integer, Integer> unavailable = new HashMap<>();
+                for (Map.Entry<String, BitSet> each : lockedRoutes.entrySet()) {
+                    if (!each.getValue().get(i * stations.size() + j)) {
+                        continue;
+                    }
+                    String carriageNumber = StrUtil.subBefore(each.getKey(), "_", false);
+                    unavailable.merge(carriageSeatType.get(carriageNumber), 1, Integer::sum);
+                }
+                // 没有被查询过的区间不会加载余票缓存
+                String remainingTicketKey = TRAIN_STATION_REMAINING_TICKET + StrUtil.join("_", train.getTrainId(), stations.get(i), stations.get(j));
+                Map<Object, Object> remainingTicket = stringRedisTemplate.opsForHash().entries(remainingTicketKey);
+                for (Map.Entry<Integer, Integer> each : train.getSeatTypeCapacity().entrySet()) {
+                    long available = each.getValue() - unavailable.getOrDefault(each.getKey(), 0);
+                    String field = StrUtil.join("_", stations.get(i), stations.get(j), each.getKey());
+                    Object tokenCount = tokenBucket.get(field);
+                    if (tokenCount != null) {
+                        long tokens = Long.parseLong(tokenCount.toString());
+                        if (tokens > available) {
+                            result.setTokenAboveSeatCount(result.getTokenAboveSeatCount() + 1);
+                            addSample(result, String.format("令牌偏多：车次 %s %s 令牌 %d，可售座位 %d", train.getTrainNumber(), field, tokens, available));
+                        } else if (tokens < available) {
+                            result.setTokenBelowSeatCount(result.getTokenBelowSeatCount() + 1);
+                            addSample(result, String.format("令牌偏少：车次 %s %s 令牌 %d，可售座位 %d", train.getTrainNumber(), field, tokens, available));
+                        }
+                    }
+                    Object remainingCount = remainingTicket.get(String.valueOf(each.getKey()));
+                    if (remainingCount != null) {
+                        long remaining = Long.parseLong(remainingCount.toString());
+                        if (remaining > available) {
+                            result.setRemainingAboveSeatCount(result.getRemainingAboveSeatCount() + 1);
+                            addSample(result, String.format("余票缓存偏多：车次 %s %s 余票 %d，可售座位 %d", train.getTrainNumber(), field, remaining, available));
+                        } else if (remaining < available) {
+                            result.setRemainingBelowSeatCount(result.getRemainingBelowSeatCount() + 1);
+                            addSample(result, String.format("余票缓存偏少：车次 %s %s 余票 %d，可售座位 %d", train.getTrainNumber(), field, remaining, available));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private void addSample(OversellCheckResultDTO result, String sample) {
+        if (result.getSamples().size() < MAX_SAMPLES) {
+            result.getSamples().add(sample);
+        }
+    }
+}
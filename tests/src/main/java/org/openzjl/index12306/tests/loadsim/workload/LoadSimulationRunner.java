@@ -0,0 +1,215 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.tests.loadsim.workload;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.openzjl.index12306.biz.ticketservice.dto.domain.PurchaseTicketPassengerDetailDTO;
+import org.openzjl.index12306.biz.ticketservice.dto.req.CancelTicketOrderReqDTO;
+import org.openzjl.index12306.biz.ticketservice.dto.req.PurchaseTicketReqDTO;
+import org.openzjl.index12306.biz.ticketservice.dto.req.TicketPageQueryReqDTO;
+import org.openzjl.index12306.biz.ticketservice.dto.resp.TicketPurchaseRespDTO;
+import org.openzjl.index12306.biz.ticketservice.service.TicketService;
+import org.openzjl.index12306.framework.starter.convention.exception.AbstractException;
+import org.openzjl.index12306.framework.starter.convention.exception.ServiceException;
+import org.openzjl.index12306.framework.starter.log.threadpool.build.ThreadFactoryBuilder;
+import org.openzjl.index12306.framework.starter.user.core.UserContext;
+import org.openzjl.index12306.framework.starter.user.core.UserInfoDTO;
+import org.openzjl.index12306.tests.loadsim.config.LoadSimulationProperties;
+import org.openzjl.index12306.tests.loadsim.data.SyntheticDataGenerator;
+import org.openzjl.index12306.tests.loadsim.data.SyntheticTrainDTO;
+import org.openzjl.index12306.tests.loadsim.remote.InMemoryTicketOrderRemoteService;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 购票压测负载
+ * <p>
+ * 固定数量的线程在压测时长内按权重混合发起购票、取消和查询，直接调用 {@link TicketService}，覆盖责任链、令牌桶 Lua、分区执行器、选座和座位锁定的完整链路：
+ * <ul>
+ *   <li>购票：热门车次承担大部分流量，随机区间、随机座位类型（二等座居多）和 1 ~ maxPassengers 个乘车人</li>
+ *   <li>取消：取消最早创建且尚未取消的订单，覆盖座位回滚和令牌回补</li>
+ *   <li>支付：支付最早创建且尚未取消的订单，启用进程内消息总线时覆盖支付结果回调置为已售</li>
+ *   <li>查询：随机车次区间的车票分页查询</li>
+ * </ul>
+ * 预热期间的请求不计入统计，吞吐按统计窗口内的成功请求计算。
+ * </p>
+ *
+ * @author zhangjlk
+ * @date 2026/10/18 下午6:50
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LoadSimulationRunner {
+
+    private final TicketService ticketService;
+    private final SyntheticDataGenerator syntheticDataGenerator;
+    private final LoadSimulationProperties loadSimulationProperties;
+    private final InMemoryTicketOrderRemoteService ticketOrderRemoteService;
+
+    /**
+     * 待取消或支付的订单号，按创建顺序排列
+     */
+    private final ConcurrentLinkedQueue<String> cancelCandidates = new ConcurrentLinkedQueue<>();
+
+    /**
+     * 执行压测
+     *
+     * @return 操作类型 -> 统计窗口内的合并统计
+     */
+    public Map<OperationTypeEnum, OperationStatistics> run() throws Exception {
+        int threads = loadSimulationProperties.getThreads();
+        long now = System.nanoTime();
+        long measureStart = now + loadSimulationProperties.getWarmup().toNanos();
+        long measureEnd = measureStart + loadSimulationProperties.getDuration().toNanos();
+        log.info("[压测模拟] 开始压测，线程数：{}，预热：{}，时长：{}", threads, loadSimulationProperties.getWarmup(), loadSimulationProperties.getDuration());
+        ExecutorService workerExecutor = Executors.newFixedThreadPool(threads, ThreadFactoryBuilder.builder().prefix("loadsim-worker-").build());
+        List<Future<Map<OperationTypeEnum, OperationStatistics>>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < threads; i++) {
+                futures.add(workerExecutor.submit(() -> work(measureStart, measureEnd)));
+            }
+            Map<OperationTypeEnum, OperationStatistics> result = new EnumMap<>(OperationTypeEnum.class);
+            for (OperationTypeEnum each : OperationTypeEnum.values()) {
+                result.put(each, new OperationStatistics());
+            }
+            for (Future<Map<OperationTypeEnum, OperationStatistics>> each : futures) {
+                each.get().forEach((operationType, statistics) -> result.get(operationType).merge(statistics));
+            }
+            return result;
+        } finally {
+            workerExecutor.shutdownNow();
+        }
+    }
+
+    private Map<OperationTypeEnum, OperationStatistics> work(long measureStart, long measureEnd) {
+        Map<OperationTypeEnum, OperationStatistics> statisticsMap = new EnumMap<>(OperationTypeEnum.class);
+        for (OperationTypeEnum each : OperationTypeEnum.values()) {
+            statisticsMap.put(each, new OperationStatistics());
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long now;
+        while ((now = System.nanoTime()) < measureEnd) {
+            OperationTypeEnum operationType = nextOperation(random);
+            String orderSn = null;
+            if ((operationType == OperationTypeEnum.CANCEL || operationType == OperationTypeEnum.PAY) && (orderSn = cancelCandidates.poll()) == null) {
+                operationType = OperationTypeEnum.QUERY;
+            }
+            boolean measured = now >= measureStart;
+            OperationStatistics statistics = statisticsMap.get(operationType);
+            long startTime = System.nanoTime();
+            try {
+                switch (operationType) {
+                    case PURCHASE -> purchase(random);
+                    case CANCEL -> ticketService.cancelTicketOrder(new CancelTicketOrderReqDTO(orderSn));
+                    case PAY -> pay(orderSn);
+                    default -> query(random);
+                }
+                if (measured) {
+                    statistics.recordSuccess(System.nanoTime() - startTime);
+                }
+            } catch (AbstractException ex) {
+                if (measured) {
+                    statistics.recordRejected(ex.getClass().getSimpleName() + ": " + ex.getMessage());
+                }
+            } catch (Throwable ex) {
+                if (measured) {
+                    statistics.recordError(ex.getClass().getSimpleName() + ": " + ex.getMessage());
+                }
+            }
+        }
+        return statisticsMap;
+    }
+
+    private OperationTypeEnum nextOperation(ThreadLocalRandom random) {
+        int purchaseWeight = loadSimulationProperties.getPurchaseWeight();
+        int cancelWeight = loadSimulationProperties.getCancelWeight();
+        int payWeight = loadSimulationProperties.getPayWeight();
+        int value = random.nextInt(purchaseWeight + cancelWeight + payWeight + loadSimulationProperties.getQueryWeight());
+        if (value < purchaseWeight) {
+            return OperationTypeEnum.PURCHASE;
+        }
+        if (value < purchaseWeight + cancelWeight) {
+            return OperationTypeEnum.CANCEL;
+        }
+        return value < purchaseWeight + cancelWeight + payWeight ? OperationTypeEnum.PAY : OperationTypeEnum.QUERY;
+    }
+
+    private void pay(String orderSn) {
+        if (!ticketOrderRemoteService.payOrder(orderSn)) {
+            throw new ServiceException("订单状态不是待支付，无法支付");
+        }
+    }
+
+    private void purchase(ThreadLocalRandom random) {
+        SyntheticTrainDTO train = nextTrain(random);
+        int stationCount = train.getStations().size();
+        int departureIndex = random.nextInt(stationCount - 1);
+        int arrivalIndex = departureIndex + 1 + random.nextInt(stationCount - 1 - departureIndex);
+        // 二等座 70%，一等座 20%，商务座 10%
+        int seatTypeValue = random.nextInt(10);
+        Integer seatType = seatTypeValue < 7 ? 2 : seatTypeValue < 9 ? 1 : 0;
+        int userIndex = random.nextInt(loadSimulationProperties.getUserCount());
+        int maxPassengers = loadSimulationProperties.getMaxPassengers();
+        int passengerCount = 1 + random.nextInt(maxPassengers);
+        List<PurchaseTicketPassengerDetailDTO> passengers = new ArrayList<>(passengerCount);
+        for (int i = 0; i < passengerCount; i++) {
+            PurchaseTicketPassengerDetailDTO passenger = new PurchaseTicketPassengerDetailDTO();
+            passenger.setPassengerId(String.valueOf((long) userIndex * maxPassengers + i + 1));
+            passenger.setSeatType(seatType);
+            passengers.add(passenger);
+        }
+        PurchaseTicketReqDTO requestParam = new PurchaseTicketReqDTO();
+        requestParam.setTrainId(String.valueOf(train.getTrainId()));
+        requestParam.setDeparture(train.getStations().get(departureIndex));
+        requestParam.setArrival(train.getStations().get(arrivalIndex));
+        requestParam.setPassengers(passengers);
+        UserContext.setUser(UserInfoDTO.builder()
+                .userId(String.valueOf(userIndex + 1))
+                .username("loadsim_user_" + (userIndex + 1))
+                .realName("压测用户" + (userIndex + 1))
+                .build());
+        try {
+            TicketPurchaseRespDTO purchaseResult = ticketService.purchaseTicketsV2(requestParam);
+            cancelCandidates.offer(purchaseResult.getOrderSn());
+        } finally {
+            UserContext.removeUser();
+        }
+    }
+
+    private void query(ThreadLocalRandom random) {
+        SyntheticTrainDTO train = syntheticDataGenerator.getTrains().get(random.nextInt(syntheticDataGenerator.getTrains().size()));
+        int stationCount = train.getStationCodes().size();
+        int departureIndex = random.nextInt(stationCount - 1);
+        int arrivalIndex = departureIndex + 1 + random.nextInt(stationCount - 1 - departureIndex);
+        TicketPageQueryReqDTO requestParam = new TicketPageQueryReqDTO();
+        requestParam.setFromStation(train.getStationCodes().get(departureIndex));
+        requestParam.setToStation(train.getStationCodes().get(arrivalIndex));
+        requestParam.setDepartureDate(Date.from(LocalDate.now().plusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant()));
+        ticketService.pageListTicketQueryV1(requestParam);
+    }
+
+    private SyntheticTrainDTO nextTrain(ThreadLocalRandom random) {
+        List<SyntheticTrainDTO> trains = syntheticDataGenerator.getTrains();
+        int hotTrainCount = Math.min(loadSimulationProperties.getHotTrainCount(), trains.size());
+        if (hotTrainCount > 0 && random.nextInt(100) < loadSimulationProperties.getHotTrafficPercent()) {
+            return trains.get(random.nextInt(hotTrainCount));
+        }
+        return trains.get(random.nextInt(trains.size()));
+    }
+}
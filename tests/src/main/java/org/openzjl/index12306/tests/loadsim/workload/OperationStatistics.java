@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.tests.loadsim.workload;
+
+import lombok.Getter;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 单类操作的压测统计
+ * <p>
+ * 每个压测线程持有自己的统计对象，记录时无竞争；压测结束后合并，再排序计算延迟分位数。
+ * 只有成功请求计入延迟分布，业务拒绝（如余票不足）和异常分开计数。
+ * </p>
+ *
+ * @author zhangjlk
+ * @date 2026/10/18 下午6:50
+ */
+public class OperationStatistics {
+
+    private long[] latencies = new long[1024];
+
+    private int size;
+
+    @Getter
+    private long rejected;
+
+    @Getter
+    private long errors;
+
+    /**
+     * 失败原因 -> 次数
+     */
+    @Getter
+    private final Map<String, Long> failureReasons = new HashMap<>();
+
+    private boolean sorted;
+
+    /**
+     * 记录一次成功请求
+     *
+     * @param latencyNanos 请求耗时（纳秒）
+     */
+    public void recordSuccess(long latencyNanos) {
+        if (size == latencies.length) {
+            latencies = Arrays.copyOf(latencies, size << 1);
+        }
+        latencies[size++] = latencyNanos;
+        sorted = false;
+    }
+
+    /**
+     * 记录一次业务拒绝
+     */
+    public void recordRejected(String reason) {
+        rejected++;
+        failureReasons.merge(reason, 1L, Long::sum);
+    }
+
+    /**
+     * 记录一次异常
+     */
+    public void recordError(String reason) {
+        errors++;
+        failureReasons.merge(reason, 1L, Long::sum);
+    }
+
+    public long getSuccess() {
+        return size;
+    }
+
+    /**
+     * 合并其他线程的统计
+     */
+    public void merge(OperationStatistics other) {
+        for (int i = 0; i < other.size; i++) {
+            recordSuccess(other.latencies[i]);
+        }
+        rejected += other.rejected;
+        errors += other.errors;
+        other.failureReasons.forEach((reason, count) -> failureReasons.merge(reason, count, Long::sum));
+    }
+
+    /**
+     * 成功请求延迟分位数（毫秒）
+     *
+     * @param percentile 分位，取值 (0, 100]
+     */
+    public double percentileMillis(double percentile) {
+        if (size == 0) {
+            return 0D;
+        }
+        if (!sorted) {
+            Arrays.sort(latencies, 0, size);
+            sorted = true;
+        }
+        int index = (int) Math.ceil(percentile / 100D * size) - 1;
+        return latencies[Math.min(size - 1, Math.max(0, index))] / 1_000_000D;
+    }
+
+    /**
+     * 成功请求平均延迟（毫秒）
+     */
+    public double meanMillis() {
+        if (size == 0) {
+            return 0D;
+        }
+        long total = 0L;
+        for (int i = 0; i < size; i++) {
+            total += latencies[i];
+        }
+        return total / (double) size / 1_000_000D;
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.tests.loadsim.workload;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 压测操作类型
+ *
+ * @author zhangjlk
+ * @date 2026/10/18 下午6:50
+ */
+@Getter
+@RequiredArgsConstructor
+public enum OperationTypeEnum {
+
+    /**
+     * 购票 purchaseTicketsV2
+     */
+    PURCHASE("购票"),
+
+    /**
+     * 取消订单 cancelTicketOrder
+     */
+    CANCEL("取消"),
+
+    /**
+     * 支付订单 payOrder，启用进程内消息总线时经支付结果回调把座位置为已售
+     */
+    PAY("支付"),
+
+    /**
+     * 车票查询 pageListTicketQueryV1
+     */
+    QUERY("查询");
+
+    private final String label;
+}
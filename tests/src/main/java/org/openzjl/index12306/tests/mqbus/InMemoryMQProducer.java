@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.tests.mqbus;
+
+import org.apache.rocketmq.client.producer.DefaultMQProducer;
+import org.apache.rocketmq.client.producer.MessageQueueSelector;
+import org.apache.rocketmq.client.producer.SendCallback;
+import org.apache.rocketmq.client.producer.SendResult;
+import org.apache.rocketmq.client.producer.SendStatus;
+import org.apache.rocketmq.common.message.Message;
+import org.apache.rocketmq.common.message.MessageExt;
+import org.apache.rocketmq.common.message.MessageQueue;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * 进程内消息总线生产者
+ * <p>
+ * 替代 RocketMQTemplate 内部的 DefaultMQProducer：不连接 NameServer，消息直接写入 {@link InMemoryMessageBus}。
+ * RocketMQTemplate 的同步、异步、单向、顺序与批量发送，以及业务代码通过 getProducer() 直接发送的消息都经由这里投递。
+ * </p>
+ * <p>
+ * 总线只有一个队列，顺序发送的队列选择器不生效；异步发送的回调在发送线程内执行。
+ * </p>
+ *
+ * @author zhangjlk
+ * @date 2026/10/19 下午4:10
+ */
+public class InMemoryMQProducer extends DefaultMQProducer {
+
+    private static final String BROKER_NAME = "in-memory-broker";
+
+    private final InMemoryMessageBus messageBus;
+
+    public InMemoryMQProducer(String producerGroup, InMemoryMessageBus messageBus) {
+        super(producerGroup);
+        this.messageBus = messageBus;
+    }
+
+    @Override
+    public void start() {
+    }
+
+    @Override
+    public void shutdown() {
+    }
+
+    @Override
+    public SendResult send(Message msg) {
+        return doSend(msg);
+    }
+
+    @Override
+    public SendResult send(Message msg, long timeout) {
+        return doSend(msg);
+    }
+
+    @Override
+    public void send(Message msg, SendCallback sendCallback) {
+        sendAsync(() -> doSend(msg), sendCallback);
+    }
+
+    @Override
+    public void send(Message msg, SendCallback sendCallback, long timeout) {
+        sendAsync(() -> doSend(msg), sendCallback);
+    }
+
+    @Override
+    public void sendOneway(Message msg) {
+        doSend(msg);
+    }
+
+    @Override
+    public SendResult send(Message msg, MessageQueueSelector selector, Object arg) {
+        return doSend(msg);
+    }
+
+    @Override
+    public SendResult send(Message msg, MessageQueueSelector selector, Object arg, long timeout) {
+        return doSend(msg);
+    }
+
+    @Override
+    public void send(Message msg, MessageQueueSelector selector, Object arg, SendCallback sendCallback) {
+        sendAsync(() -> doSend(msg), sendCallback);
+    }
+
+    @Override
+    public void send(Message msg, MessageQueueSelector selector, Object arg, SendCallback sendCallback, long timeout) {
+        sendAsync(() -> doSend(msg), sendCallback);
+    }
+
+    @Override
+    public void sendOneway(Message msg, MessageQueueSelector selector, Object arg) {
+        doSend(msg);
+    }
+
+    @Override
+    public SendResult send(Collection<Message> msgs) {
+        return doSendBatch(msgs);
+    }
+
+    @Override
+    public SendResult send(Collection<Message> msgs, long timeout) {
+        return doSendBatch(msgs);
+    }
+
+    private SendResult doSend(Message msg) {
+        MessageExt messageExt = messageBus.publish(msg);
+        return buildSendResult(messageExt.getTopic(), messageExt.getMsgId(), messageExt.getQueueOffset());
+    }
+
+    private SendResult doSendBatch(Collection<Message> msgs) {
+        List<MessageExt> messageExts = msgs.stream().map(messageBus::publish).toList();
+        if (messageExts.isEmpty()) {
+            throw new IllegalArgumentException("批量消息不能为空");
+        }
+        // 与 Broker 一致，批量发送结果的消息ID以逗号拼接
+        String msgIds = messageExts.stream().map(MessageExt::getMsgId).collect(Collectors.joining(","));
+        return buildSendResult(messageExts.get(0).getTopic(), msgIds, messageExts.get(0).getQueueOffset());
+    }
+
+    private void sendAsync(Supplier<SendResult> sender, SendCallback sendCallback) {
+        SendResult sendResult;
+        try {
+            sendResult = sender.get();
+        } catch (Throwable ex) {
+            sendCallback.onException(ex);
+            return;
+        }
+        sendCallback.onSuccess(sendResult);
+    }
+
+    private static SendResult buildSendResult(String topic, String msgId, long queueOffset) {
+        SendResult sendResult = new SendResult();
+        sendResult.setSendStatus(SendStatus.SEND_OK);
+        sendResult.setMsgId(msgId);
+        sendResult.setOffsetMsgId(msgId);
+        sendResult.setMessageQueue(new MessageQueue(topic, BROKER_NAME, 0));
+        sendResult.setQueueOffset(queueOffset);
+        return sendResult;
+    }
+}
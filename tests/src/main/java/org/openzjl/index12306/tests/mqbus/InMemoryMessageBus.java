@@ -0,0 +1,284 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.tests.mqbus;
+
+import cn.hutool.core.util.StrUtil;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.rocketmq.common.message.Message;
+import org.apache.rocketmq.common.message.MessageAccessor;
+import org.apache.rocketmq.common.message.MessageClientIDSetter;
+import org.apache.rocketmq.common.message.MessageExt;
+import org.openzjl.index12306.framework.starter.log.threadpool.build.ThreadFactoryBuilder;
+import org.openzjl.index12306.tests.mqbus.config.InMemoryMessageBusProperties;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * 进程内消息总线
+ * <p>
+ * 按 RocketMQ 的投递语义在内存中分发消息，供没有 Broker 的端到端测试与压测模拟使用：
+ * <ul>
+ *   <li>Topic + Tag：每个消费者组各收到一份消息，按订阅的 Tag 表达式（* 或 tagA || tagB）过滤，消费者组内并发消费</li>
+ *   <li>延迟级别：沿用 Broker 的 18 个延迟级别，可按 delayTimeScale 等比缩短</li>
+ *   <li>重新投递：消费抛出异常时按 3 + 已重试次数 对应的延迟级别重新投递，超过最大重试次数后进入该消费者组的死信队列</li>
+ * </ul>
+ * 消息体保存生产者序列化后的字节，每次投递由消费者重新反序列化，生产者与消费者之间不会共享对象。
+ * </p>
+ *
+ * @author zhangjlk
+ * @date 2026/10/19 下午4:10
+ */
+@Slf4j
+public class InMemoryMessageBus implements DisposableBean {
+
+    /**
+     * 重试消息的起始延迟级别，与 Broker 一致：第 1 次重试延迟 10 秒
+     */
+    private static final int RETRY_DELAY_LEVEL_OFFSET = 3;
+
+    private final long[] delayLevelMillis;
+    private final InMemoryMessageBusProperties messageBusProperties;
+    private final ScheduledExecutorService delayExecutor;
+
+    /**
+     * Topic -> 订阅该 Topic 的消费者组
+     */
+    private final Map<String, List<Subscription>> subscriptions = new ConcurrentHashMap<>();
+
+    /**
+     * 消费者组 -> 死信消息
+     */
+    private final Map<String, List<MessageExt>> deadLetters = new ConcurrentHashMap<>();
+
+    private final AtomicLong queueOffset = new AtomicLong();
+
+    /**
+     * 待投递、投递中与待重试的消息数
+     */
+    private final AtomicLong pendingCount = new AtomicLong();
+
+    @Getter
+    private final AtomicLong publishedCount = new AtomicLong();
+
+    @Getter
+    private final AtomicLong consumedCount = new AtomicLong();
+
+    @Getter
+    private final AtomicLong redeliveredCount = new AtomicLong();
+
+    @Getter
+    private final AtomicLong deadLetterCount = new AtomicLong();
+
+    public InMemoryMessageBus(InMemoryMessageBusProperties messageBusProperties) {
+        this.messageBusProperties = messageBusProperties;
+        this.delayLevelMillis = Arrays.stream(messageBusProperties.getDelayLevels().trim().split("\\s+"))
+                .mapToLong(each -> Math.round(parseDelayMillis(each) * messageBusProperties.getDelayTimeScale()))
+                .toArray();
+        this.delayExecutor = Executors.newSingleThreadScheduledExecutor(ThreadFactoryBuilder.builder().prefix("mqbus-delay-").daemon(true).build());
+    }
+
+    /**
+     * 订阅 Topic
+     *
+     * @param topic               Topic
+     * @param consumerGroup       消费者组
+     * @param selectorExpression  Tag 表达式，* 表示全部
+     * @param consumeThreadNumber 消费线程数
+     * @param maxReconsumeTimes   最大重试次数，超过后进入死信队列
+     * @param consumer            消费逻辑，抛出异常表示消费失败
+     */
+    public void subscribe(String topic, String consumerGroup, String selectorExpression, int consumeThreadNumber, int maxReconsumeTimes, Consumer<MessageExt> consumer) {
+        int threadNumber = Math.max(1, Math.min(consumeThreadNumber, messageBusProperties.getMaxConsumeThreadNumber()));
+        ExecutorService consumeExecutor = Executors.newFixedThreadPool(threadNumber, ThreadFactoryBuilder.builder().prefix("mqbus-" + consumerGroup + "-").daemon(true).build());
+        Set<String> tags = StrUtil.isBlank(selectorExpression) || StrUtil.equals(selectorExpression.trim(), "*")
+                ? null
+                : Arrays.stream(selectorExpression.split("\\|\\|")).map(String::trim).collect(Collectors.toSet());
+        subscriptions.computeIfAbsent(topic, key -> new CopyOnWriteArrayList<>())
+                .add(new Subscription(consumerGroup, tags, maxReconsumeTimes, consumer, consumeExecutor));
+        log.info("[内存消息总线] 消费者组：{} 订阅 Topic：{}，Tag：{}，消费线程数：{}", consumerGroup, topic, selectorExpression, threadNumber);
+    }
+
+    /**
+     * 发送消息，按消息的延迟级别投递给订阅该 Topic 且 Tag 匹配的每个消费者组
+     *
+     * @param message 生产者构建的 RocketMQ 消息
+     * @return 已存储的消息
+     */
+    public MessageExt publish(Message message) {
+        MessageClientIDSetter.setUniqID(message);
+        MessageExt messageExt = new MessageExt();
+        messageExt.setTopic(message.getTopic());
+        messageExt.setFlag(message.getFlag());
+        messageExt.setBody(message.getBody());
+        MessageAccessor.setProperties(messageExt, new HashMap<>(message.getProperties()));
+        messageExt.setMsgId(MessageClientIDSetter.getUniqID(message));
+        messageExt.setQueueOffset(queueOffset.getAndIncrement());
+        messageExt.setBornTimestamp(System.currentTimeMillis());
+        messageExt.setStoreTimestamp(messageExt.getBornTimestamp());
+        publishedCount.incrementAndGet();
+        for (Subscription each : subscriptions.getOrDefault(message.getTopic(), List.of())) {
+            if (each.getTags() != null && !each.getTags().contains(message.getTags())) {
+                continue;
+            }
+            pendingCount.incrementAndGet();
+            schedule(each, copyOf(messageExt), message.getDelayTimeLevel());
+        }
+        return messageExt;
+    }
+
+    /**
+     * 等待总线空闲：没有待投递、投递中与待重试的消息
+     *
+     * @return 超时前是否已空闲
+     */
+    public boolean awaitIdle() throws InterruptedException {
+        return awaitIdle(messageBusProperties.getIdleTimeout());
+    }
+
+    /**
+     * 等待总线空闲：没有待投递、投递中与待重试的消息
+     *
+     * @param timeout 最长等待时间
+     * @return 超时前是否已空闲
+     */
+    public boolean awaitIdle(Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (pendingCount.get() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(20L);
+        }
+        return pendingCount.get() == 0;
+    }
+
+    /**
+     * 待投递、投递中与待重试的消息数
+     */
+    public long getPendingCount() {
+        return pendingCount.get();
+    }
+
+    /**
+     * 查询消费者组的死信消息
+     */
+    public List<MessageExt> listDeadLetters(String consumerGroup) {
+        return new ArrayList<>(deadLetters.getOrDefault(consumerGroup, List.of()));
+    }
+
+    @Override
+    public void destroy() {
+        delayExecutor.shutdownNow();
+        subscriptions.values().forEach(each -> each.forEach(subscription -> subscription.getConsumeExecutor().shutdownNow()));
+    }
+
+    private void schedule(Subscription subscription, MessageExt messageExt, int delayLevel) {
+        try {
+            if (delayLevel <= 0) {
+                subscription.getConsumeExecutor().execute(() -> consume(subscription, messageExt));
+                return;
+            }
+            long delayMillis = delayLevelMillis[Math.min(delayLevel, delayLevelMillis.length) - 1];
+            delayExecutor.schedule(() -> schedule(subscription, messageExt, 0), delayMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException ex) {
+            // 总线已关闭
+            pendingCount.decrementAndGet();
+        }
+    }
+
+    private void consume(Subscription subscription, MessageExt messageExt) {
+        try {
+            subscription.getConsumer().accept(messageExt);
+            consumedCount.incrementAndGet();
+            pendingCount.decrementAndGet();
+        } catch (Throwable ex) {
+            int reconsumeTimes = messageExt.getReconsumeTimes();
+            if (reconsumeTimes >= subscription.getMaxReconsumeTimes()) {
+                log.error("[内存消息总线] 消费者组：{} 消息ID：{} 重试 {} 次后仍消费失败，进入死信队列",
+                        subscription.getConsumerGroup(), messageExt.getMsgId(), reconsumeTimes, ex);
+                deadLetters.computeIfAbsent(subscription.getConsumerGroup(), key -> Collections.synchronizedList(new ArrayList<>())).add(messageExt);
+                deadLetterCount.incrementAndGet();
+                pendingCount.decrementAndGet();
+                return;
+            }
+            log.warn("[内存消息总线] 消费者组：{} 消息ID：{} 第 {} 次消费失败，稍后重新投递",
+                    subscription.getConsumerGroup(), messageExt.getMsgId(), reconsumeTimes + 1, ex);
+            messageExt.setReconsumeTimes(reconsumeTimes + 1);
+            redeliveredCount.incrementAndGet();
+            schedule(subscription, messageExt, RETRY_DELAY_LEVEL_OFFSET + reconsumeTimes);
+        }
+    }
+
+    private static MessageExt copyOf(MessageExt messageExt) {
+        MessageExt result = new MessageExt();
+        result.setTopic(messageExt.getTopic());
+        result.setFlag(messageExt.getFlag());
+        result.setBody(messageExt.getBody());
+        MessageAccessor.setProperties(result, new HashMap<>(messageExt.getProperties()));
+        result.setMsgId(messageExt.getMsgId());
+        result.setQueueOffset(messageExt.getQueueOffset());
+        result.setBornTimestamp(messageExt.getBornTimestamp());
+        result.setStoreTimestamp(messageExt.getStoreTimestamp());
+        return result;
+    }
+
+    private static long parseDelayMillis(String delay) {
+        long value = Long.parseLong(delay.substring(0, delay.length() - 1));
+        return switch (delay.charAt(delay.length() - 1)) {
+            case 's' -> TimeUnit.SECONDS.toMillis(value);
+            case 'm' -> TimeUnit.MINUTES.toMillis(value);
+            case 'h' -> TimeUnit.HOURS.toMillis(value);
+            case 'd' -> TimeUnit.DAYS.toMillis(value);
+            default -> throw new IllegalArgumentException("不支持的延迟时间：" + delay);
+        };
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    private static class Subscription {
+
+        /**
+         * 消费者组
+         */
+        private final String consumerGroup;
+
+        /**
+         * 订阅的 Tag，null 表示全部
+         */
+        private final Set<String> tags;
+
+        /**
+         * 最大重试次数
+         */
+        private final int maxReconsumeTimes;
+
+        /**
+         * 消费逻辑
+         */
+        private final Consumer<MessageExt> consumer;
+
+        /**
+         * 消费线程池
+         */
+        private final ExecutorService consumeExecutor;
+    }
+}
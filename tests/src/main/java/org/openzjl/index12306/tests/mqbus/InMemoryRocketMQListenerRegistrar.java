@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.tests.mqbus;
+
+import com.alibaba.fastjson2.JSON;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.rocketmq.common.message.Message;
+import org.apache.rocketmq.common.message.MessageExt;
+import org.apache.rocketmq.spring.annotation.RocketMQMessageListener;
+import org.apache.rocketmq.spring.core.RocketMQListener;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.core.env.Environment;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * 进程内消息总线消费者注册器
+ * <p>
+ * 替代 RocketMQ 自动装配的消费者容器：应用启动完成后扫描全部 @RocketMQMessageListener 消费者，
+ * 按注解上的 Topic、消费者组、Tag 表达式、消费线程数与最大重试次数订阅 {@link InMemoryMessageBus}。
+ * 消息体按 onMessage 的泛型参数类型反序列化后交给消费者 Bean 处理。
+ * </p>
+ *
+ * @author zhangjlk
+ * @date 2026/10/19 下午4:10
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class InMemoryRocketMQListenerRegistrar implements SmartInitializingSingleton {
+
+    /**
+     * 注解未指定最大重试次数时的默认值，与 Broker 一致
+     */
+    private static final int DEFAULT_MAX_RECONSUME_TIMES = 16;
+
+    private final ApplicationContext applicationContext;
+    private final Environment environment;
+    private final InMemoryMessageBus messageBus;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void afterSingletonsInstantiated() {
+        applicationContext.getBeansWithAnnotation(RocketMQMessageListener.class).forEach((beanName, bean) -> {
+            Class<?> targetClass = AopUtils.getTargetClass(bean);
+            RocketMQMessageListener annotation = AnnotationUtils.findAnnotation(targetClass, RocketMQMessageListener.class);
+            Method consumeMethod = Arrays.stream(targetClass.getDeclaredMethods())
+                    .filter(each -> "onMessage".equals(each.getName()) && !each.isBridge() && each.getParameterCount() == 1)
+                    .findFirst()
+                    .orElse(null);
+            if (!(bean instanceof RocketMQListener<?>) || annotation == null || consumeMethod == null) {
+                log.warn("[内存消息总线] 消费者：{} 不是 RocketMQListener 实现，跳过订阅", beanName);
+                return;
+            }
+            RocketMQListener<Object> listener = (RocketMQListener<Object>) bean;
+            Type payloadType = consumeMethod.getGenericParameterTypes()[0];
+            messageBus.subscribe(
+                    environment.resolvePlaceholders(annotation.topic()),
+                    environment.resolvePlaceholders(annotation.consumerGroup()),
+                    environment.resolvePlaceholders(annotation.selectorExpression()),
+                    annotation.consumeThreadNumber(),
+                    annotation.maxReconsumeTimes() < 0 ? DEFAULT_MAX_RECONSUME_TIMES : annotation.maxReconsumeTimes(),
+                    messageExt -> listener.onMessage(convert(messageExt, payloadType))
+            );
+        });
+    }
+
+    private static Object convert(MessageExt messageExt, Type payloadType) {
+        if (payloadType == MessageExt.class || payloadType == Message.class) {
+            return messageExt;
+        }
+        String body = new String(messageExt.getBody(), StandardCharsets.UTF_8);
+        if (payloadType == String.class) {
+            return body;
+        }
+        return JSON.parseObject(body, payloadType);
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.tests.mqbus.canal;
+
+import cn.hutool.core.date.DateUtil;
+import org.h2.api.Trigger;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * H2 行级触发器，把行变更交给 {@link SyntheticCanalBinlogEmitter}
+ * <p>
+ * 列值按 Canal 扁平消息的格式转换为字符串：时间为 yyyy-MM-dd HH:mm:ss，布尔值为 1/0。
+ * 没有任何列发生变化的 UPDATE 与 MySQL 一样不产生 Binlog。
+ * </p>
+ *
+ * @author zhangjlk
+ * @date 2026/10/19 下午4:10
+ */
+public class H2CanalBinlogTrigger implements Trigger {
+
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private String database;
+    private String table;
+    private String[] columns;
+
+    @Override
+    public void init(Connection conn, String schemaName, String triggerName, String tableName, boolean before, int type) throws SQLException {
+        database = conn.getCatalog().toLowerCase();
+        table = tableName.toLowerCase();
+        List<String> columnNames = new ArrayList<>();
+        try (ResultSet resultSet = conn.getMetaData().getColumns(null, schemaName, tableName, null)) {
+            while (resultSet.next()) {
+                columnNames.add(resultSet.getString("COLUMN_NAME").toLowerCase());
+            }
+        }
+        columns = columnNames.toArray(new String[0]);
+    }
+
+    @Override
+    public void fire(Connection conn, Object[] oldRow, Object[] newRow) {
+        SyntheticCanalBinlogEmitter emitter = SyntheticCanalBinlogEmitter.current();
+        if (emitter == null) {
+            return;
+        }
+        if (oldRow == null) {
+            emitter.capture(database, table, "INSERT", toRow(newRow), null);
+            return;
+        }
+        if (newRow == null) {
+            emitter.capture(database, table, "DELETE", toRow(oldRow), null);
+            return;
+        }
+        Map<String, Object> old = new LinkedHashMap<>();
+        for (int i = 0; i < columns.length; i++) {
+            if (!Objects.equals(oldRow[i], newRow[i])) {
+                old.put(columns[i], toValue(oldRow[i]));
+            }
+        }
+        if (!old.isEmpty()) {
+            emitter.capture(database, table, "UPDATE", toRow(newRow), old);
+        }
+    }
+
+    private Map<String, Object> toRow(Object[] row) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        for (int i = 0; i < columns.length; i++) {
+            result.put(columns[i], toValue(row[i]));
+        }
+        return result;
+    }
+
+    private static String toValue(Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof Date date) {
+            return DateUtil.formatDateTime(date);
+        }
+        if (value instanceof LocalDateTime localDateTime) {
+            return localDateTime.format(DATE_TIME_FORMATTER);
+        }
+        if (value instanceof Boolean bool) {
+            return bool ? "1" : "0";
+        }
+        if (value instanceof byte[] bytes) {
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+        return value.toString();
+    }
+}
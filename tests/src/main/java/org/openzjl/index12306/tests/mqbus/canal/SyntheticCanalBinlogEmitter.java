@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.tests.mqbus.canal;
+
+import com.alibaba.fastjson2.JSON;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.rocketmq.spring.core.RocketMQTemplate;
+import org.openzjl.index12306.biz.ticketservice.mq.event.CanalBinlogEvent;
+import org.openzjl.index12306.tests.mqbus.config.InMemoryMessageBusProperties;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 模拟 Canal Binlog 投递
+ * <p>
+ * 应用启动完成后在 {@link InMemoryMessageBusProperties#getCanalTables()} 上创建 H2 行级触发器 {@link H2CanalBinlogTrigger}，
+ * 行变更转换为 Canal 扁平消息（列值均为字符串，UPDATE 的 old 只包含变更的列）发送到 Canal Topic：
+ * <ul>
+ *   <li>处于 Spring 事务中的变更在事务提交后按 库 + 表 + 类型 合并为一条消息发送，回滚的变更不发送，与 Binlog 只包含已提交事务一致</li>
+ *   <li>没有事务的变更逐行发送</li>
+ * </ul>
+ * 消息 ID 单调递增且按发送顺序分配。不在 H2 中的表（例如内存订单服务的订单分表）直接调用 {@link #emit} 发送。
+ * </p>
+ *
+ * @author zhangjlk
+ * @date 2026/10/19 下午4:10
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class SyntheticCanalBinlogEmitter implements SmartInitializingSingleton, DisposableBean {
+
+    private static final String TRIGGER_NAME_SUFFIX = "_canal_binlog";
+
+    /**
+     * H2 通过反射创建触发器实例，触发器经由该引用找到当前应用的发送器
+     */
+    private static volatile SyntheticCanalBinlogEmitter current;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final RocketMQTemplate rocketMQTemplate;
+    private final Environment environment;
+    private final InMemoryMessageBusProperties messageBusProperties;
+
+    private String topic;
+    private long binlogId;
+
+    static SyntheticCanalBinlogEmitter current() {
+        return current;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        topic = environment.resolvePlaceholders(messageBusProperties.getCanalTopic());
+        current = this;
+        for (String each : messageBusProperties.getCanalTables()) {
+            jdbcTemplate.execute(String.format("CREATE TRIGGER IF NOT EXISTS %s%s AFTER INSERT, UPDATE, DELETE ON %s FOR EACH ROW CALL '%s'",
+                    each, TRIGGER_NAME_SUFFIX, each, H2CanalBinlogTrigger.class.getName()));
+        }
+        log.info("[模拟Canal] 监听表：{}，投递 Topic：{}", messageBusProperties.getCanalTables(), topic);
+    }
+
+    @Override
+    public void destroy() {
+        current = null;
+        for (String each : messageBusProperties.getCanalTables()) {
+            jdbcTemplate.execute(String.format("DROP TRIGGER IF EXISTS %s%s", each, TRIGGER_NAME_SUFFIX));
+        }
+    }
+
+    /**
+     * 登记一行变更，处于事务中时在事务提交后发送
+     */
+    void capture(String database, String table, String type, Map<String, Object> data, Map<String, Object> old) {
+        BinlogRow binlogRow = new BinlogRow(database, table, type, data, old);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            emit(database, table, type, List.of(data), old == null ? null : List.of(old));
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        List<BinlogRow> transactionRows = (List<BinlogRow>) TransactionSynchronizationManager.getResource(this);
+        if (transactionRows == null) {
+            List<BinlogRow> rows = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, rows);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(SyntheticCanalBinlogEmitter.this);
+                    if (status == STATUS_COMMITTED) {
+                        emitTransaction(rows);
+                    }
+                }
+            });
+            transactionRows = rows;
+        }
+        transactionRows.add(binlogRow);
+    }
+
+    /**
+     * 发送一条 Canal 扁平消息
+     *
+     * @param database 库名
+     * @param table    表名
+     * @param type     INSERT、UPDATE 或 DELETE
+     * @param data     变更后的行，DELETE 为删除前的行
+     * @param old      UPDATE 变更前的列值，只包含变更的列
+     */
+    public synchronized void emit(String database, String table, String type, List<Map<String, Object>> data, List<Map<String, Object>> old) {
+        long now = System.currentTimeMillis();
+        CanalBinlogEvent canalBinlogEvent = new CanalBinlogEvent();
+        canalBinlogEvent.setId(++binlogId);
+        canalBinlogEvent.setDatabase(database);
+        canalBinlogEvent.setTable(table);
+        canalBinlogEvent.setType(type);
+        canalBinlogEvent.setIsDdl(false);
+        canalBinlogEvent.setPkNames(List.of("id"));
+        canalBinlogEvent.setData(data);
+        canalBinlogEvent.setOld(old);
+        canalBinlogEvent.setEs(now);
+        canalBinlogEvent.setTs(now);
+        canalBinlogEvent.setSql("");
+        rocketMQTemplate.syncSend(topic, MessageBuilder.withPayload(JSON.toJSONString(canalBinlogEvent)).build());
+    }
+
+    private void emitTransaction(List<BinlogRow> rows) {
+        int start = 0;
+        for (int i = 1; i <= rows.size(); i++) {
+            if (i < rows.size() && rows.get(i).sameEvent(rows.get(start))) {
+                continue;
+            }
+            List<BinlogRow> eventRows = rows.subList(start, i);
+            BinlogRow first = eventRows.get(0);
+            try {
+                emit(first.getDatabase(), first.getTable(), first.getType(),
+                        eventRows.stream().map(BinlogRow::getData).toList(),
+                        Objects.equals(first.getType(), "UPDATE") ? eventRows.stream().map(BinlogRow::getOld).toList() : null);
+            } catch (Throwable ex) {
+                log.error("[模拟Canal] 表：{} 发送 {} 行变更失败", first.getTable(), eventRows.size(), ex);
+            }
+            start = i;
+        }
+    }
+
+    /**
+     * 事务内的一行变更
+     */
+    @Getter
+    @RequiredArgsConstructor
+    private static class BinlogRow {
+
+        private final String database;
+
+        private final String table;
+
+        private final String type;
+
+        private final Map<String, Object> data;
+
+        private final Map<String, Object> old;
+
+        boolean sameEvent(BinlogRow other) {
+            return Objects.equals(database, other.database) && Objects.equals(table, other.table) && Objects.equals(type, other.type);
+        }
+    }
+}
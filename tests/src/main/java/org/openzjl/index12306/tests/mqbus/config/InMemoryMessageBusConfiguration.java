@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.tests.mqbus.config;
+
+import org.apache.rocketmq.spring.core.RocketMQTemplate;
+import org.apache.rocketmq.spring.support.RocketMQMessageConverter;
+import org.openzjl.index12306.tests.mqbus.InMemoryMQProducer;
+import org.openzjl.index12306.tests.mqbus.InMemoryMessageBus;
+import org.openzjl.index12306.tests.mqbus.InMemoryRocketMQListenerRegistrar;
+import org.openzjl.index12306.tests.mqbus.canal.SyntheticCanalBinlogEmitter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * 进程内消息总线配置
+ * <p>
+ * mqbus.enabled=true 时生效，需同时排除 RocketMQ 自动装配：
+ * 提供由 {@link InMemoryMQProducer} 驱动的 RocketMQTemplate，全部 @RocketMQMessageListener 消费者订阅内存总线，
+ * 并按配置在 H2 上模拟 Canal Binlog 投递。
+ * </p>
+ *
+ * @author zhangjlk
+ * @date 2026/10/19 下午4:10
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(InMemoryMessageBusProperties.class)
+@ConditionalOnProperty(prefix = InMemoryMessageBusProperties.PREFIX, name = "enabled", havingValue = "true")
+public class InMemoryMessageBusConfiguration {
+
+    private static final String PRODUCER_GROUP = "index12306_in-memory_producer_pg";
+
+    @Bean
+    public InMemoryMessageBus inMemoryMessageBus(InMemoryMessageBusProperties messageBusProperties) {
+        return new InMemoryMessageBus(messageBusProperties);
+    }
+
+    @Bean
+    public RocketMQTemplate rocketMQTemplate(InMemoryMessageBus inMemoryMessageBus) {
+        RocketMQTemplate rocketMQTemplate = new RocketMQTemplate();
+        rocketMQTemplate.setProducer(new InMemoryMQProducer(PRODUCER_GROUP, inMemoryMessageBus));
+        rocketMQTemplate.setMessageConverter(new RocketMQMessageConverter().getMessageConverter());
+        return rocketMQTemplate;
+    }
+
+    @Bean
+    public InMemoryRocketMQListenerRegistrar inMemoryRocketMQListenerRegistrar(ApplicationContext applicationContext,
+                                                                               Environment environment,
+                                                                               InMemoryMessageBus inMemoryMessageBus) {
+        return new InMemoryRocketMQListenerRegistrar(applicationContext, environment, inMemoryMessageBus);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = InMemoryMessageBusProperties.PREFIX, name = "canal-enabled", havingValue = "true", matchIfMissing = true)
+    public SyntheticCanalBinlogEmitter syntheticCanalBinlogEmitter(JdbcTemplate jdbcTemplate,
+                                                                   RocketMQTemplate rocketMQTemplate,
+                                                                   Environment environment,
+                                                                   InMemoryMessageBusProperties messageBusProperties) {
+        return new SyntheticCanalBinlogEmitter(jdbcTemplate, rocketMQTemplate, environment, messageBusProperties);
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.tests.mqbus.config;
+
+import lombok.Data;
+import org.openzjl.index12306.biz.ticketservice.common.constant.TicketRocketMQConstant;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * 进程内消息总线配置
+ *
+ * @author zhangjlk
+ * @date 2026/10/19 下午4:10
+ */
+@Data
+@ConfigurationProperties(prefix = InMemoryMessageBusProperties.PREFIX)
+public class InMemoryMessageBusProperties {
+
+    public static final String PREFIX = "mqbus";
+
+    /**
+     * 是否启用进程内消息总线，启用后提供 RocketMQTemplate 并订阅全部 @RocketMQMessageListener 消费者
+     */
+    private Boolean enabled = false;
+
+    /**
+     * 延迟级别对应的延迟时间，与 Broker messageDelayLevel 默认配置一致
+     */
+    private String delayLevels = "1s 5s 10s 30s 1m 2m 3m 4m 5m 6m 7m 8m 9m 10m 20m 30m 1h 2h";
+
+    /**
+     * 延迟时间缩放比例，延迟消息与重试消息的实际延迟 = 延迟级别时间 * 缩放比例，例如 0.01 时 10 分钟的延迟关单 6 秒后投递
+     */
+    private Double delayTimeScale = 1D;
+
+    /**
+     * 单个消费者组的最大消费线程数，消费者注解声明的 consumeThreadNumber 超过该值时按该值创建
+     */
+    private Integer maxConsumeThreadNumber = 16;
+
+    /**
+     * 等待总线空闲（没有待投递、投递中与待重试的消息）的最长时间
+     */
+    private Duration idleTimeout = Duration.ofSeconds(60);
+
+    /**
+     * 是否根据 H2 行变更模拟 Canal 投递 Binlog 消息
+     */
+    private Boolean canalEnabled = true;
+
+    /**
+     * Canal 监听的表，应用启动完成后创建行级触发器，启动阶段写入的初始数据不产生 Binlog 消息
+     */
+    private List<String> canalTables = List.of("t_seat");
+
+    /**
+     * Canal 投递 Binlog 消息的 Topic
+     */
+    private String canalTopic = TicketRocketMQConstant.CANAL_COMMON_SYNC_TOPIC_KEY;
+}
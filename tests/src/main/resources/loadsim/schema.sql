@@ -0,0 +1,185 @@
+-- 购票压测模拟 H2 表结构（MySQL 兼容模式），字段与 12306_ticket 库保持一致
+
+CREATE TABLE IF NOT EXISTS t_region (
+  id BIGINT NOT NULL,
+  name VARCHAR(64),
+  full_name VARCHAR(64),
+  code VARCHAR(64),
+  initial VARCHAR(16),
+  spell VARCHAR(64),
+  popular_flag INT,
+  create_time DATETIME,
+  update_time DATETIME,
+  del_flag INT DEFAULT 0,
+  PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS t_station (
+  id BIGINT NOT NULL,
+  code VARCHAR(64),
+  name VARCHAR(64),
+  spell VARCHAR(64),
+  region VARCHAR(64),
+  region_name VARCHAR(64),
+  create_time DATETIME,
+  update_time DATETIME,
+  del_flag INT DEFAULT 0,
+  PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS t_train (
+  id BIGINT NOT NULL,
+  train_number VARCHAR(64),
+  train_type INT,
+  train_tag VARCHAR(64),
+  train_brand VARCHAR(64),
+  start_station VARCHAR(64),
+  end_station VARCHAR(64),
+  start_region VARCHAR(64),
+  end_region VARCHAR(64),
+  sale_time DATETIME,
+  sale_status INT,
+  departure_time DATETIME,
+  arrival_time DATETIME,
+  create_time DATETIME,
+  update_time DATETIME,
+  del_flag INT DEFAULT 0,
+  PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS t_carriage (
+  id BIGINT NOT NULL,
+  train_id BIGINT,
+  carriage_number VARCHAR(64),
+  carriage_type INT,
+  seat_count INT,
+  create_time DATETIME,
+  update_time DATETIME,
+  del_flag INT DEFAULT 0,
+  PRIMARY KEY (id)
+);
+CREATE INDEX IF NOT EXISTS idx_carriage_train ON t_carriage (train_id);
+
+CREATE TABLE IF NOT EXISTS t_train_station (
+  id BIGINT NOT NULL,
+  train_id BIGINT,
+  station_id BIGINT,
+  sequence VARCHAR(16),
+  departure VARCHAR(64),
+  arrival VARCHAR(64),
+  start_region VARCHAR(64),
+  end_region VARCHAR(64),
+  arrival_time DATETIME,
+  departure_time DATETIME,
+  stopover_time INT,
+  create_time DATETIME,
+  update_time DATETIME,
+  del_flag INT DEFAULT 0,
+  PRIMARY KEY (id)
+);
+CREATE INDEX IF NOT EXISTS idx_train_station_train ON t_train_station (train_id);
+
+CREATE TABLE IF NOT EXISTS t_train_station_relation (
+  id BIGINT NOT NULL,
+  train_id BIGINT,
+  departure VARCHAR(64),
+  arrival VARCHAR(64),
+  start_region VARCHAR(64),
+  end_region VARCHAR(64),
+  departure_flag BOOLEAN,
+  arrival_flag BOOLEAN,
+  departure_time DATETIME,
+  arrival_time DATETIME,
+  create_time DATETIME,
+  update_time DATETIME,
+  del_flag INT DEFAULT 0,
+  PRIMARY KEY (id)
+);
+CREATE INDEX IF NOT EXISTS idx_relation_region ON t_train_station_relation (start_region, end_region);
+CREATE INDEX IF NOT EXISTS idx_relation_train ON t_train_station_relation (train_id, departure, arrival);
+
+CREATE TABLE IF NOT EXISTS t_train_station_price (
+  id BIGINT NOT NULL,
+  train_id BIGINT,
+  departure VARCHAR(64),
+  arrival VARCHAR(64),
+  seat_type INT,
+  price INT,
+  create_time DATETIME,
+  update_time DATETIME,
+  del_flag INT DEFAULT 0,
+  PRIMARY KEY (id)
+);
+CREATE INDEX IF NOT EXISTS idx_price_train ON t_train_station_price (train_id, departure, arrival);
+
+CREATE TABLE IF NOT EXISTS t_seat (
+  id BIGINT NOT NULL,
+  train_id BIGINT,
+  carriage_number VARCHAR(64),
+  seat_number VARCHAR(64),
+  seat_type INT,
+  start_station VARCHAR(64),
+  end_station VARCHAR(64),
+  seat_status INT,
+  price INT,
+  create_time DATETIME,
+  update_time DATETIME,
+  del_flag INT DEFAULT 0,
+  PRIMARY KEY (id)
+);
+CREATE INDEX IF NOT EXISTS idx_seat_segment ON t_seat (train_id, start_station, end_station, seat_type, carriage_number, seat_status);
+CREATE INDEX IF NOT EXISTS idx_seat_number ON t_seat (train_id, carriage_number, seat_number);
+CREATE INDEX IF NOT EXISTS idx_seat_update_time_train_id ON t_seat (update_time, train_id);
+
+CREATE TABLE IF NOT EXISTS t_ticket (
+  id BIGINT NOT NULL,
+  username VARCHAR(64),
+  train_id BIGINT,
+  carriage_number VARCHAR(64),
+  seat_number VARCHAR(64),
+  passenger_id VARCHAR(64),
+  ticket_status INT,
+  create_time DATETIME,
+  update_time DATETIME,
+  del_flag INT DEFAULT 0,
+  PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS t_seat_allocation (
+  id BIGINT NOT NULL,
+  username VARCHAR(50),
+  train_id BIGINT NOT NULL,
+  departure VARCHAR(64) NOT NULL,
+  arrival VARCHAR(64) NOT NULL,
+  ticket_ids TEXT NOT NULL,
+  seat_details TEXT NOT NULL,
+  create_time DATETIME,
+  update_time DATETIME,
+  del_flag INT DEFAULT 0,
+  PRIMARY KEY (id)
+);
+CREATE INDEX IF NOT EXISTS idx_seat_allocation_create_time ON t_seat_allocation (create_time);
+
+CREATE TABLE IF NOT EXISTS t_waitlist_order (
+  id BIGINT NOT NULL,
+  user_id VARCHAR(64) NOT NULL,
+  username VARCHAR(50) NOT NULL,
+  real_name VARCHAR(50),
+  train_id BIGINT NOT NULL,
+  riding_date DATETIME NOT NULL,
+  departure VARCHAR(64) NOT NULL,
+  arrival VARCHAR(64) NOT NULL,
+  seat_type INT NOT NULL,
+  passenger_count INT NOT NULL,
+  purchase_request TEXT NOT NULL,
+  status INT NOT NULL DEFAULT 0,
+  order_sn VARCHAR(64),
+  attempts INT NOT NULL DEFAULT 0,
+  fail_reason VARCHAR(256),
+  deadline DATETIME NOT NULL,
+  create_time DATETIME,
+  update_time DATETIME,
+  del_flag INT DEFAULT 0,
+  PRIMARY KEY (id)
+);
+CREATE INDEX IF NOT EXISTS idx_waitlist_train_status ON t_waitlist_order (train_id, status, id);
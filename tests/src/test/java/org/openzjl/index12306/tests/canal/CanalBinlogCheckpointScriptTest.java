@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.tests.canal;
+
+import org.junit.jupiter.api.Test;
+import org.openzjl.index12306.framework.starter.cache.DistributedCache;
+import org.openzjl.index12306.tests.loadsim.AbstractLoadSimulationTest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.ClusterSlotHashUtil;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scripting.support.ResourceScriptSource;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.openzjl.index12306.biz.ticketservice.common.constant.RedisKeyConstant.CANAL_BINLOG_CHECKPOINT;
+import static org.openzjl.index12306.biz.ticketservice.common.constant.RedisKeyConstant.CANAL_BINLOG_PENDING;
+
+/**
+ * Canal Binlog 位点脚本测试
+ * <p>
+ * 以 loadsim 环境在内嵌 Redis 上直接执行 canal_binlog_checkpoint.lua，当前时间由测试传入，
+ * 覆盖水位建立与连续推进、乱序、等待区补齐、等待超时与等待区超限导致的断档，以及消息ID重置。
+ * 每个用例使用不同的库名，位点互不影响；另校验同库的位点 Hash 与等待区 ZSET 落在同一个集群槽位。
+ * </p>
+ *
+ * @author zhangjlk
+ * @date 2026/10/20 下午3:40
+ */
+class CanalBinlogCheckpointScriptTest extends AbstractLoadSimulationTest {
+
+    private static final String TABLE = "t_seat";
+    private static final long GAP_TIMEOUT = 30000L;
+    private static final long MAX_PENDING = 3L;
+    private static final long RESET_THRESHOLD = 1000L;
+    private static final long NOW = 1_700_000_000_000L;
+
+    private static final long STATUS_OK = 0L;
+    private static final long STATUS_DUPLICATE = 1L;
+    private static final long STATUS_GAP = 2L;
+    private static final long STATUS_RESET = 3L;
+
+    @Autowired
+    private DistributedCache distributedCache;
+
+    @Test
+    void checkpointKeysShareClusterSlot() {
+        String database = "12306_ticket";
+        // 脚本同时操作两个 Key，集群模式下须位于同一槽位，否则报 CROSSSLOT
+        assertEquals(ClusterSlotHashUtil.calculateSlot(String.format(CANAL_BINLOG_CHECKPOINT, database)),
+                ClusterSlotHashUtil.calculateSlot(String.format(CANAL_BINLOG_PENDING, database)));
+    }
+
+    @Test
+    void consecutiveIdsAdvanceWatermark() {
+        String database = "checkpoint_consecutive";
+        assertResult(record(database, 100, 1000, NOW), STATUS_OK, 0, 0, 0, 0, 0);
+        assertResult(record(database, 101, 1001, NOW), STATUS_OK, 0, 0, 0, 0, 0);
+        // 同一批次拆分出的消息共享消息ID
+        assertResult(record(database, 101, 1001, NOW), STATUS_DUPLICATE, 0, 0, 0, 0, 0);
+        assertEquals("101", checkpoint(database, "watermark"));
+        assertEquals("1001", checkpoint(database, "watermark_es"));
+        assertEquals("3", checkpoint(database, TABLE + ":count"));
+    }
+
+    @Test
+    void timestampBehindTableCheckpointIsReordered() {
+        String database = "checkpoint_reorder";
+        record(database, 100, 2000, NOW);
+        List<Long> result = record(database, 101, 1500, NOW);
+        assertResult(result, STATUS_OK, 1, 0, 0, 0, 0);
+        // 乱序不回退表级时间戳，水位照常推进
+        assertEquals("2000", checkpoint(database, TABLE + ":es"));
+        assertEquals("101", checkpoint(database, "watermark"));
+    }
+
+    @Test
+    void pendingIdsAreAbsorbedWhenGapIsFilled() {
+        String database = "checkpoint_fill";
+        record(database, 100, 1000, NOW);
+        assertResult(record(database, 102, 1002, NOW), STATUS_OK, 0, 0, 0, 0, 0);
+        assertResult(record(database, 103, 1003, NOW + 1), STATUS_OK, 0, 0, 0, 0, 0);
+        assertEquals("100", checkpoint(database, "watermark"));
+        assertEquals(2L, pendingSize(database));
+
+        assertResult(record(database, 101, 1001, NOW + 2), STATUS_OK, 0, 0, 0, 0, 0);
+        assertEquals("103", checkpoint(database, "watermark"));
+        assertEquals("1003", checkpoint(database, "watermark_es"));
+        assertEquals(0L, pendingSize(database));
+        assertNull(checkpoint(database, "stalled_at"));
+    }
+
+    @Test
+    void gapIsDeclaredAfterTimeout() {
+        String database = "checkpoint_gap_timeout";
+        record(database, 100, 1000, NOW);
+        assertResult(record(database, 103, 1003, NOW), STATUS_OK, 0, 0, 0, 0, 0);
+        assertResult(record(database, 104, 1004, NOW + GAP_TIMEOUT - 1), STATUS_OK, 0, 0, 0, 0, 0);
+
+        assertResult(record(database, 105, 1005, NOW + GAP_TIMEOUT), STATUS_GAP, 0, 101, 102, 1000, 1003);
+        assertEquals("105", checkpoint(database, "watermark"));
+        assertEquals("1005", checkpoint(database, "watermark_es"));
+        assertEquals(0L, pendingSize(database));
+    }
+
+    @Test
+    void gapIsDeclaredWhenPendingOverflows() {
+        String database = "checkpoint_gap_overflow";
+        record(database, 100, 1000, NOW);
+        record(database, 102, 1002, NOW);
+        record(database, 104, 1004, NOW);
+        record(database, 105, 1005, NOW);
+        // 等待区超过上限，只跳过第一个断档，之后的缺口继续等待
+        assertResult(record(database, 107, 1007, NOW), STATUS_GAP, 0, 101, 101, 1000, 1002);
+        assertEquals("102", checkpoint(database, "watermark"));
+        assertEquals(3L, pendingSize(database));
+        assertEquals(String.valueOf(NOW), checkpoint(database, "stalled_at"));
+    }
+
+    @Test
+    void idRestartResetsWatermark() {
+        String database = "checkpoint_reset";
+        record(database, 5000, 1000, NOW);
+        record(database, 5002, 1002, NOW);
+        assertEquals(1L, pendingSize(database));
+
+        assertResult(record(database, 3000, 2000, NOW), STATUS_RESET, 0, 0, 0, 0, 0);
+        assertEquals("3000", checkpoint(database, "watermark"));
+        assertEquals("3000", checkpoint(database, "max_id"));
+        assertEquals(0L, pendingSize(database));
+
+        assertResult(record(database, 3001, 2001, NOW), STATUS_OK, 0, 0, 0, 0, 0);
+        assertEquals("3001", checkpoint(database, "watermark"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Long> record(String database, long id, long es, long now) {
+        DefaultRedisScript<List> redisScript = new DefaultRedisScript<>();
+        redisScript.setScriptSource(new ResourceScriptSource(new ClassPathResource("lua/canal_binlog_checkpoint.lua")));
+        redisScript.setResultType(List.class);
+        return (List<Long>) stringRedisTemplate().execute(redisScript,
+                List.of(String.format(CANAL_BINLOG_CHECKPOINT, database), String.format(CANAL_BINLOG_PENDING, database)),
+                String.valueOf(id),
+                String.valueOf(es),
+                TABLE,
+                String.valueOf(now),
+                String.valueOf(GAP_TIMEOUT),
+                String.valueOf(MAX_PENDING),
+                String.valueOf(RESET_THRESHOLD));
+    }
+
+    private String checkpoint(String database, String field) {
+        return (String) stringRedisTemplate().opsForHash().get(String.format(CANAL_BINLOG_CHECKPOINT, database), field);
+    }
+
+    private Long pendingSize(String database) {
+        return stringRedisTemplate().opsForZSet().zCard(String.format(CANAL_BINLOG_PENDING, database));
+    }
+
+    private StringRedisTemplate stringRedisTemplate() {
+        return (StringRedisTemplate) distributedCache.getInstance();
+    }
+
+    private static void assertResult(List<Long> result, long status, long reordered, long gapFrom, long gapTo, long fromEs, long toEs) {
+        assertEquals(List.of(status, reordered, gapFrom, gapTo, fromEs, toEs), result);
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.tests.idempotent;
+
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.TypeReference;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openzjl.index12306.biz.ticketservice.dto.domain.PurchaseTicketPassengerDetailDTO;
+import org.openzjl.index12306.biz.ticketservice.dto.req.PurchaseTicketReqDTO;
+import org.openzjl.index12306.biz.ticketservice.dto.resp.TicketPurchaseRespDTO;
+import org.openzjl.index12306.biz.ticketservice.mq.consumer.DelayCloseOrderConsumer;
+import org.openzjl.index12306.biz.ticketservice.mq.domain.MessageWrapper;
+import org.openzjl.index12306.biz.ticketservice.mq.event.DelayCloseOrderEvent;
+import org.openzjl.index12306.biz.ticketservice.service.TicketService;
+import org.openzjl.index12306.biz.ticketservice.service.handler.ticket.dto.TrainPurchaseTicketRespDTO;
+import org.openzjl.index12306.framework.starter.idempotent.core.RepeatConsumptionException;
+import org.openzjl.index12306.framework.starter.idempotent.core.spel.IdempotentMQConsumeStatusStore;
+import org.openzjl.index12306.framework.starter.idempotent.core.spel.IdempotentSpELByMQExecuteHandler;
+import org.openzjl.index12306.framework.starter.idempotent.enums.IdempotentMQConsumeStatusEnum;
+import org.openzjl.index12306.framework.starter.log.toolkit.BeanUtil;
+import org.openzjl.index12306.framework.starter.user.core.UserContext;
+import org.openzjl.index12306.framework.starter.user.core.UserInfoDTO;
+import org.openzjl.index12306.tests.loadsim.AbstractLoadSimulationTest;
+import org.openzjl.index12306.tests.loadsim.data.SyntheticDataGenerator;
+import org.openzjl.index12306.tests.loadsim.data.SyntheticTrainDTO;
+import org.openzjl.index12306.tests.loadsim.remote.InMemoryTicketOrderRemoteService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.lang.reflect.Method;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * 延迟关单消息重放幂等集成测试
+ * <p>
+ * 以 loadsim 环境在内嵌 Redis 和 H2 上启动购票服务，按死信重放的方式（重新反序列化消息体、清理失败令牌、调用消费者代理）
+ * 重放延迟关单消息，校验 {@link DelayCloseOrderConsumer} 上的 MQ 幂等生效：已消费的消息重放时跳过关单，
+ * 残留"消费中"令牌的消息先被拦截，清理令牌后重放才执行关单。
+ * </p>
+ *
+ * @author zhangjlk
+ * @date 2026/10/20 上午10:10
+ */
+class DelayCloseOrderReplayTest extends AbstractLoadSimulationTest {
+
+    /**
+     * 与 {@link DelayCloseOrderConsumer} 幂等注解一致
+     */
+    private static final String UNIQUE_KEY_PREFIX = "index12306-ticket:delay_close_order:";
+    private static final long RETENTION_SECONDS = 7200L;
+
+    @Autowired
+    private SyntheticDataGenerator syntheticDataGenerator;
+    @Autowired
+    private TicketService ticketService;
+    @Autowired
+    private DelayCloseOrderConsumer delayCloseOrderConsumer;
+    @Autowired
+    private IdempotentSpELByMQExecuteHandler idempotentSpELByMQExecuteHandler;
+    @Autowired
+    private IdempotentMQConsumeStatusStore idempotentMQConsumeStatusStore;
+    @SpyBean
+    private InMemoryTicketOrderRemoteService ticketOrderRemoteService;
+
+    @BeforeEach
+    void bindRequest() {
+        // 购票接口带有 @ILog，日志切面要求存在 Web 请求上下文
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+    }
+
+    @AfterEach
+    void removeUser() {
+        UserContext.removeUser();
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void consumedMessageReplayIsSkipped() throws Exception {
+        MessageWrapper<DelayCloseOrderEvent> message = purchaseAndBuildDelayCloseMessage(1, 2, "101");
+        delayCloseOrderConsumer.onMessage(message);
+        verify(ticketOrderRemoteService, times(1)).closeTickOrder(any());
+
+        MessageWrapper<DelayCloseOrderEvent> replayed = redeserialize(message);
+        // 已消费的令牌保留，死信控制台据此跳过重放
+        assertEquals(IdempotentMQConsumeStatusEnum.CONSUMED,
+                idempotentSpELByMQExecuteHandler.clearFailedConsumeStatus(consumeMethod(), new Object[]{replayed}));
+        // 绕过控制台直接重新投递，同样被幂等切面静默跳过
+        delayCloseOrderConsumer.onMessage(replayed);
+        verify(ticketOrderRemoteService, times(1)).closeTickOrder(any());
+    }
+
+    @Test
+    void staleConsumingStatusIsClearedBeforeReplay() throws Exception {
+        MessageWrapper<DelayCloseOrderEvent> message = purchaseAndBuildDelayCloseMessage(2, 1, "201");
+        // 模拟上一次消费进程宕机，"消费中"令牌残留
+        assertNull(idempotentMQConsumeStatusStore.setIfAbsentAndGet(
+                UNIQUE_KEY_PREFIX,
+                message.getKeys() + "_" + message.hashCode(),
+                IdempotentMQConsumeStatusEnum.CONSUMING.getCode(),
+                600L,
+                RETENTION_SECONDS));
+
+        MessageWrapper<DelayCloseOrderEvent> redelivered = redeserialize(message);
+        assertThrows(RepeatConsumptionException.class, () -> delayCloseOrderConsumer.onMessage(redelivered));
+        verify(ticketOrderRemoteService, never()).closeTickOrder(any());
+
+        MessageWrapper<DelayCloseOrderEvent> replayed = redeserialize(message);
+        assertEquals(IdempotentMQConsumeStatusEnum.CONSUMING,
+                idempotentSpELByMQExecuteHandler.clearFailedConsumeStatus(consumeMethod(), new Object[]{replayed}));
+        delayCloseOrderConsumer.onMessage(replayed);
+        verify(ticketOrderRemoteService, times(1)).closeTickOrder(any());
+
+        // 重放成功后再次重放被跳过
+        delayCloseOrderConsumer.onMessage(redeserialize(message));
+        verify(ticketOrderRemoteService, times(1)).closeTickOrder(any());
+    }
+
+    private MessageWrapper<DelayCloseOrderEvent> purchaseAndBuildDelayCloseMessage(int userIndex, Integer seatType, String passengerId) {
+        SyntheticTrainDTO train = syntheticDataGenerator.getTrains().get(0);
+        UserContext.setUser(UserInfoDTO.builder()
+                .userId(String.valueOf(userIndex))
+                .username("replay_user_" + userIndex)
+                .realName("重放用户" + userIndex)
+                .build());
+        PurchaseTicketPassengerDetailDTO passenger = new PurchaseTicketPassengerDetailDTO();
+        passenger.setPassengerId(passengerId);
+        passenger.setSeatType(seatType);
+        PurchaseTicketReqDTO requestParam = new PurchaseTicketReqDTO();
+        requestParam.setTrainId(String.valueOf(train.getTrainId()));
+        requestParam.setDeparture(train.getStations().get(0));
+        requestParam.setArrival(train.getStations().get(1));
+        requestParam.setPassengers(List.of(passenger));
+        TicketPurchaseRespDTO purchaseResult = ticketService.purchaseTicketsV2(requestParam);
+        UserContext.removeUser();
+        DelayCloseOrderEvent delayCloseOrderEvent = DelayCloseOrderEvent.builder()
+                .trainId(requestParam.getTrainId())
+                .departure(requestParam.getDeparture())
+                .arrival(requestParam.getArrival())
+                .orderSn(purchaseResult.getOrderSn())
+                .trainPurchaseTicketResults(BeanUtil.convert(purchaseResult.getTicketOrderDetails(), TrainPurchaseTicketRespDTO.class))
+                .build();
+        return new MessageWrapper<>(purchaseResult.getOrderSn(), delayCloseOrderEvent);
+    }
+
+    /**
+     * 与死信重放一致，每次投递重新反序列化消息体
+     */
+    private static MessageWrapper<DelayCloseOrderEvent> redeserialize(MessageWrapper<DelayCloseOrderEvent> message) {
+        return JSON.parseObject(JSON.toJSONString(message), new TypeReference<MessageWrapper<DelayCloseOrderEvent>>() {
+        });
+    }
+
+    private static Method consumeMethod() throws NoSuchMethodException {
+        return DelayCloseOrderConsumer.class.getMethod("onMessage", MessageWrapper.class);
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.tests.idempotent;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openzjl.index12306.biz.ticketservice.dto.domain.PurchaseTicketPassengerDetailDTO;
+import org.openzjl.index12306.biz.ticketservice.dto.req.PurchaseTicketReqDTO;
+import org.openzjl.index12306.biz.ticketservice.dto.resp.TicketPurchaseRespDTO;
+import org.openzjl.index12306.biz.ticketservice.service.TicketService;
+import org.openzjl.index12306.framework.starter.convention.exception.ClientException;
+import org.openzjl.index12306.framework.starter.idempotent.annotation.Idempotent;
+import org.openzjl.index12306.framework.starter.idempotent.enums.IdempotentSceneEnum;
+import org.openzjl.index12306.framework.starter.idempotent.enums.IdempotentTypeEnum;
+import org.openzjl.index12306.framework.starter.user.core.UserContext;
+import org.openzjl.index12306.framework.starter.user.core.UserInfoDTO;
+import org.openzjl.index12306.tests.loadsim.AbstractLoadSimulationTest;
+import org.openzjl.index12306.tests.loadsim.data.SyntheticDataGenerator;
+import org.openzjl.index12306.tests.loadsim.data.SyntheticTrainDTO;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.env.Environment;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * RestAPI 场景幂等锁集成测试
+ * <p>
+ * 幂等切面随幂等组件自动装配注册后，所有 {@link Idempotent} 注解都会生效。以 loadsim 环境在内嵌 Redis 和 H2 上启动购票服务，
+ * 覆盖其中 RestAPI 场景的 SpEL 锁：同一用户的购票锁被占用时购票请求直接拒绝，购票结束后锁被释放；
+ * 外层与内层方法声明同一把锁（乘车人 Controller 与 Service 的用法）时，内层结束后外层的锁仍能释放。
+ * MQ 场景的消费幂等由 {@link DelayCloseOrderReplayTest} 覆盖。
+ * </p>
+ *
+ * @author zhangjlk
+ * @date 2026/10/22 上午11:20
+ */
+@Import(RestApiIdempotentLockTest.NestedLockConfiguration.class)
+class RestApiIdempotentLockTest extends AbstractLoadSimulationTest {
+
+    /**
+     * 与购票接口幂等注解一致，后接 unique-name 与用户名
+     */
+    private static final String PURCHASE_LOCK_PREFIX = "index12306-ticket:lock_purchase-tickets:";
+
+    private static final String NESTED_LOCK_PREFIX = "index12306-test:lock_nested:";
+
+    @Autowired
+    private SyntheticDataGenerator syntheticDataGenerator;
+    @Autowired
+    private TicketService ticketService;
+    @Autowired
+    private RedissonClient redissonClient;
+    @Autowired
+    private Environment environment;
+    @Autowired
+    private OuterLockService outerLockService;
+
+    @BeforeEach
+    void bindRequest() {
+        // 购票接口带有 @ILog，日志切面要求存在 Web 请求上下文
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+    }
+
+    @AfterEach
+    void removeUser() {
+        UserContext.removeUser();
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void purchaseIsRejectedWhileUserLockIsHeld() throws Exception {
+        String username = "idempotent_user_1";
+        RLock lock = redissonClient.getLock(PURCHASE_LOCK_PREFIX + environment.getProperty("unique-name", "") + "_" + username);
+        // 模拟同一用户另一个进行中的下单请求，锁由其他线程持有
+        CompletableFuture.runAsync(lock::lock).get();
+        try {
+            ClientException ex = assertThrows(ClientException.class, () -> purchase(username, "101"));
+            assertEquals("正在执行下单流程，请稍后...", ex.getMessage());
+        } finally {
+            lock.forceUnlock();
+        }
+
+        assertNotNull(purchase(username, "101").getOrderSn());
+        assertFalse(lock.isLocked());
+    }
+
+    @Test
+    void nestedLockOnSameKeyIsReleased() {
+        outerLockService.alter("idempotent_user_2");
+        assertFalse(redissonClient.getLock(NESTED_LOCK_PREFIX + "idempotent_user_2").isLocked());
+    }
+
+    private TicketPurchaseRespDTO purchase(String username, String passengerId) {
+        SyntheticTrainDTO train = syntheticDataGenerator.getTrains().get(0);
+        PurchaseTicketPassengerDetailDTO passenger = new PurchaseTicketPassengerDetailDTO();
+        passenger.setPassengerId(passengerId);
+        passenger.setSeatType(2);
+        PurchaseTicketReqDTO requestParam = new PurchaseTicketReqDTO();
+        requestParam.setTrainId(String.valueOf(train.getTrainId()));
+        requestParam.setDeparture(train.getStations().get(0));
+        requestParam.setArrival(train.getStations().get(1));
+        requestParam.setPassengers(List.of(passenger));
+        UserContext.setUser(UserInfoDTO.builder()
+                .userId(username)
+                .username(username)
+                .realName(username)
+                .build());
+        try {
+            return ticketService.purchaseTicketsV2(requestParam);
+        } finally {
+            UserContext.removeUser();
+        }
+    }
+
+    @TestConfiguration
+    static class NestedLockConfiguration {
+
+        @Bean
+        InnerLockService innerLockService() {
+            return new InnerLockService();
+        }
+
+        @Bean
+        OuterLockService outerLockService(InnerLockService innerLockService) {
+            return new OuterLockService(innerLockService);
+        }
+    }
+
+    static class OuterLockService {
+
+        private final InnerLockService innerLockService;
+
+        OuterLockService(InnerLockService innerLockService) {
+            this.innerLockService = innerLockService;
+        }
+
+        @Idempotent(
+                uniqueKeyPrefix = NESTED_LOCK_PREFIX,
+                key = "#username",
+                type = IdempotentTypeEnum.SPEL,
+                scene = IdempotentSceneEnum.RESTAPI,
+                message = "外层处理中"
+        )
+        public void alter(String username) {
+            innerLockService.alter(username);
+        }
+    }
+
+    static class InnerLockService {
+
+        @Idempotent(
+                uniqueKeyPrefix = NESTED_LOCK_PREFIX,
+                key = "#username",
+                type = IdempotentTypeEnum.SPEL,
+                scene = IdempotentSceneEnum.RESTAPI,
+                message = "内层处理中"
+        )
+        public void alter(String username) {
+        }
+    }
+}
@@ -0,0 +1,21 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.tests.idempotent;
+
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * 延迟关单消息重放幂等集成测试 - 时间分片 Hash 存储
+ * <p>
+ * 与 {@link DelayCloseOrderReplayTest} 相同的用例，MQ 幂等消费状态改为写入时间分片 Hash，
+ * 校验经由真实消费者的幂等切面读写消费状态时两种存储行为一致。
+ * </p>
+ *
+ * @author zhangjlk
+ * @date 2026/10/20 上午10:40
+ */
+@TestPropertySource(properties = "framework.idempotent.mq.store=TIME_SLICED_HASH")
+class TimeSlicedHashDelayCloseOrderReplayTest extends DelayCloseOrderReplayTest {
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.tests.loadsim;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.openzjl.index12306.biz.ticketservice.TicketServiceApplication;
+import org.openzjl.index12306.tests.loadsim.config.LoadSimulationProperties;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.util.TestSocketUtils;
+import redis.embedded.RedisServer;
+
+/**
+ * loadsim 集成测试基类
+ * <p>
+ * 以 loadsim 环境在内嵌 Redis 和 H2 上启动购票服务，数据规模缩小到一趟三站、每种座位类型一节车厢，候补定时任务不自动触发。
+ * 每个测试类在随机空闲端口上启动自己的内嵌 Redis，测试类结束后关闭 Spring 上下文和 Redis，测试类之间互不影响。
+ * 子类通过 {@link org.springframework.test.context.TestPropertySource} 追加或覆盖配置，
+ * 通过 {@link ActiveProfiles} 追加环境，通过 {@link org.springframework.context.annotation.Import} 追加配置类。
+ * </p>
+ *
+ * @author zhangjlk
+ * @date 2026/10/23 上午10:10
+ */
+@ActiveProfiles("loadsim")
+@SpringBootTest(
+        classes = {TicketServiceApplication.class, LoadSimulatorApplication.class},
+        webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = {
+                "loadsim.train-count=1",
+                "loadsim.station-count=3",
+                "loadsim.business-carriage-count=1",
+                "loadsim.first-carriage-count=1",
+                "loadsim.second-carriage-count=1",
+                "ticket.waitlist.match-interval=1h",
+                "ticket.waitlist.scan-interval=1h"
+        }
+)
+@DirtiesContext
+public abstract class AbstractLoadSimulationTest {
+
+    private static RedisServer redisServer;
+    private static int redisPort;
+
+    @DynamicPropertySource
+    static void redisProperties(DynamicPropertyRegistry registry) {
+        // 上下文在 @BeforeAll 之后创建，读取到的是本测试类的 Redis 端口
+        registry.add(LoadSimulationProperties.PREFIX + ".redis-port", () -> redisPort);
+    }
+
+    @BeforeAll
+    static void startRedis() throws Exception {
+        redisPort = TestSocketUtils.findAvailableTcpPort();
+        redisServer = new RedisServer(redisPort);
+        redisServer.start();
+    }
+
+    @AfterAll
+    static void stopRedis() throws Exception {
+        if (redisServer != null) {
+            redisServer.stop();
+            redisServer = null;
+        }
+    }
+}
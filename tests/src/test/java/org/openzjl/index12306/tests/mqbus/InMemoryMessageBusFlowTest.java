@@ -0,0 +1,192 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.tests.mqbus;
+
+import cn.hutool.core.util.StrUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openzjl.index12306.biz.ticketservice.dto.domain.PurchaseTicketPassengerDetailDTO;
+import org.openzjl.index12306.biz.ticketservice.dto.req.PurchaseTicketReqDTO;
+import org.openzjl.index12306.biz.ticketservice.dto.resp.TicketOrderDetailRespDTO;
+import org.openzjl.index12306.biz.ticketservice.dto.resp.TicketPurchaseRespDTO;
+import org.openzjl.index12306.biz.ticketservice.service.TicketService;
+import org.openzjl.index12306.framework.starter.cache.DistributedCache;
+import org.openzjl.index12306.framework.starter.user.core.UserContext;
+import org.openzjl.index12306.framework.starter.user.core.UserInfoDTO;
+import org.openzjl.index12306.tests.loadsim.AbstractLoadSimulationTest;
+import org.openzjl.index12306.tests.loadsim.data.SyntheticDataGenerator;
+import org.openzjl.index12306.tests.loadsim.data.SyntheticTrainDTO;
+import org.openzjl.index12306.tests.loadsim.remote.InMemoryTicketOrderRemoteService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.openzjl.index12306.biz.ticketservice.common.constant.RedisKeyConstant.TRAIN_STATION_REMAINING_TICKET;
+import static org.openzjl.index12306.tests.loadsim.remote.InMemoryTicketOrderRemoteService.ORDER_ITEM_STATUS_CLOSED;
+import static org.openzjl.index12306.tests.loadsim.remote.InMemoryTicketOrderRemoteService.ORDER_ITEM_STATUS_PAID;
+
+/**
+ * 内存消息总线全链路集成测试
+ * <p>
+ * 以 loadsim 与 loadsim-mq 环境在内嵌 Redis 和 H2 上启动购票服务，余票缓存由座位表 Binlog 更新，覆盖两条链路：
+ * 购票 → 延迟关单 → 订单 Binlog 解锁座位 → 座位表 Binlog 回补余票缓存；
+ * 购票 → 支付 → 支付结果回调把锁定座位置为已售。
+ * 每一步等待总线空闲后同时校验座位表状态与区间余票缓存，缓存须与座位表可售数量一致。
+ * </p>
+ *
+ * @author zhangjlk
+ * @date 2026/10/21 上午10:20
+ */
+@ActiveProfiles("loadsim-mq")
+@TestPropertySource(properties = {
+        // 独立的 H2 库，座位表触发器不影响同一 JVM 内其他测试的上下文
+        "spring.datasource.url=jdbc:h2:mem:12306_ticket_mqbus;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        // 10 分钟的延迟关单 3 秒后投递
+        "mqbus.delay-time-scale=0.005"
+})
+class InMemoryMessageBusFlowTest extends AbstractLoadSimulationTest {
+
+    private static final int SEAT_STATUS_AVAILABLE = 0;
+    private static final int SEAT_STATUS_LOCKED = 1;
+    private static final int SEAT_STATUS_SOLD = 2;
+
+    @Autowired
+    private SyntheticDataGenerator syntheticDataGenerator;
+    @Autowired
+    private TicketService ticketService;
+    @Autowired
+    private InMemoryTicketOrderRemoteService ticketOrderRemoteService;
+    @Autowired
+    private InMemoryMessageBus messageBus;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private DistributedCache distributedCache;
+
+    @BeforeEach
+    void bindRequest() {
+        // 购票接口带有 @ILog，日志切面要求存在 Web 请求上下文
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+    }
+
+    @AfterEach
+    void removeUser() {
+        UserContext.removeUser();
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void delayCloseReleasesSeatAndRestoresCacheThroughBinlog() throws Exception {
+        SyntheticTrainDTO train = syntheticDataGenerator.getTrains().get(0);
+        int seatType = 2;
+        PurchaseTicketReqDTO requestParam = buildPurchaseRequest(train, seatType, "101");
+        int availableBefore = countAvailable(requestParam, seatType);
+
+        TicketPurchaseRespDTO purchaseResult = purchase(1, requestParam);
+        TicketOrderDetailRespDTO ticket = purchaseResult.getTicketOrderDetails().get(0);
+        // 购票后总线上仍有 3 秒后投递的延迟关单消息，先只等座位表 Binlog 落到缓存
+        awaitCache(requestParam, seatType, availableBefore - 1);
+        assertEquals(SEAT_STATUS_LOCKED, seatStatus(requestParam, ticket));
+        assertEquals(availableBefore - 1, countAvailable(requestParam, seatType));
+
+        assertTrue(messageBus.awaitIdle());
+        assertEquals(ORDER_ITEM_STATUS_CLOSED, orderStatus(purchaseResult.getOrderSn()));
+        assertEquals(SEAT_STATUS_AVAILABLE, seatStatus(requestParam, ticket));
+        assertEquals(availableBefore, countAvailable(requestParam, seatType));
+        assertEquals(String.valueOf(availableBefore), cachedRemaining(requestParam, seatType));
+    }
+
+    @Test
+    void payCallbackMarksSeatSoldAndKeepsCacheDeducted() throws Exception {
+        SyntheticTrainDTO train = syntheticDataGenerator.getTrains().get(0);
+        int seatType = 1;
+        PurchaseTicketReqDTO requestParam = buildPurchaseRequest(train, seatType, "201");
+        int availableBefore = countAvailable(requestParam, seatType);
+
+        TicketPurchaseRespDTO purchaseResult = purchase(2, requestParam);
+        TicketOrderDetailRespDTO ticket = purchaseResult.getTicketOrderDetails().get(0);
+        assertTrue(ticketOrderRemoteService.payOrder(purchaseResult.getOrderSn()));
+
+        // 等待支付回调与随后到期的延迟关单都消费完成，已支付订单不会被关闭
+        assertTrue(messageBus.awaitIdle());
+        assertEquals(ORDER_ITEM_STATUS_PAID, orderStatus(purchaseResult.getOrderSn()));
+        assertFalse(ticketOrderRemoteService.payOrder(purchaseResult.getOrderSn()));
+        assertEquals(SEAT_STATUS_SOLD, seatStatus(requestParam, ticket));
+        assertEquals(availableBefore - 1, countAvailable(requestParam, seatType));
+        assertEquals(String.valueOf(availableBefore - 1), cachedRemaining(requestParam, seatType));
+    }
+
+    private TicketPurchaseRespDTO purchase(int userIndex, PurchaseTicketReqDTO requestParam) {
+        UserContext.setUser(UserInfoDTO.builder()
+                .userId(String.valueOf(userIndex))
+                .username("mqbus_user_" + userIndex)
+                .realName("总线用户" + userIndex)
+                .build());
+        try {
+            return ticketService.purchaseTicketsV2(requestParam);
+        } finally {
+            UserContext.removeUser();
+        }
+    }
+
+    private static PurchaseTicketReqDTO buildPurchaseRequest(SyntheticTrainDTO train, Integer seatType, String passengerId) {
+        PurchaseTicketPassengerDetailDTO passenger = new PurchaseTicketPassengerDetailDTO();
+        passenger.setPassengerId(passengerId);
+        passenger.setSeatType(seatType);
+        PurchaseTicketReqDTO requestParam = new PurchaseTicketReqDTO();
+        requestParam.setTrainId(String.valueOf(train.getTrainId()));
+        requestParam.setDeparture(train.getStations().get(0));
+        requestParam.setArrival(train.getStations().get(1));
+        requestParam.setPassengers(List.of(passenger));
+        return requestParam;
+    }
+
+    /**
+     * 轮询等待区间余票缓存达到期望值，Binlog 异步到达，超时后以最后一次读取的值断言
+     */
+    private void awaitCache(PurchaseTicketReqDTO requestParam, int seatType, int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 2000L;
+        while (!String.valueOf(expected).equals(cachedRemaining(requestParam, seatType)) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20L);
+        }
+        assertEquals(String.valueOf(expected), cachedRemaining(requestParam, seatType));
+    }
+
+    private String cachedRemaining(PurchaseTicketReqDTO requestParam, int seatType) {
+        String keySuffix = StrUtil.join("_", requestParam.getTrainId(), requestParam.getDeparture(), requestParam.getArrival());
+        StringRedisTemplate stringRedisTemplate = (StringRedisTemplate) distributedCache.getInstance();
+        return (String) stringRedisTemplate.opsForHash().get(TRAIN_STATION_REMAINING_TICKET + keySuffix, String.valueOf(seatType));
+    }
+
+    private int countAvailable(PurchaseTicketReqDTO requestParam, int seatType) {
+        return jdbcTemplate.queryForObject(
+                "select count(*) from t_seat where train_id = ? and seat_type = ? and start_station = ? and end_station = ? and seat_status = ?",
+                Integer.class,
+                Long.parseLong(requestParam.getTrainId()), seatType, requestParam.getDeparture(), requestParam.getArrival(), SEAT_STATUS_AVAILABLE);
+    }
+
+    private int seatStatus(PurchaseTicketReqDTO requestParam, TicketOrderDetailRespDTO ticket) {
+        return jdbcTemplate.queryForObject(
+                "select seat_status from t_seat where train_id = ? and carriage_number = ? and seat_number = ? and start_station = ? and end_station = ?",
+                Integer.class,
+                Long.parseLong(requestParam.getTrainId()), ticket.getCarriageNumber(), ticket.getSeatNumber(),
+                requestParam.getDeparture(), requestParam.getArrival());
+    }
+
+    private int orderStatus(String orderSn) {
+        return ticketOrderRemoteService.queryTicketOrderByOrderSn(orderSn).getData().getPassengerDetails().get(0).getStatus();
+    }
+}
@@ -0,0 +1,238 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.tests.partition;
+
+import com.alibaba.fastjson2.JSON;
+import com.baomidou.mybatisplus.core.toolkit.Wrappers;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.openzjl.index12306.biz.ticketservice.common.enums.SeatStatusEnum;
+import org.openzjl.index12306.biz.ticketservice.common.enums.TicketStatusEnum;
+import org.openzjl.index12306.biz.ticketservice.dao.entity.SeatAllocationDO;
+import org.openzjl.index12306.biz.ticketservice.dao.entity.SeatDO;
+import org.openzjl.index12306.biz.ticketservice.dao.entity.TicketDO;
+import org.openzjl.index12306.biz.ticketservice.dao.mapper.SeatAllocationMapper;
+import org.openzjl.index12306.biz.ticketservice.dao.mapper.SeatMapper;
+import org.openzjl.index12306.biz.ticketservice.dao.mapper.TicketMapper;
+import org.openzjl.index12306.biz.ticketservice.dto.domain.PurchaseTicketPassengerDetailDTO;
+import org.openzjl.index12306.biz.ticketservice.dto.req.PurchaseTicketReqDTO;
+import org.openzjl.index12306.biz.ticketservice.service.handler.ticket.dto.TrainPurchaseTicketRespDTO;
+import org.openzjl.index12306.biz.ticketservice.service.handler.ticket.hold.SeatAllocationRecoverer;
+import org.openzjl.index12306.biz.ticketservice.service.handler.ticket.partition.PurchaseTicketGroupCommitter;
+import org.openzjl.index12306.biz.ticketservice.service.handler.ticket.partition.PurchaseTicketGroupRequest;
+import org.openzjl.index12306.biz.ticketservice.service.handler.ticket.tokenbucket.TicketAvailabilityTokenBucket;
+import org.openzjl.index12306.framework.starter.cache.DistributedCache;
+import org.openzjl.index12306.framework.starter.convention.exception.ServiceException;
+import org.openzjl.index12306.framework.starter.user.core.UserContext;
+import org.openzjl.index12306.framework.starter.user.core.UserInfoDTO;
+import org.openzjl.index12306.tests.loadsim.AbstractLoadSimulationTest;
+import org.openzjl.index12306.tests.loadsim.data.SyntheticDataGenerator;
+import org.openzjl.index12306.tests.loadsim.data.SyntheticTrainDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.openzjl.index12306.biz.ticketservice.common.constant.RedisKeyConstant.TICKET_AVAILABILITY_TOKEN_BUCKET;
+
+/**
+ * 购票合并提交器集成测试
+ * <p>
+ * 以 loadsim 环境在内嵌 Redis 和 H2 上启动购票服务，直接提交一组包含排队超时、选座失败与正常出票的请求，
+ * 校验只有创建了订单的请求消耗令牌，其余请求的令牌全部归还，且调用方再抢占令牌归属时不会重复归还；
+ * 另校验座位分配记录在订单创建或补偿后删除，残留的超时记录由恢复任务释放座位。
+ * </p>
+ *
+ * @author zhangjlk
+ * @date 2026/10/19 下午10:20
+ */
+class PurchaseTicketGroupCommitterTest extends AbstractLoadSimulationTest {
+
+    private static final int BUSINESS = 0;
+    private static final int FIRST = 1;
+    private static final int SECOND = 2;
+
+    @Autowired
+    private SyntheticDataGenerator syntheticDataGenerator;
+    @Autowired
+    private PurchaseTicketGroupCommitter purchaseTicketGroupCommitter;
+    @Autowired
+    private TicketAvailabilityTokenBucket ticketAvailabilityTokenBucket;
+    @Autowired
+    private SeatMapper seatMapper;
+    @Autowired
+    private DistributedCache distributedCache;
+    @Autowired
+    private SeatAllocationMapper seatAllocationMapper;
+    @Autowired
+    private SeatAllocationRecoverer seatAllocationRecoverer;
+    @Autowired
+    private TicketMapper ticketMapper;
+
+    @AfterEach
+    void removeUser() {
+        UserContext.removeUser();
+    }
+
+    @Test
+    void mixedGroupReturnsTokensOfRequestsWithoutOrders() throws Exception {
+        SyntheticTrainDTO train = syntheticDataGenerator.getTrains().get(0);
+        long future = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(30);
+
+        PurchaseTicketGroupRequest success = takeToken(train, 1, SECOND, "101", future);
+        PurchaseTicketGroupRequest selectionFailure = takeToken(train, 2, BUSINESS, "201", future);
+        PurchaseTicketGroupRequest expired = takeToken(train, 3, FIRST, "301", System.currentTimeMillis() - 1L);
+        long business = tokenCount(train, BUSINESS);
+        long first = tokenCount(train, FIRST);
+        long second = tokenCount(train, SECOND);
+
+        // 商务座在数据库中全部锁定而令牌桶不变，模拟令牌仍有余量但选座时已无座位
+        seatMapper.update(
+                SeatDO.builder().seatStatus(SeatStatusEnum.LOCKED.getCode()).build(),
+                Wrappers.lambdaUpdate(SeatDO.class)
+                        .eq(SeatDO::getTrainId, train.getTrainId())
+                        .eq(SeatDO::getSeatType, String.valueOf(BUSINESS))
+        );
+        try {
+            purchaseTicketGroupCommitter.commit(List.of(expired, selectionFailure, success));
+        } finally {
+            seatMapper.update(
+                    SeatDO.builder().seatStatus(SeatStatusEnum.AVAILABLE.getCode()).build(),
+                    Wrappers.lambdaUpdate(SeatDO.class)
+                            .eq(SeatDO::getTrainId, train.getTrainId())
+                            .eq(SeatDO::getSeatType, String.valueOf(BUSINESS))
+            );
+        }
+
+        assertNotNull(success.getFuture().get().getOrderSn());
+        assertInstanceOf(ServiceException.class, assertThrows(ExecutionException.class, selectionFailure.getFuture()::get).getCause());
+        assertInstanceOf(ServiceException.class, assertThrows(ExecutionException.class, expired.getFuture()::get).getCause());
+
+        // 出票的请求消耗令牌，排队超时与选座失败的请求各归还一次
+        assertEquals(second, tokenCount(train, SECOND));
+        assertEquals(business + 1, tokenCount(train, BUSINESS));
+        assertEquals(first + 1, tokenCount(train, FIRST));
+
+        // 工作线程已抢占令牌归属，提交线程随后失败时不会再次归还
+        assertFalse(success.settleToken());
+        assertFalse(selectionFailure.settleToken());
+        assertFalse(expired.settleToken());
+
+        // 出票请求的分配记录在订单创建后删除，失败请求的分配记录由补偿认领删除
+        assertEquals(0L, seatAllocationMapper.selectCount(null));
+    }
+
+    @Test
+    void callerSettledRequestIsNotRefundedAgain() throws Exception {
+        SyntheticTrainDTO train = syntheticDataGenerator.getTrains().get(0);
+        PurchaseTicketGroupRequest timedOut = takeToken(train, 4, SECOND, "401", System.currentTimeMillis() - 1L);
+        // 提交线程排队超时后抢占令牌归属并归还
+        assertTrue(timedOut.settleToken());
+        ticketAvailabilityTokenBucket.rollbackInBucket(timedOut.getRequestParam());
+        long second = tokenCount(train, SECOND);
+
+        purchaseTicketGroupCommitter.commit(List.of(timedOut));
+
+        assertInstanceOf(ServiceException.class, assertThrows(ExecutionException.class, timedOut.getFuture()::get).getCause());
+        assertEquals(second, tokenCount(train, SECOND));
+    }
+
+    @Test
+    void staleAllocationIsReleasedByRecoverer() {
+        SyntheticTrainDTO train = syntheticDataGenerator.getTrains().get(0);
+        String departure = train.getStations().get(0);
+        String arrival = train.getStations().get(1);
+        SeatDO seat = seatMapper.selectList(Wrappers.lambdaQuery(SeatDO.class)
+                .eq(SeatDO::getTrainId, train.getTrainId())
+                .eq(SeatDO::getSeatType, String.valueOf(SECOND))
+                .eq(SeatDO::getStartStation, departure)
+                .eq(SeatDO::getEndStation, arrival)
+                .eq(SeatDO::getSeatStatus, SeatStatusEnum.AVAILABLE.getCode())
+                .orderByDesc(SeatDO::getId)
+                .last("limit 1")).get(0);
+        long second = tokenCount(train, SECOND);
+
+        // 模拟座位锁定、车票与分配记录已提交，进程在创建订单前宕机
+        seatMapper.update(
+                SeatDO.builder().seatStatus(SeatStatusEnum.LOCKED.getCode()).build(),
+                Wrappers.lambdaUpdate(SeatDO.class).eq(SeatDO::getId, seat.getId())
+        );
+        TicketDO ticket = TicketDO.builder()
+                .username("group_commit_user_5")
+                .trainId(train.getTrainId())
+                .carriageNumber(seat.getCarriageNumber())
+                .seatNumber(seat.getSeatNumber())
+                .passengerId("501")
+                .ticketStatus(TicketStatusEnum.UNPAID.getCode())
+                .build();
+        ticketMapper.insert(ticket);
+        TrainPurchaseTicketRespDTO seatDetail = new TrainPurchaseTicketRespDTO();
+        seatDetail.setPassengerId("501");
+        seatDetail.setSeatType(SECOND);
+        seatDetail.setCarriageNumber(seat.getCarriageNumber());
+        seatDetail.setSeatNumber(seat.getSeatNumber());
+        SeatAllocationDO allocation = SeatAllocationDO.builder()
+                .username("group_commit_user_5")
+                .trainId(train.getTrainId())
+                .departure(departure)
+                .arrival(arrival)
+                .ticketIds(JSON.toJSONString(List.of(ticket.getId())))
+                .seatDetails(JSON.toJSONString(List.of(seatDetail)))
+                .build();
+        allocation.setCreateTime(new Date(System.currentTimeMillis() - TimeUnit.HOURS.toMillis(1)));
+        seatAllocationMapper.insert(allocation);
+
+        assertEquals(1, seatAllocationRecoverer.recover());
+
+        assertEquals(SeatStatusEnum.AVAILABLE.getCode(), seatMapper.selectById(seat.getId()).getSeatStatus());
+        assertNull(ticketMapper.selectById(ticket.getId()));
+        assertNull(seatAllocationMapper.selectById(allocation.getId()));
+        assertEquals(second + 1, tokenCount(train, SECOND));
+        // 记录已被认领删除，再次恢复不会重复释放
+        assertEquals(0, seatAllocationRecoverer.recover());
+    }
+
+    /**
+     * 以指定用户身份获取令牌并构造排队请求
+     */
+    private PurchaseTicketGroupRequest takeToken(SyntheticTrainDTO train, int userIndex, int seatType, String passengerId, long deadline) {
+        UserContext.setUser(UserInfoDTO.builder()
+                .userId(String.valueOf(userIndex))
+                .username("group_commit_user_" + userIndex)
+                .realName("合并提交用户" + userIndex)
+                .build());
+        PurchaseTicketPassengerDetailDTO passenger = new PurchaseTicketPassengerDetailDTO();
+        passenger.setPassengerId(passengerId);
+        passenger.setSeatType(seatType);
+        PurchaseTicketReqDTO requestParam = new PurchaseTicketReqDTO();
+        requestParam.setTrainId(String.valueOf(train.getTrainId()));
+        requestParam.setDeparture(train.getStations().get(0));
+        requestParam.setArrival(train.getStations().get(1));
+        requestParam.setPassengers(List.of(passenger));
+        assertFalse(ticketAvailabilityTokenBucket.takeTokenFromBucket(requestParam).getTokenIsNull());
+        PurchaseTicketGroupRequest request = new PurchaseTicketGroupRequest(requestParam, List.of(), deadline);
+        UserContext.removeUser();
+        return request;
+    }
+
+    private long tokenCount(SyntheticTrainDTO train, int seatType) {
+        StringRedisTemplate stringRedisTemplate = (StringRedisTemplate) distributedCache.getInstance();
+        Object value = stringRedisTemplate.opsForHash().get(
+                TICKET_AVAILABILITY_TOKEN_BUCKET + train.getTrainId(),
+                String.join("_", train.getStations().get(0), train.getStations().get(1), String.valueOf(seatType))
+        );
+        return Long.parseLong(String.valueOf(value));
+    }
+}
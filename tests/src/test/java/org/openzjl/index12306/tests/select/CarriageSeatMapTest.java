@@ -0,0 +1,187 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.tests.select;
+
+import cn.hutool.core.lang.Pair;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.openzjl.index12306.biz.ticketservice.common.enums.CarriageSeatLayoutEnum;
+import org.openzjl.index12306.biz.ticketservice.service.handler.ticket.select.CarriageSeatMap;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 车厢座位图单元测试
+ * <p>
+ * 覆盖商务座、一等座、二等座三种布局下的邻座、非邻座查找、可售座位列表与二维座位表转换，
+ * 以及同排被已售座位隔开、整节车厢售罄 / 全部可售等边界情况。
+ * </p>
+ *
+ * @author zhangjlk
+ * @date 2026/10/19 下午7:10
+ */
+class CarriageSeatMapTest {
+
+    @ParameterizedTest
+    @EnumSource(CarriageSeatLayoutEnum.class)
+    void adjacentPicksFirstRowFromLeftWhenCarriageIsEmpty(CarriageSeatLayoutEnum layout) {
+        CarriageSeatMap carriageSeatMap = CarriageSeatMap.decode(layout, allSeats(layout));
+        for (int numSeats = 1; numSeats <= layout.getColumns(); numSeats++) {
+            int[][] actualSeat = carriageSeatMap.adjacent(numSeats);
+            assertEquals(numSeats, actualSeat.length);
+            for (int k = 0; k < numSeats; k++) {
+                assertArrayEquals(new int[]{1, k + 1}, actualSeat[k]);
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(CarriageSeatLayoutEnum.class)
+    void adjacentRejectsSizesOutsideOneRow(CarriageSeatLayoutEnum layout) {
+        CarriageSeatMap carriageSeatMap = CarriageSeatMap.decode(layout, allSeats(layout));
+        assertNull(carriageSeatMap.adjacent(0));
+        assertNull(carriageSeatMap.adjacent(layout.getColumns() + 1));
+    }
+
+    @ParameterizedTest
+    @EnumSource(CarriageSeatLayoutEnum.class)
+    void adjacentSkipsRowSplitBySoldSeat(CarriageSeatLayoutEnum layout) {
+        // 第一排中间座位已售，整排无法连坐，应落到第二排
+        List<String> availableSeats = allSeats(layout);
+        availableSeats.remove(layout.seatNumber(0, 1));
+        CarriageSeatMap carriageSeatMap = CarriageSeatMap.decode(layout, availableSeats);
+        int[][] actualSeat = carriageSeatMap.adjacent(layout.getColumns());
+        for (int k = 0; k < layout.getColumns(); k++) {
+            assertArrayEquals(new int[]{2, k + 1}, actualSeat[k]);
+        }
+        // 已售座位两侧剩余的连续座位仍可在第一排选中
+        int[][] partSelect = carriageSeatMap.adjacent(layout.getColumns() - 2);
+        for (int[] seat : partSelect) {
+            assertEquals(1, seat[0]);
+            assertTrue(seat[1] != 2);
+        }
+    }
+
+    @Test
+    void decodeIgnoresAisleAndOutOfRangeSeatNumbers() {
+        // 二等座没有 E 列，一等座没有 B、E 列，商务座只有 2 排
+        CarriageSeatMap second = CarriageSeatMap.decode(CarriageSeatLayoutEnum.TRAIN_SECOND, List.of("01E", "01A", "19A", "0A", "A", "1xA"));
+        assertEquals(1, second.availableCount());
+        CarriageSeatMap first = CarriageSeatMap.decode(CarriageSeatLayoutEnum.TRAIN_FIRST, List.of("01B", "01E", "01C", "01D"));
+        assertEquals(2, first.availableCount());
+        assertArrayEquals(new int[]{1, 2}, first.adjacent(2)[0]);
+        CarriageSeatMap business = CarriageSeatMap.decode(CarriageSeatLayoutEnum.TRAIN_BUSINESS, List.of("03A", "02F", "02D"));
+        assertEquals(1, business.availableCount());
+        assertTrue(business.isAvailable(1, 2));
+    }
+
+    @ParameterizedTest
+    @EnumSource(CarriageSeatLayoutEnum.class)
+    void nonAdjacentWalksRowsInOrderAndCapsAtAvailable(CarriageSeatLayoutEnum layout) {
+        // 只保留每排第一个和最后一个座位
+        List<String> availableSeats = new ArrayList<>();
+        for (int row = 0; row < layout.getRows(); row++) {
+            availableSeats.add(layout.seatNumber(row, 0));
+            availableSeats.add(layout.seatNumber(row, layout.getColumns() - 1));
+        }
+        CarriageSeatMap carriageSeatMap = CarriageSeatMap.decode(layout, availableSeats);
+        assertNull(carriageSeatMap.adjacent(2));
+        int[][] actualSeat = carriageSeatMap.nonAdjacent(3);
+        assertArrayEquals(new int[]{1, 1}, actualSeat[0]);
+        assertArrayEquals(new int[]{1, layout.getColumns()}, actualSeat[1]);
+        assertArrayEquals(new int[]{2, 1}, actualSeat[2]);
+        assertEquals(availableSeats.size(), carriageSeatMap.nonAdjacent(availableSeats.size() + 5).length);
+        assertEquals(0, carriageSeatMap.nonAdjacent(0).length);
+    }
+
+    @ParameterizedTest
+    @EnumSource(CarriageSeatLayoutEnum.class)
+    void vacantSeatListIsZeroBasedAndOrdered(CarriageSeatLayoutEnum layout) {
+        int lastRow = layout.getRows() - 1;
+        int lastColumn = layout.getColumns() - 1;
+        CarriageSeatMap carriageSeatMap = CarriageSeatMap.decode(layout, List.of(layout.seatNumber(lastRow, lastColumn), layout.seatNumber(0, 1)));
+        List<Pair<Integer, Integer>> vacantSeatList = carriageSeatMap.vacantSeatList();
+        assertEquals(2, vacantSeatList.size());
+        assertEquals(new Pair<>(0, 1), vacantSeatList.get(0));
+        assertEquals(new Pair<>(lastRow, lastColumn), vacantSeatList.get(1));
+    }
+
+    @ParameterizedTest
+    @EnumSource(CarriageSeatLayoutEnum.class)
+    void toSeatLayoutMarksAvailableAsZero(CarriageSeatLayoutEnum layout) {
+        CarriageSeatMap carriageSeatMap = CarriageSeatMap.decode(layout, List.of(layout.seatNumber(0, 0)));
+        int[][] seatLayout = carriageSeatMap.toSeatLayout();
+        assertEquals(layout.getRows(), seatLayout.length);
+        for (int row = 0; row < layout.getRows(); row++) {
+            assertEquals(layout.getColumns(), seatLayout[row].length);
+            for (int column = 0; column < layout.getColumns(); column++) {
+                assertEquals(row == 0 && column == 0 ? 0 : 1, seatLayout[row][column]);
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(CarriageSeatLayoutEnum.class)
+    void fullySoldCarriageHasNoSeats(CarriageSeatLayoutEnum layout) {
+        CarriageSeatMap carriageSeatMap = CarriageSeatMap.decode(layout, List.of());
+        assertEquals(0, carriageSeatMap.availableCount());
+        assertNull(carriageSeatMap.adjacent(1));
+        assertEquals(0, carriageSeatMap.nonAdjacent(1).length);
+        assertTrue(carriageSeatMap.vacantSeatList().isEmpty());
+        for (int[] row : carriageSeatMap.toSeatLayout()) {
+            for (int seat : row) {
+                assertEquals(1, seat);
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(CarriageSeatLayoutEnum.class)
+    void fullyAvailableCarriageCanBeOccupiedRowByRow(CarriageSeatLayoutEnum layout) {
+        CarriageSeatMap carriageSeatMap = CarriageSeatMap.decode(layout, allSeats(layout));
+        assertEquals(layout.getCapacity(), carriageSeatMap.availableCount());
+        assertEquals(layout.getCapacity(), carriageSeatMap.vacantSeatList().size());
+        CarriageSeatMap transcript = carriageSeatMap.copy();
+        for (int row = 1; row <= layout.getRows(); row++) {
+            int[][] actualSeat = transcript.adjacent(layout.getColumns());
+            assertEquals(row, actualSeat[0][0]);
+            transcript.occupy(actualSeat);
+        }
+        assertEquals(0, transcript.availableCount());
+        assertNull(transcript.adjacent(1));
+        // 副本占座不影响原座位图
+        assertEquals(layout.getCapacity(), carriageSeatMap.availableCount());
+    }
+
+    @ParameterizedTest
+    @EnumSource(CarriageSeatLayoutEnum.class)
+    void occupyBySeatNumberKeepsLaterSelectionsApart(CarriageSeatLayoutEnum layout) {
+        // 合并提交时前序请求选中的座位按座位号占用，后续请求从下一排开始选
+        CarriageSeatMap carriageSeatMap = CarriageSeatMap.decode(layout, allSeats(layout));
+        for (int[] seat : carriageSeatMap.adjacent(layout.getColumns())) {
+            carriageSeatMap.occupy(layout.seatNumber(seat[0] - 1, seat[1] - 1));
+        }
+        carriageSeatMap.occupy("xx");
+        assertEquals(layout.getCapacity() - layout.getColumns(), carriageSeatMap.availableCount());
+        assertEquals(2, carriageSeatMap.adjacent(2)[0][0]);
+    }
+
+    private static List<String> allSeats(CarriageSeatLayoutEnum layout) {
+        List<String> seats = new ArrayList<>(layout.getCapacity());
+        for (int row = 0; row < layout.getRows(); row++) {
+            for (int column = 0; column < layout.getColumns(); column++) {
+                seats.add(layout.seatNumber(row, column));
+            }
+        }
+        return seats;
+    }
+}
@@ -0,0 +1,217 @@
+/*
+ * Copyright (c) 2025-2026 zhangjlk
+ * All rights reserved.
+ */
+package org.openzjl.index12306.tests.waitlist;
+
+import com.alibaba.fastjson2.JSON;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openzjl.index12306.biz.ticketservice.common.enums.WaitlistStatusEnum;
+import org.openzjl.index12306.biz.ticketservice.dao.entity.WaitlistOrderDO;
+import org.openzjl.index12306.biz.ticketservice.dao.mapper.WaitlistOrderMapper;
+import org.openzjl.index12306.biz.ticketservice.dto.domain.PurchaseTicketPassengerDetailDTO;
+import org.openzjl.index12306.biz.ticketservice.dto.req.PurchaseTicketReqDTO;
+import org.openzjl.index12306.biz.ticketservice.dto.resp.WaitlistRespDTO;
+import org.openzjl.index12306.biz.ticketservice.service.TicketService;
+import org.openzjl.index12306.biz.ticketservice.service.WaitlistService;
+import org.openzjl.index12306.biz.ticketservice.service.handler.ticket.soldout.TicketSoldOutRegistry;
+import org.openzjl.index12306.biz.ticketservice.service.handler.ticket.waitlist.WaitlistMatcher;
+import org.openzjl.index12306.biz.ticketservice.service.handler.ticket.waitlist.WaitlistSignal;
+import org.openzjl.index12306.framework.starter.user.core.UserContext;
+import org.openzjl.index12306.framework.starter.user.core.UserInfoDTO;
+import org.openzjl.index12306.tests.loadsim.AbstractLoadSimulationTest;
+import org.openzjl.index12306.tests.loadsim.data.SyntheticDataGenerator;
+import org.openzjl.index12306.tests.loadsim.data.SyntheticTrainDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 候补匹配集成测试
+ * <p>
+ * 以 loadsim 环境在内嵌 Redis 和 H2 上启动购票服务，覆盖候补提交 -> 回补信号 -> 兑现下单、截止时间过期，
+ * 兑现时余票不足不计入尝试次数，以及兑现中超时的候补按订单号恢复。匹配任务的调度间隔调大，
+ * 测试中直接调用 {@link WaitlistMatcher#match(Long)} 与 {@link WaitlistMatcher#recoverStaleMatching()}。
+ * </p>
+ *
+ * @author zhangjlk
+ * @date 2026/10/19 下午8:30
+ */
+@TestPropertySource(properties = "ticket.waitlist.matching-timeout=0s")
+class WaitlistMatcherTest extends AbstractLoadSimulationTest {
+
+    @Autowired
+    private SyntheticDataGenerator syntheticDataGenerator;
+    @Autowired
+    private TicketService ticketService;
+    @Autowired
+    private WaitlistService waitlistService;
+    @Autowired
+    private WaitlistSignal waitlistSignal;
+    @Autowired
+    private WaitlistMatcher waitlistMatcher;
+    @Autowired
+    private WaitlistOrderMapper waitlistOrderMapper;
+    @Autowired
+    private TicketSoldOutRegistry ticketSoldOutRegistry;
+
+    @BeforeEach
+    void bindRequest() {
+        // 购票接口带有 @ILog，日志切面要求存在 Web 请求上下文
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+    }
+
+    @AfterEach
+    void removeUser() {
+        UserContext.removeUser();
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void waitlistIsFulfilledAfterSignal() {
+        SyntheticTrainDTO train = syntheticDataGenerator.getTrains().get(0);
+        // 先正常购票一次，加载令牌桶
+        loginAs(1);
+        assertNotNull(ticketService.purchaseTicketsV2(purchaseRequest(train, 2, "101")).getOrderSn());
+
+        loginAs(2);
+        WaitlistRespDTO waitlist = waitlistService.createWaitlist(purchaseRequest(train, 2, "201"));
+        assertEquals(WaitlistStatusEnum.WAITING.getCode(), waitlist.getStatus());
+        assertEquals(1L, waitlist.getPosition());
+        UserContext.removeUser();
+
+        assertTrue(waitlistSignal.drain().contains(train.getTrainId()));
+        assertEquals(1, waitlistMatcher.match(train.getTrainId()));
+
+        WaitlistOrderDO fulfilled = waitlistOrderMapper.selectById(Long.parseLong(waitlist.getId()));
+        assertEquals(WaitlistStatusEnum.FULFILLED.getCode(), fulfilled.getStatus());
+        assertNotNull(fulfilled.getOrderSn());
+        assertEquals(1, fulfilled.getAttempts());
+    }
+
+    @Test
+    void waitlistPastDeadlineExpires() {
+        SyntheticTrainDTO train = syntheticDataGenerator.getTrains().get(0);
+        loginAs(3);
+        ticketService.purchaseTicketsV2(purchaseRequest(train, 1, "301"));
+        UserContext.removeUser();
+
+        WaitlistOrderDO waitlistOrderDO = waitlistOrder(train, 4, 1, "401");
+        waitlistOrderDO.setDeadline(new Date(System.currentTimeMillis() - 1000L));
+        waitlistOrderMapper.insert(waitlistOrderDO);
+
+        waitlistMatcher.match(train.getTrainId());
+
+        WaitlistOrderDO expired = waitlistOrderMapper.selectById(waitlistOrderDO.getId());
+        assertEquals(WaitlistStatusEnum.EXPIRED.getCode(), expired.getStatus());
+        assertEquals(0, expired.getAttempts());
+    }
+
+    @Test
+    void stockShortageDoesNotCountAsAttempt() {
+        SyntheticTrainDTO train = syntheticDataGenerator.getTrains().get(0);
+        loginAs(5);
+        ticketService.purchaseTicketsV2(purchaseRequest(train, 0, "501"));
+        UserContext.removeUser();
+
+        WaitlistOrderDO waitlistOrderDO = waitlistOrder(train, 6, 0, "601");
+        waitlistOrderMapper.insert(waitlistOrderDO);
+        // 令牌桶仍有余量，但下单时责任链命中售罄标记，模拟余票在匹配与下单之间被抢走
+        ticketSoldOutRegistry.markSoldOut(String.valueOf(train.getTrainId()), firstStation(train), arrivalStation(train), List.of(0));
+        try {
+            assertEquals(0, waitlistMatcher.match(train.getTrainId()));
+        } finally {
+            ticketSoldOutRegistry.clearSoldOut(String.valueOf(train.getTrainId()), List.of(0));
+        }
+
+        WaitlistOrderDO waiting = waitlistOrderMapper.selectById(waitlistOrderDO.getId());
+        assertEquals(WaitlistStatusEnum.WAITING.getCode(), waiting.getStatus());
+        assertEquals(0, waiting.getAttempts());
+
+        // 售罄标记清除后同一候补照常兑现
+        assertEquals(1, waitlistMatcher.match(train.getTrainId()));
+        assertEquals(WaitlistStatusEnum.FULFILLED.getCode(), waitlistOrderMapper.selectById(waitlistOrderDO.getId()).getStatus());
+    }
+
+    @Test
+    void staleMatchingWithCreatedOrderIsNotRequeued() throws InterruptedException {
+        SyntheticTrainDTO train = syntheticDataGenerator.getTrains().get(0);
+        // 模拟兑现时订单已创建、登记订单号后实例宕机
+        loginAs(7);
+        String orderSn = ticketService.purchaseTicketsV2(purchaseRequest(train, 2, "701")).getOrderSn();
+        UserContext.removeUser();
+        WaitlistOrderDO withOrder = waitlistOrder(train, 7, 2, "701");
+        withOrder.setStatus(WaitlistStatusEnum.MATCHING.getCode());
+        withOrder.setOrderSn(orderSn);
+        waitlistOrderMapper.insert(withOrder);
+        // 模拟订单创建前实例宕机
+        WaitlistOrderDO withoutOrder = waitlistOrder(train, 8, 2, "801");
+        withoutOrder.setStatus(WaitlistStatusEnum.MATCHING.getCode());
+        waitlistOrderMapper.insert(withoutOrder);
+        Thread.sleep(10L);
+
+        assertEquals(2, waitlistMatcher.recoverStaleMatching());
+
+        WaitlistOrderDO fulfilled = waitlistOrderMapper.selectById(withOrder.getId());
+        assertEquals(WaitlistStatusEnum.FULFILLED.getCode(), fulfilled.getStatus());
+        assertEquals(orderSn, fulfilled.getOrderSn());
+        assertEquals(WaitlistStatusEnum.WAITING.getCode(), waitlistOrderMapper.selectById(withoutOrder.getId()).getStatus());
+    }
+
+    private static void loginAs(int userIndex) {
+        UserContext.setUser(UserInfoDTO.builder()
+                .userId(String.valueOf(userIndex))
+                .username("waitlist_user_" + userIndex)
+                .realName("候补用户" + userIndex)
+                .build());
+    }
+
+    private static PurchaseTicketReqDTO purchaseRequest(SyntheticTrainDTO train, Integer seatType, String passengerId) {
+        PurchaseTicketPassengerDetailDTO passenger = new PurchaseTicketPassengerDetailDTO();
+        passenger.setPassengerId(passengerId);
+        passenger.setSeatType(seatType);
+        PurchaseTicketReqDTO requestParam = new PurchaseTicketReqDTO();
+        requestParam.setTrainId(String.valueOf(train.getTrainId()));
+        requestParam.setDeparture(firstStation(train));
+        requestParam.setArrival(arrivalStation(train));
+        requestParam.setPassengers(List.of(passenger));
+        return requestParam;
+    }
+
+    private static WaitlistOrderDO waitlistOrder(SyntheticTrainDTO train, int userIndex, Integer seatType, String passengerId) {
+        return WaitlistOrderDO.builder()
+                .userId(String.valueOf(userIndex))
+                .username("waitlist_user_" + userIndex)
+                .realName("候补用户" + userIndex)
+                .trainId(train.getTrainId())
+                .ridingDate(new Date())
+                .departure(firstStation(train))
+                .arrival(arrivalStation(train))
+                .seatType(seatType)
+                .passengerCount(1)
+                .purchaseRequest(JSON.toJSONString(purchaseRequest(train, seatType, passengerId)))
+                .status(WaitlistStatusEnum.WAITING.getCode())
+                .attempts(0)
+                .deadline(new Date(System.currentTimeMillis() + 3600_000L))
+                .build();
+    }
+
+    private static String firstStation(SyntheticTrainDTO train) {
+        return train.getStations().get(0);
+    }
+
+    private static String arrivalStation(SyntheticTrainDTO train) {
+        return train.getStations().get(1);
+    }
+}